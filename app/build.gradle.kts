@@ -15,6 +15,20 @@ android {
         versionName = "1.0"
 
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+
+        // Point at the local Firebase emulator suite with -PfirebaseEmulatorHost=10.0.2.2
+        val emulatorHost = (project.findProperty("firebaseEmulatorHost") as String?) ?: ""
+        buildConfigField("String", "FIREBASE_EMULATOR_HOST", "\"$emulatorHost\"")
+    }
+
+    buildFeatures {
+        buildConfig = true
+    }
+
+    // content.pack and dictionary.dawg are memory-mapped at runtime, which only works for uncompressed assets;
+    // stories are read sentence by sentence at file offsets
+    androidResources {
+        noCompress += listOf("pack", "dawg", "txt")
     }
 
     buildTypes {
@@ -30,6 +44,9 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        unitTests.isReturnDefaultValues = true
+    }
 }
 
 dependencies {
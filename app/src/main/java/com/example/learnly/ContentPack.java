@@ -0,0 +1,196 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.util.Log;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only word content (words, clues, emoji) for the games, memory-mapped from assets/content.pack.
+ *
+ * Nothing is decoded up front: entries are fixed-size records in the mapped file, grouped by
+ * (game, tier, word length) through a small index, and their strings live once each in an interned
+ * string table. Only the strings of the entry being shown are ever turned into Java Strings, so the
+ * pack can hold tens of thousands of words without touching the heap or class-load time.
+ *
+ * Layout (big-endian), format version 1:
+ * <pre>
+ * header   magic "LCPK" | format version | content version | index count | index offset
+ *          | entry count | entries offset | strings offset | strings length
+ * index    game (u8) | tier (u8) | word length (u8) | reserved (u8) | first entry | entry count
+ * entries  word ref | clue ref | emoji ref       (byte offsets into the string table, -1 = none)
+ * strings  byte length (u16) | UTF-8 bytes
+ * </pre>
+ * The asset must be stored uncompressed (see noCompress in app/build.gradle.kts) to be mapped.
+ */
+public class ContentPack {
+
+    private static final String TAG = "ContentPack";
+    static final String ASSET_NAME = "content.pack";
+
+    static final int MAGIC = 0x4C43504B; // "LCPK"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 36;
+    static final int INDEX_RECORD_SIZE = 12;
+    static final int ENTRY_SIZE = 12;
+
+    public static final int GAME_SPELLING = 0;
+    public static final int GAME_READING = 1;
+
+    // Pass as the length to look up every word in a tier
+    public static final int ANY_LENGTH = 0;
+
+    private static ContentPack instance;
+
+    private final ByteBuffer buffer;
+    private final int contentVersion;
+    private final int indexCount;
+    private final int indexOffset;
+    private final int entryCount;
+    private final int entriesOffset;
+    private final int stringsOffset;
+    private byte[] scratch = new byte[64];
+
+    // Maps the pack from assets once per process
+    public static synchronized ContentPack get(Context context) throws IOException {
+        if (instance == null) {
+            instance = new ContentPack(map(context, ASSET_NAME));
+            Log.d(TAG, "Content pack v" + instance.contentVersion + " mapped: " + instance.entryCount + " entries.");
+        }
+        return instance;
+    }
+
+    // Maps an uncompressed asset read-only (also used by WordDictionary)
+    static ByteBuffer map(Context context, String assetName) throws IOException {
+        try (AssetFileDescriptor afd = context.getAssets().openFd(assetName);
+             FileInputStream in = afd.createInputStream()) {
+            // The mapping stays valid after the channel is closed
+            return in.getChannel().map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getLength());
+        }
+    }
+
+    // Package-private so tests can read a pack from a plain ByteBuffer
+    ContentPack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a content pack");
+        }
+        int formatVersion = buffer.getInt(4);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported content pack format " + formatVersion);
+        }
+        contentVersion = buffer.getInt(8);
+        indexCount = buffer.getInt(12);
+        indexOffset = buffer.getInt(16);
+        entryCount = buffer.getInt(20);
+        entriesOffset = buffer.getInt(24);
+        stringsOffset = buffer.getInt(28);
+        int stringsLength = buffer.getInt(32);
+
+        if ((long) indexOffset + (long) indexCount * INDEX_RECORD_SIZE > buffer.capacity()
+                || (long) entriesOffset + (long) entryCount * ENTRY_SIZE > buffer.capacity()
+                || (long) stringsOffset + stringsLength > buffer.capacity()) {
+            throw new IOException("Truncated content pack");
+        }
+    }
+
+    public int getContentVersion() {
+        return contentVersion;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    // ---------- Index ----------
+
+    // Number of entries for a game and tier, optionally of one word length (ANY_LENGTH for all)
+    public int count(int game, int tier, int length) {
+        int count = 0;
+        for (int i = 0; i < indexCount; i++) {
+            if (matches(i, game, tier, length)) count += buffer.getInt(indexRecord(i) + 8);
+        }
+        return count;
+    }
+
+    /**
+     * The n-th entry (0-based, n < count(game, tier, length)) for a game and tier.
+     * Returns an entry id for word()/clue()/emoji(), or -1 if n is out of range.
+     */
+    public int entry(int game, int tier, int length, int n) {
+        for (int i = 0; i < indexCount; i++) {
+            if (!matches(i, game, tier, length)) continue;
+            int record = indexRecord(i);
+            int count = buffer.getInt(record + 8);
+            if (n < count) return buffer.getInt(record + 4) + n;
+            n -= count;
+        }
+        return -1;
+    }
+
+    // The entries of a game and tier as a WordScheduler pool
+    public WordScheduler.PoolSource poolSource(final int game, final int tier) {
+        return new WordScheduler.PoolSource() {
+            @Override
+            public int size() {
+                return count(game, tier, ANY_LENGTH);
+            }
+
+            @Override
+            public int entry(int n) {
+                return ContentPack.this.entry(game, tier, ANY_LENGTH, n);
+            }
+
+            @Override
+            public String word(int entry) {
+                return ContentPack.this.word(entry);
+            }
+        };
+    }
+
+    private int indexRecord(int i) {
+        return indexOffset + i * INDEX_RECORD_SIZE;
+    }
+
+    private boolean matches(int i, int game, int tier, int length) {
+        int record = indexRecord(i);
+        return (buffer.get(record) & 0xff) == game
+                && (buffer.get(record + 1) & 0xff) == tier
+                && (length == ANY_LENGTH || (buffer.get(record + 2) & 0xff) == length);
+    }
+
+    // ---------- Entries ----------
+
+    public String word(int entry) {
+        return string(entry, 0);
+    }
+
+    public String clue(int entry) {
+        return string(entry, 4);
+    }
+
+    // The entry's emoji, or null if it has none
+    public String emoji(int entry) {
+        return string(entry, 8);
+    }
+
+    private String string(int entry, int field) {
+        if (entry < 0 || entry >= entryCount) throw new IndexOutOfBoundsException("No entry " + entry);
+        int ref = buffer.getInt(entriesOffset + entry * ENTRY_SIZE + field);
+        return ref < 0 ? null : decode(stringsOffset + ref);
+    }
+
+    private synchronized String decode(int position) {
+        int length = buffer.getShort(position) & 0xffff;
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buffer.get(position + 2 + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+}
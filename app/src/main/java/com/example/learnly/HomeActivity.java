@@ -1,9 +1,9 @@
 package com.example.learnly;
 
+import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.InputType;
 import android.util.Log;
@@ -13,32 +13,31 @@ import android.widget.EditText;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 
-import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.security.crypto.EncryptedSharedPreferences;
-import androidx.security.crypto.MasterKeys;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 // Manages the main home screen, displays mini-apps, and handles navigation
 public class HomeActivity extends AppCompatActivity {
     private static final String TAG = "HomeActivity";
     private FirebaseAuth mAuth;
-    private DatabaseReference db;
+    private UserSettingsRepository settingsRepo;
+    private final LifecycleListenerRegistry listeners = new LifecycleListenerRegistry(this);
     private TextView welcomeTextView;
 
     private Button settingsButton, storyButton, readingPracticeButton, spellingButton, memoryMatchButton, colourPatternsButton, numberFunButton, weeklyQuizButton;
+    private final EnumMap<MiniApp, Button> appButtons = new EnumMap<>(MiniApp.class);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        int inflateSpan = StartupTrace.begin("home.inflate");
         setContentView(R.layout.activity_home);
+        StartupTrace.end(inflateSpan);
 
         mAuth = FirebaseAuth.getInstance();
         welcomeTextView = findViewById(R.id.welcomeTextView);
@@ -52,12 +51,19 @@ public class HomeActivity extends AppCompatActivity {
         weeklyQuizButton = findViewById(R.id.button6);
         readingPracticeButton = findViewById(R.id.readingPracticeButton);
 
+        appButtons.put(MiniApp.STORY_TIME, storyButton);
+        appButtons.put(MiniApp.SPELLING_TIME, spellingButton);
+        appButtons.put(MiniApp.READING_PRACTICE, readingPracticeButton);
+        appButtons.put(MiniApp.MEMORY_MATCH, memoryMatchButton);
+        appButtons.put(MiniApp.COLOUR_PATTERNS, colourPatternsButton);
+        appButtons.put(MiniApp.NUMBER_FUN, numberFunButton);
+        appButtons.put(MiniApp.WEEKLY_QUIZ, weeklyQuizButton);
 
         FirebaseUser user = mAuth.getCurrentUser();
         if (user != null) {
-            welcomeTextView.setText("Hello");
-            String userId = user.getUid();
-            db = FirebaseDatabase.getInstance().getReference("users").child(userId);
+            UserSettingsRepository.getInstance(this).bindUser(user.getUid());
+            SessionEventUploader.getInstance().bindUser(user.getUid());
+            WeeklyReportEngine.getInstance(this).bindUser(user.getUid());
             loadUserSettings();
 
         } else {
@@ -74,135 +80,102 @@ public class HomeActivity extends AppCompatActivity {
             }
         });
 
-        storyButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                Intent intent = new Intent(HomeActivity.this, StoryTimeActivity.class);
-                startActivity(intent);
-            }
-        });
-        readingPracticeButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                Intent intent = new Intent(HomeActivity.this, ReadingPracticeActivity.class);
-                startActivity(intent);
-            }
-        });
-
-        spellingButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                Intent intent = new Intent(HomeActivity.this, SpellingGameActivity.class);
-                startActivity(intent);
-            }
-        });
+        // Debug builds: long-press the welcome text to see where startup time went
+        if (BuildConfig.DEBUG) {
+            welcomeTextView.setOnLongClickListener(new View.OnLongClickListener() {
+                @Override
+                public boolean onLongClick(View v) {
+                    startActivity(new Intent(HomeActivity.this, StartupTraceActivity.class));
+                    return true;
+                }
+            });
+        }
 
-        memoryMatchButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
+        for (Map.Entry<MiniApp, Button> entry : appButtons.entrySet()) {
+            final MiniApp app = entry.getKey();
+            entry.getValue().setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    launchMiniApp(app);
+                }
+            });
+        }
+    }
 
-                Intent intent = new Intent(HomeActivity.this, MemoryMatchActivity.class);
-                startActivity(intent);
-                Log.d(TAG, "Memory Match Button Clicked");
-            }
-        });
+    // Starts the activity registered for a mini-app (some are still TODO and only log)
+    private void launchMiniApp(MiniApp app) {
+        Log.d(TAG, app.getDisplayName() + " Button Clicked");
+        if (app.getActivityClass() == null) return;
 
-        colourPatternsButton.setOnClickListener(new View.OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                // TODO: Start ColourPatternsActivity
-                // Intent intent = new Intent(HomeActivity.this, ColourPatternsActivity.class);
-                // startActivity(intent);
-                Log.d(TAG, "Colour Patterns Button Clicked");
-            }
-        });
+        Intent intent = new Intent(HomeActivity.this, app.getActivityClass());
+        startActivity(intent);
+    }
 
-        numberFunButton.setOnClickListener(new View.OnClickListener() {
+    // Keeps the welcome text and button states up to date without watching the whole user node.
+    // Both come from the shared settings repository, which renders from its on-disk snapshot first
+    // and only listens while Home is visible.
+    private void loadUserSettings() {
+        settingsRepo = UserSettingsRepository.getInstance(this);
+        listeners.add(new LifecycleListenerRegistry.Binding() {
             @Override
-            public void onClick(View v) {
-                // This now launches your new activity
-                Intent intent = new Intent(HomeActivity.this, MathActivity.class);
-                startActivity(intent);
-                Log.d(TAG, "Number Fun Button Clicked");
+            public void attach() {
+                settingsRepo.addListener(settingsListener);
+                renderUserSettings(); // catch up on anything that changed while stopped
             }
-        });
 
-        weeklyQuizButton.setOnClickListener(new View.OnClickListener() {
             @Override
-            public void onClick(View v) {
-                // TODO: Start WeeklyQuizActivity
-                // Intent intent = new Intent(HomeActivity.this, WeeklyQuizActivity.class);
-                // startActivity(intent);
-                Log.d(TAG, "Weekly Quiz Button Clicked");
+            public void detach() {
+                settingsRepo.removeListener(settingsListener);
             }
         });
+        renderUserSettings();
     }
 
-    // Fetches user settings from Firebase and updates the UI (Welcome Text AND Button States)
-    private void loadUserSettings() {
-
-        db.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-
-
-                if (snapshot.hasChild("childName")) {
-                    String childName = snapshot.child("childName").getValue(String.class);
-                    if (childName != null && !childName.trim().isEmpty()) {
-                        welcomeTextView.setText("Hello, " + childName);
-                    } else {
-                        welcomeTextView.setText("Hello");
-                    }
-                } else {
-                    welcomeTextView.setText("Hello");
+    private final UserSettingsRepository.OnSettingsChangedListener settingsListener =
+            new UserSettingsRepository.OnSettingsChangedListener() {
+                @Override
+                public void onSettingsChanged(UserSettingsRepository repository) {
+                    renderUserSettings();
                 }
+            };
 
-                DataSnapshot appsSnapshot = snapshot.child("miniApps");
-
-                Boolean storyEnabled = appsSnapshot.child("Story Time").child("enabled").getValue(Boolean.class);
-                storyButton.setEnabled(storyEnabled == null || storyEnabled);
-
-                Boolean spellingEnabled = appsSnapshot.child("Spelling Time").child("enabled").getValue(Boolean.class);
-                spellingButton.setEnabled(spellingEnabled == null || spellingEnabled);
-
-                Boolean matchEnabled = appsSnapshot.child("Memory Match").child("enabled").getValue(Boolean.class);
-                memoryMatchButton.setEnabled(matchEnabled == null || matchEnabled);
-
-                Boolean colourEnabled = appsSnapshot.child("Colour Patterns").child("enabled").getValue(Boolean.class);
-                colourPatternsButton.setEnabled(colourEnabled == null || colourEnabled);
-
-                Boolean numberEnabled = appsSnapshot.child("Number Fun").child("enabled").getValue(Boolean.class);
-                numberFunButton.setEnabled(numberEnabled == null || numberEnabled);
-
-                Boolean quizEnabled = appsSnapshot.child("Weekly Quiz").child("enabled").getValue(Boolean.class);
-                weeklyQuizButton.setEnabled(quizEnabled == null || quizEnabled);
-            }
+    private void renderUserSettings() {
+        String childName = settingsRepo.getChildName();
+        if (childName != null && !childName.trim().isEmpty()) {
+            welcomeTextView.setText("Hello, " + childName);
+        } else {
+            welcomeTextView.setText("Hello");
+        }
+        updateButtonStates();
+    }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.w(TAG, "Failed to load user settings.", error.toException());
-            }
-        });
+    // Enables or disables each mini-app button from the cached parental settings
+    private void updateButtonStates() {
+        for (Map.Entry<MiniApp, Button> entry : appButtons.entrySet()) {
+            entry.getValue().setEnabled(settingsRepo.getSettings(entry.getKey()).isEnabled());
+        }
+        StartupTrace.mark("home.buttonsEnabled");
     }
 
     // Checks if a PIN exists and shows the correct dialog
     private void showPinCheckLogic() {
-        SharedPreferences prefs = getEncryptedPrefs();
-        if (prefs == null) {
-            Log.e(TAG, "Security error. Cannot open settings.");
-            return;
-        }
-        String savedPin = prefs.getString("parent_pin", null);
-
-        if (savedPin == null) {
-            showCreatePinDialog(prefs);
-        } else {
-            showEnterPinDialog(prefs, savedPin);
-        }
+        PinVault.getInstance(this).getPinState(new PinVault.PinStateListener() {
+            @Override
+            public void onPinState(int state) {
+                if (isFinishing()) return;
+                if (state == PinVault.STATE_UNAVAILABLE) {
+                    Log.e(TAG, "Security error. Cannot open settings.");
+                } else if (state == PinVault.STATE_NO_PIN) {
+                    showCreatePinDialog();
+                } else {
+                    showEnterPinDialog();
+                }
+            }
+        });
     }
 
     // Displays a dialog to enter an existing PIN
-    private void showEnterPinDialog(final SharedPreferences prefs, final String correctPin) {
+    private void showEnterPinDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Enter PIN");
         builder.setMessage("Please enter your 4-digit parent PIN to access settings.");
@@ -217,11 +190,18 @@ public class HomeActivity extends AppCompatActivity {
             @Override
             public void onClick(DialogInterface dialog, int which) {
                 String enteredPin = input.getText().toString();
-                if (enteredPin.equals(correctPin)) {
-                    launchSettingsActivity();
-                } else {
-                    Log.w(TAG, "Incorrect PIN entered.");
-                }
+                // The hash check is slow on purpose, so it runs off the main thread
+                PinVault.getInstance(HomeActivity.this).verify(enteredPin, new PinVault.ResultListener() {
+                    @Override
+                    public void onResult(boolean success) {
+                        if (isFinishing()) return;
+                        if (success) {
+                            launchSettingsActivity();
+                        } else {
+                            Log.w(TAG, "Incorrect PIN entered.");
+                        }
+                    }
+                });
             }
         });
         builder.setNegativeButton("Cancel", new DialogInterface.OnClickListener() {
@@ -234,7 +214,7 @@ public class HomeActivity extends AppCompatActivity {
     }
 
     // Displays a dialog to create a new PIN, forcing completion
-    private void showCreatePinDialog(final SharedPreferences prefs) {
+    private void showCreatePinDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Create a 4-Digit PIN");
         builder.setMessage("This PIN will be required to access parent settings.");
@@ -263,14 +243,23 @@ public class HomeActivity extends AppCompatActivity {
 
                 if (pin1.length() != 4) {
                     Log.w(TAG, "PIN must be 4 digits.");
-                    showCreatePinDialog(prefs);
+                    showCreatePinDialog();
                 } else if (!pin1.equals(pin2)) {
                     Log.w(TAG, "PINs do not match.");
-                    showCreatePinDialog(prefs);
+                    showCreatePinDialog();
                 } else {
-                    prefs.edit().putString("parent_pin", pin1).apply();
-                    Log.d(TAG, "PIN Created!");
-                    launchSettingsActivity();
+                    PinVault.getInstance(HomeActivity.this).setPin(pin1, new PinVault.ResultListener() {
+                        @Override
+                        public void onResult(boolean success) {
+                            if (isFinishing()) return;
+                            if (success) {
+                                Log.d(TAG, "PIN Created!");
+                                launchSettingsActivity();
+                            } else {
+                                Log.e(TAG, "Security error. Could not save the PIN.");
+                            }
+                        }
+                    });
                 }
             }
         });
@@ -278,7 +267,7 @@ public class HomeActivity extends AppCompatActivity {
             @Override
             public void onClick(DialogInterface dialog, int which) {
                 dialog.cancel();
-                showCreatePinDialog(prefs);
+                showCreatePinDialog();
                 Log.w(TAG, "User must create a PIN to continue.");
             }
         });
@@ -286,22 +275,17 @@ public class HomeActivity extends AppCompatActivity {
         builder.show();
     }
 
-    // Accesses the secure, on-device storage for the PIN
-    private SharedPreferences getEncryptedPrefs() {
-        try {
-            String mainKeyAlias = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC);
-
-            return EncryptedSharedPreferences.create(
-                    "parent_secure_prefs", mainKeyAlias, this, EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV, EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to create encrypted preferences", e);
-            return null;
-        }
-    }
-
     // Starts the SettingsActivity
     private void launchSettingsActivity() {
         Intent intent = new Intent(HomeActivity.this, SettingsActivity.class);
         startActivity(intent);
     }
+
+    // Brings the existing Home back to the front instead of stacking a new instance on top of the game
+    public static void returnHome(Activity from) {
+        Intent i = new Intent(from, HomeActivity.class);
+        i.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_SINGLE_TOP);
+        from.startActivity(i);
+        from.finish();
+    }
 }
\ No newline at end of file
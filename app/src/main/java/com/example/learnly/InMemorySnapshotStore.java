@@ -0,0 +1,22 @@
+package com.example.learnly;
+
+// UserSnapshotStore that only lives as long as the process, used by tests and emulator runs
+public class InMemorySnapshotStore implements UserSnapshotStore {
+
+    private UserSnapshot saved;
+
+    @Override
+    public synchronized UserSnapshot load() {
+        return saved;
+    }
+
+    @Override
+    public synchronized void save(UserSnapshot snapshot) {
+        saved = snapshot;
+    }
+
+    @Override
+    public synchronized void clear() {
+        saved = null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.learnly;
+
+import android.app.Application;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.io.IOException;
+
+// Application entry point, sets up process-wide singletons before any activity starts
+public class LearnlyApplication extends Application {
+
+    private static final String TAG = "LearnlyApplication";
+
+    // Default ports of the local Firebase emulator suite
+    private static final int DATABASE_EMULATOR_PORT = 9000;
+    private static final int AUTH_EMULATOR_PORT = 9099;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        int span = StartupTrace.begin("app.onCreate");
+
+        // Must run before anything else touches FirebaseDatabase
+        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        String emulatorHost = BuildConfig.FIREBASE_EMULATOR_HOST;
+        if (!emulatorHost.isEmpty()) {
+            Log.d(TAG, "Using Firebase emulators on " + emulatorHost);
+            database.useEmulator(emulatorHost, DATABASE_EMULATOR_PORT);
+            FirebaseAuth.getInstance().useEmulator(emulatorHost, AUTH_EMULATOR_PORT);
+        }
+        // Keep reads and queued writes on disk so the app works with zero network
+        database.setPersistenceEnabled(true);
+
+        // Open the on-device event log; without it the games just don't record anything
+        try {
+            SessionEventLog log = SessionEventLog.init(getFilesDir());
+            // Weekly report aggregates are updated as each event reaches disk
+            log.setObserver(WeeklyReportEngine.getInstance(this));
+        } catch (IOException e) {
+            Log.e(TAG, "Could not open the session event log.", e);
+        }
+
+        // Keystore and Tink setup is slow, do it now in the background rather than on the first PIN dialog
+        PinVault.getInstance(this).warmUp();
+
+        // Bind the text-to-speech engine and load its voice now, so a game's first prompt is spoken at once
+        SpeechService.getInstance(this).warmUp();
+        // Index the pre-rendered phrase clips (letters, phonics) and decode them for instant playback
+        PhraseAudioCache.getInstance(this).warmUp();
+
+        // Load the last-known user snapshot from disk and start the background refresh for a signed-in user
+        UserSettingsRepository settingsRepo = UserSettingsRepository.getInstance(this);
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user != null) {
+            settingsRepo.bindUser(user.getUid());
+            SessionEventUploader.getInstance().bindUser(user.getUid());
+            WeeklyReportEngine.getInstance(this).bindUser(user.getUid());
+        }
+        StartupTrace.end(span);
+    }
+}
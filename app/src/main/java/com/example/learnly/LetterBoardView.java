@@ -0,0 +1,276 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.util.AttributeSet;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.accessibility.AccessibilityNodeInfoCompat;
+import androidx.customview.widget.ExploreByTouchHelper;
+
+import java.util.List;
+
+/**
+ * The Spelling Time letter bank drawn as a single view.
+ *
+ * Reads the bank straight from a SpellingBoard and draws every tile with cached paints, so the
+ * whole bank costs one view, one measure/layout and one draw however many letters it holds.
+ * Taps are hit-tested here (with a pressed state), and each tile is exposed to TalkBack and
+ * switch access as a virtual view.
+ */
+public class LetterBoardView extends View {
+
+    // Called with the bank index of the tapped letter
+    public interface OnLetterTapListener {
+        void onLetterTap(int index);
+    }
+
+    private static final int MAX_COLUMNS = 7;
+    private static final int MIN_COLUMNS = 3;
+    private static final int MAX_TILE_DP = 72;
+    private static final int TILE_MARGIN_DP = 4;
+
+    private final Paint tilePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint pressedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final RectF tileRect = new RectF();
+    private final char[] letter = new char[1];
+    private final float density;
+    private final TileAccessibilityHelper accessibilityHelper;
+
+    private SpellingBoard board;
+    private OnLetterTapListener listener;
+
+    // Grid geometry, recomputed only when the letter count or the view size changes
+    private int laidOutCount = -1;
+    private int columns = MIN_COLUMNS;
+    private float cellSize;
+    private float gridLeft;
+    private float cornerRadius;
+    private float textOffsetY;
+
+    private int pressedIndex = -1;
+
+    public LetterBoardView(Context context) {
+        this(context, null);
+    }
+
+    public LetterBoardView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        density = getResources().getDisplayMetrics().density;
+
+        tilePaint.setColor(0xFFFFCC80);
+        pressedPaint.setColor(0xFFFFA726);
+        textPaint.setColor(0xFF5D4037);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+        textPaint.setTypeface(Typeface.DEFAULT_BOLD);
+
+        accessibilityHelper = new TileAccessibilityHelper(this);
+        ViewCompat.setAccessibilityDelegate(this, accessibilityHelper);
+        setFocusable(true);
+    }
+
+    public void setBoard(SpellingBoard board) {
+        this.board = board;
+        onBoardChanged();
+    }
+
+    public void setOnLetterTapListener(OnLetterTapListener listener) {
+        this.listener = listener;
+    }
+
+    // Call after every move; redraws once and refreshes the accessibility tree
+    public void onBoardChanged() {
+        pressedIndex = -1;
+        if (letterCount() != laidOutCount) computeGrid();
+        accessibilityHelper.invalidateRoot();
+        invalidate();
+    }
+
+    private int letterCount() {
+        return board == null ? 0 : board.bankSize();
+    }
+
+    // ---------- Layout ----------
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computeGrid();
+    }
+
+    private void computeGrid() {
+        int n = letterCount();
+        laidOutCount = n;
+        columns = Math.min(MAX_COLUMNS, Math.max(MIN_COLUMNS, (int) Math.ceil(Math.sqrt(n))));
+
+        int contentWidth = Math.max(0, getWidth() - getPaddingLeft() - getPaddingRight());
+        cellSize = Math.min((float) contentWidth / columns, MAX_TILE_DP * density);
+        gridLeft = getPaddingLeft() + (contentWidth - cellSize * Math.min(columns, Math.max(n, 1))) / 2f;
+        cornerRadius = cellSize * 0.15f;
+
+        textPaint.setTextSize(cellSize * 0.45f);
+        Paint.FontMetrics metrics = textPaint.getFontMetrics();
+        textOffsetY = -(metrics.ascent + metrics.descent) / 2f;
+    }
+
+    // Fills tileRect with the bounds of tile i
+    private void tileBounds(int i, RectF out) {
+        float margin = TILE_MARGIN_DP * density;
+        float left = gridLeft + (i % columns) * cellSize;
+        float top = getPaddingTop() + (i / columns) * cellSize;
+        out.set(left + margin, top + margin, left + cellSize - margin, top + cellSize - margin);
+    }
+
+    // Bank index under (x, y), or -1
+    private int tileAt(float x, float y) {
+        if (cellSize <= 0) return -1;
+        float localX = x - gridLeft;
+        float localY = y - getPaddingTop();
+        if (localX < 0 || localY < 0) return -1;
+        int col = (int) (localX / cellSize);
+        int row = (int) (localY / cellSize);
+        if (col >= columns) return -1;
+        int index = row * columns + col;
+        return index < letterCount() ? index : -1;
+    }
+
+    // ---------- Drawing ----------
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        int n = letterCount();
+        for (int i = 0; i < n; i++) {
+            tileBounds(i, tileRect);
+            canvas.drawRoundRect(tileRect, cornerRadius, cornerRadius,
+                    i == pressedIndex ? pressedPaint : tilePaint);
+            letter[0] = board.bankAt(i);
+            canvas.drawText(letter, 0, 1, tileRect.centerX(), tileRect.centerY() + textOffsetY, textPaint);
+        }
+    }
+
+    // ---------- Touch ----------
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                setPressedIndex(tileAt(event.getX(), event.getY()));
+                return pressedIndex != -1;
+            case MotionEvent.ACTION_MOVE:
+                if (pressedIndex != -1 && tileAt(event.getX(), event.getY()) != pressedIndex) {
+                    setPressedIndex(-1);
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                int index = pressedIndex;
+                setPressedIndex(-1);
+                if (index != -1 && tileAt(event.getX(), event.getY()) == index) {
+                    performClick();
+                    tapLetter(index);
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                setPressedIndex(-1);
+                return true;
+            default:
+                return super.onTouchEvent(event);
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private void setPressedIndex(int index) {
+        if (index == pressedIndex) return;
+        pressedIndex = index;
+        invalidate();
+    }
+
+    private void tapLetter(int index) {
+        playSoundEffect(SoundEffectConstants.CLICK);
+        accessibilityHelper.invalidateVirtualView(index);
+        if (listener != null) listener.onLetterTap(index);
+    }
+
+    // ---------- Accessibility ----------
+
+    @Override
+    protected boolean dispatchHoverEvent(MotionEvent event) {
+        return accessibilityHelper.dispatchHoverEvent(event) || super.dispatchHoverEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event) {
+        return accessibilityHelper.dispatchKeyEvent(event) || super.dispatchKeyEvent(event);
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        accessibilityHelper.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+    }
+
+    // Exposes each letter tile as a clickable virtual view
+    private class TileAccessibilityHelper extends ExploreByTouchHelper {
+
+        private final RectF bounds = new RectF();
+        private final Rect boundsInt = new Rect();
+
+        TileAccessibilityHelper(View host) {
+            super(host);
+        }
+
+        @Override
+        protected int getVirtualViewAt(float x, float y) {
+            int index = tileAt(x, y);
+            return index != -1 ? index : INVALID_ID;
+        }
+
+        @Override
+        protected void getVisibleVirtualViews(List<Integer> virtualViewIds) {
+            int n = letterCount();
+            for (int i = 0; i < n; i++) virtualViewIds.add(i);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        protected void onPopulateNodeForVirtualView(int virtualViewId, @NonNull AccessibilityNodeInfoCompat node) {
+            if (virtualViewId >= letterCount()) {
+                // Stale id after the bank shrank; the node still needs bounds
+                node.setContentDescription("");
+                node.setBoundsInParent(new Rect());
+                return;
+            }
+            node.setContentDescription("Letter " + board.bankAt(virtualViewId));
+            node.addAction(AccessibilityNodeInfoCompat.ACTION_CLICK);
+            node.setClickable(true);
+            tileBounds(virtualViewId, bounds);
+            bounds.roundOut(boundsInt);
+            node.setBoundsInParent(boundsInt);
+        }
+
+        @Override
+        protected boolean onPerformActionForVirtualView(int virtualViewId, int action, @Nullable Bundle arguments) {
+            if (action == AccessibilityNodeInfoCompat.ACTION_CLICK && virtualViewId < letterCount()) {
+                tapLetter(virtualViewId);
+                return true;
+            }
+            return false;
+        }
+    }
+}
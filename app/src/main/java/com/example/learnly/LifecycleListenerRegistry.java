@@ -0,0 +1,68 @@
+package com.example.learnly;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps listeners attached only while the owning screen is started.
+ * Everything registered here is attached on ON_START, detached on ON_STOP and dropped on ON_DESTROY,
+ * so a screen sitting in the back stack costs no callbacks and nothing outlives the activity.
+ */
+public class LifecycleListenerRegistry implements LifecycleEventObserver {
+
+    // One attach/detach pair managed by the registry
+    public interface Binding {
+        void attach();
+
+        void detach();
+    }
+
+    private final List<Binding> bindings = new ArrayList<>();
+    private boolean attached = false;
+
+    public LifecycleListenerRegistry(@NonNull LifecycleOwner owner) {
+        owner.getLifecycle().addObserver(this);
+    }
+
+    // Registers an attach/detach pair; attaches right away if the owner is already started
+    public void add(Binding binding) {
+        bindings.add(binding);
+        if (attached) binding.attach();
+    }
+
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        switch (event) {
+            case ON_START:
+                attachAll();
+                break;
+            case ON_STOP:
+                detachAll();
+                break;
+            case ON_DESTROY:
+                detachAll();
+                bindings.clear();
+                source.getLifecycle().removeObserver(this);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void attachAll() {
+        if (attached) return;
+        attached = true;
+        for (Binding binding : bindings) binding.attach();
+    }
+
+    private void detachAll() {
+        if (!attached) return;
+        attached = false;
+        for (Binding binding : bindings) binding.detach();
+    }
+}
@@ -46,7 +46,9 @@ public class MainActivity extends AppCompatActivity {
     public void onStart() {
         super.onStart();
 
+        int span = StartupTrace.begin("main.authCheck");
         FirebaseUser currentUser = mAuth.getCurrentUser();
+        StartupTrace.end(span);
         if(currentUser != null){
             Log.d(TAG, "User already signed in: " + currentUser.getEmail());
             Toast.makeText(this, "Welcome back, " + currentUser.getEmail(), Toast.LENGTH_SHORT).show();
@@ -1,20 +1,100 @@
 package com.example.learnly;
 
+/**
+ * One arithmetic fact, e.g. "7 x 6 =" with answer 42 and a finger-trick hint.
+ *
+ * Questions are recycled through a small pool (obtain()/recycle(), like android.os.Message), and
+ * only hold numbers plus a hint template; the question and hint strings are built the first time
+ * they are asked for, so generating questions the child never sees costs no allocation.
+ *
+ * The pool is meant for one question in use at a time: recycle each question before asking for the
+ * next, as the Number Fun screen does, and a stream of any length reuses the same object. Holding
+ * more than {@link #MAX_POOL_SIZE} questions at once allocates the rest.
+ */
 public class MathQuestion {
 
-    private String questionText;
+    public static final char ADD = '+';
+    public static final char SUBTRACT = '-';
+    public static final char MULTIPLY = 'x';
+    public static final char DIVIDE = '/';
+
+    private static final int MAX_POOL_SIZE = 64;
+    private static final Object POOL_LOCK = new Object();
+    private static MathQuestion pool;
+    private static int poolSize = 0;
+
+    private MathQuestion nextInPool;
+
+    private int left;
+    private int right;
+    private char operator;
     private int answer;
+    private String hintTemplate;
+
+    private String questionText;
     private String fingerTrick;
 
-    // Constructor to create a new MathQuestion object
-    public MathQuestion(String questionText, int answer, String fingerTrick) {
-        this.questionText = questionText;
+    // Returns a recycled question if one is free, otherwise a new one
+    public static MathQuestion obtain() {
+        synchronized (POOL_LOCK) {
+            if (pool != null) {
+                MathQuestion q = pool;
+                pool = q.nextInPool;
+                q.nextInPool = null;
+                poolSize--;
+                return q;
+            }
+        }
+        return new MathQuestion();
+    }
+
+    // Hands the question back to the pool; it must not be used afterwards
+    public void recycle() {
+        set(0, ADD, 0, 0, null);
+        synchronized (POOL_LOCK) {
+            if (poolSize < MAX_POOL_SIZE) {
+                nextInPool = pool;
+                pool = this;
+                poolSize++;
+            }
+        }
+    }
+
+    private MathQuestion() {
+    }
+
+    /**
+     * Fills the question in place. hintTemplate may use {a}, {b}, {answer} and {prev}
+     * (b - 1), which are substituted when getFingerTrick() is first called.
+     */
+    void set(int left, char operator, int right, int answer, String hintTemplate) {
+        this.left = left;
+        this.operator = operator;
+        this.right = right;
         this.answer = answer;
-        this.fingerTrick = fingerTrick;
+        this.hintTemplate = hintTemplate;
+        this.questionText = null;
+        this.fingerTrick = null;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    // One of ADD, SUBTRACT, MULTIPLY, DIVIDE
+    public char getOperator() {
+        return operator;
     }
 
-    // Provides the question text (e.g., "5 + 3")
+    // Provides the question text (e.g., "5 + 3 =")
     public String getQuestionText() {
+        if (questionText == null) {
+            questionText = left + " " + operator + " " + right + " =";
+        }
         return questionText;
     }
 
@@ -25,6 +105,43 @@ public class MathQuestion {
 
     // Provides the hint text
     public String getFingerTrick() {
+        if (fingerTrick == null && hintTemplate != null) {
+            fingerTrick = fillTemplate(hintTemplate);
+        }
         return fingerTrick;
     }
-}
\ No newline at end of file
+
+    private String fillTemplate(String template) {
+        StringBuilder sb = new StringBuilder(template.length() + 8);
+        int i = 0;
+        while (i < template.length()) {
+            char c = template.charAt(i);
+            int close = (c == '{') ? template.indexOf('}', i) : -1;
+            if (close < 0) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            String key = template.substring(i + 1, close);
+            switch (key) {
+                case "a":
+                    sb.append(left);
+                    break;
+                case "b":
+                    sb.append(right);
+                    break;
+                case "answer":
+                    sb.append(answer);
+                    break;
+                case "prev":
+                    sb.append(right - 1);
+                    break;
+                default:
+                    sb.append(template, i, close + 1);
+                    break;
+            }
+            i = close + 1;
+        }
+        return sb.toString();
+    }
+}
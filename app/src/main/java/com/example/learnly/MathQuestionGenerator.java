@@ -0,0 +1,196 @@
+package com.example.learnly;
+
+import java.util.Random;
+
+/**
+ * Seeded, unbounded stream of arithmetic facts for Number Fun.
+ *
+ * Easy   -> + and - within 10
+ * Medium -> + and - up to 30, times tables for 2, 3, 4, 5 and 10
+ * Hard   -> x and / facts from the 2 to 12 times tables
+ *
+ * The same seed and difficulty always give the same sequence. Each question is drawn from the
+ * MathQuestion pool and filled in place with numbers and a hint template; recycling each question
+ * before the next keeps a batch of any size free of allocation. See MathQuestionGeneratorBenchmark.
+ */
+public class MathQuestionGenerator {
+
+    private static final char[] EASY_OPERATORS = {MathQuestion.ADD, MathQuestion.SUBTRACT};
+    private static final char[] MEDIUM_OPERATORS = {MathQuestion.ADD, MathQuestion.SUBTRACT, MathQuestion.MULTIPLY};
+    private static final char[] HARD_OPERATORS = {MathQuestion.MULTIPLY, MathQuestion.DIVIDE};
+    private static final int[] MEDIUM_TABLES = {2, 3, 4, 5, 10};
+
+    // ---------- Hint templates ({a}, {b}, {prev} = b - 1, see MathQuestion) ----------
+
+    private static final String ADD_FINGERS = "Hold up {a} fingers, then {b} more. Count them all!";
+    private static final String ADD_COUNT_ON = "Start at {a} and count up {b} more.";
+    private static final String ADD_COUNT_ON_SWAPPED = "Start at {b} and count up {a} more.";
+    private static final String ADD_DOUBLES = "Doubles! Count by {a}s two times.";
+    private static final String ADD_NINE = "Add 10 to {a}, then take away 1.";
+    private static final String ADD_TEN = "Adding 10 makes the tens digit one bigger.";
+    private static final String ADD_TENS_FIRST = "Add the tens first, then add the ones.";
+
+    private static final String SUB_ALL = "Take them all away. What is left?";
+    private static final String SUB_FINGERS = "Hold up {a} fingers. Put {b} down.";
+    private static final String SUB_COUNT_BACK = "Start at {a} and count back {b}.";
+    private static final String SUB_NINE = "Take away 10, then add 1 back.";
+    private static final String SUB_TEN = "Taking away 10 makes the tens digit one smaller.";
+    private static final String SUB_COUNT_UP = "Count up from {b} to {a}.";
+
+    private static final String MUL_ONE = "Anything times 1 stays the same!";
+    private static final String MUL_TEN = "Times 10: put a 0 on the end!";
+    private static final String MUL_TWO = "Times 2 is a double!";
+    private static final String MUL_FIVE_A = "Count by 5s {b} times.";
+    private static final String MUL_FIVE_B = "Count by 5s {a} times.";
+    private static final String MUL_NINE_A = "Nines trick: hold up 10 fingers and put finger {b} down.";
+    private static final String MUL_NINE_B = "Nines trick: hold up 10 fingers and put finger {a} down.";
+    private static final String MUL_ELEVEN_A = "For 11s, write {b} twice!";
+    private static final String MUL_ELEVEN_B = "For 11s, write {a} twice!";
+    private static final String MUL_SQUARE = "This is a square number!";
+    private static final String MUL_STEP = "Try {a} x {prev} first, then add {a} more.";
+
+    private static final String DIV_TWO = "Split {a} into two equal groups.";
+    private static final String DIV_FIVE = "Count by 5s until you reach {a}.";
+    private static final String DIV_TEN = "Dividing by 10: take the 0 off the end!";
+    private static final String DIV_TABLES = "Think: {b} x what makes {a}?";
+
+    private final Random rng;
+    private final char[] operators;
+    private final int level; // 0 = Easy, 1 = Medium, 2 = Hard
+
+    private int lastLeft = -1;
+    private int lastRight = -1;
+    private char lastOperator;
+
+    // difficulty: "Easy", "Medium" or "Hard" (anything else is treated as Easy)
+    public MathQuestionGenerator(String difficulty, long seed) {
+        this.rng = new Random(seed);
+        if ("Hard".equals(difficulty)) {
+            level = 2;
+            operators = HARD_OPERATORS;
+        } else if ("Medium".equals(difficulty)) {
+            level = 1;
+            operators = MEDIUM_OPERATORS;
+        } else {
+            level = 0;
+            operators = EASY_OPERATORS;
+        }
+    }
+
+    // Next question from the pool; recycle() it once it has been answered
+    public MathQuestion next() {
+        MathQuestion q = MathQuestion.obtain();
+        fill(q);
+        return q;
+    }
+
+    // Fills q with the next fact, never repeating the previous one
+    public void fill(MathQuestion q) {
+        do {
+            char op = operators[rng.nextInt(operators.length)];
+            switch (op) {
+                case MathQuestion.ADD:
+                    fillAdd(q);
+                    break;
+                case MathQuestion.SUBTRACT:
+                    fillSubtract(q);
+                    break;
+                case MathQuestion.MULTIPLY:
+                    fillMultiply(q);
+                    break;
+                default:
+                    fillDivide(q);
+                    break;
+            }
+        } while (q.getLeft() == lastLeft && q.getRight() == lastRight && q.getOperator() == lastOperator);
+
+        lastLeft = q.getLeft();
+        lastRight = q.getRight();
+        lastOperator = q.getOperator();
+    }
+
+    private int between(int min, int max) {
+        return min + rng.nextInt(max - min + 1);
+    }
+
+    private void fillAdd(MathQuestion q) {
+        int a, b;
+        if (level == 0) {
+            a = between(1, 9);
+            b = between(1, 10 - a);
+        } else {
+            a = between(5, 20);
+            b = between(2, Math.min(19, 30 - a));
+        }
+        String hint;
+        if (a == b) hint = ADD_DOUBLES;
+        else if (b <= 3) hint = ADD_COUNT_ON;
+        else if (a <= 3) hint = ADD_COUNT_ON_SWAPPED;
+        else if (b == 9) hint = ADD_NINE;
+        else if (b == 10) hint = ADD_TEN;
+        else if (a + b <= 10) hint = ADD_FINGERS;
+        else hint = ADD_TENS_FIRST;
+        q.set(a, MathQuestion.ADD, b, a + b, hint);
+    }
+
+    private void fillSubtract(MathQuestion q) {
+        int a, b;
+        if (level == 0) {
+            a = between(2, 10);
+            b = between(1, a);
+        } else {
+            a = between(10, 30);
+            b = between(2, Math.min(15, a - 1));
+        }
+        String hint;
+        if (a == b) hint = SUB_ALL;
+        else if (b <= 3) hint = SUB_COUNT_BACK;
+        else if (b == 9) hint = SUB_NINE;
+        else if (b == 10) hint = SUB_TEN;
+        else if (a <= 10) hint = SUB_FINGERS;
+        else hint = SUB_COUNT_UP;
+        q.set(a, MathQuestion.SUBTRACT, b, a - b, hint);
+    }
+
+    private void fillMultiply(MathQuestion q) {
+        int a, b;
+        if (level == 1) {
+            a = MEDIUM_TABLES[rng.nextInt(MEDIUM_TABLES.length)];
+            b = between(1, 10);
+            if (rng.nextBoolean()) {
+                int t = a;
+                a = b;
+                b = t;
+            }
+        } else {
+            a = between(2, 12);
+            b = between(2, 12);
+        }
+        String hint;
+        if (a == 1 || b == 1) hint = MUL_ONE;
+        else if (a == 10 || b == 10) hint = MUL_TEN;
+        else if (a == 2 || b == 2) hint = MUL_TWO;
+        else if (a == 5) hint = MUL_FIVE_A;
+        else if (b == 5) hint = MUL_FIVE_B;
+        else if (a == 9 && b <= 10) hint = MUL_NINE_A;
+        else if (b == 9 && a <= 10) hint = MUL_NINE_B;
+        else if (a == 11 && b <= 9) hint = MUL_ELEVEN_A;
+        else if (b == 11 && a <= 9) hint = MUL_ELEVEN_B;
+        else if (a == b) hint = MUL_SQUARE;
+        else hint = MUL_STEP;
+        q.set(a, MathQuestion.MULTIPLY, b, a * b, hint);
+    }
+
+    // Only exact divisions: the dividend is built from divisor x quotient
+    private void fillDivide(MathQuestion q) {
+        int divisor = between(2, 12);
+        int quotient = between(2, 12);
+        int dividend = divisor * quotient;
+        String hint;
+        if (divisor == 2) hint = DIV_TWO;
+        else if (divisor == 5) hint = DIV_FIVE;
+        else if (divisor == 10) hint = DIV_TEN;
+        else hint = DIV_TABLES;
+        q.set(dividend, MathQuestion.DIVIDE, divisor, quotient, hint);
+    }
+}
@@ -1,11 +1,11 @@
 package com.example.learnly;
 
-import android.content.Intent;
 import android.graphics.Color;
 import android.graphics.drawable.ColorDrawable;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.CountDownTimer;
+import android.os.SystemClock;
 import android.view.DragEvent;
 import android.view.MotionEvent;
 import android.view.View;
@@ -18,30 +18,24 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.ColorInt;
-import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.airbnb.lottie.LottieAnimationView;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Random;
 import java.util.Set;
 
 public class MemoryMatchActivity extends AppCompatActivity {
 
     private static final String TAG = "MemoryMatchActivity";
-    private static final String APP_NAME = "MemoryMatch"; // miniApps/MemoryMatch in Firebase
+    private static final MiniApp APP = MiniApp.MEMORY_MATCH;
 
     // UI
     private TextView gridSizeText, targetsText, roundText, phaseText;
@@ -53,26 +47,12 @@ public class MemoryMatchActivity extends AppCompatActivity {
     private SeekBar targetsSeek;
     private LottieAnimationView animCongrats, animTrophy;
 
-    // Firebase
-    private DatabaseReference mAppSettingsRef;
-
-    // State / config
-    private final Random rng = new Random();
-    private int gridSize = 3;        // set via Firebase difficulty
-    private int targetCount = 4;     // will be clamped based on grid
+    // State / config: the game itself is kept across rotation
+    private MemoryMatchViewModel game;
+    private static final String KEY_STATE = "memory_match_state";
     private long memorizeMs = 2500;  // memorize phase
-    private long solveMs = 12000;    // user-adjustable via slider
     private CountDownTimer timer;
-    private boolean inSolve = false;
-
-    // Progress / leveling
-    private int solvedStreak = 0;    // how many puzzles solved in a row
-
-    // Board
-    private int total;
-    private int[] cellColor;         // actual color for targets (gray otherwise)
-    private boolean[] isTarget;      // which cells are targets
-    private boolean[] revealed;      // targets already solved
+    private final Runnable nextRound = this::startRound;
 
     // Colors (last = gray / concealed)
     private static final int[] COLORS = new int[]{
@@ -85,13 +65,12 @@ public class MemoryMatchActivity extends AppCompatActivity {
     };
     private static final int CONCEAL = COLORS[COLORS.length - 1];
 
-    // Palette multiset
-    private final ArrayList<Integer> palette = new ArrayList<>();
-
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        int createSpan = StartupTrace.begin("game.onCreate " + APP.getId());
         setContentView(R.layout.activity_memory_match);
+        game = new ViewModelProvider(this).get(MemoryMatchViewModel.class);
 
         // Bind views
         gridSizeText = findViewById(R.id.gridSizeText);
@@ -108,11 +87,11 @@ public class MemoryMatchActivity extends AppCompatActivity {
         animTrophy   = findViewById(R.id.animTrophy);
 
         // Targets slider
-        targetsSeek.setMax(gridSize * gridSize);
-        targetsSeek.setProgress(targetCount);
+        targetsSeek.setMax(game.gridSize * game.gridSize);
+        targetsSeek.setProgress(game.targetCount);
         targetsSeek.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override public void onProgressChanged(SeekBar seekBar, int p, boolean fromUser) {
-                targetCount = Math.max(1, p);
+                game.targetCount = Math.max(1, p);
                 clampTargets();
                 updateTargetsLabel();
             }
@@ -121,25 +100,21 @@ public class MemoryMatchActivity extends AppCompatActivity {
         });
 
         // Home button
-        btnBackToHome.setOnClickListener(v -> {
-            Intent i = new Intent(MemoryMatchActivity.this, HomeActivity.class);
-            startActivity(i);
-            finish();
-        });
+        btnBackToHome.setOnClickListener(v -> HomeActivity.returnHome(this));
 
         // Round duration slider
         View roundSeekView = findViewById(R.id.roundSeek);
         if (roundSeekView instanceof SeekBar) {
             SeekBar roundSeek = (SeekBar) roundSeekView;
             roundSeek.setMax(55); // 0..55 -> 5..60 seconds
-            int defSec = Math.max(5, Math.min(60, (int) (solveMs / 1000)));
+            int defSec = Math.max(5, Math.min(60, (int) (game.solveMs / 1000)));
             roundSeek.setProgress(defSec - 5);
             roundText.setText("Round: " + defSec + "s");
             roundSeek.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
                 @Override
                 public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
                     int s = 5 + progress;
-                    solveMs = s * 1000L;
+                    game.solveMs = s * 1000L;
                     roundText.setText("Round: " + s + "s");
                 }
                 @Override public void onStartTrackingTouch(SeekBar seekBar) { }
@@ -158,43 +133,40 @@ public class MemoryMatchActivity extends AppCompatActivity {
             return;
         }
 
-        String userId = user.getUid();
-        mAppSettingsRef = FirebaseDatabase.getInstance().getReference("users")
-                .child(userId)
-                .child("miniApps")
-                .child(APP_NAME);
-
-        mAppSettingsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String difficulty = "Easy";
-                boolean isEnabled = true;
-
-                if (snapshot.exists()) {
-                    Boolean enabledFromDB = snapshot.child("enabled").getValue(Boolean.class);
-                    String difficultyFromDB = snapshot.child("difficulty").getValue(String.class);
-
-                    if (enabledFromDB != null) isEnabled = enabledFromDB;
-                    if (difficultyFromDB != null) difficulty = difficultyFromDB;
-                }
+        // Rotated: the same level and board; the round's clock carries on in onResume
+        if (game.configured) {
+            new SessionTracker(this, APP);
+            showGame();
+            StartupTrace.end(createSpan);
+            return;
+        }
 
-                if (!isEnabled) {
-                    Toast.makeText(MemoryMatchActivity.this,
-                            "This game is disabled by your parent.", Toast.LENGTH_LONG).show();
-                    finish();
-                    return;
-                }
+        // Last-known settings come from the process-wide cache, so the board is ready without a network round trip
+        int settingsSpan = StartupTrace.begin("game.settings");
+        UserSettingsRepository settingsRepo = UserSettingsRepository.getInstance(this);
+        settingsRepo.bindUser(user.getUid());
+        MiniAppSettings settings = settingsRepo.getSettings(APP);
+        StartupTrace.end(settingsSpan);
 
-                initializeDifficulty(difficulty);
-            }
+        if (!settings.isEnabled()) {
+            Toast.makeText(MemoryMatchActivity.this,
+                    "This game is disabled by your parent.", Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Toast.makeText(MemoryMatchActivity.this,
-                        "Failed to load settings. Using Easy mode.", Toast.LENGTH_LONG).show();
-                initializeDifficulty("Easy");
-            }
-        });
+        new SessionTracker(this, APP);
+        MemoryMatchState saved = (savedInstanceState == null) ? null
+                : savedInstanceState.getParcelable(KEY_STATE);
+        if (saved != null) {
+            // Back after the process was killed
+            game.restore(saved);
+            showGame();
+        } else {
+            initializeDifficulty(settings.getDifficulty());
+        }
+        StartupTrace.end(createSpan);
+        StartupTrace.markAfterDraw(grid, "game.firstQuestion");
     }
 
     /**
@@ -206,24 +178,25 @@ public class MemoryMatchActivity extends AppCompatActivity {
     private void initializeDifficulty(String difficulty) {
         switch (difficulty) {
             case "Medium":
-                gridSize = 4;
-                targetCount = 5;   // reasonable starting challenge
+                game.gridSize = 4;
+                game.targetCount = 5;   // reasonable starting challenge
                 break;
             case "Hard":
-                gridSize = 5;
-                targetCount = 6;
+                game.gridSize = 5;
+                game.targetCount = 6;
                 break;
             case "Easy":
             default:
-                gridSize = 3;
-                targetCount = 3;
+                game.gridSize = 3;
+                game.targetCount = 3;
                 break;
         }
         clampTargets();
+        game.configured = true;
 
         // sync slider with difficulty-based grid
-        targetsSeek.setMax(gridSize * gridSize);
-        targetsSeek.setProgress(targetCount);
+        targetsSeek.setMax(game.gridSize * game.gridSize);
+        targetsSeek.setProgress(game.targetCount);
 
         updateGridLabel();
         updateTargetsLabel();
@@ -234,8 +207,7 @@ public class MemoryMatchActivity extends AppCompatActivity {
 
     private void startRound() {
         cancelTimer();
-        inSolve = false;
-        phaseText.setText("Memorize the COLORED tiles…");
+        grid.removeCallbacks(nextRound);
         timerBar.setProgress(0);
 
         buildBoard();
@@ -243,10 +215,16 @@ public class MemoryMatchActivity extends AppCompatActivity {
         paletteRow.removeAllViews();
 
         // Memorize -> Conceal -> Solve
+        runMemorize(memorizeMs);
+    }
+
+    private void runMemorize(long ms) {
+        startPhase(MemoryMatchViewModel.PHASE_MEMORIZE, ms);
+        phaseText.setText("Memorize the COLORED tiles…");
         timerBar.setMax((int) memorizeMs);
-        timerBar.setProgress((int) memorizeMs);
+        timerBar.setProgress((int) ms);
 
-        timer = new CountDownTimer(memorizeMs, 16) {
+        timer = new CountDownTimer(ms, 16) {
             @Override
             public void onTick(long millisUntilFinished) {
                 timerBar.setProgress((int) millisUntilFinished);
@@ -263,12 +241,17 @@ public class MemoryMatchActivity extends AppCompatActivity {
     }
 
     private void enterSolve() {
-        inSolve = true;
+        game.solveStartedAt = SystemClock.elapsedRealtime();
+        runSolve(game.solveMs);
+    }
+
+    private void runSolve(long ms) {
+        startPhase(MemoryMatchViewModel.PHASE_SOLVE, ms);
         phaseText.setText("Drag a color into the correct squares!");
-        timerBar.setMax((int) solveMs);
-        timerBar.setProgress((int) solveMs);
+        timerBar.setMax((int) game.solveMs);
+        timerBar.setProgress((int) ms);
         cancelTimer();
-        timer = new CountDownTimer(solveMs, 50) {
+        timer = new CountDownTimer(ms, 50) {
             @Override
             public void onTick(long millisUntilFinished) {
                 timerBar.setProgress((int) millisUntilFinished);
@@ -276,28 +259,79 @@ public class MemoryMatchActivity extends AppCompatActivity {
 
             @Override
             public void onFinish() {
-                inSolve = false;
+                game.phase = MemoryMatchViewModel.PHASE_IDLE;
+                SessionEventLog log = SessionEventLog.get();
+                if (log != null) log.timeout(APP, game.targetCount);
                 toast("Time's up! Let's try again.");
-                solvedStreak = 0;  // break streak
+                game.solvedStreak = 0;  // break streak
             }
         }.start();
     }
 
+    // Next round after the solved animation
+    private void scheduleNextRound(long delayMs) {
+        startPhase(MemoryMatchViewModel.PHASE_SOLVED, delayMs);
+        grid.postDelayed(nextRound, delayMs);
+    }
+
+    private void startPhase(int phase, long ms) {
+        game.phase = phase;
+        game.phaseEndsAt = SystemClock.elapsedRealtime() + ms;
+        game.remainingMs = -1;
+    }
+
+    // Restarts the clock of a paused phase with the time it had left
+    private void resumePhase() {
+        long left = game.remainingMs;
+        if (left < 0) return;
+        switch (game.phase) {
+            case MemoryMatchViewModel.PHASE_MEMORIZE:
+                runMemorize(left);
+                break;
+            case MemoryMatchViewModel.PHASE_SOLVE:
+                runSolve(left);
+                break;
+            case MemoryMatchViewModel.PHASE_SOLVED:
+                scheduleNextRound(left);
+                break;
+        }
+    }
+
+    // Redraws a game kept across rotation or restored after process death
+    private void showGame() {
+        targetsSeek.setMax(game.gridSize * game.gridSize);
+        targetsSeek.setProgress(game.targetCount);
+        updateGridLabel();
+        updateTargetsLabel();
+        if (!game.hasBoard()) {
+            phaseText.setText("Tap START to play");
+            return;
+        }
+        boolean memorizing = game.phase == MemoryMatchViewModel.PHASE_MEMORIZE;
+        buildGridViews(!memorizing);
+        if (memorizing) {
+            phaseText.setText("Memorize the COLORED tiles…");
+        } else {
+            phaseText.setText("Drag a color into the correct squares!");
+            showPalette();
+        }
+    }
+
     // ---------- Board building ----------
 
     private void buildBoard() {
-        total = gridSize * gridSize;
-        cellColor = new int[total];
-        isTarget  = new boolean[total];
-        revealed  = new boolean[total];
+        game.total = game.gridSize * game.gridSize;
+        game.cellColor = new int[game.total];
+        game.isTarget  = new boolean[game.total];
+        game.revealed  = new boolean[game.total];
 
         // Make sure targetCount fits new grid
         clampTargets();
 
         // Pick distinct target positions
         Set<Integer> chosen = new HashSet<>();
-        while (chosen.size() < targetCount) {
-            chosen.add(rng.nextInt(total));
+        while (chosen.size() < game.targetCount) {
+            chosen.add(game.rng.nextInt(game.total));
         }
 
         // Color pool (exclude gray)
@@ -305,31 +339,31 @@ public class MemoryMatchActivity extends AppCompatActivity {
         for (int i = 0; i < COLORS.length - 1; i++) {
             colorPool.add(COLORS[i]);
         }
-        Collections.shuffle(colorPool, rng);
+        Collections.shuffle(colorPool, game.rng);
 
-        for (int i = 0; i < total; i++) {
+        for (int i = 0; i < game.total; i++) {
             if (chosen.contains(i)) {
-                isTarget[i] = true;
-                cellColor[i] = colorPool.get(rng.nextInt(colorPool.size()));
+                game.isTarget[i] = true;
+                game.cellColor[i] = colorPool.get(game.rng.nextInt(colorPool.size()));
             } else {
-                isTarget[i] = false;
-                cellColor[i] = CONCEAL;
+                game.isTarget[i] = false;
+                game.cellColor[i] = CONCEAL;
             }
-            revealed[i] = false;
+            game.revealed[i] = false;
         }
     }
 
     private void buildGridViews(boolean concealed) {
         grid.removeAllViews();
-        grid.setColumnCount(gridSize);
-        grid.setRowCount(gridSize);
+        grid.setColumnCount(game.gridSize);
+        grid.setRowCount(game.gridSize);
 
         grid.post(() -> {
             int w = grid.getWidth();
             int margin = dp(2);
-            int side = Math.max(dp(52), (w - margin * 2 * gridSize) / gridSize); // bigger squares
+            int side = Math.max(dp(52), (w - margin * 2 * game.gridSize) / game.gridSize); // bigger squares
 
-            for (int i = 0; i < total; i++) {
+            for (int i = 0; i < game.total; i++) {
                 View cell = new View(MemoryMatchActivity.this);
                 GridLayout.LayoutParams lp = new GridLayout.LayoutParams();
                 lp.width = side;
@@ -338,12 +372,12 @@ public class MemoryMatchActivity extends AppCompatActivity {
                 cell.setLayoutParams(lp);
 
                 int shownColor;
-                if (!isTarget[i]) {
+                if (!game.isTarget[i]) {
                     shownColor = CONCEAL;
-                } else if (concealed && !revealed[i]) {
+                } else if (concealed && !game.revealed[i]) {
                     shownColor = CONCEAL;
                 } else {
-                    shownColor = cellColor[i];
+                    shownColor = game.cellColor[i];
                 }
 
                 cell.setBackgroundColor(shownColor);
@@ -361,26 +395,29 @@ public class MemoryMatchActivity extends AppCompatActivity {
     }
 
     private void buildPalette() {
-        palette.clear();
+        game.palette.clear();
         HashMap<Integer, Integer> counts = new HashMap<>();
-        for (int i = 0; i < total; i++) {
-            if (isTarget[i] && !revealed[i]) {
-                int c = cellColor[i];
+        for (int i = 0; i < game.total; i++) {
+            if (game.isTarget[i] && !game.revealed[i]) {
+                int c = game.cellColor[i];
                 counts.put(c, counts.getOrDefault(c, 0) + 1);
             }
         }
         for (Integer c : counts.keySet()) {
             for (int k = 0; k < counts.get(c); k++) {
-                palette.add(c);
+                game.palette.add(c);
             }
         }
-        Collections.shuffle(palette, rng);
+        Collections.shuffle(game.palette, game.rng);
+        showPalette();
+    }
 
+    private void showPalette() {
         paletteRow.removeAllViews();
         int size = dp(52);  // larger tap & drag area
         int margin = dp(6);
-        for (int i = 0; i < palette.size(); i++) {
-            final int color = palette.get(i);
+        for (int i = 0; i < game.palette.size(); i++) {
+            final int color = game.palette.get(i);
             View tile = new View(this);
             LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(size, size);
             lp.setMargins(margin, margin, margin, margin);
@@ -389,7 +426,7 @@ public class MemoryMatchActivity extends AppCompatActivity {
 
             // One-tap-and-drag: start drag on ACTION_DOWN
             tile.setOnTouchListener((v, event) -> {
-                if (!inSolve) return true;
+                if (game.phase != MemoryMatchViewModel.PHASE_SOLVE) return true;
                 if (event.getAction() == MotionEvent.ACTION_DOWN) {
                     View.DragShadowBuilder shadow = new View.DragShadowBuilder(v);
                     if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
@@ -420,12 +457,12 @@ public class MemoryMatchActivity extends AppCompatActivity {
                 return true;
             case DragEvent.ACTION_DROP: {
                 cellView.setAlpha(1f);
-                if (!inSolve) return false;
-                if (!isTarget[idx]) {
+                if (game.phase != MemoryMatchViewModel.PHASE_SOLVE) return false;
+                if (!game.isTarget[idx]) {
                     toast("Oops, that square was gray.");
                     return false;
                 }
-                if (revealed[idx]) {
+                if (game.revealed[idx]) {
                     toast("That square is already filled.");
                     return false;
                 }
@@ -433,9 +470,13 @@ public class MemoryMatchActivity extends AppCompatActivity {
                 Object payload = e.getLocalState();
                 if (!(payload instanceof Integer)) return false;
                 int draggedColor = (Integer) payload;
+                boolean correct = draggedColor == game.cellColor[idx];
+
+                SessionEventLog log = SessionEventLog.get();
+                if (log != null) log.answer(APP, correct, SystemClock.elapsedRealtime() - game.solveStartedAt, game.targetCount);
 
-                if (draggedColor == cellColor[idx]) {
-                    revealed[idx] = true;
+                if (correct) {
+                    game.revealed[idx] = true;
                     cellView.setBackgroundColor(draggedColor);
                     consumeOnePaletteTile(draggedColor);
 
@@ -457,20 +498,22 @@ public class MemoryMatchActivity extends AppCompatActivity {
     }
 
     private void onPuzzleSolved() {
+        SessionEventLog log = SessionEventLog.get();
+        if (log != null) log.solve(APP, SystemClock.elapsedRealtime() - game.solveStartedAt, game.targetCount);
+
         toast("Great job! You found them all!");
         cancelTimer();
-        inSolve = false;
 
-        solvedStreak++;
+        game.solvedStreak++;
 
         // Decide which animation & level-up logic
-        boolean isTrophy = (solvedStreak % 10 == 0);
+        boolean isTrophy = (game.solvedStreak % 10 == 0);
 
         if (isTrophy) {
             // level up: +1 target within this grid
-            targetCount++;
+            game.targetCount++;
             clampTargets();
-            targetsSeek.setProgress(targetCount);
+            targetsSeek.setProgress(game.targetCount);
             updateTargetsLabel();
             toast("Level up! More colors to remember!");
             showTrophyAnimation();
@@ -480,7 +523,7 @@ public class MemoryMatchActivity extends AppCompatActivity {
 
         // Automatically start next round after animation
         int delay = isTrophy ? 2200 : 1500;
-        grid.postDelayed(this::startRound, delay);
+        scheduleNextRound(delay);
     }
 
     // ---------- Lottie helpers ----------
@@ -517,14 +560,15 @@ public class MemoryMatchActivity extends AppCompatActivity {
             int bg = colorOf(v);
             if (bg == color) {
                 paletteRow.removeViewAt(i);
+                game.palette.remove(Integer.valueOf(color));
                 break;
             }
         }
     }
 
     private boolean allTargetsSolved() {
-        for (int i = 0; i < total; i++) {
-            if (isTarget[i] && !revealed[i]) return false;
+        for (int i = 0; i < game.total; i++) {
+            if (game.isTarget[i] && !game.revealed[i]) return false;
         }
         return true;
     }
@@ -542,17 +586,17 @@ public class MemoryMatchActivity extends AppCompatActivity {
     // ---------- Helpers ----------
 
     private void clampTargets() {
-        int max = gridSize * gridSize;
-        if (targetCount < 1) targetCount = 1;
-        if (targetCount > max) targetCount = max;
+        int max = game.gridSize * game.gridSize;
+        if (game.targetCount < 1) game.targetCount = 1;
+        if (game.targetCount > max) game.targetCount = max;
     }
 
     private void updateGridLabel() {
-        gridSizeText.setText("Grid: " + gridSize + "×" + gridSize);
+        gridSizeText.setText("Grid: " + game.gridSize + "×" + game.gridSize);
     }
 
     private void updateTargetsLabel() {
-        targetsText.setText("Targets: " + targetCount);
+        targetsText.setText("Targets: " + game.targetCount);
     }
 
     private int dp(int d) {
@@ -571,9 +615,23 @@ public class MemoryMatchActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        resumePhase();
+    }
+
     @Override
     protected void onPause() {
         super.onPause();
+        game.pausePhase();
         cancelTimer();
+        grid.removeCallbacks(nextRound);
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putParcelable(KEY_STATE, game.snapshot());
     }
 }
@@ -0,0 +1,87 @@
+package com.example.learnly;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * A Memory Match game, saved with the activity's instance state so the board survives the
+ * process being killed in the background: the level, the grid and which targets are solved,
+ * the colours left in the palette, the phase of the round with the time it had left, and how
+ * long the child has been solving, so answer times stay right after a restore.
+ */
+public class MemoryMatchState implements Parcelable {
+
+    final int gridSize;
+    final int targetCount;
+    final long solveMs;
+    final int solvedStreak;
+    final int[] cellColor;     // null before the first round
+    final boolean[] isTarget;
+    final boolean[] revealed;
+    final int[] palette;
+    final int phase;
+    final long remainingMs;
+    final long solveElapsedMs;
+
+    public MemoryMatchState(int gridSize, int targetCount, long solveMs, int solvedStreak,
+                            int[] cellColor, boolean[] isTarget, boolean[] revealed, int[] palette,
+                            int phase, long remainingMs, long solveElapsedMs) {
+        this.gridSize = gridSize;
+        this.targetCount = targetCount;
+        this.solveMs = solveMs;
+        this.solvedStreak = solvedStreak;
+        this.cellColor = cellColor;
+        this.isTarget = isTarget;
+        this.revealed = revealed;
+        this.palette = palette;
+        this.phase = phase;
+        this.remainingMs = remainingMs;
+        this.solveElapsedMs = solveElapsedMs;
+    }
+
+    private MemoryMatchState(Parcel in) {
+        gridSize = in.readInt();
+        targetCount = in.readInt();
+        solveMs = in.readLong();
+        solvedStreak = in.readInt();
+        cellColor = in.createIntArray();
+        isTarget = in.createBooleanArray();
+        revealed = in.createBooleanArray();
+        palette = in.createIntArray();
+        phase = in.readInt();
+        remainingMs = in.readLong();
+        solveElapsedMs = in.readLong();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(gridSize);
+        dest.writeInt(targetCount);
+        dest.writeLong(solveMs);
+        dest.writeInt(solvedStreak);
+        dest.writeIntArray(cellColor);
+        dest.writeBooleanArray(isTarget);
+        dest.writeBooleanArray(revealed);
+        dest.writeIntArray(palette);
+        dest.writeInt(phase);
+        dest.writeLong(remainingMs);
+        dest.writeLong(solveElapsedMs);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Creator<MemoryMatchState> CREATOR = new Creator<MemoryMatchState>() {
+        @Override
+        public MemoryMatchState createFromParcel(Parcel in) {
+            return new MemoryMatchState(in);
+        }
+
+        @Override
+        public MemoryMatchState[] newArray(int size) {
+            return new MemoryMatchState[size];
+        }
+    };
+}
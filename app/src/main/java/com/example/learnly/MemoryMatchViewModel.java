@@ -0,0 +1,85 @@
+package com.example.learnly;
+
+import android.os.SystemClock;
+
+import androidx.lifecycle.ViewModel;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Memory Match's game state, kept across configuration changes: the level, the board, the palette
+ * and the phase of the round.
+ *
+ * Timers belong to the activity. A phase records when it ends (phaseEndsAt); when the activity
+ * pauses, the time it had left goes to remainingMs and the next activity (or the same one on
+ * resume) carries on from there. snapshot() and restore() carry the game over process death.
+ */
+public class MemoryMatchViewModel extends ViewModel {
+
+    static final int PHASE_IDLE = 0;      // before the first round, or after time ran out
+    static final int PHASE_MEMORIZE = 1;  // targets shown
+    static final int PHASE_SOLVE = 2;     // targets hidden, palette live
+    static final int PHASE_SOLVED = 3;    // waiting for the next round to start
+
+    final Random rng = new Random();
+    boolean configured = false;      // difficulty applied
+    int gridSize = 3;                // set via Firebase difficulty
+    int targetCount = 4;             // will be clamped based on grid
+    long solveMs = 12000;            // user-adjustable via slider
+    int solvedStreak = 0;            // how many puzzles solved in a row
+
+    // Board
+    int total;
+    int[] cellColor;                 // actual color for targets (gray otherwise)
+    boolean[] isTarget;              // which cells are targets
+    boolean[] revealed;              // targets already solved
+
+    // Palette multiset
+    final ArrayList<Integer> palette = new ArrayList<>();
+
+    int phase = PHASE_IDLE;
+    long phaseEndsAt;                // SystemClock.elapsedRealtime()
+    long remainingMs = -1;           // time left when the phase was paused; -1 = running or idle
+    long solveStartedAt;             // SystemClock.elapsedRealtime() when the solve phase began
+
+    boolean hasBoard() {
+        return cellColor != null;
+    }
+
+    // Stops the clock of the current phase, keeping the time it had left
+    void pausePhase() {
+        if (phase == PHASE_IDLE || remainingMs >= 0) return;
+        remainingMs = Math.max(0, phaseEndsAt - SystemClock.elapsedRealtime());
+    }
+
+    // ---------- Process death ----------
+
+    MemoryMatchState snapshot() {
+        int[] colors = new int[palette.size()];
+        for (int i = 0; i < colors.length; i++) colors[i] = palette.get(i);
+        long now = SystemClock.elapsedRealtime();
+        long left = remainingMs >= 0 ? remainingMs : Math.max(0, phaseEndsAt - now);
+        // Time spent solving so far; restore() turns it back into a start time
+        long solved = phase == PHASE_SOLVE ? Math.max(0, now - solveStartedAt) : 0;
+        return new MemoryMatchState(gridSize, targetCount, solveMs, solvedStreak,
+                cellColor, isTarget, revealed, colors, phase, phase == PHASE_IDLE ? -1 : left, solved);
+    }
+
+    void restore(MemoryMatchState state) {
+        configured = true;
+        gridSize = state.gridSize;
+        targetCount = state.targetCount;
+        solveMs = state.solveMs;
+        solvedStreak = state.solvedStreak;
+        cellColor = state.cellColor;
+        isTarget = state.isTarget;
+        revealed = state.revealed;
+        total = cellColor == null ? 0 : cellColor.length;
+        palette.clear();
+        for (int c : state.palette) palette.add(c);
+        phase = cellColor == null ? PHASE_IDLE : state.phase;
+        remainingMs = phase == PHASE_IDLE ? -1 : state.remainingMs;
+        solveStartedAt = SystemClock.elapsedRealtime() - state.solveElapsedMs;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.learnly;
+
+import android.app.Activity;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Every mini-app on the home screen, with its Firebase key (users/<uid>/miniApps/<id>),
+ * the name shown to parents and the activity that plays it.
+ * Home gating, ParentalActivity and each game's settings check all go through this one list,
+ * so the keys can no longer drift apart between files.
+ */
+public enum MiniApp {
+    STORY_TIME("Story Time", "Story Time", StoryTimeActivity.class),
+    SPELLING_TIME("Spelling Time", "Spelling Time", SpellingGameActivity.class),
+    READING_PRACTICE("Reading Practice", "Reading Practice", ReadingPracticeActivity.class),
+    MEMORY_MATCH("Memory Match", "Memory Match", MemoryMatchActivity.class),
+    COLOUR_PATTERNS("Colour Patterns", "Colour Patterns", null), // TODO: ColourPatternsActivity
+    NUMBER_FUN("Number Fun", "Number Fun", MathActivity.class),
+    WEEKLY_QUIZ("Weekly Quiz", "Weekly Quiz", null);             // TODO: WeeklyQuizActivity
+
+    private static final Map<String, MiniApp> BY_ID = new HashMap<>();
+
+    static {
+        for (MiniApp app : values()) {
+            BY_ID.put(app.id, app);
+        }
+    }
+
+    private final String id;
+    private final String displayName;
+    private final Class<? extends Activity> activityClass;
+
+    // Paths relative to users/<uid>, built once for multi-path updates
+    private final String settingsPath;
+    private final String enabledPath;
+    private final String difficultyPath;
+
+    MiniApp(String id, String displayName, Class<? extends Activity> activityClass) {
+        this.id = id;
+        this.displayName = displayName;
+        this.activityClass = activityClass;
+        this.settingsPath = "miniApps/" + id;
+        this.enabledPath = settingsPath + "/enabled";
+        this.difficultyPath = settingsPath + "/difficulty";
+    }
+
+    // Looks up an app by its Firebase key, or null for keys that are not mini-apps
+    public static MiniApp fromId(String id) {
+        return id == null ? null : BY_ID.get(id);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    // The activity that plays this app, or null if it has not been built yet
+    public Class<? extends Activity> getActivityClass() {
+        return activityClass;
+    }
+
+    public String getSettingsPath() {
+        return settingsPath;
+    }
+
+    public String getEnabledPath() {
+        return enabledPath;
+    }
+
+    public String getDifficultyPath() {
+        return difficultyPath;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.learnly;
+
+// Parent-controlled settings for a single mini-app (users/<uid>/miniApps/<app>)
+public class MiniAppSettings {
+
+    public static final String DEFAULT_DIFFICULTY = "Easy";
+    public static final MiniAppSettings DEFAULT = new MiniAppSettings(true, DEFAULT_DIFFICULTY);
+
+    private final boolean enabled;
+    private final String difficulty;
+
+    // Constructor to create a new MiniAppSettings object
+    public MiniAppSettings(boolean enabled, String difficulty) {
+        this.enabled = enabled;
+        this.difficulty = (difficulty == null) ? DEFAULT_DIFFICULTY : difficulty;
+    }
+
+    // Whether the parent has allowed this app
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // "Easy", "Medium" or "Hard"
+    public String getDifficulty() {
+        return difficulty;
+    }
+}
@@ -0,0 +1,473 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.view.Choreographer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a story aloud sentence by sentence without gaps between sentences.
+ *
+ * Speaking each sentence with speak() and waiting for onDone leaves the engine's start-up time
+ * audible at every sentence boundary. Instead the next {@link #LOOK_AHEAD} sentences are rendered
+ * to files with synthesizeToFile while the current one plays, and each rendered sentence is
+ * prepared in a MediaPlayer chained to the playing one with setNextMediaPlayer, so the platform
+ * starts it the moment the current one ends. Pause and resume work per sentence: resuming replays
+ * the current sentence from its start, from the file already rendered.
+ *
+ * While a sentence renders, the engine's onRangeStart events say at which audio frame each word
+ * starts; during playback the player position is checked once per display frame against those
+ * times to report the word being spoken, for read-along highlighting.
+ *
+ * Main thread only.
+ */
+public class NarrationPipeline {
+
+    private static final String TAG = "NarrationPipeline";
+
+    // Sentences rendered ahead of the one playing
+    static final int LOOK_AHEAD = 3;
+
+    // Utterance tags are generation << 20 | sentence, so callbacks from a stopped run are ignored
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    /** Narration events, on the main thread. */
+    public interface Listener {
+        void onReady();
+
+        void onUnavailable();
+
+        // A sentence started playing
+        void onSentenceStart(int index);
+
+        // Sentence index is now at its word [start, end) (only if the engine reports word ranges)
+        void onWordStart(int index, int start, int end);
+
+        // A sentence could not be rendered or played and was skipped
+        void onSentenceError(int index);
+
+        // The last sentence finished
+        void onFinished();
+    }
+
+    private final File dir;
+    private final Listener listener;
+    private final SpeechService.Speaker speaker;
+    private final AudioAttributes attributes = new AudioAttributes.Builder()
+            .setUsage(AudioAttributes.USAGE_MEDIA)
+            .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+            .build();
+
+    private List<String> sentences = Collections.emptyList();
+    private boolean storyComplete = true;
+    private float rate = 1f;
+    private float pitch = 1f;
+
+    private int generation;
+    private int current;          // sentence playing, or to play next
+    private int nextToRender;     // first sentence not sent to the engine yet
+    private final SparseArray<File> rendered = new SparseArray<>();
+    private final SparseBooleanArray failed = new SparseBooleanArray();
+    private boolean playing;
+
+    private MediaPlayer currentPlayer;
+    private MediaPlayer nextPlayer;
+
+    // Where each word of a rendered sentence starts in its audio
+    private static final class WordTimes {
+        final int sampleRateHz;
+        int[] words = new int[3 * 16];   // start char, end char, start frame
+        int count;
+
+        WordTimes(int sampleRateHz) {
+            this.sampleRateHz = sampleRateHz;
+        }
+
+        void add(int start, int end, int frame) {
+            if (3 * count == words.length) words = Arrays.copyOf(words, words.length * 2);
+            words[3 * count] = start;
+            words[3 * count + 1] = end;
+            words[3 * count + 2] = frame;
+            count++;
+        }
+
+        long startMs(int word) {
+            return words[3 * word + 2] * 1000L / sampleRateHz;
+        }
+    }
+
+    private final SparseArray<WordTimes> wordTimes = new SparseArray<>();
+    private boolean ticking;
+    private int tickSentence = -1;
+    private int tickWord = -1;
+
+    public NarrationPipeline(Context context, Listener listener) {
+        this.dir = new File(context.getCacheDir(), "narration");
+        this.listener = listener;
+        deleteFiles(dir.listFiles()); // left over from a killed process
+        speaker = SpeechService.getInstance(context).openSpeaker(new SpeechService.Callback() {
+            @Override
+            public void onReady() {
+                NarrationPipeline.this.listener.onReady();
+                if (playing) render();
+            }
+
+            @Override
+            public void onUnavailable() {
+                NarrationPipeline.this.listener.onUnavailable();
+            }
+
+            @Override
+            public void onSynthesisStart(int tag, int sampleRateHz) {
+                if (tag >>> INDEX_BITS != generation || sampleRateHz <= 0) return;
+                wordTimes.put(tag & INDEX_MASK, new WordTimes(sampleRateHz));
+            }
+
+            @Override
+            public void onRange(int tag, int start, int end, int frame) {
+                if (tag >>> INDEX_BITS != generation) return;
+                WordTimes times = wordTimes.get(tag & INDEX_MASK);
+                if (times != null) times.add(start, end, frame);
+            }
+
+            @Override
+            public void onDone(int tag) {
+                if (isStale(tag)) return;
+                onRendered(tag & INDEX_MASK);
+            }
+
+            @Override
+            public void onError(int tag) {
+                if (isStale(tag)) return;
+                onRenderFailed(tag & INDEX_MASK);
+            }
+
+            @Override
+            public void onStop(int tag) {
+                if (isStale(tag)) return;
+                // Interrupted by another speaker: render it again
+                int index = tag & INDEX_MASK;
+                if (!speaker.synthesizeToFile(sentences.get(index), fileFor(index), tag)) {
+                    onRenderFailed(index);
+                }
+            }
+        });
+    }
+
+    public boolean isUnavailable() {
+        return speaker.isUnavailable();
+    }
+
+    // True from play() until pause(), stop() or the end of the story, including while waiting on the engine
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    // Index of the sentence playing, or the one play() resumes from
+    public int getCurrentIndex() {
+        return current;
+    }
+
+    // A new story: stops playback and starts again from its first sentence
+    public void setStory(List<String> sentences) {
+        setStory(sentences, true);
+    }
+
+    /**
+     * Same, for a list that is still growing (a story being indexed): call onSentencesAdded as it
+     * grows. Narration that catches up with the end of an incomplete list waits for more.
+     */
+    public void setStory(List<String> sentences, boolean complete) {
+        stop();
+        this.sentences = sentences;
+        this.storyComplete = complete;
+    }
+
+    public void onSentencesAdded(boolean complete) {
+        storyComplete = complete;
+        if (!playing) return;
+        render();
+        if (currentPlayer == null) {
+            startCurrent();
+        } else {
+            prepareNext();
+        }
+    }
+
+    // Rate and pitch for narration (1 = normal); sentences rendered with other values are redone
+    public void setVoice(float rate, float pitch) {
+        if (rate == this.rate && pitch == this.pitch) return;
+        this.rate = rate;
+        this.pitch = pitch;
+        int resumeAt = current;
+        stop();
+        current = resumeAt;
+        nextToRender = resumeAt;
+    }
+
+    // Plays from the given sentence, from its start
+    public void play(int from) {
+        if (from != current) {
+            int resumeAt = from;
+            stop();
+            current = resumeAt;
+            nextToRender = resumeAt;
+        }
+        releasePlayers();
+        playing = true;
+        render();
+        startCurrent();
+    }
+
+    // Stops playback; play(getCurrentIndex()) replays the current sentence from its start
+    public void pause() {
+        playing = false;
+        releasePlayers();
+    }
+
+    // Stops playback and rendering, drops rendered audio and goes back to the first sentence
+    public void stop() {
+        playing = false;
+        releasePlayers();
+        generation = (generation + 1) & 0x7ff;
+        speaker.stop();
+        for (int i = 0; i < rendered.size(); i++) {
+            rendered.valueAt(i).delete();
+        }
+        rendered.clear();
+        failed.clear();
+        wordTimes.clear();
+        current = 0;
+        nextToRender = 0;
+    }
+
+    // Call from onDestroy
+    public void release() {
+        stop();
+        speaker.close();
+    }
+
+    // ---------- Rendering ----------
+
+    private int tagFor(int index) {
+        return generation << INDEX_BITS | index;
+    }
+
+    private File fileFor(int index) {
+        return fileFor(generation, index);
+    }
+
+    private File fileFor(int gen, int index) {
+        return new File(dir, gen + "_" + index + ".wav");
+    }
+
+    // True for a render from before the last stop(); its file is deleted
+    private boolean isStale(int tag) {
+        int gen = tag >>> INDEX_BITS;
+        if (gen == generation) return false;
+        fileFor(gen, tag & INDEX_MASK).delete();
+        return true;
+    }
+
+    // Keeps the engine busy with the sentences after the current one
+    private void render() {
+        if (!speaker.isReady()) return;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "Could not create " + dir);
+            return;
+        }
+        speaker.setVoice(rate, pitch);
+        int end = Math.min(Math.min(sentences.size(), INDEX_MASK + 1), current + LOOK_AHEAD + 1);
+        for (; nextToRender < end; nextToRender++) {
+            if (!speaker.synthesizeToFile(sentences.get(nextToRender), fileFor(nextToRender),
+                    tagFor(nextToRender))) {
+                failed.put(nextToRender, true);
+            }
+        }
+    }
+
+    private void onRendered(int index) {
+        if (index < current) {
+            fileFor(index).delete();
+            return;
+        }
+        rendered.put(index, fileFor(index));
+        if (!playing) return;
+        if (index == current && currentPlayer == null) {
+            startCurrent();
+        } else if (index == current + 1) {
+            prepareNext();
+        }
+    }
+
+    private void onRenderFailed(int index) {
+        Log.w(TAG, "Could not render sentence " + index);
+        fileFor(index).delete();
+        failed.put(index, true);
+        if (playing && index == current && currentPlayer == null) startCurrent();
+    }
+
+    // ---------- Playback ----------
+
+    // Starts the current sentence if it is rendered; otherwise onRendered() starts it
+    private void startCurrent() {
+        while (playing && current < sentences.size() && failed.get(current)) {
+            listener.onSentenceError(current);
+            current++;
+            render();
+        }
+        if (!playing) return;
+        if (current >= sentences.size()) {
+            if (storyComplete) finish(); // otherwise onSentencesAdded() carries on
+            return;
+        }
+        File file = rendered.get(current);
+        if (file == null) return;
+
+        currentPlayer = createPlayer(file);
+        if (currentPlayer == null) {
+            failed.put(current, true);
+            startCurrent();
+            return;
+        }
+        currentPlayer.start();
+        listener.onSentenceStart(current);
+        tickSentence = -1; // replaying a sentence starts from its first word
+        startTicking();
+        prepareNext();
+    }
+
+    // Chains the next rendered sentence to the playing one
+    private void prepareNext() {
+        if (currentPlayer == null || nextPlayer != null) return;
+        File file = rendered.get(current + 1);
+        if (file == null) return;
+        nextPlayer = createPlayer(file);
+        if (nextPlayer != null) currentPlayer.setNextMediaPlayer(nextPlayer);
+    }
+
+    private final MediaPlayer.OnCompletionListener onCompletion = new MediaPlayer.OnCompletionListener() {
+        @Override
+        public void onCompletion(MediaPlayer mp) {
+            if (mp != currentPlayer) return;
+            mp.release();
+            File done = rendered.get(current);
+            if (done != null) done.delete();
+            rendered.remove(current);
+            wordTimes.remove(current);
+            current++;
+
+            // The platform has already started the chained player
+            currentPlayer = nextPlayer;
+            nextPlayer = null;
+            render();
+            if (currentPlayer != null) {
+                listener.onSentenceStart(current);
+                prepareNext();
+            } else {
+                startCurrent();
+            }
+        }
+    };
+
+    private final MediaPlayer.OnErrorListener onError = new MediaPlayer.OnErrorListener() {
+        @Override
+        public boolean onError(MediaPlayer mp, int what, int extra) {
+            Log.w(TAG, "Playback error " + what + "/" + extra);
+            if (mp == currentPlayer) {
+                // Skip the sentence: completion follows an unhandled error
+                return false;
+            }
+            if (mp == nextPlayer) {
+                currentPlayer.setNextMediaPlayer(null);
+                nextPlayer.release();
+                nextPlayer = null;
+                failed.put(current + 1, true);
+            }
+            return true;
+        }
+    };
+
+    private MediaPlayer createPlayer(File file) {
+        MediaPlayer mp = new MediaPlayer();
+        try {
+            mp.setAudioAttributes(attributes);
+            mp.setDataSource(file.getPath());
+            mp.prepare(); // a local file of one sentence
+        } catch (IOException | IllegalStateException e) {
+            Log.w(TAG, "Could not prepare " + file.getName(), e);
+            mp.release();
+            return null;
+        }
+        mp.setOnCompletionListener(onCompletion);
+        mp.setOnErrorListener(onError);
+        return mp;
+    }
+
+    // ---------- Word timing ----------
+
+    private void startTicking() {
+        if (ticking) return;
+        ticking = true;
+        Choreographer.getInstance().postFrameCallback(ticker);
+    }
+
+    // Once per display frame while playing: reports the word whose audio start was last passed
+    private final Choreographer.FrameCallback ticker = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!playing || currentPlayer == null) {
+                ticking = false;
+                return;
+            }
+            WordTimes times = wordTimes.get(current);
+            if (current != tickSentence) {
+                tickSentence = current;
+                tickWord = -1;
+            }
+            if (times != null) {
+                long positionMs = currentPlayer.getCurrentPosition();
+                int word = tickWord;
+                while (word + 1 < times.count && times.startMs(word + 1) <= positionMs) word++;
+                if (word != tickWord && word >= 0) {
+                    tickWord = word;
+                    listener.onWordStart(current, times.words[3 * word], times.words[3 * word + 1]);
+                }
+            }
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
+
+    private void releasePlayers() {
+        if (currentPlayer != null) {
+            currentPlayer.release();
+            currentPlayer = null;
+        }
+        if (nextPlayer != null) {
+            nextPlayer.release();
+            nextPlayer = null;
+        }
+    }
+
+    private void finish() {
+        stop();
+        listener.onFinished();
+    }
+
+    private static void deleteFiles(File[] files) {
+        if (files == null) return;
+        for (File f : files) {
+            f.delete();
+        }
+    }
+}
@@ -7,8 +7,11 @@ package com.example.learnly;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.Log;
 import android.view.View;
+import android.widget.AdapterView;
 import android.widget.ArrayAdapter;
 import android.widget.Button;
 import android.widget.EditText;
@@ -25,14 +28,15 @@ import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class ParentalActivity extends AppCompatActivity {
     private static final String TAG = "ParentalActivity";
 
     private DatabaseReference user;
-    private DatabaseReference db;
     private FirebaseAuth mAuth;
     private FirebaseUser currentUser;
 
@@ -59,6 +63,10 @@ public class ParentalActivity extends AppCompatActivity {
 
     private final String[] difficultyLevels = {"Easy", "Medium", "Hard"};
 
+    // One row per mini-app, with the values last loaded from Firebase for dirty tracking
+    private final List<AppControls> appControls = new ArrayList<>();
+    private String loadedEmail = "";
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -76,10 +84,10 @@ public class ParentalActivity extends AppCompatActivity {
 
         String userId = currentUser.getUid();
         user = FirebaseDatabase.getInstance().getReference("users").child(userId);
-        db = user.child("miniApps");
 
         initializeUI();
         setupSpinners();
+        bindAppControls();
         loadParentalSettings();
 
         btnSaveParental.setOnClickListener(new View.OnClickListener() {
@@ -129,26 +137,75 @@ public class ParentalActivity extends AppCompatActivity {
         spinnerReadingPractice.setAdapter(spinnerAdapter); // NEW
     }
 
-    // Loads the user settings from Firebase
+    // Groups each app's switch and spinner under its registry entry and watches them for edits
+    private void bindAppControls() {
+        appControls.add(new AppControls(MiniApp.STORY_TIME,       switchStoryTime,       spinnerStoryTime));
+        appControls.add(new AppControls(MiniApp.SPELLING_TIME,    switchSpellingTime,    spinnerSpellingTime));
+        appControls.add(new AppControls(MiniApp.MEMORY_MATCH,     switchMemoryMatch,     spinnerMemoryMatch));
+        appControls.add(new AppControls(MiniApp.COLOUR_PATTERNS,  switchColourPatterns,  spinnerColourPatterns));
+        appControls.add(new AppControls(MiniApp.NUMBER_FUN,       switchNumberFun,       spinnerNumberFun));
+        appControls.add(new AppControls(MiniApp.WEEKLY_QUIZ,      switchWeeklyQuiz,      spinnerWeeklyQuiz));
+        appControls.add(new AppControls(MiniApp.READING_PRACTICE, switchReadingPractice, spinnerReadingPractice));
+
+        for (final AppControls controls : appControls) {
+            controls.appSwitch.setOnCheckedChangeListener((buttonView, isChecked) -> updateSaveButton());
+            controls.appSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+                @Override
+                public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                    updateSaveButton();
+                }
+
+                @Override
+                public void onNothingSelected(AdapterView<?> parent) {
+                }
+            });
+        }
+        editTextParentalEmail.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                updateSaveButton();
+            }
+        });
+    }
+
+    // Loads the user settings from Firebase (only the parentEmail and miniApps children)
     private void loadParentalSettings() {
-        user.addListenerForSingleValueEvent(new ValueEventListener() {
+        user.child("parentEmail").addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (snapshot.hasChild("parentEmail")) {
-                    String email = snapshot.child("parentEmail").getValue(String.class);
-                    editTextParentalEmail.setText(email);
-                } else {
+                String email = snapshot.getValue(String.class);
+                if (email == null) {
+                    // Nothing saved yet: show the account email, and treat it as a change to save
+                    loadedEmail = "";
                     editTextParentalEmail.setText(currentUser.getEmail());
+                } else {
+                    loadedEmail = email;
+                    editTextParentalEmail.setText(email);
                 }
+                updateSaveButton();
+            }
 
-                DataSnapshot appsSnapshot = snapshot.child("miniApps");
-                loadAppSetting(appsSnapshot, "Story Time",        switchStoryTime,       spinnerStoryTime);
-                loadAppSetting(appsSnapshot, "Spelling Time",     switchSpellingTime,    spinnerSpellingTime);
-                loadAppSetting(appsSnapshot, "Memory Match",      switchMemoryMatch,     spinnerMemoryMatch);
-                loadAppSetting(appsSnapshot, "Colour Patterns",   switchColourPatterns,  spinnerColourPatterns);
-                loadAppSetting(appsSnapshot, "Number Fun",        switchNumberFun,       spinnerNumberFun);
-                loadAppSetting(appsSnapshot, "Weekly Quiz",       switchWeeklyQuiz,      spinnerWeeklyQuiz);
-                loadAppSetting(appsSnapshot, "Reading Practice",  switchReadingPractice, spinnerReadingPractice); // NEW
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.e(TAG, "Failed to load parent email.", error.toException());
+            }
+        });
+
+        user.child("miniApps").addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot appsSnapshot) {
+                for (AppControls controls : appControls) {
+                    loadAppSetting(appsSnapshot, controls);
+                }
+                updateSaveButton();
             }
 
             @Override
@@ -159,43 +216,37 @@ public class ParentalActivity extends AppCompatActivity {
     }
 
     // Helper function to load the settings for a single app
-    private void loadAppSetting(DataSnapshot appsSnapshot,
-                                String appName,
-                                SwitchMaterial appSwitch,
-                                Spinner appSpinner) {
-        if (appsSnapshot.hasChild(appName)) {
-
-            Boolean isEnabled = appsSnapshot.child(appName).child("enabled").getValue(Boolean.class);
-            appSwitch.setChecked(isEnabled != null && isEnabled);
-
-            String difficulty = appsSnapshot.child(appName).child("difficulty").getValue(String.class);
-            appSpinner.setSelection(getDifficultyPosition(difficulty));
-
+    private void loadAppSetting(DataSnapshot appsSnapshot, AppControls controls) {
+        String appId = controls.app.getId();
+        if (appsSnapshot.hasChild(appId)) {
+            DataSnapshot app = appsSnapshot.child(appId);
+            Boolean isEnabled = app.child("enabled").getValue(Boolean.class);
+            String difficulty = app.child("difficulty").getValue(String.class);
+            // A node without "enabled" (e.g. only a difficulty was saved) is enabled, as in UserSnapshot
+            controls.loadedEnabled = isEnabled == null || isEnabled;
+            controls.loadedDifficultyPosition = getDifficultyPosition(difficulty);
         } else {
-            appSwitch.setChecked(true);
-            appSpinner.setSelection(0); // "Easy"
+            controls.loadedEnabled = true;
+            controls.loadedDifficultyPosition = 0; // "Easy"
         }
+        controls.appSwitch.setChecked(controls.loadedEnabled);
+        controls.appSpinner.setSelection(controls.loadedDifficultyPosition);
     }
 
-    // Saves all settings to the Firebase db
+    // Saves only the fields that changed since load, as one atomic multi-path update on users/<uid>
     private void saveParentalSettings() {
-        String email = editTextParentalEmail.getText().toString().trim();
-        db.child("parentEmail").setValue(email);
-
-        Map<String, Object> miniAppsMap = new HashMap<>();
-        miniAppsMap.put("Story Time",       createAppMapFromUI(switchStoryTime,       spinnerStoryTime));
-        miniAppsMap.put("Spelling Time",    createAppMapFromUI(switchSpellingTime,    spinnerSpellingTime));
-        miniAppsMap.put("Memory Match",     createAppMapFromUI(switchMemoryMatch,     spinnerMemoryMatch));
-        miniAppsMap.put("Colour Patterns",  createAppMapFromUI(switchColourPatterns,  spinnerColourPatterns));
-        miniAppsMap.put("Number Fun",       createAppMapFromUI(switchNumberFun,       spinnerNumberFun));
-        miniAppsMap.put("Weekly Quiz",      createAppMapFromUI(switchWeeklyQuiz,      spinnerWeeklyQuiz));
-        miniAppsMap.put("Reading Practice", createAppMapFromUI(switchReadingPractice, spinnerReadingPractice)); // NEW
-
-        db.setValue(miniAppsMap)
+        final Map<String, Object> updates = collectChangedFields();
+        if (updates.isEmpty()) {
+            Log.d(TAG, "No parental changes to save.");
+            finish();
+            return;
+        }
+
+        user.updateChildren(updates)
                 .addOnSuccessListener(new OnSuccessListener<Void>() {
                     @Override
                     public void onSuccess(Void aVoid) {
-                        Log.d(TAG, "Parental controls saved successfully.");
+                        Log.d(TAG, "Parental controls saved successfully (" + updates.size() + " fields).");
                         finish();
                     }
                 })
@@ -207,11 +258,33 @@ public class ParentalActivity extends AppCompatActivity {
                 });
     }
 
-    private Map<String, Object> createAppMapFromUI(SwitchMaterial appSwitch, Spinner appSpinner) {
-        Map<String, Object> appSettings = new HashMap<>();
-        appSettings.put("enabled", appSwitch.isChecked());
-        appSettings.put("difficulty", appSpinner.getSelectedItem().toString());
-        return appSettings;
+    // Builds the multi-path update, keyed relative to users/<uid>
+    private Map<String, Object> collectChangedFields() {
+        Map<String, Object> updates = new HashMap<>();
+
+        String email = editTextParentalEmail.getText().toString().trim();
+        if (!email.equals(loadedEmail)) {
+            updates.put("parentEmail", email);
+        }
+
+        for (AppControls controls : appControls) {
+            if (controls.isEnabledDirty()) {
+                updates.put(controls.app.getEnabledPath(), controls.appSwitch.isChecked());
+            }
+            if (controls.isDifficultyDirty()) {
+                updates.put(controls.app.getDifficultyPath(), controls.appSpinner.getSelectedItem().toString());
+            }
+        }
+        return updates;
+    }
+
+    private void updateSaveButton() {
+        boolean dirty = !editTextParentalEmail.getText().toString().trim().equals(loadedEmail);
+        for (AppControls controls : appControls) {
+            if (dirty) break;
+            dirty = controls.isEnabledDirty() || controls.isDifficultyDirty();
+        }
+        btnSaveParental.setText(dirty ? "Save Changes" : "Done");
     }
 
     private int getDifficultyPosition(String difficulty) {
@@ -226,4 +299,27 @@ public class ParentalActivity extends AppCompatActivity {
                 return 0;
         }
     }
-}
+
+    // The switch and spinner for one mini-app, plus what Firebase held when the screen loaded
+    private static class AppControls {
+        final MiniApp app;
+        final SwitchMaterial appSwitch;
+        final Spinner appSpinner;
+        boolean loadedEnabled = true;
+        int loadedDifficultyPosition = 0;
+
+        AppControls(MiniApp app, SwitchMaterial appSwitch, Spinner appSpinner) {
+            this.app = app;
+            this.appSwitch = appSwitch;
+            this.appSpinner = appSpinner;
+        }
+
+        boolean isEnabledDirty() {
+            return appSwitch.isChecked() != loadedEnabled;
+        }
+
+        boolean isDifficultyDirty() {
+            return appSpinner.getSelectedItemPosition() != loadedDifficultyPosition;
+        }
+    }
+}
\ No newline at end of file
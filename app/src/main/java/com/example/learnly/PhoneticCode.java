@@ -0,0 +1,175 @@
+package com.example.learnly;
+
+/**
+ * Metaphone-style sound key for an English word, so a reading that sounds right scores well even
+ * when the recognizer spells it another way: "phone" and "fone" both give FN, "knight" and
+ * "nite" both give NT.
+ *
+ * Letters that sound alike share one consonant code (C/K/Q as K, PH/V as F, SH/CH as X, TH
+ * as 0), silent letters (KN, WR, most GH, final MB) are dropped and vowels are kept only at the
+ * start, as A.
+ * Only one key per word, not Double Metaphone's primary/alternate pair: the words are short and
+ * the key only adds to the spelling score. Case-insensitive; chars other than a-z are skipped.
+ */
+public final class PhoneticCode {
+
+    private PhoneticCode() {
+    }
+
+    /** Appends the key of word to out; nothing is allocated. */
+    public static void encode(CharSequence word, StringBuilder out) {
+        int n = word.length();
+        int start = skipSilentStart(word);
+        int i = start;
+        if (at(word, i) == 'x') {
+            out.append('S');
+            i++;
+        }
+
+        for (; i < n; i++) {
+            char c = at(word, i);
+            if (c == 0) continue;
+            char prev = at(word, i - 1);
+            char next = at(word, i + 1);
+            if (c == prev && c != 'c') continue;
+
+            switch (c) {
+                case 'a': case 'e': case 'i': case 'o': case 'u':
+                    if (i == start) out.append('A');
+                    break;
+                case 'b':
+                    if (!(prev == 'm' && i == n - 1)) out.append('B');
+                    break;
+                case 'c':
+                    if (next == 'i' && at(word, i + 2) == 'a') {
+                        out.append('X');
+                    } else if (next == 'h') {
+                        out.append(prev == 's' ? 'K' : 'X');
+                        i++;
+                    } else if (next == 'e' || next == 'i' || next == 'y') {
+                        if (prev != 's') out.append('S');
+                    } else {
+                        out.append('K');
+                    }
+                    break;
+                case 'd':
+                    if (next == 'g' && isSoftening(at(word, i + 2))) {
+                        out.append('J');
+                        i++;
+                    } else {
+                        out.append('T');
+                    }
+                    break;
+                case 'g':
+                    if (next == 'h') {
+                        // "ghost" says G; "night", "though" keep GH silent
+                        if (i == start || isVowel(at(word, i + 2))) out.append('K');
+                        i++;
+                    } else if (next == 'n' && (i + 2 >= n || at(word, i + 2) == 'e' && i + 3 >= n)) {
+                        // silent in "sign", "signed"
+                    } else if (isSoftening(next)) {
+                        out.append('J');
+                    } else {
+                        out.append('K');
+                    }
+                    break;
+                case 'h':
+                    if (isVowel(next)) out.append('H');
+                    break;
+                case 'k':
+                    if (prev != 'c') out.append('K');
+                    break;
+                case 'p':
+                    if (next == 'h') {
+                        out.append('F');
+                        i++;
+                    } else {
+                        out.append('P');
+                    }
+                    break;
+                case 'q':
+                    out.append('K');
+                    break;
+                case 's':
+                    if (next == 'h') {
+                        out.append('X');
+                        i++;
+                    } else if (next == 'i' && (at(word, i + 2) == 'o' || at(word, i + 2) == 'a')) {
+                        out.append('X');
+                    } else {
+                        out.append('S');
+                    }
+                    break;
+                case 't':
+                    if (next == 'i' && (at(word, i + 2) == 'o' || at(word, i + 2) == 'a')) {
+                        out.append('X');
+                    } else if (next == 'h') {
+                        out.append('0');
+                        i++;
+                    } else if (!(next == 'c' && at(word, i + 2) == 'h')) {
+                        out.append('T');
+                    }
+                    break;
+                case 'v':
+                    out.append('F');
+                    break;
+                case 'w':
+                    if (next == 'h') {
+                        // "wh" says W
+                        if (isVowel(at(word, i + 2))) out.append('W');
+                        i++;
+                    } else if (isVowel(next)) {
+                        out.append('W');
+                    }
+                    break;
+                case 'y':
+                    if (isVowel(next)) out.append('Y');
+                    break;
+                case 'x':
+                    out.append('K').append('S');
+                    break;
+                case 'z':
+                    out.append('S');
+                    break;
+                default:
+                    // f, j, l, m, n, r
+                    out.append(Character.toUpperCase(c));
+                    break;
+            }
+        }
+    }
+
+    // Index of the first letter that is sounded: KN, GN, PN, AE, WR drop their first letter
+    private static int skipSilentStart(CharSequence word) {
+        int first = firstLetter(word);
+        char c = at(word, first);
+        char next = at(word, first + 1);
+        if ((c == 'k' || c == 'g' || c == 'p') && next == 'n') return first + 1;
+        if (c == 'a' && next == 'e') return first + 1;
+        if (c == 'w' && next == 'r') return first + 1;
+        return first;
+    }
+
+    private static int firstLetter(CharSequence word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (at(word, i) != 0) return i;
+        }
+        return word.length();
+    }
+
+    // Lowercase letter at i, or 0 out of range or for anything but a-z
+    private static char at(CharSequence word, int i) {
+        if (i < 0 || i >= word.length()) return 0;
+        char c = Character.toLowerCase(word.charAt(i));
+        return (c >= 'a' && c <= 'z') ? c : 0;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+
+    // E, I and Y make a C or G soft
+    private static boolean isSoftening(char c) {
+        return c == 'e' || c == 'i' || c == 'y';
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Pre-rendered audio for short phrases the games say over and over (letter names, phonics sounds,
+ * "Great job! That is correct.").
+ *
+ * Each phrase is rendered once with synthesizeToFile into a small disk cache, keyed by text, rate
+ * and pitch, and cleared when the engine's voice changes. Cached clips are decoded into a SoundPool
+ * up front, so play() starts in a few milliseconds instead of waiting for the engine to synthesize,
+ * and clips rendered on an earlier run keep working if the voice data later goes missing. The cache
+ * is an LRU bounded by {@link #MAX_CACHE_BYTES}.
+ *
+ * Main thread only; file work runs on a background thread.
+ */
+public class PhraseAudioCache {
+
+    private static final String TAG = "PhraseAudioCache";
+
+    // The games prefetch about 80 phrases (Spelling's letters and "Next letter is" prompts,
+    // Reading's phonics sounds). At up to 2 s of 16-bit mono at 44.1 kHz (~176 KB) each, they need
+    // about 14 MB, so this cap holds all of them and prefetching never evicts its own clips
+    private static final long MAX_CACHE_BYTES = 16L * 1024 * 1024;
+    private static final int MAX_STREAMS = 3;
+
+    // A render interrupted by a game's prompt is retried once the engine has had time to finish it
+    private static final long RETRY_DELAY_MS = 500;
+
+    private static final String PREFS_NAME = "phrase_audio_cache";
+    private static final String KEY_VOICE = "voice";
+    private static final String CLIP_SUFFIX = ".wav";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final float RATE = 1f;
+    private static final float PITCH = 1f;
+
+    // One rendered phrase
+    private static final class Clip {
+        final String key;
+        final File file;
+        final long bytes;
+        int soundId;
+        boolean loaded;
+
+        Clip(String key, File file, long bytes) {
+            this.key = key;
+            this.file = file;
+            this.bytes = bytes;
+        }
+    }
+
+    private static PhraseAudioCache instance;
+
+    private final File dir;
+    private final SharedPreferences prefs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService io = Executors.newSingleThreadExecutor();
+    private final SpeechService speech;
+    private final SoundPool soundPool;
+
+    // Access-ordered, so iteration starts at the least recently played clip
+    private final LinkedHashMap<String, Clip> clips = new LinkedHashMap<>(64, 0.75f, true);
+    private final SparseArray<Clip> clipsBySound = new SparseArray<>();
+    private long totalBytes;
+
+    // Phrases waiting to be rendered, by key
+    private final ArrayDeque<String> renderQueue = new ArrayDeque<>();
+    private final Map<String, String> renderText = new LinkedHashMap<>();
+    private String rendering;
+    private int renderTag;
+
+    private SpeechService.Speaker speaker;
+    private boolean indexLoaded;
+
+    public static synchronized PhraseAudioCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new PhraseAudioCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private PhraseAudioCache(Context appContext) {
+        dir = new File(appContext.getCacheDir(), "phrases");
+        prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        speech = SpeechService.getInstance(appContext);
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_STREAMS)
+                .setAudioAttributes(new AudioAttributes.Builder()
+                        .setUsage(AudioAttributes.USAGE_ASSISTANCE_SONIFICATION)
+                        .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                        .build())
+                .build();
+        soundPool.setOnLoadCompleteListener(new SoundPool.OnLoadCompleteListener() {
+            @Override
+            public void onLoadComplete(SoundPool pool, int soundId, int status) {
+                Clip clip = clipsBySound.get(soundId);
+                if (clip == null) return;
+                if (status == 0) {
+                    clip.loaded = true;
+                } else {
+                    Log.w(TAG, "Could not load " + clip.file.getName());
+                    remove(clip, true);
+                }
+            }
+        });
+    }
+
+    // Loads the clips rendered on earlier runs and starts rendering anything requested since
+    public void warmUp() {
+        if (speaker != null) return;
+        speaker = speech.openSpeaker(new SpeechService.Callback() {
+            @Override
+            public void onReady() {
+                if (indexLoaded) checkVoice(speech.getVoiceName());
+                renderNext();
+            }
+
+            @Override
+            public void onDone(int tag) {
+                if (tag == renderTag) onRendered();
+            }
+
+            @Override
+            public void onError(int tag) {
+                if (tag == renderTag) onRenderFailed(false);
+            }
+
+            @Override
+            public void onStop(int tag) {
+                if (tag == renderTag) onRenderFailed(true);
+            }
+        });
+        speaker.setVoice(RATE, PITCH);
+
+        final int span = StartupTrace.begin("phrases.index");
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                File[] files = dir.listFiles();
+                final List<File> found = new ArrayList<>();
+                if (files != null) {
+                    for (File f : files) {
+                        if (f.getName().endsWith(CLIP_SUFFIX)) {
+                            found.add(f);
+                        } else if (f.getName().endsWith(TEMP_SUFFIX)) {
+                            f.delete(); // render cut short by process death
+                        }
+                    }
+                }
+                // Oldest first, so the access order starts out as the last-played order
+                final int n = found.size();
+                final long[] modified = new long[n];
+                Integer[] order = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    modified[i] = found.get(i).lastModified();
+                    order[i] = i;
+                }
+                Arrays.sort(order, new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer a, Integer b) {
+                        return Long.compare(modified[a], modified[b]);
+                    }
+                });
+                final List<File> ordered = new ArrayList<>(n);
+                final List<Long> sizes = new ArrayList<>(n);
+                for (Integer i : order) {
+                    ordered.add(found.get(i));
+                    sizes.add(found.get(i).length());
+                }
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < ordered.size(); i++) {
+                            File f = ordered.get(i);
+                            String name = f.getName();
+                            String key = name.substring(0, name.length() - CLIP_SUFFIX.length());
+                            if (!clips.containsKey(key)) add(new Clip(key, f, sizes.get(i)));
+                        }
+                        indexLoaded = true;
+                        if (speaker.isReady()) checkVoice(speech.getVoiceName());
+                        trim();
+                        StartupTrace.end(span);
+                        Log.d(TAG, "Loaded " + clips.size() + " cached phrases.");
+                        renderNext();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Plays a phrase from the cache. Returns false if it isn't cached (or not decoded yet), in
+     * which case the caller should speak it and the phrase is queued for rendering.
+     */
+    public boolean play(String text) {
+        String key = keyFor(text);
+        Clip clip = clips.get(key); // marks it as recently used
+        if (clip == null || !clip.loaded) {
+            if (clip == null) request(key, text);
+            return false;
+        }
+        soundPool.play(clip.soundId, 1f, 1f, 1, 0, 1f);
+        touch(clip.file);
+        return true;
+    }
+
+    // Renders phrases that aren't cached yet, e.g. the letters of a game as it opens
+    public void prefetch(List<String> phrases) {
+        for (String text : phrases) {
+            String key = keyFor(text);
+            if (!clips.containsKey(key)) request(key, text);
+        }
+    }
+
+    // ---------- Rendering ----------
+
+    private void request(String key, String text) {
+        if (renderText.containsKey(key) || key.equals(rendering)) return;
+        renderText.put(key, text);
+        renderQueue.add(key);
+        renderNext();
+    }
+
+    private void renderNext() {
+        if (rendering != null || !indexLoaded || speaker == null || !speaker.isReady()) return;
+        while (!renderQueue.isEmpty()) {
+            String key = renderQueue.poll();
+            String text = renderText.remove(key);
+            if (text == null || clips.containsKey(key)) continue;
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                Log.e(TAG, "Could not create " + dir);
+                return;
+            }
+            renderTag++;
+            if (speaker.synthesizeToFile(text, new File(dir, key + TEMP_SUFFIX), renderTag)) {
+                rendering = key;
+                renderText.put(key, text); // kept until the file is complete, for a retry
+                return;
+            }
+            Log.w(TAG, "Could not render \"" + text + "\"");
+        }
+    }
+
+    private void onRendered() {
+        final String key = rendering;
+        renderText.remove(key);
+        final File temp = new File(dir, key + TEMP_SUFFIX);
+        final File file = new File(dir, key + CLIP_SUFFIX);
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                final boolean ok = temp.length() > 0 && temp.renameTo(file);
+                final long bytes = file.length();
+                if (!ok) temp.delete();
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (ok && !clips.containsKey(key)) {
+                            add(new Clip(key, file, bytes));
+                            trim();
+                        }
+                        rendering = null;
+                        renderNext();
+                    }
+                });
+            }
+        });
+    }
+
+    private void onRenderFailed(boolean interrupted) {
+        String key = rendering;
+        rendering = null;
+        final File temp = new File(dir, key + TEMP_SUFFIX);
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                temp.delete();
+            }
+        });
+        if (interrupted) {
+            renderQueue.add(key);
+            mainHandler.postDelayed(new Runnable() {
+                @Override
+                public void run() {
+                    renderNext();
+                }
+            }, RETRY_DELAY_MS);
+        } else {
+            Log.w(TAG, "Could not render \"" + renderText.remove(key) + "\"");
+            renderNext();
+        }
+    }
+
+    // ---------- Index ----------
+
+    private void add(Clip clip) {
+        clips.put(clip.key, clip);
+        totalBytes += clip.bytes;
+        clip.soundId = soundPool.load(clip.file.getPath(), 1);
+        clipsBySound.put(clip.soundId, clip);
+    }
+
+    // Evicts the least recently played clips until the cache fits
+    private void trim() {
+        Iterator<Clip> it = clips.values().iterator();
+        while (totalBytes > MAX_CACHE_BYTES && it.hasNext()) {
+            Clip clip = it.next();
+            it.remove();
+            remove(clip, false);
+        }
+    }
+
+    private void remove(Clip clip, boolean fromIndex) {
+        if (fromIndex) clips.remove(clip.key);
+        totalBytes -= clip.bytes;
+        clipsBySound.remove(clip.soundId);
+        soundPool.unload(clip.soundId);
+        final File file = clip.file;
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                file.delete();
+            }
+        });
+    }
+
+    // A new voice sounds different: drop everything rendered with the old one
+    private void checkVoice(String voice) {
+        if (voice == null) return;
+        String previous = prefs.getString(KEY_VOICE, null);
+        if (voice.equals(previous)) return;
+        prefs.edit().putString(KEY_VOICE, voice).apply();
+        if (previous == null) return;
+        Log.d(TAG, "Voice changed, clearing cached phrases.");
+        for (Clip clip : new ArrayList<>(clips.values())) {
+            remove(clip, true);
+        }
+    }
+
+    // Marks a clip as recently used on disk, so the order survives a restart
+    private void touch(final File file) {
+        final long now = System.currentTimeMillis();
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                file.setLastModified(now);
+            }
+        });
+    }
+
+    // File name for a phrase: 64-bit FNV-1a of text, rate and pitch
+    private static String keyFor(String text) {
+        String id = text + '|' + RATE + '|' + PITCH;
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return String.format(Locale.US, "%016x", hash);
+    }
+}
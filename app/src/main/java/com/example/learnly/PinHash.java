@@ -0,0 +1,89 @@
+package com.example.learnly;
+
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Locale;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted, deliberately slow hash of the parent PIN, encoded as "pbkdf2-sha1$iterations$salt$hash" (hex).
+ * Plain Java so it can be unit tested; PinVault decides where the encoded string is kept.
+ */
+public final class PinHash {
+
+    private static final String SCHEME = "pbkdf2-sha1";
+    // PBKDF2WithHmacSHA256 needs API 26, SHA1 is available from our minSdk 24
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA1";
+    static final int ITERATIONS = 20_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PinHash() {
+    }
+
+    // Hashes a new PIN with a fresh random salt
+    public static String create(String pin) throws GeneralSecurityException {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        return encode(ITERATIONS, salt, derive(pin, salt, ITERATIONS));
+    }
+
+    // True if the PIN matches the encoded hash; false for a wrong PIN or an unreadable hash
+    public static boolean matches(String pin, String encoded) throws GeneralSecurityException {
+        if (pin == null || encoded == null) return false;
+        String[] parts = encoded.split("\\$");
+        if (parts.length != 4 || !SCHEME.equals(parts[0])) return false;
+
+        int iterations;
+        byte[] salt, expected;
+        try {
+            iterations = Integer.parseInt(parts[1]);
+            salt = fromHex(parts[2]);
+            expected = fromHex(parts[3]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (iterations <= 0 || salt.length == 0 || expected.length == 0) return false;
+
+        // Constant-time comparison, so timing doesn't leak how much of the hash matched
+        return MessageDigest.isEqual(expected, derive(pin, salt, iterations));
+    }
+
+    private static byte[] derive(String pin, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(pin.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static String encode(int iterations, byte[] salt, byte[] hash) {
+        return SCHEME + "$" + iterations + "$" + toHex(salt) + "$" + toHex(hash);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format(Locale.US, "%02x", b & 0xff));
+        }
+        return sb.toString();
+    }
+
+    private static byte[] fromHex(String hex) {
+        if (hex.length() % 2 != 0) throw new IllegalArgumentException("Odd hex length");
+        byte[] out = new byte[hex.length() / 2];
+        for (int i = 0; i < out.length; i++) {
+            int hi = Character.digit(hex.charAt(2 * i), 16);
+            int lo = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (hi < 0 || lo < 0) throw new IllegalArgumentException("Bad hex digit");
+            out[i] = (byte) ((hi << 4) | lo);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.security.crypto.EncryptedSharedPreferences;
+import androidx.security.crypto.MasterKeys;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Process-wide store for the parent PIN.
+ *
+ * Opening EncryptedSharedPreferences (keystore + Tink setup) is slow on low-end tablets, so it happens
+ * once on a background thread at startup and the instance is reused. Only a salted PBKDF2 hash of the
+ * PIN is stored (see PinHash); a plain PIN left by older versions is migrated on first open.
+ * Every call runs on the vault's own thread and reports back on the main thread.
+ */
+public class PinVault {
+
+    private static final String TAG = "PinVault";
+
+    private static final String PREFS_NAME = "parent_secure_prefs";
+    private static final String KEY_PIN_HASH = "parent_pin_hash";
+    // Plain-text PIN written by older versions
+    private static final String KEY_LEGACY_PIN = "parent_pin";
+
+    public static final int STATE_UNAVAILABLE = 0;
+    public static final int STATE_NO_PIN = 1;
+    public static final int STATE_HAS_PIN = 2;
+
+    // Receives STATE_UNAVAILABLE, STATE_NO_PIN or STATE_HAS_PIN on the main thread
+    public interface PinStateListener {
+        void onPinState(int state);
+    }
+
+    // Receives the outcome of a verify or save on the main thread
+    public interface ResultListener {
+        void onResult(boolean success);
+    }
+
+    private static PinVault instance;
+
+    private final Context appContext;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Only touched on the executor thread
+    private SharedPreferences prefs;
+
+    public static synchronized PinVault getInstance(Context context) {
+        if (instance == null) {
+            instance = new PinVault(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private PinVault(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    // Opens the encrypted store in the background so the first PIN dialog doesn't pay for it
+    public void warmUp() {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                openPrefs();
+            }
+        });
+    }
+
+    // Whether a PIN has been created yet
+    public void getPinState(final PinStateListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                SharedPreferences p = openPrefs();
+                final int state = p == null ? STATE_UNAVAILABLE
+                        : p.contains(KEY_PIN_HASH) ? STATE_HAS_PIN : STATE_NO_PIN;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        listener.onPinState(state);
+                    }
+                });
+            }
+        });
+    }
+
+    // Checks an entered PIN against the stored hash
+    public void verify(final String pin, final ResultListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean ok = false;
+                SharedPreferences p = openPrefs();
+                if (p != null) {
+                    try {
+                        ok = PinHash.matches(pin, p.getString(KEY_PIN_HASH, null));
+                    } catch (Exception e) {
+                        Log.e(TAG, "Failed to verify PIN.", e);
+                    }
+                }
+                postResult(listener, ok);
+            }
+        });
+    }
+
+    // Replaces the stored PIN with a hash of the new one
+    public void setPin(final String pin, final ResultListener listener) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean ok = false;
+                SharedPreferences p = openPrefs();
+                if (p != null) {
+                    try {
+                        ok = p.edit().putString(KEY_PIN_HASH, PinHash.create(pin)).remove(KEY_LEGACY_PIN).commit();
+                    } catch (Exception e) {
+                        Log.e(TAG, "Failed to save PIN.", e);
+                    }
+                }
+                postResult(listener, ok);
+            }
+        });
+    }
+
+    private void postResult(final ResultListener listener, final boolean result) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                listener.onResult(result);
+            }
+        });
+    }
+
+    // Executor thread only. Returns null if the keystore could not be used; retried on the next call.
+    private SharedPreferences openPrefs() {
+        if (prefs != null) return prefs;
+        try {
+            String mainKeyAlias = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC);
+            prefs = EncryptedSharedPreferences.create(
+                    PREFS_NAME, mainKeyAlias, appContext, EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV, EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
+            migrateLegacyPin(prefs);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to create encrypted preferences", e);
+            prefs = null;
+        }
+        return prefs;
+    }
+
+    // Replaces a plain-text PIN from older versions with its hash
+    private void migrateLegacyPin(SharedPreferences p) throws Exception {
+        String legacyPin = p.getString(KEY_LEGACY_PIN, null);
+        if (legacyPin == null) return;
+
+        p.edit().putString(KEY_PIN_HASH, PinHash.create(legacyPin)).remove(KEY_LEGACY_PIN).commit();
+        Log.d(TAG, "Migrated stored PIN to a salted hash.");
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.os.Build;
+import android.text.Spannable;
+import android.text.Spanned;
+import android.text.style.BackgroundColorSpan;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.ViewParent;
+import android.widget.ScrollView;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Story Time's read-along pane: the story text with the word being spoken highlighted.
+ *
+ * The story is shown a page of {@link #PAGE_SENTENCES} sentences at a time. Each page is measured
+ * with PrecomputedText on a background thread (the next page while the current one is read), and
+ * the offset of every sentence in the page is kept, so a (sentence, word) position from the
+ * narration maps straight to a text range. Highlighting moves one BackgroundColorSpan: it changes
+ * appearance only, so it never re-sets the text or triggers a relayout, just a redraw. Put it in a
+ * ScrollView; the line being read is kept in view. Tapping a sentence reports it, to play from there.
+ */
+public class ReadAlongView extends AppCompatTextView {
+
+    static final int PAGE_SENTENCES = 24;
+
+    // Start laying out the next page this many sentences before the end of the current one
+    private static final int PREFETCH_MARGIN = 4;
+
+    private static final ExecutorService LAYOUT_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    // A page of text and where each of its sentences starts in it
+    private static final class Page {
+        final int first;
+        final int[] starts;     // one per sentence, plus the text length
+        final CharSequence text;
+
+        Page(int first, int[] starts, CharSequence text) {
+            this.first = first;
+            this.starts = starts;
+            this.text = text;
+        }
+
+        int count() {
+            return starts.length - 1;
+        }
+
+        boolean contains(int sentence) {
+            return sentence >= first && sentence < first + count();
+        }
+    }
+
+    // Told which sentence was tapped
+    public interface OnSentenceClickListener {
+        void onSentenceClick(int index);
+    }
+
+    private final BackgroundColorSpan highlight = new BackgroundColorSpan(0x66FFD54F);
+
+    private List<String> sentences = Collections.emptyList();
+    private int generation;     // drops pages laid out for a previous story
+
+    private Page page;          // shown
+    private Spannable pageText; // the text the view draws, which carries the highlight
+    private Page readyPage;     // laid out ahead
+    private int requestedFirst = -1;
+
+    private int wantedSentence = -1;   // to highlight once its page is shown
+    private int scrolledLine = -1;
+
+    private OnSentenceClickListener sentenceClickListener;
+
+    public ReadAlongView(Context context) {
+        this(context, null);
+    }
+
+    public ReadAlongView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    // Shows the first page of a story (which may still be growing, see onSentencesAdded)
+    public void setStory(List<String> sentences) {
+        this.sentences = sentences;
+        generation++;
+        page = null;
+        pageText = null;
+        readyPage = null;
+        requestedFirst = -1;
+        wantedSentence = -1;
+        scrolledLine = -1;
+        setText("");
+        requestPage(0);
+    }
+
+    // More sentences are available: fills in a page that was laid out short
+    public void onSentencesAdded() {
+        if (page == null) {
+            requestPage(wantedSentence > 0 ? pageStart(wantedSentence) : 0);
+        } else {
+            fillShortPage();
+        }
+    }
+
+    // Highlights a whole sentence, turning the page if needed
+    public void showSentence(int index) {
+        if (page == null || !page.contains(index)) {
+            wantedSentence = index;
+            int first = pageStart(index);
+            if (readyPage != null && readyPage.first == first && readyPage.contains(index)) {
+                show(readyPage);
+            } else {
+                requestPage(first);
+            }
+            return;
+        }
+        int start = page.starts[index - page.first];
+        int end = page.starts[index - page.first + 1] - 1; // without the joining space
+        moveHighlight(start, Math.max(start, end));
+        if (index >= page.first + page.count() - PREFETCH_MARGIN) {
+            requestPage(page.first + page.count());
+        }
+    }
+
+    // Highlights chars [start, end) of a sentence, if it is on the page shown
+    public void highlightWord(int index, int start, int end) {
+        if (page == null || !page.contains(index)) return;
+        int base = page.starts[index - page.first];
+        int limit = page.starts[index - page.first + 1];
+        moveHighlight(Math.min(base + start, limit), Math.min(base + end, limit));
+    }
+
+    public void setOnSentenceClickListener(OnSentenceClickListener listener) {
+        sentenceClickListener = listener;
+    }
+
+    // A tap (the ScrollView takes drags) selects the sentence under it
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (sentenceClickListener == null || page == null) return super.onTouchEvent(event);
+        if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+            int offset = getOffsetForPosition(event.getX(), event.getY());
+            int sentence = sentenceAtOffset(offset);
+            if (sentence >= 0) {
+                performClick();
+                sentenceClickListener.onSentenceClick(sentence);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    // Sentence of the shown page containing a text offset, or -1
+    private int sentenceAtOffset(int offset) {
+        if (offset < 0) return -1;
+        int lo = 0;
+        int hi = page.count() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (page.starts[mid] <= offset) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return hi < 0 ? -1 : page.first + lo;
+    }
+
+    public void clearHighlight() {
+        wantedSentence = -1;
+        if (pageText != null) {
+            pageText.removeSpan(highlight);
+            invalidate();
+        }
+    }
+
+    // ---------- Pages ----------
+
+    private static int pageStart(int sentence) {
+        return sentence - sentence % PAGE_SENTENCES;
+    }
+
+    // Reads the page's sentences here (the list is not thread-safe) and measures them in the background
+    private void requestPage(final int first) {
+        if (first == requestedFirst || first >= Math.max(1, sentences.size())) return;
+        if (readyPage != null && readyPage.first == first && readyPage.count() == available(first)) return;
+        requestedFirst = first;
+
+        int count = available(first);
+        final int[] starts = new int[count + 1];
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            starts[i] = text.length();
+            text.append(sentences.get(first + i)).append(' ');
+        }
+        starts[count] = text.length();
+
+        final CharSequence raw = text;
+        final PrecomputedTextCompat.Params params = TextViewCompat.getTextMetricsParams(this);
+        final int gen = generation;
+        LAYOUT_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final PrecomputedTextCompat measured = PrecomputedTextCompat.create(raw, params);
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (gen != generation) return;
+                        if (requestedFirst == first) requestedFirst = -1;
+                        onPageReady(new Page(first, starts, measured));
+                    }
+                });
+            }
+        });
+    }
+
+    private int available(int first) {
+        return Math.max(0, Math.min(PAGE_SENTENCES, sentences.size() - first));
+    }
+
+    private void onPageReady(Page ready) {
+        boolean wanted = wantedSentence >= 0 ? ready.contains(wantedSentence) : page == null;
+        boolean refresh = page != null && page.first == ready.first;
+        if (wanted || refresh) {
+            show(ready);
+        } else {
+            readyPage = ready;
+        }
+    }
+
+    // Lays the shown page out again if sentences arrived after it was measured
+    private void fillShortPage() {
+        if (page.count() < PAGE_SENTENCES && sentences.size() > page.first + page.count()) {
+            requestPage(page.first);
+        }
+    }
+
+    private void show(Page shown) {
+        if (readyPage == shown) readyPage = null;
+        page = shown;
+        scrolledLine = -1;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            // The view keeps the PrecomputedText itself, so spans set on it are drawn
+            TextViewCompat.setPrecomputedText(this, (PrecomputedTextCompat) shown.text);
+        } else {
+            setText(shown.text, BufferType.SPANNABLE);
+        }
+        pageText = (Spannable) getText();
+        fillShortPage();
+        if (wantedSentence >= 0 && page.contains(wantedSentence)) {
+            int index = wantedSentence;
+            wantedSentence = -1;
+            showSentence(index);
+        }
+    }
+
+    // ---------- Highlight ----------
+
+    private void moveHighlight(int start, int end) {
+        if (pageText == null) return;
+        pageText.setSpan(highlight, start, end, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        invalidate();
+        keepInView(start);
+    }
+
+    // Scrolls the enclosing ScrollView when the highlight moves to another line
+    private void keepInView(int offset) {
+        if (getLayout() == null) return;
+        int line = getLayout().getLineForOffset(offset);
+        if (line == scrolledLine) return;
+        scrolledLine = line;
+        ViewParent parent = getParent();
+        if (parent instanceof ScrollView) {
+            ScrollView scroll = (ScrollView) parent;
+            int top = getTop() + getPaddingTop() + getLayout().getLineTop(line);
+            scroll.smoothScrollTo(0, Math.max(0, top - scroll.getHeight() / 3));
+        }
+    }
+}
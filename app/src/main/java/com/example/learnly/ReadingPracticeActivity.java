@@ -4,11 +4,11 @@ import android.Manifest;
 import android.content.ActivityNotFoundException;
 import android.content.Intent;
 import android.content.pm.PackageManager;
-import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.speech.RecognizerIntent;
-import android.speech.tts.TextToSpeech;
 import android.text.TextUtils;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
 import android.widget.LinearLayout;
@@ -23,25 +23,26 @@ import androidx.core.content.ContextCompat;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
-import java.util.Random;
 
 public class ReadingPracticeActivity extends AppCompatActivity {
 
     private static final String TAG = "ReadingPracticeActivity";
-    private static final String APP_NAME = "ReadingPractice"; // users/<uid>/miniApps/ReadingPractice
+    private static final MiniApp APP = MiniApp.READING_PRACTICE;
 
     private static final int REQ_SPEECH = 1001;
     private static final int REQ_MIC_PERMISSION = 2001;
 
+    // The word on screen, kept across rotation and process death
+    private static final String KEY_TIER = "reading_tier";
+    private static final String KEY_ENTRY = "reading_entry";
+    private static final String KEY_GRADE = "reading_grade";
+    private static final String KEY_HELP_USED = "reading_help_used";
+
     // UI
     private TextView levelText, storyTitleText, statusText;
     private TextView emojiHint, wordText, hintText, phonicsLabel, readPromptText, feedbackText;
@@ -49,14 +50,11 @@ public class ReadingPracticeActivity extends AppCompatActivity {
     private LinearLayout letterRow;
 
     // TTS
-    private TextToSpeech tts;
-    private boolean ttsReady = false;
-
-    // Firebase
-    private DatabaseReference mAppSettingsRef;
+    private SpeechService.Speaker speaker;
+    // Phonics sounds play from pre-rendered clips once cached
+    private PhraseAudioCache phrases;
 
     // Difficulty / word pools
-    private final Random rng = new Random();
     private int tierIndex = 0; // 0=easy, 1=medium, 2=hard
 
     // Current word data
@@ -66,56 +64,26 @@ public class ReadingPracticeActivity extends AppCompatActivity {
 
     // Last heard phrase (for debugging / display)
     private String lastHeardRaw = "";
+    private long wordShownAt;
+
+    // Grades every recognizer hypothesis; reuses its buffers between readings
+    private final ReadingScorer scorer = new ReadingScorer();
+    private static final int MAX_HYPOTHESES = 5;
 
-    // Word pools: {WORD, EMOJI, HINT}
-    private static final String[][] TIER_EASY = new String[][]{
-            {"CAT", "🐱", "A small pet that says meow."},
-            {"DOG", "🐶", "A friendly pet that barks."},
-            {"SUN", "☀️", "It shines bright in the sky."},
-            {"CAR", "🚗", "You can ride in it."},
-            {"BUS", "🚌", "It carries many people."},
-            {"FOX", "🦊", "A clever orange animal."},
-            {"PIG", "🐷", "A pink farm animal."},
-            {"ANT", "🐜", "A tiny insect."},
-            {"BEE", "🐝", "A yellow insect that makes honey."},
-            {"BED", "🛏️", "You sleep on it."}
-    };
-
-    private static final String[][] TIER_MEDIUM = new String[][]{
-            {"FROG", "🐸", "It hops and says ribbit."},
-            {"BIRD", "🐦", "It flies in the sky."},
-            {"LION", "🦁", "The king of the jungle."},
-            {"FISH", "🐟", "It swims in the water."},
-            {"MOON", "🌙", "It glows in the night sky."},
-            {"SHIP", "🚢", "A big boat on water."},
-            {"TREE", "🌳", "A tall plant with leaves."},
-            {"CAKE", "🎂", "A sweet birthday treat."},
-            {"BALL", "⚽", "You can kick or throw it."},
-            {"ROAD", "🛣️", "Cars drive on it."}
-    };
-
-    private static final String[][] TIER_HARD = new String[][]{
-            {"APPLE", "🍎", "A red or green fruit."},
-            {"TRAIN", "🚆", "A long vehicle that runs on tracks."},
-            {"SMILE", "😊", "What you do when you feel happy."},
-            {"HOUSE", "🏠", "A place where families live."},
-            {"PLANT", "🪴", "It grows in soil with sun and water."},
-            {"SHEEP", "🐑", "A soft white farm animal."},
-            {"HORSE", "🐴", "A big animal you can ride."},
-            {"CLOUD", "☁️", "Fluffy shapes in the sky."},
-            {"HEART", "❤️", "It beats inside your body."},
-            {"TIGER", "🐯", "A big cat with stripes."}
-    };
-
-    private static final String[][][] TIERS = new String[][][]{
-            TIER_EASY,
-            TIER_MEDIUM,
-            TIER_HARD
-    };
+    // Spaced repetition: the word on screen and its grade from the first reading (-1 = not read yet)
+    private WordScheduler scheduler;
+    private WordScheduler.Item currentItem;
+    private int currentGrade = -1;
+    private boolean helpUsed;
+
+    // Words, emoji and hints come from the memory-mapped content pack, one tier per difficulty
+    private static final int TIER_COUNT = 3;
+    private ContentPack content;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        int createSpan = StartupTrace.begin("game.onCreate " + APP.getId());
         setContentView(R.layout.activity_reading_practice);
 
         // Bind views
@@ -140,24 +108,24 @@ public class ReadingPracticeActivity extends AppCompatActivity {
         storyTitleText.setText("Learn to Read");
 
         // Home nav
-        btnBackToHome.setOnClickListener(v -> {
-            Intent i = new Intent(ReadingPracticeActivity.this, HomeActivity.class);
-            startActivity(i);
-            finish();
-        });
+        btnBackToHome.setOnClickListener(v -> HomeActivity.returnHome(this));
 
         // Init TTS
-        tts = new TextToSpeech(this, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                int res = tts.setLanguage(Locale.US);
-                if (res == TextToSpeech.LANG_MISSING_DATA || res == TextToSpeech.LANG_NOT_SUPPORTED) {
-                    Toast.makeText(this, "TTS language not available.", Toast.LENGTH_SHORT).show();
-                } else {
-                    ttsReady = true;
-                    statusText.setText("TTS ready. Tap a letter to hear its sound!");
-                }
-            } else {
-                Toast.makeText(this, "Failed to initialize TTS.", Toast.LENGTH_SHORT).show();
+        phrases = PhraseAudioCache.getInstance(this);
+        phrases.prefetch(cachedPhrases());
+        final int ttsSpan = StartupTrace.begin("game.ttsInit");
+        speaker = SpeechService.getInstance(this).openSpeaker(new SpeechService.Callback() {
+            @Override
+            public void onReady() {
+                StartupTrace.end(ttsSpan);
+                statusText.setText("TTS ready. Tap a letter to hear its sound!");
+            }
+
+            @Override
+            public void onUnavailable() {
+                StartupTrace.end(ttsSpan);
+                Toast.makeText(ReadingPracticeActivity.this,
+                        "Text-to-speech is not available.", Toast.LENGTH_SHORT).show();
                 statusText.setText("TTS init failed.");
             }
         });
@@ -166,7 +134,13 @@ public class ReadingPracticeActivity extends AppCompatActivity {
         btnHint.setOnClickListener(v -> speakHint());
         btnHearWord.setOnClickListener(v -> speakWholeWord());
         btnRecord.setOnClickListener(v -> startSpeechRecognitionWithPermissionCheck());
-        btnNext.setOnClickListener(v -> loadRandomWordFromTier());
+        btnNext.setOnClickListener(v -> loadNextWordFromTier());
+
+        try {
+            content = ContentPack.get(this);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to open the content pack.", e);
+        }
 
         // --- Firebase difficulty / enabled ---
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
@@ -176,45 +150,26 @@ public class ReadingPracticeActivity extends AppCompatActivity {
             return;
         }
 
-        String userId = user.getUid();
-        mAppSettingsRef = FirebaseDatabase.getInstance().getReference("users")
-                .child(userId)
-                .child("miniApps")
-                .child(APP_NAME);
-
-        mAppSettingsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                String difficulty = "Easy";
-                boolean isEnabled = true;
-
-                if (snapshot.exists()) {
-                    Boolean enabledFromDB = snapshot.child("enabled").getValue(Boolean.class);
-                    String difficultyFromDB = snapshot.child("difficulty").getValue(String.class);
-
-                    if (enabledFromDB != null) isEnabled = enabledFromDB;
-                    if (difficultyFromDB != null) difficulty = difficultyFromDB;
-                }
-
-                if (!isEnabled) {
-                    Toast.makeText(ReadingPracticeActivity.this,
-                            "This app is disabled by your parent.", Toast.LENGTH_LONG).show();
-                    finish();
-                    return;
-                }
-
-                mapDifficultyToTier(difficulty);
-                loadRandomWordFromTier();
-            }
+        // Last-known settings come from the process-wide cache, so the first word shows without a network round trip
+        int settingsSpan = StartupTrace.begin("game.settings");
+        UserSettingsRepository settingsRepo = UserSettingsRepository.getInstance(this);
+        settingsRepo.bindUser(user.getUid());
+        MiniAppSettings settings = settingsRepo.getSettings(APP);
+        StartupTrace.end(settingsSpan);
+        scheduler = WordScheduleStore.getInstance(this).get(user.getUid());
+
+        if (!settings.isEnabled()) {
+            Toast.makeText(ReadingPracticeActivity.this,
+                    "This app is disabled by your parent.", Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
 
-            @Override
-            public void onCancelled(DatabaseError error) {
-                Toast.makeText(ReadingPracticeActivity.this,
-                        "Failed to load settings. Using Easy mode.", Toast.LENGTH_LONG).show();
-                mapDifficultyToTier("Easy");
-                loadRandomWordFromTier();
-            }
-        });
+        new SessionTracker(this, APP);
+        mapDifficultyToTier(settings.getDifficulty());
+        if (!restoreWord(savedInstanceState)) loadNextWordFromTier();
+        StartupTrace.end(createSpan);
+        StartupTrace.markAfterDraw(wordText, "game.firstQuestion");
     }
 
     private void mapDifficultyToTier(String difficulty) {
@@ -237,22 +192,55 @@ public class ReadingPracticeActivity extends AppCompatActivity {
 
     // ---------- Word loading & UI ----------
 
-    private void loadRandomWordFromTier() {
-        if (tierIndex < 0 || tierIndex >= TIERS.length) {
+    private void loadNextWordFromTier() {
+        if (tierIndex < 0 || tierIndex >= TIER_COUNT) {
             tierIndex = 0;
         }
-        String[][] pool = TIERS[tierIndex];
-        if (pool == null || pool.length == 0) {
+        int count = (content == null) ? 0
+                : content.count(ContentPack.GAME_READING, tierIndex, ContentPack.ANY_LENGTH);
+        if (count == 0) {
             Toast.makeText(this, "No words configured.", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        int idx = rng.nextInt(pool.length);
-        String[] entry = pool[idx];
+        // The scheduler picks the most overdue word; the previous one goes back only after, so it can't repeat
+        WordScheduler.Item previous = currentItem;
+        scheduler.ensurePool(ContentPack.GAME_READING, tierIndex,
+                content.poolSource(ContentPack.GAME_READING, tierIndex), System.currentTimeMillis());
+        currentItem = scheduler.next(ContentPack.GAME_READING, tierIndex);
+        if (previous != null) releaseWord(previous);
+        currentGrade = -1;
+        helpUsed = false;
+
+        showWord();
+
+        // Speak a friendly prompt
+        speakText("Can you read this word? " + spellOutWord(currentWord));
+    }
+
+    // Puts the same word back after a rotation or process death; false if there is none to restore
+    private boolean restoreWord(@Nullable Bundle state) {
+        if (state == null || content == null || state.getInt(KEY_TIER, -1) != tierIndex) return false;
+        scheduler.ensurePool(ContentPack.GAME_READING, tierIndex,
+                content.poolSource(ContentPack.GAME_READING, tierIndex), System.currentTimeMillis());
+        WordScheduler.Item item = scheduler.take(ContentPack.GAME_READING, tierIndex,
+                state.getInt(KEY_ENTRY, -1));
+        if (item == null) return false;
+
+        currentItem = item;
+        currentGrade = state.getInt(KEY_GRADE, -1);
+        helpUsed = state.getBoolean(KEY_HELP_USED, false);
+        showWord();
+        return true;
+    }
 
-        currentWord  = entry[0].toUpperCase(Locale.US);
-        currentEmoji = entry[1];
-        currentHint  = entry[2];
+    private void showWord() {
+        int entry = currentItem.getEntry();
+
+        currentWord  = content.word(entry).toUpperCase(Locale.US);
+        currentEmoji = content.emoji(entry) != null ? content.emoji(entry) : "❓";
+        currentHint  = content.clue(entry);
+        wordShownAt  = SystemClock.elapsedRealtime();
 
         emojiHint.setText(currentEmoji);
         wordText.setText(currentWord);
@@ -262,9 +250,21 @@ public class ReadingPracticeActivity extends AppCompatActivity {
         statusText.setText("Tap each letter to hear the sounds.");
 
         buildLetterRow();
+    }
 
-        // Speak a friendly prompt
-        speakText("Can you read this word? " + spellOutWord(currentWord));
+    // Returns a word to the scheduler, graded if the child tried to read it
+    private void releaseWord(WordScheduler.Item item) {
+        if (currentGrade >= 0) {
+            scheduler.grade(item, currentGrade, System.currentTimeMillis());
+        } else {
+            scheduler.skip(item);
+        }
+    }
+
+    // Grade from the first reading of a word: exact and unaided is best, far off means try again soon
+    private int readingGrade(boolean exact, int score) {
+        if (exact) return helpUsed ? WordScheduler.GRADE_GOOD : WordScheduler.GRADE_EASY;
+        return score >= 70 ? WordScheduler.GRADE_HARD : WordScheduler.GRADE_AGAIN;
     }
 
     private void buildLetterRow() {
@@ -296,35 +296,40 @@ public class ReadingPracticeActivity extends AppCompatActivity {
     // ---------- TTS helpers ----------
 
     private void speakHint() {
-        if (!ttsReady) return;
+        helpUsed = true;
+        SessionEventLog log = SessionEventLog.get();
+        if (log != null) log.hint(APP);
+
         String msg = currentHint + " This word is " + spellOutWord(currentWord) + ". Can you say it?";
         speakText(msg);
     }
 
     private void speakWholeWord() {
-        if (!ttsReady) return;
+        helpUsed = true;
         speakText("The word is " + currentWord);
     }
 
     private void speakPhonics(char c) {
-        if (!ttsReady) return;
         String sound = phonicsForLetter(c);
         if (TextUtils.isEmpty(sound)) {
             sound = String.valueOf(c);
         }
-        speakText(sound);
+        speaker.stop();
+        if (!phrases.play(sound)) speakText(sound);
     }
 
-    private void speakText(String text) {
-        if (!ttsReady || TextUtils.isEmpty(text)) return;
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, null,
-                    "utt-" + System.currentTimeMillis());
-        } else {
-            HashMap<String, String> params = new HashMap<>();
-            params.put(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, "utt");
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, params);
+    // The phonics sound of every letter
+    private List<String> cachedPhrases() {
+        List<String> out = new ArrayList<>(26);
+        for (char c = 'A'; c <= 'Z'; c++) {
+            out.add(phonicsForLetter(c));
         }
+        return out;
+    }
+
+    private void speakText(String text) {
+        if (TextUtils.isEmpty(text)) return;
+        speaker.speak(text);
     }
 
     private String spellOutWord(String word) {
@@ -401,6 +406,7 @@ public class ReadingPracticeActivity extends AppCompatActivity {
         );
         intent.putExtra(RecognizerIntent.EXTRA_LANGUAGE, Locale.getDefault());
         intent.putExtra(RecognizerIntent.EXTRA_PROMPT, "Say the word " + currentWord);
+        intent.putExtra(RecognizerIntent.EXTRA_MAX_RESULTS, MAX_HYPOTHESES);
 
         try {
             startActivityForResult(intent, REQ_SPEECH);
@@ -442,41 +448,37 @@ public class ReadingPracticeActivity extends AppCompatActivity {
                     feedbackText.setText("I couldn't hear that. Let's try again!");
                     return;
                 }
-                lastHeardRaw = results.get(0);
+                float[] confidences = data.getFloatArrayExtra(
+                        RecognizerIntent.EXTRA_CONFIDENCE_SCORES);
+                ReadingScorer.Result result = scorer.score(currentWord, results, confidences);
+                lastHeardRaw = (result != null) ? result.heard : results.get(0);
                 statusText.setText("Heard: " + lastHeardRaw);
-                handleSpeechResult(lastHeardRaw);
+                handleSpeechResult(result);
             } else {
                 statusText.setText("No speech result.");
             }
         }
     }
 
-    private void handleSpeechResult(String heardRaw) {
-        if (heardRaw == null) {
+    private void handleSpeechResult(@Nullable ReadingScorer.Result result) {
+        if (result == null) {
             feedbackText.setText("I couldn't hear that. Let's try again!");
             return;
         }
 
-        String target = currentWord.toLowerCase(Locale.US);
-        String heard  = heardRaw.trim().toLowerCase(Locale.US);
+        int score = result.score;
+        if (currentGrade < 0) currentGrade = readingGrade(result.exact, score);
 
-        if (TextUtils.isEmpty(heard)) {
-            feedbackText.setText("I couldn't hear that. Let's try again!");
-            return;
+        SessionEventLog log = SessionEventLog.get();
+        if (log != null) {
+            log.answer(APP, result.exact, SystemClock.elapsedRealtime() - wordShownAt, score);
         }
 
-        // Use just the first word from recognition
-        String[] pieces = heard.split("\\s+");
-        String firstWord = pieces[0];
-
-        // Compute similarity score (0-100)
-        int score = computeSimilarityScore(target, firstWord);
-
         StringBuilder sb = new StringBuilder();
-        sb.append("I heard: \"").append(heardRaw).append("\"\n");
+        sb.append("I heard: \"").append(result.heard).append("\"\n");
         sb.append("Score: ").append(score).append("%\n");
 
-        if (firstWord.equals(target)) {
+        if (result.exact) {
             sb.append("⭐ Amazing! That sounded just like ").append(currentWord).append("!");
             speakText("Great reading! That sounded like " + currentWord + "!");
         } else if (score >= 70) {
@@ -490,47 +492,6 @@ public class ReadingPracticeActivity extends AppCompatActivity {
         feedbackText.setText(sb.toString());
     }
 
-    // ---------- Simple similarity scoring (Levenshtein) ----------
-
-    private int computeSimilarityScore(String target, String heard) {
-        if (TextUtils.isEmpty(target) || TextUtils.isEmpty(heard)) {
-            return 0;
-        }
-        int dist = levenshteinDistance(target, heard);
-        int maxLen = Math.max(target.length(), heard.length());
-        if (maxLen == 0) return 100;
-        double similarity = 1.0 - ((double) dist / (double) maxLen);
-        int score = (int) Math.round(similarity * 100.0);
-        if (score < 0) score = 0;
-        if (score > 100) score = 100;
-        return score;
-    }
-
-    private int levenshteinDistance(String a, String b) {
-        int n = a.length();
-        int m = b.length();
-        if (n == 0) return m;
-        if (m == 0) return n;
-
-        int[][] dp = new int[n + 1][m + 1];
-
-        for (int i = 0; i <= n; i++) dp[i][0] = i;
-        for (int j = 0; j <= m; j++) dp[0][j] = j;
-
-        for (int i = 1; i <= n; i++) {
-            char ca = a.charAt(i - 1);
-            for (int j = 1; j <= m; j++) {
-                char cb = b.charAt(j - 1);
-                int cost = (ca == cb) ? 0 : 1;
-                dp[i][j] = Math.min(
-                        Math.min(dp[i - 1][j] + 1, dp[i][j - 1] + 1),
-                        dp[i - 1][j - 1] + cost
-                );
-            }
-        }
-        return dp[n][m];
-    }
-
     // ---------- Utils ----------
 
     private int dp(int d) {
@@ -543,12 +504,36 @@ public class ReadingPracticeActivity extends AppCompatActivity {
         return android.content.res.ColorStateList.valueOf(color);
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        WordScheduleStore.getInstance(this).save();
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (currentItem == null) return;
+        outState.putInt(KEY_TIER, tierIndex);
+        outState.putInt(KEY_ENTRY, currentItem.getEntry());
+        outState.putInt(KEY_GRADE, currentGrade);
+        outState.putBoolean(KEY_HELP_USED, helpUsed);
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (tts != null) {
-            tts.stop();
-            tts.shutdown();
+        if (currentItem != null) {
+            if (isFinishing()) {
+                releaseWord(currentItem);
+                WordScheduleStore.getInstance(this).save();
+            } else {
+                // Rotating: the word goes back ungraded and the new activity takes it again (restoreWord)
+                scheduler.skip(currentItem);
+            }
+            currentItem = null;
         }
+        // The engine is shared; only this screen's speech is stopped
+        speaker.close();
     }
 }
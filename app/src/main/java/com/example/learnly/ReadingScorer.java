@@ -0,0 +1,133 @@
+package com.example.learnly;
+
+import java.util.List;
+
+/**
+ * Grades what the speech recognizer heard against the word on screen. Every hypothesis it
+ * returned (RecognizerIntent.EXTRA_RESULTS, best first) and every word in them is scored, so
+ * "um, cat" or the right word in second place still counts.
+ *
+ * A word's score averages its spelling similarity and the similarity of its PhoneticCode, so
+ * "kat" for CAT beats "bat". Hypotheses after the first are weighted by their confidence relative
+ * to the first (EXTRA_CONFIDENCE_SCORES), or by rank when the recognizer gives none; the weight
+ * only picks the hypothesis, the score reported is the word's own. Buffers are reused, so keep
+ * one instance per screen and call it from one thread.
+ */
+public class ReadingScorer {
+
+    // Without confidence scores each hypothesis counts this much less than the one before
+    static final float RANK_DECAY = 0.9f;
+
+    /** The best match among the hypotheses. */
+    public static final class Result {
+        final String heard;     // the whole hypothesis the word came from
+        final String word;      // the word that matched best, lowercase letters only
+        final int score;        // 0-100
+        final boolean exact;
+
+        Result(String heard, String word, int score, boolean exact) {
+            this.heard = heard;
+            this.word = word;
+            this.score = score;
+            this.exact = exact;
+        }
+    }
+
+    private final StringSimilarity similarity = new StringSimilarity();
+    private final StringBuilder target = new StringBuilder();
+    private final StringBuilder targetCode = new StringBuilder();
+    private final StringBuilder word = new StringBuilder();
+    private final StringBuilder wordCode = new StringBuilder();
+
+    /**
+     * Scores hypotheses against a target word. confidences may be null or hold -1 for "unknown";
+     * many recognizers also report 0 for every alternative after the first, which counts as
+     * unknown too. Null if no hypothesis has a word in it.
+     */
+    public Result score(CharSequence targetWord, List<String> hypotheses, float[] confidences) {
+        lettersOf(targetWord, 0, targetWord.length(), target);
+        targetCode.setLength(0);
+        PhoneticCode.encode(target, targetCode);
+
+        boolean useConfidence = confidences != null && confidences.length == hypotheses.size()
+                && confidences[0] > 0f;
+        String bestHeard = null;
+        int bestStart = 0;
+        int bestEnd = 0;
+        int bestScore = -1;
+        float bestWeighted = -1f;
+
+        float rankWeight = 1f;
+        for (int h = 0; h < hypotheses.size(); h++, rankWeight *= RANK_DECAY) {
+            String heard = hypotheses.get(h);
+            if (heard == null) continue;
+            float weight = rankWeight;
+            if (h > 0 && useConfidence && confidences[h] > 0f) {
+                weight = Math.min(1f, confidences[h] / confidences[0]);
+            }
+
+            // Each run of letters (and apostrophes) is a word
+            int n = heard.length();
+            int i = 0;
+            while (i < n) {
+                while (i < n && !isWordChar(heard.charAt(i))) i++;
+                int start = i;
+                while (i < n && isWordChar(heard.charAt(i))) i++;
+                if (start == i) break;
+
+                int s = scoreWord(heard, start, i);
+                if (s < 0) continue;
+                float weighted = s * weight;
+                if (weighted > bestWeighted) {
+                    bestWeighted = weighted;
+                    bestScore = s;
+                    bestHeard = heard;
+                    bestStart = start;
+                    bestEnd = i;
+                }
+            }
+        }
+
+        if (bestHeard == null) return null;
+        lettersOf(bestHeard, bestStart, bestEnd, word);
+        return new Result(bestHeard, word.toString(), bestScore, bestScore == 100);
+    }
+
+    // 0-100 for heard[start, end) against the target; -1 if it has no letters
+    private int scoreWord(CharSequence heard, int start, int end) {
+        lettersOf(heard, start, end, word);
+        if (word.length() == 0) return -1;
+        if (equals(word, target)) return 100;
+
+        int spelling = similarity.similarity(target, word);
+        wordCode.setLength(0);
+        PhoneticCode.encode(word, wordCode);
+        int sound = spelling;
+        if (wordCode.length() > 0 && targetCode.length() > 0) {
+            sound = similarity.similarity(targetCode, wordCode);
+        }
+        // Only an exact reading gets full marks
+        return Math.min(99, (spelling + sound + 1) / 2);
+    }
+
+    // Lowercase letters of s[start, end) into out
+    private static void lettersOf(CharSequence s, int start, int end, StringBuilder out) {
+        out.setLength(0);
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (Character.isLetter(c)) out.append(Character.toLowerCase(c));
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetter(c) || c == '\'';
+    }
+
+    private static boolean equals(CharSequence a, CharSequence b) {
+        if (a.length() != b.length()) return false;
+        for (int i = 0; i < a.length(); i++) {
+            if (a.charAt(i) != b.charAt(i)) return false;
+        }
+        return true;
+    }
+}
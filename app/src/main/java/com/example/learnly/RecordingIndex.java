@@ -0,0 +1,161 @@
+package com.example.learnly;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Where each sentence, and each word within it, starts in a recorded story (see StoryRecorder).
+ *
+ * Times are milliseconds from the start of the recording. Sentences are added in order while the
+ * recording is encoded; afterwards sentenceAt and wordAt find the sentence and word playing at a
+ * player position with a binary search. Word ranges are chars of the sentence text, as reported
+ * by the engine. Plain Java so it can be tested without Android.
+ */
+public class RecordingIndex {
+
+    private static final int MAGIC = 0x4C524543; // "LREC"
+    private static final int VERSION = 1;
+
+    private int[] sentenceMs = new int[64];
+    private int[] firstWord = new int[65];   // words of sentence i are [firstWord[i], firstWord[i + 1])
+    private int count;
+
+    private int[] words = new int[3 * 256];  // start char, end char, start ms
+    private int wordCount;
+
+    private int durationMs = -1;
+
+    // Starts the next sentence at the given time
+    public void addSentence(int startMs) {
+        if (count + 1 == sentenceMs.length) {
+            sentenceMs = Arrays.copyOf(sentenceMs, sentenceMs.length * 2);
+            firstWord = Arrays.copyOf(firstWord, firstWord.length * 2);
+        }
+        sentenceMs[count] = startMs;
+        firstWord[count] = wordCount;
+        count++;
+        firstWord[count] = wordCount;
+    }
+
+    // Adds a word [start, end) to the last sentence
+    public void addWord(int start, int end, int startMs) {
+        if (3 * wordCount == words.length) words = Arrays.copyOf(words, words.length * 2);
+        words[3 * wordCount] = start;
+        words[3 * wordCount + 1] = end;
+        words[3 * wordCount + 2] = startMs;
+        wordCount++;
+        firstWord[count] = wordCount;
+    }
+
+    // Marks the end of the recording
+    public void finish(int durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public boolean isFinished() {
+        return durationMs >= 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getDurationMs() {
+        return durationMs;
+    }
+
+    public int startMs(int sentence) {
+        if (sentence < 0 || sentence >= count) throw new IndexOutOfBoundsException("Sentence " + sentence + " of " + count);
+        return sentenceMs[sentence];
+    }
+
+    /** The sentence playing at positionMs: the last one starting at or before it (0 before the first). */
+    public int sentenceAt(int positionMs) {
+        return lastAtOrBefore(sentenceMs, 0, count, 1, 0, positionMs);
+    }
+
+    /** The word of sentence playing at positionMs, as an index for wordStart/wordEnd; -1 if none yet. */
+    public int wordAt(int sentence, int positionMs) {
+        int from = firstWord[sentence];
+        int to = firstWord[sentence + 1];
+        if (from == to || words[3 * from + 2] > positionMs) return -1;
+        return lastAtOrBefore(words, from, to, 3, 2, positionMs);
+    }
+
+    public int wordStart(int word) {
+        return words[3 * word];
+    }
+
+    public int wordEnd(int word) {
+        return words[3 * word + 1];
+    }
+
+    // Binary search over [from, to) of a strided array for the last entry whose value is <= key
+    private static int lastAtOrBefore(int[] a, int from, int to, int stride, int field, int key) {
+        int lo = from;
+        int hi = to - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (a[stride * mid + field] <= key) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    // ---------- File format ----------
+
+    /** Writes a finished index, for {@link #read}. */
+    public void write(DataOutputStream out) throws IOException {
+        if (!isFinished()) throw new IllegalStateException("Recording not finished");
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(durationMs);
+        out.writeInt(count);
+        out.writeInt(wordCount);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(sentenceMs[i]);
+            out.writeInt(firstWord[i + 1] - firstWord[i]);
+        }
+        for (int i = 0; i < 3 * wordCount; i++) {
+            out.writeInt(words[i]);
+        }
+    }
+
+    /** Reads an index written by write. Throws on malformed data. */
+    public static RecordingIndex read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not a recording index");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported recording index " + version);
+        int duration = in.readInt();
+        int n = in.readInt();
+        int totalWords = in.readInt();
+        if (duration < 0 || n < 0 || totalWords < 0) throw new IOException("Bad recording index header");
+
+        RecordingIndex index = new RecordingIndex();
+        index.sentenceMs = new int[n + 1];
+        index.firstWord = new int[n + 2];
+        int previous = 0;
+        for (int i = 0; i < n; i++) {
+            int start = in.readInt();
+            int wordsIn = in.readInt();
+            if (start < previous || start > duration || wordsIn < 0) throw new IOException("Bad sentence " + i);
+            previous = start;
+            index.sentenceMs[i] = start;
+            index.firstWord[i + 1] = index.firstWord[i] + wordsIn;
+        }
+        index.count = n;
+        if (index.firstWord[n] != totalWords) throw new IOException("Bad word count " + totalWords);
+        index.words = new int[3 * totalWords + 3];
+        for (int i = 0; i < 3 * totalWords; i++) {
+            index.words[i] = in.readInt();
+        }
+        index.wordCount = totalWords;
+        index.durationMs = duration;
+        return index;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.learnly;
+
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.os.Build;
+import android.util.Log;
+import android.view.Choreographer;
+
+import java.io.IOException;
+
+/**
+ * Plays a story recorded by StoryRecorder: one MediaPlayer over the whole file, with the sentence
+ * and word being spoken looked up in the recording's index once per display frame.
+ *
+ * Unlike NarrationPipeline no engine is involved, so pause and resume continue mid-sentence and
+ * play(i) seeks straight to sentence i. Reports through a NarrationPipeline.Listener so Story Time
+ * handles both the same way (onReady and onUnavailable are not used). Main thread only.
+ */
+public class RecordingPlayer {
+
+    private static final String TAG = "RecordingPlayer";
+
+    private final NarrationPipeline.Listener listener;
+    private final AudioAttributes attributes = new AudioAttributes.Builder()
+            .setUsage(AudioAttributes.USAGE_MEDIA)
+            .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+            .build();
+
+    private StoryRecorder.Recording recording;
+    private MediaPlayer player;
+    private boolean playing;
+    private boolean ticking;
+    private boolean seeking;   // the position is stale until the seek completes
+    private int current;
+    private int word = -1;
+
+    public RecordingPlayer(NarrationPipeline.Listener listener) {
+        this.listener = listener;
+    }
+
+    // Switches to a recording (no-op if it is the one open); false if it cannot be played
+    public boolean open(StoryRecorder.Recording recording) {
+        if (recording == this.recording && player != null) return true;
+        close();
+        MediaPlayer mp = new MediaPlayer();
+        try {
+            mp.setAudioAttributes(attributes);
+            mp.setDataSource(recording.audio.getPath());
+            mp.prepare(); // a local file
+        } catch (IOException | IllegalStateException e) {
+            Log.w(TAG, "Could not prepare " + recording.audio.getName(), e);
+            mp.release();
+            return false;
+        }
+        mp.setOnCompletionListener(new MediaPlayer.OnCompletionListener() {
+            @Override
+            public void onCompletion(MediaPlayer completed) {
+                if (completed != player) return;
+                playing = false;
+                current = 0;
+                listener.onFinished();
+            }
+        });
+        mp.setOnSeekCompleteListener(new MediaPlayer.OnSeekCompleteListener() {
+            @Override
+            public void onSeekComplete(MediaPlayer seeked) {
+                if (seeked == player) seeking = false;
+            }
+        });
+        this.recording = recording;
+        this.player = mp;
+        current = 0;
+        seeking = false;
+        return true;
+    }
+
+    public boolean isOpen(StoryRecorder.Recording recording) {
+        return recording != null && recording == this.recording && player != null;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    // Index of the sentence playing, or the one resume() continues in
+    public int getCurrentIndex() {
+        return current;
+    }
+
+    // Plays from the start of a sentence
+    public void play(int from) {
+        if (player == null) return;
+        if (recording.index.size() == 0) return;
+        current = Math.max(0, Math.min(from, recording.index.size() - 1));
+        seekTo(recording.index.startMs(current));
+        resume();
+        listener.onSentenceStart(current);
+    }
+
+    // Continues from where pause() stopped
+    public void resume() {
+        if (player == null) return;
+        player.start();
+        playing = true;
+        word = -1;
+        if (!ticking) {
+            ticking = true;
+            Choreographer.getInstance().postFrameCallback(ticker);
+        }
+    }
+
+    public void pause() {
+        playing = false;
+        if (player != null && player.isPlaying()) player.pause();
+    }
+
+    // Pauses and goes back to the start
+    public void stop() {
+        pause();
+        if (player != null) seekTo(0);
+        current = 0;
+    }
+
+    private void seekTo(int ms) {
+        seeking = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            player.seekTo(ms, MediaPlayer.SEEK_CLOSEST); // to the sample, not the nearest sync frame
+        } else {
+            player.seekTo(ms);
+        }
+    }
+
+    // Releases the player; call when the story changes and from onDestroy
+    public void close() {
+        playing = false;
+        if (player != null) {
+            player.release();
+            player = null;
+        }
+        recording = null;
+        current = 0;
+    }
+
+    // Once per display frame while playing: reports sentence and word changes at the player position
+    private final Choreographer.FrameCallback ticker = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!playing || player == null) {
+                ticking = false;
+                return;
+            }
+            if (seeking) {
+                Choreographer.getInstance().postFrameCallback(this);
+                return;
+            }
+            RecordingIndex index = recording.index;
+            int positionMs = player.getCurrentPosition();
+            int sentence = index.sentenceAt(positionMs);
+            if (sentence != current) {
+                current = sentence;
+                word = -1;
+                listener.onSentenceStart(sentence);
+            }
+            int at = index.wordAt(current, positionMs);
+            if (at != word && at >= 0) {
+                word = at;
+                listener.onWordStart(current, index.wordStart(at), index.wordEnd(at));
+            }
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
+}
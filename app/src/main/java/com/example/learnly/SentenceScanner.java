@@ -0,0 +1,116 @@
+package com.example.learnly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.BreakIterator;
+import java.util.Locale;
+
+/**
+ * Splits streamed UTF-8 text into sentences with a locale-aware BreakIterator and reports each one
+ * as a byte range, so a story can later read any sentence straight from its file.
+ *
+ * Text is decoded a block at a time and only the unfinished tail of a block is carried over, so
+ * memory use does not depend on the length of the book. Surrounding whitespace is left out of the
+ * ranges, and a run of text with no sentence break is cut at {@link #MAX_SENTENCE_CHARS} (the
+ * engine would reject a much longer utterance anyway). Plain Java, used off the main thread.
+ */
+public class SentenceScanner {
+
+    static final int BLOCK_CHARS = 8192;
+    static final int MAX_SENTENCE_CHARS = 1000;
+
+    // Receives sentences in order, as [startByte, endByte) of the stream (plus its base offset)
+    public interface Sink {
+        void sentence(int startByte, int endByte);
+    }
+
+    private final BreakIterator breaks;
+
+    // Byte offset and char offset (in the current window) of a cursor that only moves forward
+    private int cursorChar;
+    private int cursorByte;
+
+    public SentenceScanner(Locale locale) {
+        breaks = BreakIterator.getSentenceInstance(locale);
+    }
+
+    /** Reads in to the end; baseByte is the offset of its first byte in the file. Returns the end offset. */
+    public int scan(InputStream in, int baseByte, Sink sink) throws IOException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+        char[] block = new char[BLOCK_CHARS];
+        StringBuilder window = new StringBuilder();
+        int windowByte = baseByte;
+        boolean eof = false;
+
+        while (!eof) {
+            int n = reader.read(block);
+            if (n < 0) {
+                eof = true;
+            } else {
+                window.append(block, 0, n);
+            }
+            if (window.length() == 0) continue;
+
+            String text = window.toString();
+            cursorChar = 0;
+            cursorByte = windowByte;
+            int keepFrom = 0;
+
+            breaks.setText(text);
+            int start = breaks.first();
+            for (int end = breaks.next(); end != BreakIterator.DONE; end = breaks.next()) {
+                // The last sentence of a block may go on in the next one
+                if (!eof && end == text.length()) break;
+                emit(text, start, end, sink);
+                keepFrom = end;
+                start = end;
+            }
+            while (!eof && text.length() - keepFrom > MAX_SENTENCE_CHARS) {
+                int cut = cutPoint(text, keepFrom);
+                emit(text, keepFrom, cut, sink);
+                keepFrom = cut;
+            }
+
+            windowByte = byteAt(text, keepFrom);
+            window.delete(0, keepFrom);
+        }
+        return windowByte;
+    }
+
+    // Where to split an over-long run: after the last space within the limit, else at the limit
+    private static int cutPoint(String text, int from) {
+        int limit = from + MAX_SENTENCE_CHARS;
+        for (int i = limit; i > from + MAX_SENTENCE_CHARS / 2; i--) {
+            if (Character.isWhitespace(text.charAt(i - 1))) return i;
+        }
+        return Character.isHighSurrogate(text.charAt(limit - 1)) ? limit - 1 : limit;
+    }
+
+    private void emit(String text, int start, int end, Sink sink) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) start++;
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) end--;
+        if (start == end) return;
+        int startByte = byteAt(text, start);
+        sink.sentence(startByte, byteAt(text, end));
+    }
+
+    // Byte offset of a char position at or after the cursor
+    private int byteAt(String text, int charPos) {
+        for (; cursorChar < charPos; cursorChar++) {
+            cursorByte += utf8Length(text.charAt(cursorChar));
+        }
+        return cursorByte;
+    }
+
+    // UTF-8 bytes of one char; a surrogate pair counts 4 on its high half
+    static int utf8Length(char c) {
+        if (c < 0x80) return 1;
+        if (c < 0x800) return 2;
+        if (Character.isHighSurrogate(c)) return 4;
+        if (Character.isLowSurrogate(c)) return 0;
+        return 3;
+    }
+}
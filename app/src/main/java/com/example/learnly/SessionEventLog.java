@@ -0,0 +1,333 @@
+package com.example.learnly;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only, on-device log of what the child does in each game.
+ *
+ * Events are fixed-size binary records. Logging from a game only copies a few primitives into a
+ * preallocated buffer, so it never allocates or blocks on disk. A single writer thread swaps that
+ * buffer out every {@link #DRAIN_INTERVAL_MS}, appends it to the file and fsyncs once per batch.
+ *
+ * A separate read cursor (persisted next to the log) tracks what has already been uploaded; once
+ * everything has been sent the file is truncated and a new epoch starts.
+ *
+ * The log is shared by everyone who signs in on the device, so each record carries a tag of the
+ * user bound when it was logged ({@link #setUser}). Uploads read only the bound user's records;
+ * anyone else's are passed over and dropped with the batch, never sent under another account.
+ */
+public class SessionEventLog {
+
+    private static final String TAG = "SessionEventLog";
+
+    public static final int TYPE_SESSION_START = 1;
+    public static final int TYPE_SESSION_END = 2;
+    public static final int TYPE_ANSWER = 3;
+    public static final int TYPE_HINT = 4;
+    public static final int TYPE_SOLVE = 5;
+    public static final int TYPE_TIMEOUT = 6;
+
+    public static final int FLAG_CORRECT = 1;
+
+    // long time | byte type | byte app | short flags | int value1 | int value2 | int user tag
+    static final int RECORD_SIZE = 24;
+    private static final int USER_TAG_POSITION = 20;
+
+    // Tag of records logged with nobody signed in (and of records from before tags existed)
+    public static final int NO_USER = 0;
+
+    private static final int BUFFER_RECORDS = 512;
+    private static final long DRAIN_INTERVAL_MS = 500;
+
+    // Receives records in file order with the tag of the user who logged them; called on the writer thread with no allocation
+    public interface RecordVisitor {
+        void visit(long offset, long timeMs, int type, int app, int flags, int value1, int value2, int user);
+    }
+
+    private static SessionEventLog instance;
+
+    private final Object lock = new Object();
+    private ByteBuffer pending = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private int dropped = 0;
+
+    private final FileChannel channel;
+    private final RandomAccessFile cursorFile;
+    private final ScheduledExecutorService writer;
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private volatile long epoch;
+    private volatile int userTag = NO_USER;
+    private long sentOffset;
+    private RecordVisitor observer;
+
+    // Opens (or creates) the process-wide log in the given directory
+    public static synchronized SessionEventLog init(File dir) throws IOException {
+        if (instance == null) {
+            instance = new SessionEventLog(dir, Executors.newSingleThreadScheduledExecutor());
+        }
+        return instance;
+    }
+
+    // The process-wide log, or null if it could not be opened (logging then becomes a no-op)
+    public static synchronized SessionEventLog get() {
+        return instance;
+    }
+
+    SessionEventLog(File dir, ScheduledExecutorService writer) throws IOException {
+        this.channel = new RandomAccessFile(new File(dir, "session_events.log"), "rw").getChannel();
+        this.cursorFile = new RandomAccessFile(new File(dir, "session_events.cursor"), "rw");
+        this.writer = writer;
+
+        if (cursorFile.length() >= 16) {
+            cursorFile.seek(0);
+            epoch = cursorFile.readLong();
+            sentOffset = cursorFile.readLong();
+        }
+        // Drop a torn record left by a crash mid-write
+        long size = channel.size();
+        if (size % RECORD_SIZE != 0) channel.truncate(size - size % RECORD_SIZE);
+        if (sentOffset > channel.size()) sentOffset = channel.size();
+        channel.position(channel.size());
+
+        writer.scheduleWithFixedDelay(drainTask, DRAIN_INTERVAL_MS, DRAIN_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // Record tag of a user id; never NO_USER
+    public static int userTag(String uid) {
+        int tag = uid.hashCode();
+        return tag == NO_USER ? 1 : tag;
+    }
+
+    // Tags records logged from now on with this user (NO_USER when signed out)
+    public void setUser(int tag) {
+        userTag = tag;
+    }
+
+    // ---------- Hot path (any thread, no allocation) ----------
+
+    public void log(int type, MiniApp app, int flags, int value1, int value2) {
+        long now = System.currentTimeMillis();
+        synchronized (lock) {
+            if (pending.remaining() < RECORD_SIZE) {
+                dropped++;
+                return;
+            }
+            pending.putLong(now)
+                    .put((byte) type)
+                    .put((byte) app.ordinal())
+                    .putShort((short) flags)
+                    .putInt(value1)
+                    .putInt(value2)
+                    .putInt(userTag);
+        }
+    }
+
+    public void sessionStart(MiniApp app) {
+        log(TYPE_SESSION_START, app, 0, 0, 0);
+    }
+
+    // durationMs: how long the game was on screen
+    public void sessionEnd(MiniApp app, long durationMs) {
+        log(TYPE_SESSION_END, app, 0, (int) Math.min(Integer.MAX_VALUE, durationMs), 0);
+        flush();
+    }
+
+    // responseMs: time since the question was shown; detail: game-specific (e.g. a score)
+    public void answer(MiniApp app, boolean correct, long responseMs, int detail) {
+        log(TYPE_ANSWER, app, correct ? FLAG_CORRECT : 0,
+                (int) Math.min(Integer.MAX_VALUE, responseMs), detail);
+    }
+
+    public void hint(MiniApp app) {
+        log(TYPE_HINT, app, 0, 0, 0);
+    }
+
+    public void solve(MiniApp app, long elapsedMs, int detail) {
+        log(TYPE_SOLVE, app, FLAG_CORRECT, (int) Math.min(Integer.MAX_VALUE, elapsedMs), detail);
+    }
+
+    public void timeout(MiniApp app, int detail) {
+        log(TYPE_TIMEOUT, app, 0, 0, detail);
+    }
+
+    // ---------- Writer thread ----------
+
+    // Asks the writer to persist whatever is buffered now instead of at the next tick
+    public void flush() {
+        writer.execute(drainTask);
+    }
+
+    // Called with every record as it reaches disk (used to keep incremental aggregates)
+    public void setObserver(RecordVisitor observer) {
+        synchronized (lock) {
+            this.observer = observer;
+        }
+    }
+
+    private void drain() {
+        ByteBuffer toWrite;
+        RecordVisitor currentObserver;
+        int droppedNow;
+        synchronized (lock) {
+            if (pending.position() == 0) return;
+            toWrite = pending;
+            pending = spare;
+            spare = toWrite;
+            currentObserver = observer;
+            droppedNow = dropped;
+            dropped = 0;
+        }
+        if (droppedNow > 0) Log.w(TAG, "Event buffer full, dropped " + droppedNow + " events.");
+
+        toWrite.flip();
+        try {
+            long base = channel.position();
+            int count = toWrite.limit() / RECORD_SIZE;
+            while (toWrite.hasRemaining()) channel.write(toWrite);
+            channel.force(false);
+
+            if (currentObserver != null) {
+                for (int i = 0; i < count; i++) {
+                    visitRecord(toWrite, i * RECORD_SIZE, base + (long) i * RECORD_SIZE, currentObserver);
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to append session events.", e);
+        } finally {
+            toWrite.clear();
+        }
+    }
+
+    private static void visitRecord(ByteBuffer buf, int pos, long offset, RecordVisitor visitor) {
+        visitor.visit(offset,
+                buf.getLong(pos),
+                buf.get(pos + 8),
+                buf.get(pos + 9),
+                buf.getShort(pos + 10),
+                buf.getInt(pos + 12),
+                buf.getInt(pos + 16),
+                buf.getInt(pos + USER_TAG_POSITION));
+    }
+
+    // ---------- Upload cursor ----------
+
+    // Identifies the current file generation; (epoch, offset) names a record uniquely across truncations
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Reads up to maxRecords records that have not been marked sent yet, on the writer thread.
+     * The future yields the end offset to pass to {@link #markSent(long)} once they are uploaded.
+     */
+    public Future<Long> readUnsent(final int maxRecords, final RecordVisitor visitor) {
+        return writer.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                long end = Math.min(channel.size(), sentOffset + (long) maxRecords * RECORD_SIZE);
+                int length = (int) (end - sentOffset);
+                if (length <= 0) return sentOffset;
+
+                ByteBuffer buf = ByteBuffer.allocate(length);
+                channel.read(buf, sentOffset);
+                int count = buf.position() / RECORD_SIZE;
+                for (int i = 0; i < count; i++) {
+                    visitRecord(buf, i * RECORD_SIZE, sentOffset + (long) i * RECORD_SIZE, visitor);
+                }
+                return sentOffset + (long) count * RECORD_SIZE;
+            }
+        });
+    }
+
+    /**
+     * Like {@link #readUnsent(int, RecordVisitor)}, but visits only up to maxRecords records of one
+     * user and reads past the others. The end offset covers the records passed over too, so marking
+     * it sent drops them.
+     */
+    public Future<Long> readUnsent(final int maxRecords, final int user, final RecordVisitor visitor) {
+        return writer.submit(new Callable<Long>() {
+            @Override
+            public Long call() throws IOException {
+                ByteBuffer buf = ByteBuffer.allocate(maxRecords * RECORD_SIZE);
+                long size = channel.size();
+                long end = sentOffset;
+                int visited = 0;
+                while (visited < maxRecords && end < size) {
+                    buf.clear();
+                    buf.limit((int) Math.min(buf.capacity(), size - end));
+                    channel.read(buf, end);
+                    int count = buf.position() / RECORD_SIZE;
+                    if (count == 0) break;
+
+                    long chunkStart = end;
+                    for (int i = 0; i < count && visited < maxRecords; i++) {
+                        int pos = i * RECORD_SIZE;
+                        if (buf.getInt(pos + USER_TAG_POSITION) == user) {
+                            visitRecord(buf, pos, chunkStart + pos, visitor);
+                            visited++;
+                        }
+                        end = chunkStart + pos + RECORD_SIZE;
+                    }
+                }
+                return end;
+            }
+        });
+    }
+
+    // Advances the upload cursor; truncates the file once everything in it has been sent
+    public Future<?> markSent(final long endOffset) {
+        return writer.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws IOException {
+                sentOffset = Math.max(sentOffset, endOffset);
+                if (sentOffset >= channel.size()) {
+                    channel.truncate(0);
+                    channel.position(0);
+                    sentOffset = 0;
+                    epoch++;
+                }
+                cursorFile.seek(0);
+                cursorFile.writeLong(epoch);
+                cursorFile.writeLong(sentOffset);
+                cursorFile.getFD().sync();
+                return null;
+            }
+        });
+    }
+
+    // True if there are records on disk that have not been uploaded (writer thread)
+    public Future<Boolean> hasUnsent() {
+        return writer.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws IOException {
+                return channel.size() > sentOffset;
+            }
+        });
+    }
+
+    // Flushes and closes the log (tests only; the process-wide log lives as long as the app)
+    void close() throws Exception {
+        writer.submit(drainTask).get();
+        writer.shutdown();
+        writer.awaitTermination(1, TimeUnit.SECONDS);
+        channel.close();
+        cursorFile.close();
+    }
+}
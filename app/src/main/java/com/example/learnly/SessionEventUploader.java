@@ -0,0 +1,164 @@
+package com.example.learnly;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Background flusher that copies the on-device SessionEventLog to sessionEvents/<uid> in Firebase.
+ * Each pass sends up to {@link #MAX_BATCH} records as one multi-path update and only advances the
+ * log's upload cursor once Firebase confirms the write. Keys are derived from the record's position
+ * in the log, so a batch that is re-sent after a crash overwrites itself instead of duplicating.
+ *
+ * Events live outside users/<uid> so that reading a user's settings never downloads their history.
+ * Only records logged while that uid was bound are sent there (see SessionEventLog.setUser).
+ */
+public class SessionEventUploader {
+
+    private static final String TAG = "SessionEventUploader";
+    private static final int MAX_BATCH = 200;
+    private static final long UPLOAD_INTERVAL_MS = 60_000;
+
+    private static SessionEventUploader instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable periodicUpload = new Runnable() {
+        @Override
+        public void run() {
+            uploadNow();
+            handler.postDelayed(this, UPLOAD_INTERVAL_MS);
+        }
+    };
+
+    // Reads batches off the main thread (the log itself reads on its writer thread)
+    private final ExecutorService reader = Executors.newSingleThreadExecutor();
+
+    private String userId;
+    private int userTag = SessionEventLog.NO_USER;
+    private DatabaseReference eventsRef;
+    private boolean uploading = false;
+
+    public static synchronized SessionEventUploader getInstance() {
+        if (instance == null) {
+            instance = new SessionEventUploader();
+        }
+        return instance;
+    }
+
+    // Starts periodic uploads for the signed-in user (main thread)
+    public void bindUser(@NonNull String uid) {
+        if (uid.equals(userId)) return;
+
+        userId = uid;
+        userTag = SessionEventLog.userTag(uid);
+        eventsRef = FirebaseDatabase.getInstance().getReference("sessionEvents").child(uid);
+        SessionEventLog log = SessionEventLog.get();
+        if (log != null) log.setUser(userTag);
+        handler.removeCallbacks(periodicUpload);
+        handler.post(periodicUpload);
+    }
+
+    /**
+     * Stops uploading (sign out) after one last attempt to send what this user has logged. Whatever
+     * that attempt doesn't send keeps this user's tag: it is never uploaded for the next user and is
+     * dropped when their uploads read past it.
+     */
+    public void unbindUser() {
+        uploadNow();
+        handler.removeCallbacks(periodicUpload);
+        SessionEventLog log = SessionEventLog.get();
+        if (log != null) log.setUser(SessionEventLog.NO_USER);
+        userId = null;
+        userTag = SessionEventLog.NO_USER;
+        eventsRef = null;
+    }
+
+    // Sends the next batch right away if nothing is in flight (main thread)
+    public void uploadNow() {
+        final SessionEventLog log = SessionEventLog.get();
+        final DatabaseReference ref = eventsRef;
+        final int user = userTag;
+        if (log == null || ref == null || uploading) return;
+        uploading = true;
+
+        final Map<String, Object> updates = new HashMap<>();
+        reader.execute(new Runnable() {
+            @Override
+            public void run() {
+                long end;
+                try {
+                    end = log.readUnsent(MAX_BATCH, user, new SessionEventLog.RecordVisitor() {
+                        @Override
+                        public void visit(long offset, long timeMs, int type, int app, int flags,
+                                          int value1, int value2, int user) {
+                            Map<String, Object> event = new HashMap<>();
+                            event.put("t", timeMs);
+                            event.put("type", type);
+                            event.put("app", MiniApp.values()[app].getId());
+                            event.put("correct", (flags & SessionEventLog.FLAG_CORRECT) != 0);
+                            event.put("v1", value1);
+                            event.put("v2", value2);
+                            // Visited on the log's writer thread, so the epoch matches the offset
+                            updates.put(keyFor(log.getEpoch(), offset), event);
+                        }
+                    }).get();
+                } catch (Exception e) {
+                    Log.e(TAG, "Failed to read session events.", e);
+                    end = -1;
+                }
+                final long endOffset = end;
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        send(log, ref, updates, endOffset);
+                    }
+                });
+            }
+        });
+    }
+
+    private void send(final SessionEventLog log, DatabaseReference ref,
+                      final Map<String, Object> updates, final long endOffset) {
+        if (endOffset < 0 || updates.isEmpty()) {
+            // Only other users' records were read: drop them
+            if (endOffset > 0) log.markSent(endOffset);
+            uploading = false;
+            return;
+        }
+        ref.updateChildren(updates)
+                .addOnSuccessListener(new OnSuccessListener<Void>() {
+                    @Override
+                    public void onSuccess(Void aVoid) {
+                        Log.d(TAG, "Uploaded " + updates.size() + " session events.");
+                        log.markSent(endOffset);
+                        uploading = false;
+                        if (updates.size() == MAX_BATCH) uploadNow(); // more waiting
+                    }
+                })
+                .addOnFailureListener(new OnFailureListener() {
+                    @Override
+                    public void onFailure(@NonNull Exception e) {
+                        Log.w(TAG, "Session event upload failed, will retry.", e);
+                        uploading = false;
+                    }
+                });
+    }
+
+    // Stable per-record key: "<epoch>-<record index>", zero padded so keys sort in log order
+    static String keyFor(long epoch, long offset) {
+        return String.format(Locale.US, "%06d-%09d", epoch, offset / SessionEventLog.RECORD_SIZE);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.learnly;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+// Logs a session start/end pair to the SessionEventLog each time a game comes on / leaves the screen
+public class SessionTracker implements LifecycleEventObserver {
+
+    private final MiniApp app;
+    private long startedAt = -1;
+
+    public SessionTracker(LifecycleOwner owner, MiniApp app) {
+        this.app = app;
+        owner.getLifecycle().addObserver(this);
+    }
+
+    @Override
+    public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+        SessionEventLog log = SessionEventLog.get();
+        if (event == Lifecycle.Event.ON_START) {
+            startedAt = SystemClock.elapsedRealtime();
+            if (log != null) log.sessionStart(app);
+        } else if (event == Lifecycle.Event.ON_STOP) {
+            if (log != null && startedAt >= 0) log.sessionEnd(app, SystemClock.elapsedRealtime() - startedAt);
+            startedAt = -1;
+        } else if (event == Lifecycle.Event.ON_DESTROY) {
+            source.getLifecycle().removeObserver(this);
+        }
+    }
+}
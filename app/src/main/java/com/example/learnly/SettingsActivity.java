@@ -2,18 +2,16 @@ package com.example.learnly;
 
 import android.os.Bundle;
 import android.util.Log;
+import android.widget.CompoundButton;
 import android.widget.TextView;
 import android.widget.Button;
 import android.view.View;
 import android.content.Intent;
 import android.widget.EditText;
-import android.content.SharedPreferences;
 import android.widget.LinearLayout;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.text.InputType;
-import androidx.security.crypto.EncryptedSharedPreferences;
-import androidx.security.crypto.MasterKeys;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
 
@@ -31,6 +29,7 @@ import com.google.firebase.database.FirebaseDatabase;
 import com.google.firebase.database.ValueEventListener;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 public class SettingsActivity extends AppCompatActivity {
@@ -41,6 +40,7 @@ public class SettingsActivity extends AppCompatActivity {
     private TextView settingsTextView;
     private EditText editTextChildName;
     private SwitchMaterial switchWeeklyReport;
+    private TextView weeklyReportText;
     private Button btnManageApps;
     private Button btnChangePin;
     private Button btnSave;
@@ -56,6 +56,7 @@ public class SettingsActivity extends AppCompatActivity {
         settingsTextView = findViewById(R.id.settingsTextView);
         editTextChildName = findViewById(R.id.editTextChildName);
         switchWeeklyReport = findViewById(R.id.switchWeeklyReport);
+        weeklyReportText = findViewById(R.id.weeklyReportText);
         btnManageApps = findViewById(R.id.btnManageApps);
         btnChangePin = findViewById(R.id.btnChangePin);
         btnSave = findViewById(R.id.btnSave);
@@ -84,6 +85,14 @@ public class SettingsActivity extends AppCompatActivity {
             }
         });
 
+        // The report is already aggregated on device, so it can be shown as soon as the switch is on
+        switchWeeklyReport.setOnCheckedChangeListener(new CompoundButton.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                renderWeeklyReport(isChecked);
+            }
+        });
+
         btnManageApps.setOnClickListener(new View.OnClickListener() {
             @Override
             public void onClick(View v) {
@@ -125,6 +134,7 @@ public class SettingsActivity extends AppCompatActivity {
                     if (snapshot.hasChild("weeklyReportEnabled")) {
                         Boolean isEnabled = snapshot.child("weeklyReportEnabled").getValue(Boolean.class);
                         switchWeeklyReport.setChecked(isEnabled != null && isEnabled);
+                        renderWeeklyReport(switchWeeklyReport.isChecked());
                     }
                 } else {
                     Log.d(TAG, "No user settings found in database.");
@@ -138,6 +148,46 @@ public class SettingsActivity extends AppCompatActivity {
         });
     }
 
+    // Shows this week's summary under the switch when reports are enabled
+    private void renderWeeklyReport(boolean enabled) {
+        if (!enabled) {
+            weeklyReportText.setVisibility(View.GONE);
+            return;
+        }
+
+        WeeklyReport report = WeeklyReportEngine.getInstance(this).buildReport(System.currentTimeMillis());
+        WeeklyReport.AppTotals overall = report.getOverall();
+        StringBuilder sb = new StringBuilder();
+        if (!overall.hasActivity()) {
+            sb.append("No activity in the last 7 days yet.");
+        } else {
+            sb.append("Last 7 days: ").append(describe(overall))
+                    .append(", active on ").append(report.getActiveDays())
+                    .append(" of ").append(report.getDayCount()).append(" days");
+            for (MiniApp app : MiniApp.values()) {
+                WeeklyReport.AppTotals totals = report.getTotals(app);
+                if (!totals.hasActivity()) continue;
+                sb.append("\n• ").append(app.getDisplayName()).append(": ").append(describe(totals));
+            }
+        }
+        weeklyReportText.setText(sb.toString());
+        weeklyReportText.setVisibility(View.VISIBLE);
+    }
+
+    // e.g. "12 min, 20 answers (85% correct), 3 hints"
+    private String describe(WeeklyReport.AppTotals totals) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(Math.round(totals.getSecondsOnTask() / 60f)).append(" min");
+        if (totals.getAttempts() > 0) {
+            sb.append(", ").append(totals.getAttempts()).append(" answers (")
+                    .append(String.format(Locale.US, "%d%% correct", totals.getAccuracyPercent())).append(")");
+        }
+        if (totals.getHints() > 0) {
+            sb.append(", ").append(totals.getHints()).append(totals.getHints() == 1 ? " hint" : " hints");
+        }
+        return sb.toString();
+    }
+
     // Saves the current settings to RealTime Firebase DB
     private void saveUserSettings() {
         String childName = editTextChildName.getText().toString().trim();
@@ -168,6 +218,10 @@ public class SettingsActivity extends AppCompatActivity {
 
     // Signs the user out of Firebase Auth and returns to the main screen
     public void logout(View view) {
+        UserSettingsRepository.getInstance(this).unbindUser();
+        SessionEventUploader.getInstance().unbindUser();
+        WordScheduleStore.getInstance(this).unbindUser();
+        WeeklyReportEngine.getInstance(this).unbindUser();
         mAuth.signOut();
         Log.d(TAG, "user:logged out");
         Intent i = new Intent(SettingsActivity.this, MainActivity.class);
@@ -179,6 +233,10 @@ public class SettingsActivity extends AppCompatActivity {
     // Sends a password reset email using Firebase Auth
 // Signs the user out and sends them to the ForgotPasswordActivity
     public void changePassword(View view) {
+        UserSettingsRepository.getInstance(this).unbindUser();
+        SessionEventUploader.getInstance().unbindUser();
+        WordScheduleStore.getInstance(this).unbindUser();
+        WeeklyReportEngine.getInstance(this).unbindUser();
         mAuth.signOut();
         Log.d(TAG, "User signed out, redirecting to ForgotPasswordActivity.");
         Intent i = new Intent(SettingsActivity.this, ForgotPasswordActivity.class);
@@ -189,19 +247,23 @@ public class SettingsActivity extends AppCompatActivity {
 
     // Displays a dialog to verify the user's current (old) PIN
     private void showEnterOldPinDialog() {
-        final SharedPreferences prefs = getEncryptedPrefs();
-        if (prefs == null) {
-            Log.e(TAG, "Security error. Cannot change PIN.");
-            return;
-        }
-
-        final String correctPin = prefs.getString("parent_pin", null);
-        if (correctPin == null) {
-            Log.e(TAG, "Cannot change PIN, no PIN is currently set.");
-            showCreateNewPinDialog(prefs);
-            return;
-        }
+        PinVault.getInstance(this).getPinState(new PinVault.PinStateListener() {
+            @Override
+            public void onPinState(int state) {
+                if (isFinishing()) return;
+                if (state == PinVault.STATE_UNAVAILABLE) {
+                    Log.e(TAG, "Security error. Cannot change PIN.");
+                } else if (state == PinVault.STATE_NO_PIN) {
+                    Log.e(TAG, "Cannot change PIN, no PIN is currently set.");
+                    showCreateNewPinDialog();
+                } else {
+                    showOldPinPrompt();
+                }
+            }
+        });
+    }
 
+    private void showOldPinPrompt() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Enter Old PIN");
         builder.setMessage("Please enter your current 4-digit PIN to make changes.");
@@ -216,11 +278,17 @@ public class SettingsActivity extends AppCompatActivity {
             @Override
             public void onClick(DialogInterface dialog, int which) {
                 String enteredPin = input.getText().toString();
-                if (enteredPin.equals(correctPin)) {
-                    showCreateNewPinDialog(prefs);
-                } else {
-                    Log.w(TAG, "Incorrect PIN entered for PIN change.");
-                }
+                PinVault.getInstance(SettingsActivity.this).verify(enteredPin, new PinVault.ResultListener() {
+                    @Override
+                    public void onResult(boolean success) {
+                        if (isFinishing()) return;
+                        if (success) {
+                            showCreateNewPinDialog();
+                        } else {
+                            Log.w(TAG, "Incorrect PIN entered for PIN change.");
+                        }
+                    }
+                });
             }
         });
         builder.setNegativeButton("Cancel", new DialogInterface.OnClickListener() {
@@ -233,7 +301,7 @@ public class SettingsActivity extends AppCompatActivity {
     }
 
     // Displays a dialog to create and confirm a new PIN
-    private void showCreateNewPinDialog(final SharedPreferences prefs) {
+    private void showCreateNewPinDialog() {
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Create a New 4-Digit PIN");
         builder.setMessage("Please enter and confirm your new PIN.");
@@ -262,14 +330,21 @@ public class SettingsActivity extends AppCompatActivity {
 
                 if (pin1.length() != 4) {
                     Log.w(TAG, "New PIN is not 4 digits.");
-                    showCreateNewPinDialog(prefs);
+                    showCreateNewPinDialog();
                 } else if (!pin1.equals(pin2)) {
                     Log.w(TAG, "New PINs do not match.");
-                    showCreateNewPinDialog(prefs);
+                    showCreateNewPinDialog();
                 } else {
-                    // This is the part that was missing
-                    prefs.edit().putString("parent_pin", pin1).apply();
-                    Log.d(TAG, "PIN successfully changed.");
+                    PinVault.getInstance(SettingsActivity.this).setPin(pin1, new PinVault.ResultListener() {
+                        @Override
+                        public void onResult(boolean success) {
+                            if (success) {
+                                Log.d(TAG, "PIN successfully changed.");
+                            } else {
+                                Log.e(TAG, "Security error. Could not save the new PIN.");
+                            }
+                        }
+                    });
                 }
             }
         });
@@ -281,17 +356,4 @@ public class SettingsActivity extends AppCompatActivity {
         });
         builder.show();
     }
-
-    // Accesses the secure, on-device storage for the PIN
-    private SharedPreferences getEncryptedPrefs() {
-        try {
-            String mainKeyAlias = MasterKeys.getOrCreate(MasterKeys.AES256_GCM_SPEC);
-            return EncryptedSharedPreferences.create(
-                    "parent_secure_prefs", mainKeyAlias, this, EncryptedSharedPreferences.PrefKeyEncryptionScheme.AES256_SIV, EncryptedSharedPreferences.PrefValueEncryptionScheme.AES256_GCM);
-
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to create encrypted preferences", e);
-            return null;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// UserSnapshotStore backed by a small private SharedPreferences file, read once at cold start
+public class SharedPreferencesSnapshotStore implements UserSnapshotStore {
+
+    private static final String PREFS_NAME = "user_snapshot";
+    private static final String KEY_USER_ID = "user_id";
+    private static final String KEY_CHILD_NAME = "child_name";
+    private static final String APP_PREFIX = "app.";
+    private static final String SUFFIX_ENABLED = ".enabled";
+    private static final String SUFFIX_DIFFICULTY = ".difficulty";
+
+    private final SharedPreferences prefs;
+
+    public SharedPreferencesSnapshotStore(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    @Override
+    public UserSnapshot load() {
+        String userId = prefs.getString(KEY_USER_ID, null);
+        if (userId == null) return null;
+
+        Map<MiniApp, MiniAppSettings> miniApps = new EnumMap<>(MiniApp.class);
+        for (MiniApp app : MiniApp.values()) {
+            String prefix = APP_PREFIX + app.getId();
+            if (!prefs.contains(prefix + SUFFIX_ENABLED)) continue;
+
+            boolean enabled = prefs.getBoolean(prefix + SUFFIX_ENABLED, true);
+            String difficulty = prefs.getString(prefix + SUFFIX_DIFFICULTY, MiniAppSettings.DEFAULT_DIFFICULTY);
+            miniApps.put(app, new MiniAppSettings(enabled, difficulty));
+        }
+        return new UserSnapshot(userId, prefs.getString(KEY_CHILD_NAME, null), miniApps);
+    }
+
+    @Override
+    public void save(UserSnapshot snapshot) {
+        SharedPreferences.Editor editor = prefs.edit().clear();
+        editor.putString(KEY_USER_ID, snapshot.getUserId());
+        if (snapshot.getChildName() != null) {
+            editor.putString(KEY_CHILD_NAME, snapshot.getChildName());
+        }
+        for (Map.Entry<MiniApp, MiniAppSettings> entry : snapshot.getMiniApps().entrySet()) {
+            String prefix = APP_PREFIX + entry.getKey().getId();
+            editor.putBoolean(prefix + SUFFIX_ENABLED, entry.getValue().isEnabled());
+            editor.putString(prefix + SUFFIX_DIFFICULTY, entry.getValue().getDifficulty());
+        }
+        editor.apply();
+    }
+
+    @Override
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+}
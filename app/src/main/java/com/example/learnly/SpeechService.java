@@ -0,0 +1,367 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.speech.tts.Voice;
+import android.util.Log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One TextToSpeech engine for the whole app.
+ *
+ * Binding the engine and loading the voice takes hundreds of milliseconds, so it is done once, from
+ * LearnlyApplication, and never shut down. Each screen opens its own Speaker: utterances are tagged
+ * with the speaker's id so progress callbacks reach only the screen that asked for them, speech
+ * rate and pitch are per speaker, and anything spoken before the engine is ready is queued and
+ * played as soon as it is, so a game's first prompt is never dropped.
+ *
+ * Main thread only; callbacks are delivered on the main thread.
+ */
+public class SpeechService {
+
+    private static final String TAG = "SpeechService";
+
+    private static final int STATE_IDLE = 0;
+    private static final int STATE_INITIALIZING = 1;
+    private static final int STATE_READY = 2;
+    private static final int STATE_UNAVAILABLE = 3;
+
+    // Utterance ids are "<speaker id>:<tag>"
+    private static final char ID_SEPARATOR = ':';
+    private static final String WARM_UP_ID = "warmup";
+
+    /** Progress of one speaker's utterances, on the main thread. Override what you need. */
+    public abstract static class Callback {
+        // The engine is ready (called right away if it already was)
+        public void onReady() {
+        }
+
+        // No usable engine or voice; speak() does nothing
+        public void onUnavailable() {
+        }
+
+        public void onStart(int tag) {
+        }
+
+        /**
+         * The engine is about to speak text[start, end) of the utterance (API 26+ engines). frame is
+         * the position of that audio in frames, which for synthesizeToFile is an offset in the file.
+         */
+        public void onRange(int tag, int start, int end, int frame) {
+        }
+
+        // Synthesis of an utterance started, producing audio at this sample rate
+        public void onSynthesisStart(int tag, int sampleRateHz) {
+        }
+
+        public void onDone(int tag) {
+        }
+
+        public void onError(int tag) {
+        }
+
+        // Interrupted by stop() or by another speaker's flush
+        public void onStop(int tag) {
+        }
+    }
+
+    private static class Pending {
+        final Speaker speaker;
+        final CharSequence text;
+        final boolean flush;
+        final int tag;
+
+        Pending(Speaker speaker, CharSequence text, boolean flush, int tag) {
+            this.speaker = speaker;
+            this.text = text;
+            this.flush = flush;
+            this.tag = tag;
+        }
+    }
+
+    private static SpeechService instance;
+
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, Speaker> speakers = new HashMap<>();
+    private final List<Pending> pending = new ArrayList<>();
+    private final Bundle params = new Bundle();
+
+    private TextToSpeech tts;
+    private int state = STATE_IDLE;
+    private int nextSpeakerId = 1;
+
+    public static synchronized SpeechService getInstance(Context context) {
+        if (instance == null) {
+            instance = new SpeechService(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private SpeechService(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    // Binds the engine and loads the voice if that hasn't happened (or failed before)
+    public void warmUp() {
+        if (state == STATE_INITIALIZING || state == STATE_READY) return;
+        state = STATE_INITIALIZING;
+        final int span = StartupTrace.begin("tts.init");
+        tts = new TextToSpeech(appContext, new TextToSpeech.OnInitListener() {
+            @Override
+            public void onInit(int status) {
+                StartupTrace.end(span);
+                onEngineInit(status);
+            }
+        });
+    }
+
+    private void onEngineInit(int status) {
+        if (status != TextToSpeech.SUCCESS) {
+            Log.w(TAG, "Failed to initialize TTS.");
+            becomeUnavailable();
+            return;
+        }
+        int res = tts.setLanguage(Locale.US);
+        if (res == TextToSpeech.LANG_MISSING_DATA || res == TextToSpeech.LANG_NOT_SUPPORTED) {
+            Log.w(TAG, "TTS language not available.");
+            becomeUnavailable();
+            return;
+        }
+        tts.setOnUtteranceProgressListener(progressListener);
+        // A silent utterance gets the engine's audio path going before the first real prompt
+        tts.playSilentUtterance(1, TextToSpeech.QUEUE_ADD, WARM_UP_ID);
+        state = STATE_READY;
+        Log.d(TAG, "TTS ready.");
+
+        List<Pending> queued = new ArrayList<>(pending);
+        pending.clear();
+        for (Pending p : queued) {
+            if (speakers.containsKey(p.speaker.id)) speakNow(p.speaker, p.text, p.flush, p.tag);
+        }
+        for (Speaker speaker : new ArrayList<>(speakers.values())) {
+            speaker.callback.onReady();
+        }
+    }
+
+    private void becomeUnavailable() {
+        state = STATE_UNAVAILABLE;
+        pending.clear();
+        if (tts != null) {
+            tts.shutdown();
+            tts = null;
+        }
+        for (Speaker speaker : new ArrayList<>(speakers.values())) {
+            speaker.callback.onUnavailable();
+        }
+    }
+
+    /** Opens a speaker for one screen; close it in onDestroy. Starts the engine if needed. */
+    public Speaker openSpeaker(Callback callback) {
+        final Speaker speaker = new Speaker(String.valueOf(nextSpeakerId++), callback);
+        speakers.put(speaker.id, speaker);
+        if (state == STATE_READY) {
+            // Posted so the caller can finish onCreate first, as with a fresh engine
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    if (speakers.containsKey(speaker.id)) speaker.callback.onReady();
+                }
+            });
+        } else {
+            warmUp(); // also retries after a failure, e.g. once voice data was installed
+        }
+        return speaker;
+    }
+
+    // Name of the voice in use, or null if the engine isn't ready
+    public String getVoiceName() {
+        if (state != STATE_READY) return null;
+        Voice voice = tts.getVoice();
+        return voice != null ? voice.getName() : null;
+    }
+
+    private void speakNow(Speaker speaker, CharSequence text, boolean flush, int tag) {
+        tts.setSpeechRate(speaker.rate);
+        tts.setPitch(speaker.pitch);
+        speaker.busy = true;
+        tts.speak(text, flush ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD, params,
+                speaker.id + ID_SEPARATOR + tag);
+    }
+
+    // Routes engine callbacks (binder thread) to the owning speaker on the main thread
+    private final UtteranceProgressListener progressListener = new UtteranceProgressListener() {
+        @Override
+        public void onStart(String utteranceId) {
+            dispatch(utteranceId, EVENT_START, 0, 0, 0);
+        }
+
+        @Override
+        public void onDone(String utteranceId) {
+            dispatch(utteranceId, EVENT_DONE, 0, 0, 0);
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public void onError(String utteranceId) {
+            dispatch(utteranceId, EVENT_ERROR, 0, 0, 0);
+        }
+
+        @Override
+        public void onError(String utteranceId, int errorCode) {
+            dispatch(utteranceId, EVENT_ERROR, 0, 0, 0);
+        }
+
+        @Override
+        public void onStop(String utteranceId, boolean interrupted) {
+            dispatch(utteranceId, EVENT_STOP, 0, 0, 0);
+        }
+
+        @Override
+        public void onRangeStart(String utteranceId, int start, int end, int frame) {
+            dispatch(utteranceId, EVENT_RANGE, start, end, frame);
+        }
+
+        @Override
+        public void onBeginSynthesis(String utteranceId, int sampleRateInHz, int audioFormat, int channelCount) {
+            dispatch(utteranceId, EVENT_BEGIN_SYNTHESIS, sampleRateInHz, 0, 0);
+        }
+    };
+
+    private static final int EVENT_START = 0;
+    private static final int EVENT_DONE = 1;
+    private static final int EVENT_ERROR = 2;
+    private static final int EVENT_RANGE = 3;
+    private static final int EVENT_STOP = 4;
+    private static final int EVENT_BEGIN_SYNTHESIS = 5;
+
+    private void dispatch(String utteranceId, final int event, final int a, final int b, final int c) {
+        if (utteranceId == null) return;
+        int separator = utteranceId.indexOf(ID_SEPARATOR);
+        if (separator < 0) return; // warm-up
+        final String speakerId = utteranceId.substring(0, separator);
+        final int tag;
+        try {
+            tag = Integer.parseInt(utteranceId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return;
+        }
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Speaker speaker = speakers.get(speakerId);
+                if (speaker == null) return;
+                switch (event) {
+                    case EVENT_START:
+                        speaker.callback.onStart(tag);
+                        break;
+                    case EVENT_DONE:
+                        speaker.callback.onDone(tag);
+                        break;
+                    case EVENT_ERROR:
+                        speaker.callback.onError(tag);
+                        break;
+                    case EVENT_STOP:
+                        speaker.callback.onStop(tag);
+                        break;
+                    case EVENT_BEGIN_SYNTHESIS:
+                        speaker.callback.onSynthesisStart(tag, a);
+                        break;
+                    default:
+                        speaker.callback.onRange(tag, a, b, c);
+                        break;
+                }
+            }
+        });
+    }
+
+    /** One screen's handle on the shared engine. */
+    public final class Speaker {
+
+        final String id;
+        final Callback callback;
+        float rate = 1f;
+        float pitch = 1f;
+        boolean busy;     // has spoken or rendered since its last stop()
+
+        Speaker(String id, Callback callback) {
+            this.id = id;
+            this.callback = callback;
+        }
+
+        public boolean isReady() {
+            return state == STATE_READY;
+        }
+
+        public boolean isUnavailable() {
+            return state == STATE_UNAVAILABLE;
+        }
+
+        // Rate and pitch for this speaker's next utterances (1 = normal)
+        public void setVoice(float rate, float pitch) {
+            this.rate = rate;
+            this.pitch = pitch;
+        }
+
+        // Interrupts whatever is playing and says text
+        public void speak(CharSequence text) {
+            speak(text, true, 0);
+        }
+
+        /**
+         * Says text, after what is already queued unless flush is set. The tag comes back in the
+         * callbacks for this utterance. Queued until the engine is ready; ignored if it never will be.
+         */
+        public void speak(CharSequence text, boolean flush, int tag) {
+            if (text == null || text.length() == 0 || !speakers.containsKey(id)) return;
+            if (state == STATE_READY) {
+                speakNow(this, text, flush, tag);
+            } else if (state != STATE_UNAVAILABLE) {
+                if (flush) pending.clear();
+                pending.add(new Pending(this, text, flush, tag));
+            }
+        }
+
+        /**
+         * Renders text to a WAV file with this speaker's rate and pitch instead of playing it;
+         * onDone(tag) once the file is complete. Shares the engine's queue, so a flush from any
+         * speaker interrupts it (onStop). False if the engine isn't ready.
+         */
+        public boolean synthesizeToFile(CharSequence text, File file, int tag) {
+            if (state != STATE_READY || !speakers.containsKey(id)) return false;
+            tts.setSpeechRate(rate);
+            tts.setPitch(pitch);
+            busy = true;
+            return tts.synthesizeToFile(text, params, file, id + ID_SEPARATOR + tag) == TextToSpeech.SUCCESS;
+        }
+
+        /**
+         * Drops this speaker's queued requests and, if it has used the engine since its last stop,
+         * stops the engine. The engine has a single queue, so other speakers' utterances are
+         * interrupted too (they get onStop).
+         */
+        public void stop() {
+            for (int i = pending.size() - 1; i >= 0; i--) {
+                if (pending.get(i).speaker == this) pending.remove(i);
+            }
+            if (state == STATE_READY && busy) tts.stop();
+            busy = false;
+        }
+
+        // Stops this speaker's speech and stops delivering its callbacks
+        public void close() {
+            stop();
+            speakers.remove(id);
+        }
+    }
+}
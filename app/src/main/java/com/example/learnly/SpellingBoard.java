@@ -0,0 +1,269 @@
+package com.example.learnly;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * State of one Spelling Time word: the answer slots and the bank of letters still to place
+ * (the word's own letters plus any distractor letters).
+ *
+ * Plain Java with no Android dependencies. Slots and bank are char arrays sized once per word
+ * length, filled slots are tracked in a bitmask and a running count of misplaced letters is kept,
+ * so placing, removing, revealing and checking never allocate and never rebuild a string.
+ */
+public class SpellingBoard {
+
+    // Value of an empty slot
+    public static final char EMPTY = 0;
+
+    // Filled slots are tracked in a long bitmask
+    public static final int MAX_LENGTH = 64;
+
+    private final Random rng;
+
+    private char[] target = new char[0];
+    private char[] slots = new char[0];
+    private char[] bank = new char[0];
+    private int length = 0;
+    private int bankCount = 0;
+
+    private long filledMask = 0;
+    private int mismatches = 0;
+
+    public SpellingBoard(Random rng) {
+        this.rng = rng;
+    }
+
+    // Starts a new word (upper-cased by the caller); the bank holds its letters in shuffled order
+    public void reset(CharSequence word) {
+        reset(word, null, 0);
+    }
+
+    // Same, with extraCount distractor letters from extras mixed into the bank
+    public void reset(CharSequence word, char[] extras, int extraCount) {
+        int n = word.length();
+        if (n > MAX_LENGTH) throw new IllegalArgumentException("Word too long: " + n);
+        if (target.length < n) {
+            target = new char[n];
+            slots = new char[n];
+        }
+        if (bank.length < n + extraCount) bank = new char[n + extraCount];
+        length = n;
+        for (int i = 0; i < n; i++) {
+            target[i] = word.charAt(i);
+            slots[i] = EMPTY;
+            bank[i] = target[i];
+        }
+        for (int i = 0; i < extraCount; i++) {
+            bank[n + i] = extras[i];
+        }
+        bankCount = n + extraCount;
+        filledMask = 0;
+        mismatches = 0;
+
+        // Fisher-Yates
+        for (int i = bankCount - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            char t = bank[i];
+            bank[i] = bank[j];
+            bank[j] = t;
+        }
+    }
+
+    // Puts every placed letter back in the bank (same word, fresh shuffle)
+    public void restart() {
+        for (int i = 0; i < length; i++) {
+            if (slots[i] != EMPTY) clearSlot(i);
+        }
+    }
+
+    /**
+     * Puts back a board saved with copySlots and copyBank, e.g. after the process was killed.
+     * savedSlots has one char per letter of word, EMPTY where nothing was placed.
+     */
+    public void restore(CharSequence word, char[] savedSlots, char[] savedBank) {
+        if (savedSlots.length != word.length()) {
+            throw new IllegalArgumentException("Slots don't match the word: " + savedSlots.length);
+        }
+        reset(word);
+        if (bank.length < savedBank.length) bank = new char[savedBank.length];
+        System.arraycopy(savedBank, 0, bank, 0, savedBank.length);
+        bankCount = savedBank.length;
+        for (int i = 0; i < length; i++) {
+            if (savedSlots[i] != EMPTY) fill(i, savedSlots[i]);
+        }
+    }
+
+    // The slots, one char per letter (EMPTY where nothing is placed)
+    public char[] copySlots() {
+        return Arrays.copyOf(slots, length);
+    }
+
+    // The letters still in the bank, in order
+    public char[] copyBank() {
+        return Arrays.copyOf(bank, bankCount);
+    }
+
+    // ---------- Moves ----------
+
+    /**
+     * Moves bank letter at bankIndex into the first empty slot.
+     * Returns the slot it landed in, or -1 if every slot is already filled.
+     */
+    public int placeFromBank(int bankIndex) {
+        if (bankIndex < 0 || bankIndex >= bankCount) return -1;
+        int slot = firstEmptySlot();
+        if (slot == -1) return -1;
+        char c = removeFromBankAt(bankIndex);
+        fill(slot, c);
+        return slot;
+    }
+
+    // Returns the letter in a filled slot to the bank; false if the slot was already empty
+    public boolean clearSlot(int slot) {
+        if (slot < 0 || slot >= length || slots[slot] == EMPTY) return false;
+        char c = slots[slot];
+        empty(slot);
+        returnToBank(c);
+        return true;
+    }
+
+    // Clears the right-most filled slot; returns its index, or -1 if nothing was placed
+    public int backspace() {
+        int slot = lastFilledSlot();
+        if (slot != -1) clearSlot(slot);
+        return slot;
+    }
+
+    /**
+     * Puts one correct letter in place: the first wrong slot if any, otherwise the first empty one.
+     * The letter is taken from the bank, or from a wrong slot elsewhere if the bank has none left.
+     * Returns the slot that was fixed, or -1 if the board is already solved.
+     */
+    public int reveal() {
+        int slot = -1;
+        if (mismatches > 0) {
+            for (int i = 0; i < length; i++) {
+                if (slots[i] != EMPTY && slots[i] != target[i]) {
+                    slot = i;
+                    break;
+                }
+            }
+        } else {
+            slot = firstEmptySlot();
+        }
+        if (slot == -1) return -1;
+
+        char wanted = target[slot];
+        if (slots[slot] != EMPTY) {
+            char wrong = slots[slot];
+            empty(slot);
+            returnToBank(wrong);
+        }
+
+        int inBank = indexInBank(wanted);
+        if (inBank != -1) {
+            removeFromBankAt(inBank);
+        } else {
+            // Every copy is already placed, so at least one sits in a slot that needs another letter
+            for (int i = 0; i < length; i++) {
+                if (i != slot && slots[i] == wanted && target[i] != wanted) {
+                    empty(i);
+                    break;
+                }
+            }
+        }
+        fill(slot, wanted);
+        return slot;
+    }
+
+    // ---------- Queries ----------
+
+    public int length() {
+        return length;
+    }
+
+    public char targetAt(int slot) {
+        return target[slot];
+    }
+
+    // The letter in a slot, or EMPTY
+    public char slotAt(int slot) {
+        return slots[slot];
+    }
+
+    public int bankSize() {
+        return bankCount;
+    }
+
+    public char bankAt(int index) {
+        return bank[index];
+    }
+
+    public boolean isFull() {
+        return filledMask == fullMask();
+    }
+
+    public boolean isEmpty() {
+        return filledMask == 0;
+    }
+
+    public boolean isSolved() {
+        return isFull() && mismatches == 0;
+    }
+
+    // Number of placed letters that are in the wrong slot
+    public int getMismatchCount() {
+        return mismatches;
+    }
+
+    public int firstEmptySlot() {
+        int slot = Long.numberOfTrailingZeros(~filledMask);
+        return slot < length ? slot : -1;
+    }
+
+    public int lastFilledSlot() {
+        return filledMask == 0 ? -1 : 63 - Long.numberOfLeadingZeros(filledMask);
+    }
+
+    // ---------- Internals ----------
+
+    private long fullMask() {
+        return length == 64 ? -1L : (1L << length) - 1;
+    }
+
+    private void fill(int slot, char c) {
+        slots[slot] = c;
+        filledMask |= 1L << slot;
+        if (c != target[slot]) mismatches++;
+    }
+
+    private void empty(int slot) {
+        if (slots[slot] != target[slot]) mismatches--;
+        slots[slot] = EMPTY;
+        filledMask &= ~(1L << slot);
+    }
+
+    private int indexInBank(char c) {
+        for (int i = 0; i < bankCount; i++) {
+            if (bank[i] == c) return i;
+        }
+        return -1;
+    }
+
+    // Removes one bank letter, keeping the order of the rest so only the tiles after it move
+    private char removeFromBankAt(int index) {
+        char c = bank[index];
+        System.arraycopy(bank, index + 1, bank, index, bankCount - index - 1);
+        bankCount--;
+        return c;
+    }
+
+    // Returns a letter to a random spot in the bank so its old position gives nothing away
+    private void returnToBank(char c) {
+        int at = rng.nextInt(bankCount + 1);
+        System.arraycopy(bank, at, bank, at + 1, bankCount - at);
+        bank[at] = c;
+        bankCount++;
+    }
+}
@@ -1,9 +1,8 @@
 package com.example.learnly;
 
 import android.graphics.Typeface;
-import android.os.Build;
 import android.os.Bundle;
-import android.speech.tts.TextToSpeech;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Log;
 import android.view.View;
@@ -11,173 +10,61 @@ import android.view.animation.Animation;
 import android.view.animation.ScaleAnimation;
 import android.view.animation.TranslateAnimation;
 import android.widget.Button;
-import android.widget.GridLayout;
 import android.widget.LinearLayout;
 import android.widget.TextView;
 import android.widget.Toast;
 
-import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
-import java.util.Random;
 
 public class SpellingGameActivity extends AppCompatActivity {
 
     private static final String TAG = "SpellingGameActivity";
-    private static final String APP_NAME = "Spelling Time";
+    private static final MiniApp APP = MiniApp.SPELLING_TIME;
 
     // UI
     private TextView levelText, promptText, resultText, emojiHint;
     private LinearLayout answerRow;
-    private GridLayout lettersGrid;
+    private LetterBoardView letterBoard;
+    private TileViewPool slotTiles;
     private Button btnBackspace, btnHint, btnReset, btnNext;
 
-    // Game state
-    // tierIndex: 0 = easy (3 letters), 1 = medium (4 letters), 2 = hard (5 letters)
-    private int tierIndex = 0;
-    private String difficultyLabel = "Easy";
-
-    private String currentWord = "";
-    private ArrayList<Character> bank;
-    private ArrayList<Character> slots;
-
-    // TTS
-    private TextToSpeech tts;
-    private boolean ttsReady = false;
-
-    // Firebase
-    private DatabaseReference mAppSettingsRef;
-
-    private final Random rng = new Random();
-
-    // ---------------- Word pools (30 per tier) ----------------
-    // Tier 0: EASY (3-letter words)
-    private static final String[][] LEVEL_TIER_1 = new String[][]{
-            {"CAT", "A small pet that says meow."},
-            {"DOG", "A friendly pet that barks."},
-            {"SUN", "It shines bright in the sky."},
-            {"CAR", "You can ride in it."},
-            {"BUS", "It carries many people."},
-            {"ANT", "A tiny insect that crawls."},
-            {"HAT", "You wear it on your head."},
-            {"PEN", "You use it to write."},
-            {"MAP", "It shows you where things are."},
-            {"CUP", "You drink from it."},
-            {"BOX", "You can put things inside it."},
-            {"BED", "You sleep on it."},
-            {"PIG", "A pink farm animal that says oink."},
-            {"RUG", "A soft mat on the floor."},
-            {"BAT", "It flies and comes out at night."},
-            {"FOX", "A clever orange animal."},
-            {"JAR", "You can keep snacks inside it."},
-            {"NUT", "A small food squirrels love."},
-            {"LOG", "A big piece of a tree."},
-            {"EGG", "A baby chick comes from this."},
-            {"BUG", "A tiny creature that crawls or flies."},
-            {"BEE", "A yellow insect that makes honey."},
-            {"RAT", "A small furry animal with a tail."},
-            {"OWL", "A night bird that says hoo."},
-            {"TOY", "Something fun to play with."},
-            {"KEY", "You use it to unlock things."},
-            {"LIP", "Part of your mouth."},
-            {"EAR", "You use it to hear."},
-            {"BOW", "A pretty ribbon tie."},
-            {"ICE", "Cold water that is frozen."}
-    };
-
-    // Tier 1: MEDIUM (4-letter words)
-    private static final String[][] LEVEL_TIER_2 = new String[][]{
-            {"FROG",  "It hops and says ribbit."},
-            {"BIRD",  "It flies in the sky."},
-            {"LION",  "The king of the jungle."},
-            {"STAR",  "Shines at night in the sky."},
-            {"FISH",  "It swims in the water."},
-            {"BEAR",  "A big furry animal."},
-            {"DUCK",  "It quacks and swims."},
-            {"WORM",  "A tiny underground creature."},
-            {"GOAT",  "A farm animal with horns."},
-            {"DEER",  "A gentle animal with antlers."},
-            {"SHIP",  "A boat that sails on water."},
-            {"TREE",  "A tall plant with leaves."},
-            {"MILK",  "A white drink from cows."},
-            {"CAKE",  "A sweet treat for birthdays."},
-            {"BALL",  "You can throw or kick it."},
-            {"BOOK",  "You read stories from it."},
-            {"DESK",  "You sit at it to learn."},
-            {"SOAP",  "You clean your hands with it."},
-            {"MOON",  "It glows in the night sky."},
-            {"WOLF",  "A wild animal that howls."},
-            {"SAND",  "Tiny grains found at the beach."},
-            {"SNOW",  "Cold white ice that falls from the sky."},
-            {"LEAF",  "A part of a tree that is green."},
-            {"FIRE",  "It is hot and bright."},
-            {"CORN",  "A yellow vegetable on a cob."},
-            {"HAND",  "You use it to hold things."},
-            {"NOSE",  "You smell with it."},
-            {"RAIN",  "Water drops that fall from clouds."},
-            {"ROAD",  "Cars drive on it."},
-            {"ROPE",  "A long strong string."}
-    };
-
-    // Tier 2: HARD (5-letter words)
-    private static final String[][] LEVEL_TIER_3 = new String[][]{
-            {"APPLE",  "A red or green fruit."},
-            {"HOUSE",  "A place where families live."},
-            {"SMILE",  "What you do when you feel happy."},
-            {"TRAIN",  "A long vehicle that runs on tracks."},
-            {"PLANT",  "It grows in soil with sun and water."},
-            {"CHAIR",  "You sit on it."},
-            {"BREAD",  "You eat it in sandwiches."},
-            {"SHEEP",  "A soft white farm animal."},
-            {"WATER",  "You drink it every day."},
-            {"LIGHT",  "It brightens a room."},
-            {"HORSE",  "A big animal you can ride."},
-            {"CLOUD",  "Fluffy shapes in the sky."},
-            {"MOUSE",  "A tiny animal or a computer tool."},
-            {"BRUSH",  "You use it to clean or paint."},
-            {"HEART",  "It beats inside your body."},
-            {"SNAKE",  "A long slithering reptile."},
-            {"SHIRT",  "You wear it on your body."},
-            {"FRUIT",  "Sweet foods that grow on trees or plants."},
-            {"BLOOM",  "When a flower opens."},
-            {"SPOON",  "You eat soup with it."},
-            {"BRICK",  "Used to build strong walls."},
-            {"PLANE",  "It flies in the sky."},
-            {"EARTH",  "The planet we live on."},
-            {"BUNNY",  "A rabbit with long ears."},
-            {"CROWN",  "A king or queen wears it."},
-            {"SWEET",  "Another word for candy or sugar."},
-            {"TIGER",  "A big cat with stripes."},
-            {"MAGIC",  "Something amazing and mysterious."},
-            {"PIZZA",  "A yummy food with cheese and sauce."},
-            {"GRASS",  "Green blades that grow on the ground."}
-    };
-
-    private static final String[][][] LEVEL_POOLS = new String[][][]{
-            LEVEL_TIER_1,
-            LEVEL_TIER_2,
-            LEVEL_TIER_3
-    };
-
-    private static final int MAX_GRID_COLS = 7;
+    // Game state, kept across rotation
+    private SpellingViewModel game;
+    private static final String KEY_STATE = "spelling_state";
+
+    // TTS (shared engine, warmed up at app start)
+    private SpeechService.Speaker speaker;
+    // Letters and stock feedback play from pre-rendered clips once cached
+    private PhraseAudioCache phrases;
+    private static final String PHRASE_CORRECT = "Great job! That is correct.";
+    private static final String PHRASE_WRONG = "Not quite. Try again.";
+    private static final String PHRASE_NEXT_LETTER = "The next letter is ";
+
+    // Words, clues and emoji come from the memory-mapped content pack, one tier per difficulty
+    private static final int TIER_COUNT = 3;
+    private ContentPack content;
+
+    // Distractor letters mixed into the bank per tier; the dictionary keeps them from spelling other words
+    private static final int[] DISTRACTORS_PER_TIER = {1, 2, 3};
+    private WordDictionary dictionary;
+    private final char[] distractors = new char[4];
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        int createSpan = StartupTrace.begin("game.onCreate " + APP.getId());
         setContentView(R.layout.activity_spelling_game);
+        game = new ViewModelProvider(this).get(SpellingViewModel.class);
 
         // --- Bind views ---
         levelText   = findViewById(R.id.levelText);
@@ -185,11 +72,23 @@ public class SpellingGameActivity extends AppCompatActivity {
         resultText  = findViewById(R.id.resultText);
         emojiHint   = findViewById(R.id.emojiHint);
         answerRow   = findViewById(R.id.answerRow);
-        lettersGrid = findViewById(R.id.lettersGrid);
+        letterBoard = findViewById(R.id.letterBoard);
         btnBackspace= findViewById(R.id.btnBackspace);
         btnHint     = findViewById(R.id.btnHint);
         btnReset    = findViewById(R.id.btnReset);
         btnNext     = findViewById(R.id.btnNext);
+        setUpTilePools();
+
+        try {
+            content = ContentPack.get(this);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to open the content pack.", e);
+        }
+        try {
+            dictionary = WordDictionary.get(this);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to open the dictionary, playing without distractor letters.", e);
+        }
 
         // --- Back to Home button (top-left) ---
         Button btnBackToHome = findViewById(R.id.btnBackToHome);
@@ -198,18 +97,20 @@ public class SpellingGameActivity extends AppCompatActivity {
         }
 
         // --- Init TTS ---
-        tts = new TextToSpeech(this, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                int res = tts.setLanguage(Locale.US);
-                if (res == TextToSpeech.LANG_MISSING_DATA || res == TextToSpeech.LANG_NOT_SUPPORTED) {
-                    Toast.makeText(SpellingGameActivity.this,
-                            "TTS language not available.", Toast.LENGTH_SHORT).show();
-                } else {
-                    ttsReady = true;
-                }
-            } else {
+        phrases = PhraseAudioCache.getInstance(this);
+        phrases.prefetch(cachedPhrases());
+        final int ttsSpan = StartupTrace.begin("game.ttsInit");
+        speaker = SpeechService.getInstance(this).openSpeaker(new SpeechService.Callback() {
+            @Override
+            public void onReady() {
+                StartupTrace.end(ttsSpan);
+            }
+
+            @Override
+            public void onUnavailable() {
+                StartupTrace.end(ttsSpan);
                 Toast.makeText(SpellingGameActivity.this,
-                        "Failed to initialize TTS.", Toast.LENGTH_SHORT).show();
+                        "Text-to-speech is not available.", Toast.LENGTH_SHORT).show();
             }
         });
 
@@ -227,43 +128,35 @@ public class SpellingGameActivity extends AppCompatActivity {
             return;
         }
 
-        String userId = user.getUid();
-        mAppSettingsRef = FirebaseDatabase.getInstance().getReference("users")
-                .child(userId)
-                .child("miniApps")
-                .child(APP_NAME);
-
-        mAppSettingsRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                String difficulty = "Easy";
-                boolean isEnabled = true;
-
-                if (snapshot.exists()) {
-                    Boolean enabledFromDB = snapshot.child("enabled").getValue(Boolean.class);
-                    String difficultyFromDB = snapshot.child("difficulty").getValue(String.class);
-
-                    if (enabledFromDB != null)  isEnabled = enabledFromDB;
-                    if (difficultyFromDB != null) difficulty = difficultyFromDB;
-                }
-
-                if (isEnabled) {
-                    Log.d(TAG, "Starting " + APP_NAME + " with difficulty: " + difficulty);
-                    initializeApp(difficulty);
-                } else {
-                    Log.w(TAG, APP_NAME + " is disabled by parent.");
-                    Toast.makeText(SpellingGameActivity.this,
-                            "This app is disabled by your parent.", Toast.LENGTH_LONG).show();
-                    finish();
-                }
-            }
+        // Rotated: the same word and board, redrawn without looking up settings or speaking the clue again
+        if (game.hasWord()) {
+            new SessionTracker(this, APP);
+            showWord(false);
+            StartupTrace.end(createSpan);
+            return;
+        }
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {
-                Log.e(TAG, "Failed to load app settings, using default.", error.toException());
-                initializeApp("Easy"); // Fail-safe
-            }
-        });
+        // Last-known settings come from the process-wide cache, so the board is built without a network round trip
+        int settingsSpan = StartupTrace.begin("game.settings");
+        UserSettingsRepository settingsRepo = UserSettingsRepository.getInstance(this);
+        settingsRepo.bindUser(user.getUid());
+        MiniAppSettings settings = settingsRepo.getSettings(APP);
+        StartupTrace.end(settingsSpan);
+        game.scheduler = WordScheduleStore.getInstance(this).get(user.getUid());
+
+        if (settings.isEnabled()) {
+            Log.d(TAG, "Starting " + APP.getDisplayName() + " with difficulty: " + settings.getDifficulty());
+            SpellingState saved = (savedInstanceState == null) ? null
+                    : savedInstanceState.getParcelable(KEY_STATE);
+            initializeApp(settings.getDifficulty(), saved);
+            StartupTrace.end(createSpan);
+            StartupTrace.markAfterDraw(answerRow, "game.firstQuestion");
+        } else {
+            Log.w(TAG, APP.getDisplayName() + " is disabled by parent.");
+            Toast.makeText(SpellingGameActivity.this,
+                    "This app is disabled by your parent.", Toast.LENGTH_LONG).show();
+            finish();
+        }
     }
 
     /**
@@ -271,232 +164,229 @@ public class SpellingGameActivity extends AppCompatActivity {
      * Easy  -> tier 0 (3-letter words)
      * Medium-> tier 1 (4-letter words)
      * Hard  -> tier 2 (5-letter words)
+     * A word saved before the process was killed comes back if the tier is unchanged.
      */
-    private void initializeApp(String difficultyRaw) {
+    private void initializeApp(String difficultyRaw, @Nullable SpellingState saved) {
         String diff = (difficultyRaw == null)
                 ? "easy"
                 : difficultyRaw.trim().toLowerCase(Locale.US);
 
         if (diff.contains("medium")) {
-            tierIndex = 1;
-            difficultyLabel = "Medium: 4-letter words";
+            game.tierIndex = 1;
+            game.difficultyLabel = "Medium: 4-letter words";
         } else if (diff.contains("hard")) {
-            tierIndex = 2;
-            difficultyLabel = "Hard: 5-letter words";
+            game.tierIndex = 2;
+            game.difficultyLabel = "Hard: 5-letter words";
         } else {
-            tierIndex = 0;
-            difficultyLabel = "Easy: 3-letter words";
+            game.tierIndex = 0;
+            game.difficultyLabel = "Easy: 3-letter words";
         }
 
-        loadNewWordInCurrentTier();
+        new SessionTracker(this, APP);
+        if (saved != null && content != null
+                && game.restore(saved, content, System.currentTimeMillis())) {
+            game.wordShownAt = SystemClock.elapsedRealtime();
+            showWord(false);
+        } else {
+            loadNewWordInCurrentTier();
+        }
     }
 
     // ---------- Level / word lifecycle ----------
 
     private void loadNewWordInCurrentTier() {
-        if (tierIndex < 0 || tierIndex >= LEVEL_POOLS.length) {
-            tierIndex = 0;
+        if (game.tierIndex < 0 || game.tierIndex >= TIER_COUNT) {
+            game.tierIndex = 0;
         }
 
-        String[][] pool = LEVEL_POOLS[tierIndex];
-        if (pool == null || pool.length == 0) {
+        int count = (content == null) ? 0
+                : content.count(ContentPack.GAME_SPELLING, game.tierIndex, ContentPack.ANY_LENGTH);
+        if (count == 0) {
             Toast.makeText(this, "No words configured for this difficulty.", Toast.LENGTH_SHORT).show();
             finish();
             return;
         }
 
-        // Pick a random word from this tier
-        int choice = rng.nextInt(pool.length);
-        String word   = pool[choice][0];
-        String prompt = pool[choice][1];
-
-        currentWord = word.toUpperCase(Locale.US);
-        bank  = toBank(currentWord);
-        slots = emptySlots(currentWord.length());
+        // The scheduler picks the most overdue word; the previous one goes back only after, so it can't repeat
+        WordScheduler.Item previous = game.currentItem;
+        game.scheduler.ensurePool(ContentPack.GAME_SPELLING, game.tierIndex,
+                content.poolSource(ContentPack.GAME_SPELLING, game.tierIndex), System.currentTimeMillis());
+        game.currentItem = game.scheduler.next(ContentPack.GAME_SPELLING, game.tierIndex);
+        if (previous != null) game.releaseWord(previous, System.currentTimeMillis());
+        game.currentGrade = -1;
+        game.hintsUsed = 0;
+        game.hadMistake = false;
+
+        int entry = game.currentItem.getEntry();
+        String word   = content.word(entry);
+
+        game.currentWord = word.toUpperCase(Locale.US);
+        int extraCount = (dictionary == null) ? 0
+                : dictionary.pickDistractors(game.currentWord, DISTRACTORS_PER_TIER[game.tierIndex], game.rng, distractors);
+        game.board.reset(game.currentWord, distractors, extraCount);
+        game.wordShownAt = SystemClock.elapsedRealtime();
+
+        showWord(true);
+    }
 
-        // UI
-        levelText.setText(difficultyLabel);
-        promptText.setText(prompt);
+    // Puts the current word on screen; a new word also gets the emoji bounce and the spoken clue
+    private void showWord(boolean isNew) {
+        int entry = game.currentItem.getEntry();
+        levelText.setText(game.difficultyLabel);
+        promptText.setText(content.clue(entry));
         if (emojiHint != null) {
-            emojiHint.setText(getHintEmoji(currentWord));
-            animateEmojiHint();
+            emojiHint.setText(getHintEmoji(entry));
+            if (isNew) animateEmojiHint();
+        }
+        if (game.board.isSolved()) {
+            resultText.setText("✅ Correct! Tap NEXT.");
+            btnNext.setEnabled(true);
+        } else if (game.board.isFull()) {
+            resultText.setText("❌ Not quite. Try again!");
+            btnNext.setEnabled(false);
+        } else {
+            resultText.setText("");
+            btnNext.setEnabled(false);
         }
-        resultText.setText("");
-        btnNext.setEnabled(false);
 
-        buildAnswerRow();
-        buildLettersGrid();
-        speakPrompt();
+        renderBoard();
+        if (isNew) speakPrompt();
     }
 
     /**
      * Next button: only get another random word in the SAME tier.
      */
     private void nextWordSameTier() {
-        if (!isSpelledCorrect()) {
+        if (!game.board.isSolved()) {
             Toast.makeText(this, "Finish this word first!", Toast.LENGTH_SHORT).show();
             return;
         }
         loadNewWordInCurrentTier();
     }
 
+    // Grade for a solved word: fewer hints and mistakes means it comes back later
+    private int spellingGrade() {
+        if (game.hintsUsed * 2 >= game.board.length()) return WordScheduler.GRADE_AGAIN;
+        if (game.hintsUsed > 0) return WordScheduler.GRADE_HARD;
+        if (game.hadMistake) return WordScheduler.GRADE_GOOD;
+        return WordScheduler.GRADE_EASY;
+    }
+
     private void resetCurrent() {
-        bank  = toBank(currentWord);
-        slots = emptySlots(currentWord.length());
+        game.board.restart();
         resultText.setText("");
         btnNext.setEnabled(false);
-        buildAnswerRow();
-        buildLettersGrid();
+        renderBoard();
         speakPrompt();
     }
 
-    // ---------- UI builders ----------
-
-    private void buildAnswerRow() {
-        answerRow.removeAllViews();
-        for (int i = 0; i < slots.size(); i++) {
-            final int idx = i;
-            TextView slotView = new TextView(this);
-            slotView.setText(slots.get(i) == null ? "_" : String.valueOf(slots.get(i)));
-            slotView.setTextSize(28);
-            slotView.setTypeface(Typeface.DEFAULT_BOLD);
-            slotView.setPadding(dp(8), dp(8), dp(8), dp(8));
-            slotView.setMinWidth(dp(34));
-            slotView.setTextAlignment(View.TEXT_ALIGNMENT_CENTER);
-            slotView.setBackgroundResource(android.R.drawable.editbox_background_normal);
-
-            // Tap a filled slot to clear it and put letter back to bank
-            slotView.setOnClickListener(v -> {
-                Character c = slots.get(idx);
-                if (c != null) {
-                    slots.set(idx, null);
-                    bank.add(c);
-                    Collections.shuffle(bank);
-                    buildAnswerRow();
-                    buildLettersGrid();
-                    resultText.setText("");
-                    btnNext.setEnabled(false);
-                }
-            });
-
-            answerRow.addView(slotView);
+    // ---------- UI rendering ----------
+
+    // Creates the recycled answer tiles and hooks up the letter bank (once per activity)
+    private void setUpTilePools() {
+        slotTiles = new TileViewPool(answerRow, new TileViewPool.TileFactory() {
+            @Override
+            public TextView createTile(int index, View.OnClickListener onClick) {
+                TextView slotView = new TextView(SpellingGameActivity.this);
+                slotView.setTextSize(28);
+                slotView.setTypeface(Typeface.DEFAULT_BOLD);
+                slotView.setPadding(dp(8), dp(8), dp(8), dp(8));
+                slotView.setMinWidth(dp(34));
+                slotView.setTextAlignment(View.TEXT_ALIGNMENT_CENTER);
+                slotView.setBackgroundResource(android.R.drawable.editbox_background_normal);
+                slotView.setOnClickListener(onClick);
+                return slotView;
+            }
+        }, new TileViewPool.OnTileClickListener() {
+            @Override
+            public void onTileClick(int index) {
+                clearSlot(index);
+            }
+        });
+
+        letterBoard.setBoard(game.board);
+        letterBoard.setOnLetterTapListener(new LetterBoardView.OnLetterTapListener() {
+            @Override
+            public void onLetterTap(int index) {
+                if (index >= game.board.bankSize()) return;
+                // Speak the letter out loud, then place it into the next empty slot
+                speakLetter(game.board.bankAt(index));
+                placeLetter(index);
+            }
+        });
+    }
+
+    // Updates the answer tiles that changed and redraws the letter bank
+    private void renderBoard() {
+        int slotCount = game.board.length();
+        slotTiles.setCount(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slotTiles.bind(i, game.board.slotAt(i)); // SpellingBoard.EMPTY == TileViewPool.EMPTY
         }
+
+        letterBoard.onBoardChanged();
     }
 
-    private void buildLettersGrid() {
-        lettersGrid.removeAllViews();
-        int n = bank.size();
-        if (n <= 0) return;
-
-        int cols = Math.min(MAX_GRID_COLS, Math.max(3, (int) Math.ceil(Math.sqrt(n))));
-        lettersGrid.setColumnCount(cols);
-
-        for (int i = 0; i < bank.size(); i++) {
-            final Character letter = bank.get(i);
-            Button b = new Button(this);
-            b.setAllCaps(false);
-            b.setText(letter.toString());
-            b.setTextSize(22);
-            GridLayout.LayoutParams lp = new GridLayout.LayoutParams();
-            lp.setMargins(dp(4), dp(4), dp(4), dp(4));
-            b.setLayoutParams(lp);
-
-            b.setOnClickListener(v -> {
-                // NEW: speak the letter out loud when tapped
-                if (letter != null) {
-                    speakLetter(letter.charValue());
-                }
-                // Existing behavior: place the letter into the next empty slot
-                placeLetter(letter);
-            });
-
-            lettersGrid.addView(b);
+    // Tap a filled slot to clear it and put the letter back in the bank
+    private void clearSlot(int idx) {
+        if (game.board.clearSlot(idx)) {
+            renderBoard();
+            resultText.setText("");
+            btnNext.setEnabled(false);
         }
     }
 
     // ---------- Game mechanics ----------
 
-    private void placeLetter(Character c) {
-        int idx = firstEmptySlot();
-        if (idx == -1) {
+    private void placeLetter(int bankIndex) {
+        if (game.board.placeFromBank(bankIndex) == -1) {
             Toast.makeText(this, "All slots filled. Use backspace to remove.", Toast.LENGTH_SHORT).show();
             return;
         }
-        int removeAt = bank.indexOf(c);
-        if (removeAt == -1) return;
-        bank.remove(removeAt);
-
-        slots.set(idx, c);
-        buildAnswerRow();
-        buildLettersGrid();
+        renderBoard();
 
         checkAutoWin();
     }
 
     private void backspaceOne() {
-        int idx = lastFilledSlot();
-        if (idx == -1) {
+        if (game.board.backspace() == -1) {
             Toast.makeText(this, "Nothing to remove.", Toast.LENGTH_SHORT).show();
             return;
         }
-        Character c = slots.get(idx);
-        slots.set(idx, null);
-        if (c != null) bank.add(c);
-        Collections.shuffle(bank);
-        buildAnswerRow();
-        buildLettersGrid();
+        renderBoard();
         resultText.setText("");
         btnNext.setEnabled(false);
     }
 
+    // Fixes the first wrong letter, otherwise fills the first empty slot
     private void revealOneLetter() {
-        char[] target = currentWord.toCharArray();
-
-        // First fix a wrong letter
-        for (int i = 0; i < target.length; i++) {
-            Character s = slots.get(i);
-            if (s != null && s.charValue() != target[i]) {
-                bank.add(s);
-                boolean found = removeFromBank(target[i]);
-                slots.set(i, Character.valueOf(target[i]));
-                if (!found) removeExtraFromSlots(target[i], i);
-                Collections.shuffle(bank);
-                buildAnswerRow();
-                buildLettersGrid();
-                speakHintLetter(target[i]);
-                checkAutoWin();
-                return;
-            }
-        }
-        // Otherwise fill first empty slot
-        for (int i = 0; i < target.length; i++) {
-            Character s = slots.get(i);
-            if (s == null) {
-                boolean found = removeFromBank(target[i]);
-                slots.set(i, Character.valueOf(target[i]));
-                if (!found) removeExtraFromSlots(target[i], i);
-                Collections.shuffle(bank);
-                buildAnswerRow();
-                buildLettersGrid();
-                speakHintLetter(target[i]);
-                checkAutoWin();
-                return;
-            }
+        int slot = game.board.reveal();
+        if (slot == -1) {
+            Toast.makeText(this, "Nothing to reveal.", Toast.LENGTH_SHORT).show();
+            return;
         }
-
-        Toast.makeText(this, "Nothing to reveal.", Toast.LENGTH_SHORT).show();
+        renderBoard();
+        game.hintsUsed++;
+        logEvent(SessionEventLog.TYPE_HINT, false);
+        speakHintLetter(game.board.targetAt(slot));
+        checkAutoWin();
     }
 
     private void checkAutoWin() {
-        if (!hasEmptySlot() && isSpelledCorrect()) {
+        if (game.board.isSolved()) {
+            if (game.currentGrade < 0) game.currentGrade = spellingGrade();
+            logEvent(SessionEventLog.TYPE_ANSWER, true);
+            logEvent(SessionEventLog.TYPE_SOLVE, true);
             resultText.setText("✅ Correct! Tap NEXT.");
             btnNext.setEnabled(true);
-            speakText("Great job! That is correct.");
+            speakPhrase(PHRASE_CORRECT);
             animateCorrect();
-        } else if (!hasEmptySlot()) {
+        } else if (game.board.isFull()) {
+            game.hadMistake = true;
+            logEvent(SessionEventLog.TYPE_ANSWER, false);
             resultText.setText("❌ Not quite. Try again!");
             btnNext.setEnabled(false);
-            speakText("Not quite. Try again.");
+            speakPhrase(PHRASE_WRONG);
             animateWrong();
         } else {
             resultText.setText("");
@@ -504,173 +394,68 @@ public class SpellingGameActivity extends AppCompatActivity {
         }
     }
 
-    private boolean removeFromBank(char c) {
-        for (int i = 0; i < bank.size(); i++) {
-            if (bank.get(i) == c) {
-                bank.remove(i);
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private void removeExtraFromSlots(char c, int keepIndex) {
-        for (int i = 0; i < slots.size(); i++) {
-            if (i == keepIndex) continue;
-            Character s = slots.get(i);
-            if (s != null && s.charValue() == c) {
-                slots.set(i, null);
-                bank.add(c);
-                return;
-            }
+    // Records a full-board attempt, a solve or a hint for the current word
+    private void logEvent(int type, boolean correct) {
+        SessionEventLog log = SessionEventLog.get();
+        if (log == null) return;
+        long elapsed = SystemClock.elapsedRealtime() - game.wordShownAt;
+        if (type == SessionEventLog.TYPE_ANSWER) {
+            log.answer(APP, correct, elapsed, game.currentWord.length());
+        } else if (type == SessionEventLog.TYPE_SOLVE) {
+            log.solve(APP, elapsed, game.currentWord.length());
+        } else if (type == SessionEventLog.TYPE_HINT) {
+            log.hint(APP);
         }
     }
 
     // ---------- TTS helpers ----------
 
     private void speakPrompt() {
-        if (!ttsReady) return;
         CharSequence clue = promptText.getText();
         if (clue == null || TextUtils.isEmpty(clue.toString())) return;
 
-        String msg = difficultyLabel + ". " + clue + " Spell the word.";
+        String msg = game.difficultyLabel + ". " + clue + " Spell the word.";
         speakText(msg);
     }
 
     private void speakHintLetter(char c) {
-        if (!ttsReady) return;
-        speakText("The next letter is " + c);
+        speakPhrase(PHRASE_NEXT_LETTER + c);
     }
 
     // NEW: Speak a single letter when a tile is tapped
     private void speakLetter(char c) {
-        if (!ttsReady) return;
-        String text = String.valueOf(c);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, TextToSpeech.QUEUE_ADD, null,
-                    "letter-" + c + "-" + System.currentTimeMillis());
-        } else {
-            HashMap<String, String> params = new HashMap<>();
-            params.put(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, "letter");
-            tts.speak(text, TextToSpeech.QUEUE_ADD, params);
+        String letter = String.valueOf(c);
+        if (!phrases.play(letter)) speaker.speak(letter, false, 0);
+    }
+
+    // Interrupts current speech with a phrase, from the clip cache when it has been rendered
+    private void speakPhrase(String text) {
+        speaker.stop();
+        if (!phrases.play(text)) speakText(text);
+    }
+
+    // Every letter name, hint and feedback phrase of the game
+    private static List<String> cachedPhrases() {
+        List<String> out = new ArrayList<>(2 * 26 + 2);
+        out.add(PHRASE_CORRECT);
+        out.add(PHRASE_WRONG);
+        for (char c = 'A'; c <= 'Z'; c++) {
+            out.add(String.valueOf(c));
+            out.add(PHRASE_NEXT_LETTER + c);
         }
+        return out;
     }
 
     private void speakText(String text) {
-        if (!ttsReady || TextUtils.isEmpty(text)) return;
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, null, "utt-" + System.currentTimeMillis());
-        } else {
-            HashMap<String, String> params = new HashMap<>();
-            params.put(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, "utt");
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, params);
-        }
+        if (TextUtils.isEmpty(text)) return;
+        speaker.speak(text);
     }
 
     // ---------- Emoji hint helper ----------
 
-    private String getHintEmoji(String wordUpper) {
-        if (wordUpper == null) return "❓";
-        switch (wordUpper) {
-            // EASY
-            case "CAT":   return "🐱";
-            case "DOG":   return "🐶";
-            case "SUN":   return "☀️";
-            case "CAR":   return "🚗";
-            case "BUS":   return "🚌";
-            case "ANT":   return "🐜";
-            case "HAT":   return "👒";
-            case "PEN":   return "🖊️";
-            case "MAP":   return "🗺️";
-            case "CUP":   return "☕";
-            case "BOX":   return "📦";
-            case "BED":   return "🛏️";
-            case "PIG":   return "🐷";
-            case "RUG":   return "🧶";
-            case "BAT":   return "🦇";
-            case "FOX":   return "🦊";
-            case "JAR":   return "🥫";
-            case "NUT":   return "🥜";
-            case "LOG":   return "🪵";
-            case "EGG":   return "🥚";
-            case "BUG":   return "🐞";
-            case "BEE":   return "🐝";
-            case "RAT":   return "🐭";
-            case "OWL":   return "🦉";
-            case "TOY":   return "🧸";
-            case "KEY":   return "🔑";
-            case "LIP":   return "👄";
-            case "EAR":   return "👂";
-            case "BOW":   return "🎀";
-            case "ICE":   return "🧊";
-
-            // MEDIUM
-            case "FROG":  return "🐸";
-            case "BIRD":  return "🐦";
-            case "LION":  return "🦁";
-            case "STAR":  return "⭐";
-            case "FISH":  return "🐟";
-            case "BEAR":  return "🐻";
-            case "DUCK":  return "🦆";
-            case "WORM":  return "🪱";
-            case "GOAT":  return "🐐";
-            case "DEER":  return "🦌";
-            case "SHIP":  return "🚢";
-            case "TREE":  return "🌳";
-            case "MILK":  return "🥛";
-            case "CAKE":  return "🎂";
-            case "BALL":  return "⚽";
-            case "BOOK":  return "📖";
-            case "DESK":  return "🪑";
-            case "SOAP":  return "🧼";
-            case "MOON":  return "🌙";
-            case "WOLF":  return "🐺";
-            case "SAND":  return "🏖️";
-            case "SNOW":  return "❄️";
-            case "LEAF":  return "🍃";
-            case "FIRE":  return "🔥";
-            case "CORN":  return "🌽";
-            case "HAND":  return "🤚";
-            case "NOSE":  return "👃";
-            case "RAIN":  return "🌧️";
-            case "ROAD":  return "🛣️";
-            case "ROPE":  return "🪢";
-
-            // HARD
-            case "APPLE":  return "🍎";
-            case "HOUSE":  return "🏠";
-            case "SMILE":  return "😊";
-            case "TRAIN":  return "🚆";
-            case "PLANT":  return "🪴";
-            case "CHAIR":  return "🪑";
-            case "BREAD":  return "🍞";
-            case "SHEEP":  return "🐑";
-            case "WATER":  return "💧";
-            case "LIGHT":  return "💡";
-            case "HORSE":  return "🐴";
-            case "CLOUD":  return "☁️";
-            case "MOUSE":  return "🐭";
-            case "BRUSH":  return "🪥";
-            case "HEART":  return "❤️";
-            case "SNAKE":  return "🐍";
-            case "SHIRT":  return "👕";
-            case "FRUIT":  return "🍇";
-            case "BLOOM":  return "🌸";
-            case "SPOON":  return "🥄";
-            case "BRICK":  return "🧱";
-            case "PLANE":  return "✈️";
-            case "EARTH":  return "🌍";
-            case "BUNNY":  return "🐰";
-            case "CROWN":  return "👑";
-            case "SWEET":  return "🍬";
-            case "TIGER":  return "🐯";
-            case "MAGIC":  return "✨";
-            case "PIZZA":  return "🍕";
-            case "GRASS":  return "🌱";
-
-            default:
-                return "❓";
-        }
+    private String getHintEmoji(int entry) {
+        String emoji = content.emoji(entry);
+        return emoji != null ? emoji : "❓";
     }
 
     // ---------- Animations ----------
@@ -722,52 +507,29 @@ public class SpellingGameActivity extends AppCompatActivity {
 
     // ---------- Utility helpers ----------
 
-    private ArrayList<Character> toBank(String wordUpper) {
-        ArrayList<Character> out = new ArrayList<>();
-        char[] arr = wordUpper.toCharArray();
-        for (char c : arr) out.add(c);
-        Collections.shuffle(out);
-        return out;
-    }
-
-    private ArrayList<Character> emptySlots(int n) {
-        ArrayList<Character> out = new ArrayList<>(n);
-        for (int i = 0; i < n; i++) out.add(null);
-        return out;
-    }
-
-    private int firstEmptySlot() {
-        for (int i = 0; i < slots.size(); i++) if (slots.get(i) == null) return i;
-        return -1;
-    }
-
-    private int lastFilledSlot() {
-        for (int i = slots.size() - 1; i >= 0; i--) if (slots.get(i) != null) return i;
-        return -1;
-    }
-
-    private boolean hasEmptySlot() {
-        for (int i = 0; i < slots.size(); i++) if (slots.get(i) == null) return true;
-        return false;
+    private int dp(int d) {
+        float density = getResources().getDisplayMetrics().density;
+        return Math.round(d * density);
     }
 
-    private boolean isSpelledCorrect() {
-        StringBuilder sb = new StringBuilder();
-        for (Character c : slots) sb.append(c == null ? "" : c);
-        return currentWord.contentEquals(sb);
+    @Override
+    protected void onPause() {
+        super.onPause();
+        WordScheduleStore.getInstance(this).save();
     }
 
-    private int dp(int d) {
-        float density = getResources().getDisplayMetrics().density;
-        return Math.round(d * density);
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        SpellingState state = game.snapshot();
+        if (state != null) outState.putParcelable(KEY_STATE, state);
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (tts != null) {
-            tts.stop();
-            tts.shutdown();
-        }
+        // The word goes back to the scheduler when the game is left for good (SpellingViewModel.onCleared).
+        // The engine is shared; only this screen's speech is stopped
+        speaker.close();
     }
 }
@@ -0,0 +1,69 @@
+package com.example.learnly;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * The Spelling Time word on screen, saved with the activity's instance state so the board
+ * survives the process being killed in the background: the content pack entry, the letters in
+ * the slots and in the bank, and how the child is doing on it. A few dozen bytes.
+ */
+public class SpellingState implements Parcelable {
+
+    final int tierIndex;
+    final int entry;
+    final char[] slots;
+    final char[] bank;
+    final int hintsUsed;
+    final boolean hadMistake;
+    final int grade;
+
+    public SpellingState(int tierIndex, int entry, char[] slots, char[] bank,
+                         int hintsUsed, boolean hadMistake, int grade) {
+        this.tierIndex = tierIndex;
+        this.entry = entry;
+        this.slots = slots;
+        this.bank = bank;
+        this.hintsUsed = hintsUsed;
+        this.hadMistake = hadMistake;
+        this.grade = grade;
+    }
+
+    private SpellingState(Parcel in) {
+        tierIndex = in.readInt();
+        entry = in.readInt();
+        slots = in.createCharArray();
+        bank = in.createCharArray();
+        hintsUsed = in.readInt();
+        hadMistake = in.readInt() != 0;
+        grade = in.readInt();
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(tierIndex);
+        dest.writeInt(entry);
+        dest.writeCharArray(slots);
+        dest.writeCharArray(bank);
+        dest.writeInt(hintsUsed);
+        dest.writeInt(hadMistake ? 1 : 0);
+        dest.writeInt(grade);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Creator<SpellingState> CREATOR = new Creator<SpellingState>() {
+        @Override
+        public SpellingState createFromParcel(Parcel in) {
+            return new SpellingState(in);
+        }
+
+        @Override
+        public SpellingState[] newArray(int size) {
+            return new SpellingState[size];
+        }
+    };
+}
@@ -0,0 +1,99 @@
+package com.example.learnly;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Spelling Time's game state, kept across configuration changes: the word on screen, its board
+ * and how the child is doing on it.
+ *
+ * After a rotation the activity redraws this instead of picking a new word and speaking the clue
+ * again, and it skips the settings lookup. The word goes back to the scheduler only when the game
+ * is left for good (onCleared). snapshot() and restore() carry the word over process death.
+ */
+public class SpellingViewModel extends AndroidViewModel {
+
+    final Random rng = new Random();
+    final SpellingBoard board = new SpellingBoard(rng);
+
+    // tierIndex: 0 = easy (3 letters), 1 = medium (4 letters), 2 = hard (5 letters)
+    int tierIndex = 0;
+    String difficultyLabel = "Easy";
+
+    String currentWord = "";
+    long wordShownAt;
+
+    // Spaced repetition: the word on screen and how the child is doing on it (-1 = not solved yet)
+    WordScheduler scheduler;
+    WordScheduler.Item currentItem;
+    int currentGrade = -1;
+    int hintsUsed;
+    boolean hadMistake;
+
+    public SpellingViewModel(@NonNull Application application) {
+        super(application);
+    }
+
+    // True once a word is on the board, i.e. the game was set up by an earlier activity
+    boolean hasWord() {
+        return currentItem != null;
+    }
+
+    // Returns a word to the scheduler, graded if the child solved it
+    void releaseWord(WordScheduler.Item item, long nowMs) {
+        if (currentGrade >= 0) {
+            scheduler.grade(item, currentGrade, nowMs);
+        } else {
+            scheduler.skip(item);
+        }
+    }
+
+    // ---------- Process death ----------
+
+    SpellingState snapshot() {
+        if (currentItem == null) return null;
+        return new SpellingState(tierIndex, currentItem.getEntry(), board.copySlots(), board.copyBank(),
+                hintsUsed, hadMistake, currentGrade);
+    }
+
+    /**
+     * Puts back a saved word of the current tier (set tierIndex and scheduler first): takes it off
+     * the scheduler's queue and restores its board. False if the word is no longer in the pool.
+     */
+    boolean restore(SpellingState state, ContentPack content, long nowMs) {
+        if (state.tierIndex != tierIndex) return false;
+        scheduler.ensurePool(ContentPack.GAME_SPELLING, tierIndex,
+                content.poolSource(ContentPack.GAME_SPELLING, tierIndex), nowMs);
+        WordScheduler.Item item = scheduler.take(ContentPack.GAME_SPELLING, tierIndex, state.entry);
+        if (item == null) return false;
+
+        String word = content.word(state.entry).toUpperCase(Locale.US);
+        try {
+            board.restore(word, state.slots, state.bank);
+        } catch (IllegalArgumentException e) {
+            scheduler.skip(item);
+            return false;
+        }
+        currentItem = item;
+        currentWord = word;
+        hintsUsed = state.hintsUsed;
+        hadMistake = state.hadMistake;
+        currentGrade = state.grade;
+        return true;
+    }
+
+    // The game was left for good: hand the word back and save the schedule
+    @Override
+    protected void onCleared() {
+        if (currentItem != null) {
+            releaseWord(currentItem, System.currentTimeMillis());
+            currentItem = null;
+            WordScheduleStore.getInstance(getApplication()).save();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.learnly;
+
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * In-process recorder for cold-start spans (Application.onCreate through the first game question).
+ *
+ * Spans are System.nanoTime() begin/end pairs kept in a fixed ring of {@link #CAPACITY} slots, so
+ * tracing never grows memory and the oldest spans are simply overwritten. begin() returns a token
+ * that end() uses to find its slot again; ending a span that has already been overwritten is a no-op.
+ * Times are reported relative to the first span recorded in the process.
+ */
+public final class StartupTrace {
+
+    static final int CAPACITY = 256;
+
+    private static final Object LOCK = new Object();
+    private static final String[] names = new String[CAPACITY];
+    private static final String[] threads = new String[CAPACITY];
+    private static final long[] startNs = new long[CAPACITY];
+    private static final long[] endNs = new long[CAPACITY];
+    private static final int[] tokens = new int[CAPACITY];
+    private static int next = 0;
+    private static long originNs = -1;
+
+    private StartupTrace() {
+    }
+
+    // Starts a span; pass the returned token to end()
+    public static int begin(String name) {
+        long now = System.nanoTime();
+        synchronized (LOCK) {
+            if (originNs < 0) originNs = now;
+            int token = next++;
+            int slot = token % CAPACITY;
+            names[slot] = name;
+            threads[slot] = Thread.currentThread().getName();
+            startNs[slot] = now;
+            endNs[slot] = -1;
+            tokens[slot] = token;
+            return token;
+        }
+    }
+
+    public static void end(int token) {
+        long now = System.nanoTime();
+        synchronized (LOCK) {
+            if (token < 0) return;
+            int slot = token % CAPACITY;
+            if (tokens[slot] == token && names[slot] != null && endNs[slot] < 0) endNs[slot] = now;
+        }
+    }
+
+    // Records an instant (a zero-length span), e.g. "buttons enabled"
+    public static void mark(String name) {
+        end(begin(name));
+    }
+
+    // Marks an instant once the view's next frame has been drawn, e.g. the first question on screen
+    public static void markAfterDraw(final View view, final String name) {
+        view.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                view.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Posted so it runs after this frame is drawn, not before
+                view.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        mark(name);
+                    }
+                });
+                return true;
+            }
+        });
+    }
+
+    // Forgets every span (tests only)
+    static void reset() {
+        synchronized (LOCK) {
+            for (int i = 0; i < CAPACITY; i++) {
+                names[i] = null;
+                threads[i] = null;
+            }
+            next = 0;
+            originNs = -1;
+        }
+    }
+
+    // Receives spans oldest first; endMs is -1 for spans that never ended
+    public interface SpanVisitor {
+        void visit(String name, String thread, double startMs, double endMs);
+    }
+
+    public static void forEach(SpanVisitor visitor) {
+        synchronized (LOCK) {
+            int count = Math.min(next, CAPACITY);
+            for (int i = next - count; i < next; i++) {
+                int slot = i % CAPACITY;
+                visitor.visit(names[slot], threads[slot], toMs(startNs[slot]),
+                        endNs[slot] < 0 ? -1 : toMs(endNs[slot]));
+            }
+        }
+    }
+
+    private static double toMs(long ns) {
+        return (ns - originNs) / 1_000_000.0;
+    }
+
+    // Human-readable table for the debug screen
+    public static String toText() {
+        final StringBuilder sb = new StringBuilder();
+        forEach(new SpanVisitor() {
+            @Override
+            public void visit(String name, String thread, double startMs, double endMs) {
+                String duration = endMs < 0 ? "   (open)" : String.format(Locale.US, "%9.1f", endMs - startMs);
+                sb.append(String.format(Locale.US, "%9.1f %s  %s [%s]%n", startMs, duration, name, thread));
+            }
+        });
+        return sb.toString();
+    }
+
+    // {"build": ..., "spans": [{"name", "thread", "startMs", "durationMs"}]}; durationMs is null for open spans
+    public static String toJson(String build) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\"build\":").append(quote(build)).append(",\"spans\":[");
+        forEach(new SpanVisitor() {
+            private boolean first = true;
+
+            @Override
+            public void visit(String name, String thread, double startMs, double endMs) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append("{\"name\":").append(quote(name))
+                        .append(",\"thread\":").append(quote(thread))
+                        .append(",\"startMs\":").append(String.format(Locale.US, "%.3f", startMs))
+                        .append(",\"durationMs\":")
+                        .append(endMs < 0 ? "null" : String.format(Locale.US, "%.3f", endMs - startMs))
+                        .append('}');
+            }
+        });
+        sb.append("]}");
+        return sb.toString();
+    }
+
+    public static void writeJson(File file, String build) throws IOException {
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write(toJson(build));
+        }
+    }
+
+    private static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.learnly;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import java.io.File;
+import java.io.IOException;
+
+// Debug-only screen listing the startup spans recorded in this process, with a JSON export
+public class StartupTraceActivity extends AppCompatActivity {
+
+    private static final String TAG = "StartupTraceActivity";
+    private static final String EXPORT_FILE = "startup_trace.json";
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        if (!BuildConfig.DEBUG) {
+            finish();
+            return;
+        }
+        setContentView(R.layout.activity_startup_trace);
+
+        TextView traceText = findViewById(R.id.traceText);
+        traceText.setText(StartupTrace.toText());
+
+        Button btnExportTrace = findViewById(R.id.btnExportTrace);
+        btnExportTrace.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                exportJson();
+            }
+        });
+    }
+
+    // Writes the trace to the app's external files dir, where `adb pull` can reach it
+    private void exportJson() {
+        File dir = getExternalFilesDir(null);
+        if (dir == null) dir = getFilesDir();
+        File file = new File(dir, EXPORT_FILE);
+        try {
+            StartupTrace.writeJson(file, BuildConfig.VERSION_NAME + " (" + BuildConfig.VERSION_CODE + ")");
+            Log.d(TAG, "Startup trace exported to " + file.getAbsolutePath());
+            Toast.makeText(this, "Saved to " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to export startup trace.", e);
+            Toast.makeText(this, "Export failed.", Toast.LENGTH_SHORT).show();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The stories Story Time can read: UTF-8 text files, title on the first line, from assets/stories
+ * and from files/stories (stories downloaded later; one with the same name replaces the bundled one).
+ *
+ * open() returns a StoryText straight away and fills in its sentences in the background, with
+ * SentenceScanner over a stream of the file. The sentence ranges are cached in cacheDir per story
+ * and version, so from the second time on a story of any length opens with one small read.
+ * Call from the main thread; listeners are called on the main thread.
+ */
+public class StoryLibrary {
+
+    private static final String TAG = "StoryLibrary";
+
+    private static final String ASSET_DIR = "stories";
+    private static final String STORY_SUFFIX = ".txt";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final int MAX_TITLE_BYTES = 256;
+
+    // Sentences handed to the main thread at a time while a story is first indexed
+    private static final int BATCH = 64;
+
+    // Language used to find sentence breaks; the narration voice is US English too
+    private static final Locale STORY_LOCALE = Locale.US;
+
+    /** One story in the library. */
+    public static final class Story {
+        final String id;
+        final String title;
+        final String assetPath;   // bundled story, or null
+        final File file;          // downloaded story, or null
+        final int bodyStart;      // byte offset of the text after the title line
+
+        Story(String id, String title, String assetPath, File file, int bodyStart) {
+            this.id = id;
+            this.title = title;
+            this.assetPath = assetPath;
+            this.file = file;
+            this.bodyStart = bodyStart;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+    // Told each time more sentences of an opened story are available (and when it is complete)
+    public interface OnSentencesListener {
+        void onSentencesAdded(StoryText text);
+    }
+
+    private static StoryLibrary instance;
+
+    private final Context appContext;
+    private final File downloadsDir;
+    private final File indexDir;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor();
+
+    private List<Story> stories;
+
+    public static synchronized StoryLibrary getInstance(Context context) {
+        if (instance == null) {
+            instance = new StoryLibrary(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private StoryLibrary(Context appContext) {
+        this.appContext = appContext;
+        this.downloadsDir = new File(appContext.getFilesDir(), "stories");
+        this.indexDir = new File(appContext.getCacheDir(), "story_index");
+    }
+
+    // ---------- Listing ----------
+
+    /** Every story, sorted by file name. Reads only the title lines; the list is kept. */
+    public List<Story> getStories() {
+        if (stories != null) return stories;
+
+        Map<String, Story> byId = new LinkedHashMap<>();
+        try {
+            String[] names = appContext.getAssets().list(ASSET_DIR);
+            if (names != null) {
+                Arrays.sort(names);
+                for (String name : names) {
+                    if (!name.endsWith(STORY_SUFFIX)) continue;
+                    String path = ASSET_DIR + "/" + name;
+                    try (InputStream in = appContext.getAssets().open(path)) {
+                        Story story = readHeader(idOf(name), path, null, in);
+                        byId.put(story.id, story);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Could not list bundled stories.", e);
+        }
+
+        File[] files = downloadsDir.listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File f : files) {
+                if (!f.getName().endsWith(STORY_SUFFIX)) continue;
+                try (InputStream in = new FileInputStream(f)) {
+                    Story story = readHeader(idOf(f.getName()), null, f, in);
+                    byId.put(story.id, story);
+                } catch (IOException e) {
+                    Log.w(TAG, "Skipping unreadable story " + f.getName(), e);
+                }
+            }
+        }
+
+        stories = new ArrayList<>(byId.values());
+        return stories;
+    }
+
+    // Forgets the list, e.g. after a story was downloaded
+    public void refresh() {
+        stories = null;
+    }
+
+    private static String idOf(String fileName) {
+        return fileName.substring(0, fileName.length() - STORY_SUFFIX.length());
+    }
+
+    // The first line is the title; a file without one is titled after its name
+    private static Story readHeader(String id, String assetPath, File file, InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n' && line.size() < MAX_TITLE_BYTES) {
+            line.write(b);
+        }
+        if (b != '\n') return new Story(id, id, assetPath, file, 0);
+        String title = new String(line.toByteArray(), StandardCharsets.UTF_8).trim();
+        return new Story(id, title.isEmpty() ? id : title, assetPath, file, line.size() + 1);
+    }
+
+    // ---------- Opening ----------
+
+    /**
+     * Opens a story for reading. The returned text starts out empty; listener is called as
+     * sentences are added, the last time with text.isComplete() true. Close the text when done.
+     */
+    public StoryText open(final Story story, final OnSentencesListener listener) throws IOException {
+        final FileChannel channel;
+        final long base;
+        if (story.file != null) {
+            channel = new FileInputStream(story.file).getChannel();
+            base = 0;
+        } else {
+            // Stories are stored uncompressed, so the asset is a plain range of the APK
+            AssetFileDescriptor afd = appContext.getAssets().openFd(story.assetPath);
+            channel = afd.createInputStream().getChannel();
+            base = afd.getStartOffset();
+        }
+        final StoryText text = new StoryText(channel, base);
+        final File indexFile = new File(indexDir, story.id + "@" + versionOf(story) + INDEX_SUFFIX);
+
+        final int span = StartupTrace.begin("story.index");
+        indexer.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (!loadIndex(text, indexFile, listener)) {
+                    scan(story, text, indexFile, listener);
+                }
+                StartupTrace.end(span);
+            }
+        });
+        return text;
+    }
+
+    // Changes whenever the story's text may have: a downloaded file is rewritten, or the app updated
+    String versionOf(Story story) {
+        if (story.file != null) return story.file.length() + "_" + story.file.lastModified();
+        return "v" + BuildConfig.VERSION_CODE;
+    }
+
+    // Hands the cached ranges to the text in one go; false if there is no usable cache
+    private boolean loadIndex(StoryText text, File indexFile, OnSentencesListener listener) {
+        if (!indexFile.exists()) return false;
+        // Read into a scratch text here, then copy its ranges on the main thread
+        StoryText loaded = new StoryText(null, 0);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            loaded.readIndex(in);
+        } catch (IOException e) {
+            Log.w(TAG, "Ignoring unreadable story index " + indexFile.getName(), e);
+            indexFile.delete();
+            return false;
+        }
+        post(text, loaded, 0, loaded.size(), true, listener);
+        return true;
+    }
+
+    private void scan(Story story, final StoryText text, File indexFile, final OnSentencesListener listener) {
+        final StoryText scanned = new StoryText(null, 0);
+        final int[] posted = {0};
+        try (InputStream in = story.file != null
+                ? new FileInputStream(story.file)
+                : appContext.getAssets().open(story.assetPath)) {
+            skipFully(in, story.bodyStart);
+            new SentenceScanner(STORY_LOCALE).scan(in, story.bodyStart, new SentenceScanner.Sink() {
+                @Override
+                public void sentence(int startByte, int endByte) {
+                    scanned.add(startByte, endByte);
+                    if (scanned.size() - posted[0] >= BATCH) {
+                        post(text, scanned, posted[0], scanned.size(), false, listener);
+                        posted[0] = scanned.size();
+                    }
+                }
+            });
+        } catch (IOException e) {
+            Log.e(TAG, "Could not read story " + story.id, e);
+            // Show what was read, but don't cache a cut-short index: the next open scans again
+            post(text, scanned, posted[0], scanned.size(), true, listener);
+            return;
+        }
+        post(text, scanned, posted[0], scanned.size(), true, listener);
+        saveIndex(scanned, indexFile, story.id);
+    }
+
+    // Copies ranges [from, to) of the background scan to the text on the main thread
+    private void post(final StoryText text, StoryText scanned, int from, int to, final boolean last,
+                      final OnSentencesListener listener) {
+        final int[] ranges = scanned.copyRanges(from, to);
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (!text.isOpen()) return;
+                for (int i = 0; i < ranges.length; i += 2) {
+                    text.add(ranges[i], ranges[i + 1]);
+                }
+                if (last) text.setComplete();
+                listener.onSentencesAdded(text);
+            }
+        });
+    }
+
+    private void saveIndex(StoryText scanned, File indexFile, String id) {
+        if (!indexDir.isDirectory() && !indexDir.mkdirs()) return;
+        // Drop indexes of older versions of the story
+        File[] old = indexDir.listFiles();
+        if (old != null) {
+            for (File f : old) {
+                if (f.getName().startsWith(id + "@")) f.delete();
+            }
+        }
+        File temp = new File(indexDir, indexFile.getName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            scanned.writeIndex(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not cache the story index.", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(indexFile)) temp.delete();
+    }
+
+    private static void skipFully(InputStream in, long n) throws IOException {
+        while (n > 0) {
+            long skipped = in.skip(n);
+            if (skipped <= 0) {
+                if (in.read() < 0) throw new IOException("Story ends inside its title");
+                skipped = 1;
+            }
+            n -= skipped;
+        }
+    }
+}
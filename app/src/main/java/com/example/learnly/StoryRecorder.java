@@ -0,0 +1,656 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.media.MediaCodec;
+import android.media.MediaCodecInfo;
+import android.media.MediaFormat;
+import android.media.MediaMuxer;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Renders a whole story once, in the background, to a compressed recording for RecordingPlayer.
+ *
+ * Sentences are synthesized to WAV one after another, and each finished one is appended to an AAC
+ * encoder (MediaCodec into an .m4a with MediaMuxer) on a worker thread while the engine renders the
+ * next. The number of audio frames encoded so far gives each sentence's start time, and the engine's
+ * onRangeStart frames the start time of each of its words; both go into a RecordingIndex saved next
+ * to the audio. Listening to the story again is then plain media playback, with no engine work.
+ *
+ * Recordings are kept in files/recordings, one per story (saving another voice replaces it), and are
+ * keyed by story version, rate, pitch and voice so a stale one is never played. The recorder outlives
+ * the activity that started it; main thread only, listener on the main thread.
+ */
+public class StoryRecorder {
+
+    private static final String TAG = "StoryRecorder";
+
+    private static final String AUDIO_SUFFIX = ".m4a";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final String MIME = MediaFormat.MIMETYPE_AUDIO_AAC;
+    private static final int BIT_RATE = 64000;   // plenty for one voice
+    private static final int PCM_BUFFER_BYTES = 16 * 1024;
+    private static final long CODEC_TIMEOUT_US = 10_000;
+
+    // Utterance tags are generation << 20 | sentence, so callbacks from a cancelled run are ignored
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+    /** A finished recording of a story. */
+    public static final class Recording {
+        final File audio;
+        final RecordingIndex index;
+
+        Recording(File audio, RecordingIndex index) {
+            this.audio = audio;
+            this.index = index;
+        }
+    }
+
+    /** Progress of a recording, on the main thread. */
+    public interface Listener {
+        void onRecordingProgress(String storyId, int done, int total);
+
+        // ok is false if the recording failed or was cancelled
+        void onRecordingFinished(String storyId, boolean ok);
+    }
+
+    private static StoryRecorder instance;
+
+    private final StoryLibrary library;
+    private final File dir;
+    private final SpeechService speech;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService encoderThread = Executors.newSingleThreadExecutor();
+
+    private SpeechService.Speaker speaker;
+    private Listener listener;
+
+    // The recording in progress
+    private int generation;
+    private StoryLibrary.Story story;
+    private String key;
+    private StoryText text;
+    private float rate;
+    private float pitch;
+    private int next;                 // sentence being rendered
+    private boolean waiting;          // for the indexer to find sentence next
+    private int[] words = new int[3 * 32];   // start char, end char, start frame of its words
+    private int wordCount;
+    private Encoder encoder;
+
+    // Last recording looked up, so Play doesn't read the index every time
+    private String foundKey;
+    private Recording found;
+
+    public static synchronized StoryRecorder getInstance(Context context) {
+        if (instance == null) {
+            instance = new StoryRecorder(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    private StoryRecorder(Context appContext) {
+        library = StoryLibrary.getInstance(appContext);
+        dir = new File(appContext.getFilesDir(), "recordings");
+        speech = SpeechService.getInstance(appContext);
+        deleteTemps(); // left over from a killed process
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // ---------- Finding recordings ----------
+
+    /** The finished recording of story with this rate and pitch in the current voice, or null. */
+    public Recording find(StoryLibrary.Story story, float rate, float pitch) {
+        String k = keyFor(story, rate, pitch);
+        if (k == null) return null;
+        if (k.equals(foundKey)) return found;
+
+        File audio = new File(dir, k + AUDIO_SUFFIX);
+        File indexFile = new File(dir, k + INDEX_SUFFIX);
+        Recording recording = null;
+        if (audio.exists() && indexFile.exists()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                recording = new Recording(audio, RecordingIndex.read(in));
+            } catch (IOException e) {
+                Log.w(TAG, "Ignoring unreadable recording index " + indexFile.getName(), e);
+                audio.delete();
+                indexFile.delete();
+            }
+        }
+        foundKey = k;
+        found = recording;
+        return recording;
+    }
+
+    public boolean isRecording() {
+        return story != null;
+    }
+
+    // Story being recorded, or null
+    public String getRecordingStoryId() {
+        return story != null ? story.getId() : null;
+    }
+
+    // File names: story id, story version and a hash of the voice; null before the engine is ready
+    private String keyFor(StoryLibrary.Story story, float rate, float pitch) {
+        String voice = speech.getVoiceName();
+        if (voice == null) return null;
+        String id = voice + '|' + rate + '|' + pitch;
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : id.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return story.getId() + "@" + library.versionOf(story) + String.format(Locale.US, "_%016x", hash);
+    }
+
+    // ---------- Recording ----------
+
+    /**
+     * Starts recording story with the given voice settings; false if a recording is already running
+     * or the engine isn't ready. Progress and the result go to the listener.
+     */
+    public boolean record(StoryLibrary.Story story, float rate, float pitch) {
+        if (this.story != null) return false;
+        String k = keyFor(story, rate, pitch);
+        if (k == null) return false;
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(TAG, "Could not create " + dir);
+            return false;
+        }
+        if (speaker == null) speaker = speech.openSpeaker(callback);
+
+        final StoryText opened;
+        try {
+            opened = library.open(story, new StoryLibrary.OnSentencesListener() {
+                @Override
+                public void onSentencesAdded(StoryText added) {
+                    if (added == text && waiting) renderNext();
+                }
+            });
+        } catch (IOException e) {
+            Log.e(TAG, "Could not open story " + story.getId(), e);
+            return false;
+        }
+        this.story = story;
+        this.key = k;
+        this.text = opened;
+        this.rate = rate;
+        this.pitch = pitch;
+        next = 0;
+        wordCount = 0;
+        waiting = true;
+        generation = (generation + 1) & 0x7ff;
+        return true;
+    }
+
+    // Stops the recording in progress and deletes what was rendered so far
+    public void cancel() {
+        if (story == null) return;
+        String id = story.getId();
+        speaker.stop();
+        abandon();
+        if (listener != null) listener.onRecordingFinished(id, false);
+    }
+
+    private final SpeechService.Callback callback = new SpeechService.Callback() {
+        @Override
+        public void onRange(int tag, int start, int end, int frame) {
+            if (tag != tagFor(next)) return;
+            if (3 * wordCount == words.length) words = Arrays.copyOf(words, words.length * 2);
+            words[3 * wordCount] = start;
+            words[3 * wordCount + 1] = end;
+            words[3 * wordCount + 2] = frame;
+            wordCount++;
+        }
+
+        @Override
+        public void onDone(int tag) {
+            if (tag != tagFor(next)) return;
+            append(wavFor(next), Arrays.copyOf(words, 3 * wordCount));
+        }
+
+        @Override
+        public void onError(int tag) {
+            if (tag != tagFor(next)) return;
+            // Keep the sentence in the index, without audio, so indexes still match the story
+            Log.w(TAG, "Could not render sentence " + next);
+            wavFor(next).delete();
+            append(null, new int[0]);
+        }
+
+        @Override
+        public void onStop(int tag) {
+            if (tag != tagFor(next)) return;
+            // Interrupted by another speaker: render it again
+            wordCount = 0;
+            renderNext();
+        }
+
+        @Override
+        public void onUnavailable() {
+            if (story != null) fail("TTS unavailable");
+        }
+    };
+
+    private int tagFor(int index) {
+        return generation << INDEX_BITS | index;
+    }
+
+    private File wavFor(int index) {
+        return new File(dir, key + "_" + index + ".wav" + TEMP_SUFFIX);
+    }
+
+    // Sends sentence next to the engine, or finishes once every sentence is encoded
+    private void renderNext() {
+        if (story == null) return;
+        waiting = false;
+        if (next >= text.size()) {
+            if (!text.isComplete()) {
+                waiting = true; // the listener in record() carries on as sentences are found
+            } else if (encoder == null) {
+                fail("Story has no sentences");
+            } else {
+                finish();
+            }
+            return;
+        }
+        if (next > INDEX_MASK) {
+            fail("Story too long to record");
+            return;
+        }
+        if (encoder == null) encoder = new Encoder(new File(dir, key + AUDIO_SUFFIX + TEMP_SUFFIX));
+        wordCount = 0;
+        speaker.setVoice(rate, pitch);
+        if (!speaker.synthesizeToFile(text.get(next), wavFor(next), tagFor(next))) {
+            fail("Engine not ready");
+        }
+    }
+
+    // Encodes a rendered sentence (null: none) on the worker while the engine renders the next
+    private void append(final File wav, final int[] sentenceWords) {
+        final Encoder target = encoder;
+        final int gen = generation;
+        encoderThread.execute(new Runnable() {
+            @Override
+            public void run() {
+                boolean ok = target.append(wav, sentenceWords);
+                if (wav != null) wav.delete();
+                if (!ok) {
+                    mainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (gen == generation) fail("Could not encode");
+                        }
+                    });
+                }
+            }
+        });
+        next++;
+        if (listener != null) listener.onRecordingProgress(story.getId(), next, text.size());
+        renderNext();
+    }
+
+    // Closes the encoder and publishes the recording once everything queued before it is encoded
+    private void finish() {
+        final Encoder target = encoder;
+        final String k = key;
+        final String id = story.getId();
+        final int gen = generation;
+        final int sentenceCount = next;
+        encoderThread.execute(new Runnable() {
+            @Override
+            public void run() {
+                final boolean ok = target.finish(sentenceCount) && publish(target, k, id);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (gen != generation) return;
+                        encoder = null; // already closed
+                        abandon();
+                        foundKey = null;
+                        if (listener != null) listener.onRecordingFinished(id, ok);
+                    }
+                });
+            }
+        });
+    }
+
+    // Worker thread: writes the index and renames both files into place, replacing older recordings
+    private boolean publish(Encoder done, String k, String id) {
+        File indexTemp = new File(dir, k + INDEX_SUFFIX + TEMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexTemp)))) {
+            done.index.write(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not save the recording index.", e);
+            indexTemp.delete();
+            done.output.delete();
+            return false;
+        }
+        File[] old = dir.listFiles();
+        if (old != null) {
+            for (File f : old) {
+                String name = f.getName();
+                if (name.startsWith(id + "@") && !name.endsWith(TEMP_SUFFIX)) f.delete();
+            }
+        }
+        // The index goes last: a recording counts only once its index exists
+        File audio = new File(dir, k + AUDIO_SUFFIX);
+        File index = new File(dir, k + INDEX_SUFFIX);
+        if (done.output.renameTo(audio) && indexTemp.renameTo(index)) return true;
+        done.output.delete();
+        indexTemp.delete();
+        audio.delete();
+        return false;
+    }
+
+    private void fail(String why) {
+        Log.w(TAG, why + "; recording of " + story.getId() + " abandoned");
+        String id = story.getId();
+        speaker.stop();
+        abandon();
+        if (listener != null) listener.onRecordingFinished(id, false);
+    }
+
+    // Forgets the recording in progress; its encoder is released and its files deleted on the worker
+    private void abandon() {
+        generation = (generation + 1) & 0x7ff;
+        final Encoder target = encoder;
+        encoder = null;
+        if (target != null) {
+            encoderThread.execute(new Runnable() {
+                @Override
+                public void run() {
+                    target.release();
+                    target.output.delete();
+                }
+            });
+        }
+        encoderThread.execute(new Runnable() {
+            @Override
+            public void run() {
+                deleteTemps();
+            }
+        });
+        if (text != null) {
+            try {
+                text.close();
+            } catch (IOException e) {
+                Log.w(TAG, "Could not close story.", e);
+            }
+        }
+        story = null;
+        key = null;
+        text = null;
+    }
+
+    private void deleteTemps() {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File f : files) {
+            if (f.getName().endsWith(TEMP_SUFFIX)) f.delete();
+        }
+    }
+
+    // ---------- Encoding (worker thread) ----------
+
+    /** AAC encoder and muxer for one recording, set up from the format of the first sentence. */
+    private static final class Encoder {
+        final File output;
+        final RecordingIndex index = new RecordingIndex();
+        private final MediaCodec.BufferInfo info = new MediaCodec.BufferInfo();
+        private final byte[] pcm = new byte[PCM_BUFFER_BYTES];
+
+        private MediaCodec codec;
+        private MediaMuxer muxer;
+        private int track = -1;
+        private int sampleRate;
+        private int channels;
+        private long framesIn;   // audio frames queued so far: the recording's clock
+        private boolean failed;
+
+        Encoder(File output) {
+            this.output = output;
+        }
+
+        // Appends one sentence; false once anything went wrong
+        boolean append(File wav, int[] words) {
+            if (failed) return false;
+            if (wav == null) {
+                index.addSentence(positionMs());
+                return true;
+            }
+            try (InputStream in = new BufferedInputStream(new FileInputStream(wav))) {
+                WavHeader header = WavHeader.read(in);
+                if (codec == null) {
+                    start(header.sampleRate, header.channels);
+                } else if (header.sampleRate != sampleRate || header.channels != channels) {
+                    throw new IOException("Voice format changed mid-story");
+                }
+                index.addSentence(positionMs());
+                for (int i = 0; i < words.length; i += 3) {
+                    index.addWord(words[i], words[i + 1], (int) ((framesIn + words[i + 2]) * 1000 / sampleRate));
+                }
+                int frameBytes = 2 * channels;
+                long left = header.dataBytes;
+                while (left > 0) {
+                    int want = (int) Math.min(pcm.length - pcm.length % frameBytes, left);
+                    int n = readFully(in, pcm, want);
+                    if (n <= 0) break;
+                    n -= n % frameBytes;
+                    queue(n, false);
+                    left -= n;
+                }
+                return true;
+            } catch (IOException | RuntimeException e) {
+                Log.w(TAG, "Could not encode " + wav.getName(), e);
+                failed = true;
+                return false;
+            }
+        }
+
+        // Ends the stream and writes the file; false if nothing could be encoded
+        boolean finish(int sentences) {
+            if (failed || codec == null || index.size() != sentences) {
+                release();
+                return false;
+            }
+            try {
+                queue(0, true);
+                muxer.stop();
+                index.finish(positionMs());
+                return true;
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Could not finish the recording.", e);
+                return false;
+            } finally {
+                release();
+            }
+        }
+
+        private int positionMs() {
+            return sampleRate == 0 ? 0 : (int) (framesIn * 1000 / sampleRate);
+        }
+
+        private void start(int rate, int channelCount) throws IOException {
+            sampleRate = rate;
+            channels = channelCount;
+            MediaFormat format = MediaFormat.createAudioFormat(MIME, rate, channelCount);
+            format.setInteger(MediaFormat.KEY_AAC_PROFILE, MediaCodecInfo.CodecProfileLevel.AACObjectLC);
+            format.setInteger(MediaFormat.KEY_BIT_RATE, BIT_RATE);
+            format.setInteger(MediaFormat.KEY_MAX_INPUT_SIZE, PCM_BUFFER_BYTES);
+            codec = MediaCodec.createEncoderByType(MIME);
+            codec.configure(format, null, null, MediaCodec.CONFIGURE_FLAG_ENCODE);
+            codec.start();
+            muxer = new MediaMuxer(output.getPath(), MediaMuxer.OutputFormat.MUXER_OUTPUT_MPEG_4);
+        }
+
+        // Feeds length bytes of pcm (or the end of stream) to the codec, draining output as it goes
+        private void queue(int length, boolean endOfStream) {
+            int offset = 0;
+            while (offset < length || endOfStream) {
+                int in = codec.dequeueInputBuffer(CODEC_TIMEOUT_US);
+                if (in >= 0) {
+                    long timeUs = framesIn * 1_000_000L / sampleRate;
+                    if (endOfStream) {
+                        codec.queueInputBuffer(in, 0, 0, timeUs, MediaCodec.BUFFER_FLAG_END_OF_STREAM);
+                        drain(true);
+                        return;
+                    }
+                    ByteBuffer buffer = codec.getInputBuffer(in);
+                    buffer.clear();
+                    int n = Math.min(buffer.remaining(), length - offset);
+                    n -= n % (2 * channels);
+                    buffer.put(pcm, offset, n);
+                    codec.queueInputBuffer(in, 0, n, timeUs, 0);
+                    framesIn += n / (2 * channels);
+                    offset += n;
+                }
+                drain(false);
+            }
+        }
+
+        // Moves encoded output to the muxer; to the end of stream if endOfStream
+        private void drain(boolean endOfStream) {
+            while (true) {
+                int out = codec.dequeueOutputBuffer(info, endOfStream ? CODEC_TIMEOUT_US : 0);
+                if (out == MediaCodec.INFO_TRY_AGAIN_LATER) {
+                    if (!endOfStream) return;
+                } else if (out == MediaCodec.INFO_OUTPUT_FORMAT_CHANGED) {
+                    track = muxer.addTrack(codec.getOutputFormat());
+                    muxer.start();
+                } else if (out >= 0) {
+                    ByteBuffer data = codec.getOutputBuffer(out);
+                    boolean config = (info.flags & MediaCodec.BUFFER_FLAG_CODEC_CONFIG) != 0;
+                    if (!config && info.size > 0 && track >= 0) {
+                        data.position(info.offset);
+                        data.limit(info.offset + info.size);
+                        muxer.writeSampleData(track, data, info);
+                    }
+                    codec.releaseOutputBuffer(out, false);
+                    if ((info.flags & MediaCodec.BUFFER_FLAG_END_OF_STREAM) != 0) return;
+                }
+            }
+        }
+
+        void release() {
+            if (codec != null) {
+                try {
+                    codec.stop();
+                } catch (IllegalStateException ignored) {
+                    // never started or already failed
+                }
+                codec.release();
+                codec = null;
+            }
+            if (muxer != null) {
+                try {
+                    muxer.release();
+                } catch (IllegalStateException ignored) {
+                    // started without samples
+                }
+                muxer = null;
+            }
+        }
+
+        private static int readFully(InputStream in, byte[] buffer, int length) throws IOException {
+            int total = 0;
+            while (total < length) {
+                int n = in.read(buffer, total, length - total);
+                if (n < 0) break;
+                total += n;
+            }
+            return total;
+        }
+    }
+
+    /** The format chunk of a 16-bit PCM WAV file, as written by synthesizeToFile. */
+    static final class WavHeader {
+        final int sampleRate;
+        final int channels;
+        final long dataBytes;
+
+        private WavHeader(int sampleRate, int channels, long dataBytes) {
+            this.sampleRate = sampleRate;
+            this.channels = channels;
+            this.dataBytes = dataBytes;
+        }
+
+        // Reads up to the start of the samples
+        static WavHeader read(InputStream in) throws IOException {
+            DataInputStream data = new DataInputStream(in);
+            byte[] chunk = new byte[8];
+            data.readFully(chunk);
+            if (!tagIs(chunk, "RIFF")) throw new IOException("Not a WAV file");
+            data.readFully(chunk, 0, 4);
+            if (!tagIs(chunk, "WAVE")) throw new IOException("Not a WAV file");
+
+            int sampleRate = 0;
+            int channels = 0;
+            while (true) {
+                try {
+                    data.readFully(chunk);
+                } catch (EOFException e) {
+                    throw new IOException("WAV file without data");
+                }
+                long size = ByteBuffer.wrap(chunk, 4, 4).order(ByteOrder.LITTLE_ENDIAN).getInt() & 0xffffffffL;
+                if (tagIs(chunk, "fmt ")) {
+                    byte[] fmt = new byte[(int) Math.min(size, 64)];
+                    data.readFully(fmt);
+                    skipFully(data, size - fmt.length);
+                    ByteBuffer b = ByteBuffer.wrap(fmt).order(ByteOrder.LITTLE_ENDIAN);
+                    int encoding = b.getShort(0);
+                    channels = b.getShort(2);
+                    sampleRate = b.getInt(4);
+                    int bits = b.getShort(14);
+                    if (encoding != 1 || bits != 16 || channels < 1 || sampleRate <= 0) {
+                        throw new IOException("Unsupported WAV format " + encoding + "/" + bits);
+                    }
+                } else if (tagIs(chunk, "data")) {
+                    if (sampleRate == 0) throw new IOException("WAV data before format");
+                    // Some engines leave the size 0 while streaming; then the samples run to the end
+                    return new WavHeader(sampleRate, channels, size == 0 ? Long.MAX_VALUE : size);
+                } else {
+                    skipFully(data, size + (size & 1));
+                }
+            }
+        }
+
+        private static boolean tagIs(byte[] chunk, String tag) {
+            return new String(chunk, 0, 4, StandardCharsets.US_ASCII).equals(tag);
+        }
+
+        private static void skipFully(DataInputStream in, long n) throws IOException {
+            while (n > 0) {
+                int skipped = in.skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+                if (skipped <= 0) throw new EOFException();
+                n -= skipped;
+            }
+        }
+    }
+}
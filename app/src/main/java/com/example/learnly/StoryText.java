@@ -0,0 +1,143 @@
+package com.example.learnly;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+
+/**
+ * The sentences of one story, read from its file on demand.
+ *
+ * Only the byte range of each sentence is kept in memory (two ints); get(i) reads that range with a
+ * positioned read and decodes it, so even a chapter book costs a few kilobytes however long it is.
+ * Ranges are appended as SentenceScanner finds them, so the first sentences can be read while the
+ * rest of the file is still being indexed; {@link #isComplete()} says when it is done.
+ *
+ * Plain Java so it can be tested without Android. Not thread-safe: ranges are added and sentences
+ * read on the main thread.
+ */
+public class StoryText extends AbstractList<String> implements Closeable {
+
+    private static final int INDEX_MAGIC = 0x4C535449; // "LSTI"
+    private static final int INDEX_VERSION = 1;
+
+    private final FileChannel channel;
+    private final long base;   // file position of story byte 0
+
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int count;
+    private boolean complete;
+
+    // Last sentence read: narration asks for the same one more than once
+    private int cachedIndex = -1;
+    private String cachedText;
+
+    // channel may be null for a text that only collects ranges (e.g. while indexing)
+    public StoryText(FileChannel channel, long base) {
+        this.channel = channel;
+        this.base = base;
+    }
+
+    // Appends the byte range of the next sentence
+    public void add(int startByte, int endByte) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = startByte;
+        ends[count] = endByte;
+        count++;
+    }
+
+    public void setComplete() {
+        complete = true;
+    }
+
+    // True once every sentence of the file has been added
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public boolean isOpen() {
+        return channel != null && channel.isOpen();
+    }
+
+    // Ranges [from, to) as start, end pairs
+    int[] copyRanges(int from, int to) {
+        int[] out = new int[(to - from) * 2];
+        for (int i = from; i < to; i++) {
+            out[(i - from) * 2] = starts[i];
+            out[(i - from) * 2 + 1] = ends[i];
+        }
+        return out;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /** The text of sentence i; empty if the file can no longer be read. */
+    @Override
+    public String get(int i) {
+        if (i < 0 || i >= count) throw new IndexOutOfBoundsException("Sentence " + i + " of " + count);
+        if (i == cachedIndex) return cachedText;
+
+        ByteBuffer bytes = ByteBuffer.allocate(ends[i] - starts[i]);
+        try {
+            long position = base + starts[i];
+            while (bytes.hasRemaining()) {
+                int n = channel.read(bytes, position + bytes.position());
+                if (n < 0) break;
+            }
+        } catch (IOException e) {
+            return "";
+        }
+        cachedIndex = i;
+        cachedText = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8);
+        return cachedText;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+
+    // ---------- Index cache ----------
+
+    /** Writes the complete list of ranges, for {@link #readIndex} next time the story is opened. */
+    public void writeIndex(DataOutputStream out) throws IOException {
+        out.writeInt(INDEX_MAGIC);
+        out.writeInt(INDEX_VERSION);
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(starts[i]);
+            out.writeInt(ends[i]);
+        }
+    }
+
+    /** Loads ranges written by writeIndex and marks the text complete. Throws on malformed data. */
+    public void readIndex(DataInputStream in) throws IOException {
+        if (in.readInt() != INDEX_MAGIC) throw new IOException("Not a story index");
+        int version = in.readInt();
+        if (version != INDEX_VERSION) throw new IOException("Unsupported story index " + version);
+        int n = in.readInt();
+        if (n < 0) throw new IOException("Bad sentence count " + n);
+        starts = new int[Math.max(n, 1)];
+        ends = new int[Math.max(n, 1)];
+        count = 0;
+        for (int i = 0; i < n; i++) {
+            int start = in.readInt();
+            int end = in.readInt();
+            if (end < start) throw new IOException("Bad sentence range " + i);
+            add(start, end);
+        }
+        complete = true;
+    }
+}
@@ -1,13 +1,12 @@
 package com.example.learnly;
 
-import android.content.Intent;
 import android.content.SharedPreferences;
+import android.content.res.ColorStateList;
 import android.graphics.Color;
-import android.media.AudioManager;
-import android.os.Build;
 import android.os.Bundle;
-import android.speech.tts.TextToSpeech;
-import android.speech.tts.UtteranceProgressListener;
+import android.util.Log;
+import android.view.ViewGroup;
+import android.widget.LinearLayout;
 import android.widget.Button;
 import android.widget.SeekBar;
 import android.widget.TextView;
@@ -16,83 +15,54 @@ import android.widget.ToggleButton;
 import android.view.View;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.UUID;
+import java.util.List;
 
 public class StoryTimeActivity extends AppCompatActivity {
 
+    private static final String TAG = "StoryTimeActivity";
+
     // Night mode prefs
     private static final String PREFS_NAME = "story_time_prefs";
     private static final String KEY_NIGHT_MODE = "night_mode";
 
+    // Instance state: the place in the story, for process death
+    private static final String KEY_STATE = "story_time_state";
+
     // UI
     private View root;
-    private Button btnPlay, btnPause, btnStop, btnBackToHome;
-    private Button btnStory1, btnStory2, btnStory3;
+    private Button btnPlay, btnPause, btnStop, btnBackToHome, btnSaveAudio;
+    private LinearLayout storyButtonRow;
+    private final List<Button> storyButtons = new ArrayList<>();
     private SeekBar rateSeek, pitchSeek;
     private TextView statusText;
     private TextView storyTitleText;
+    private ReadAlongView readAlong;
     private ToggleButton toggleNightMode;
 
-    // TTS
-    private TextToSpeech tts;
-    private boolean ttsReady = false;
-
-    // Stories
-    private static final String STORY_1 =
-            "Once upon a time, in a cosy little village, there lived a curious child named Mira. "
-                    + "Every night, Mira looked up at the moon and wondered where dreams came from. "
-                    + "One evening, a friendly firefly appeared at her window and said, follow me. "
-                    + "They floated past sleeping trees and over a silver stream that giggled softly. "
-                    + "At the edge of a meadow, the firefly showed Mira a glowing door made of starlight. "
-                    + "When she stepped through, the sky filled with gentle music and warm colours. "
-                    + "The stars hummed lullabies, and the moon smiled kindly. "
-                    + "Dreams are stories you tell your heart, the firefly said. "
-                    + "Mira drifted home on a moonbeam and fell asleep, ready for the next adventure.";
-
-    private static final String STORY_2 =
-            "In a bright town by the sea, a boy named Leo had a red kite that could fly higher than all the rooftops. "
-                    + "One windy afternoon, a huge gust of wind tugged the kite right out of Leo's hands and sent it sailing away. "
-                    + "Leo chased it past the bakery, past the library, and all the way to the sandy beach. "
-                    + "There, a group of laughing seagulls had tangled the kite's tail in a tall dune bush. "
-                    + "Leo sighed, but instead of scolding the birds, he gently freed the kite and shared a smile. "
-                    + "The seagulls helped by flapping their wings to lift the kite into the sky again. "
-                    + "From that day on, the gulls followed Leo whenever he flew his kite, "
-                    + "like a little cloud of feathery friends in the blue sky.";
-
-    private static final String STORY_3 =
-            "Deep in a quiet forest, a tiny fox named Pip loved collecting sounds. "
-                    + "He listened to leaves crunching, owls hooting, and streams bubbling over smooth stones. "
-                    + "One evening, Pip noticed that the crickets were completely silent. "
-                    + "He followed the silence until he found a cricket family hiding under a log, afraid of the dark. "
-                    + "Pip showed them how the stars made gentle patterns overhead "
-                    + "and how the moonlight drew silver lines on the ground. "
-                    + "Feeling safe, the crickets began to sing again, filling the forest with music. "
-                    + "Pip curled up in his den, happy that he had helped bring the nighttime song back to the world.";
-
-    // Titles
-    private static final String TITLE_1 = "Moonbeam Dreams";
-    private static final String TITLE_2 = "Leo and the Red Kite";
-    private static final String TITLE_3 = "Pip and the Night Song";
-
-    // Current story state
-    private ArrayList<String> chunks = new ArrayList<>(); // one sentence per chunk
-    private int currentChunkIndex = 0;   // index of CURRENT sentence
-    private boolean isPaused = false;
-    private boolean isNightMode = false;
-    private int currentStoryId = 1;
+    // Playback and the open story live in the view model, so a rotation doesn't stop the story
+    private StoryTimeViewModel model;
+
+    // Saved story audio, played instead of TTS when it matches the voice settings
+    private StoryRecorder recorder;
+
+    // Story button colours, in turn
+    private static final int[] STORY_BUTTON_TINTS = {
+            Color.parseColor("#AED581"), Color.parseColor("#FFCC80"), Color.parseColor("#4FC3F7")};
 
-    // Audio focus
-    private AudioManager audioManager;
-    private AudioManager.OnAudioFocusChangeListener afChangeListener;
+    private List<StoryLibrary.Story> stories = new ArrayList<>();
+    private boolean isNightMode = false;
+    private int currentStoryId = 1;      // 1-based position in the library
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        int createSpan = StartupTrace.begin("game.onCreate " + MiniApp.STORY_TIME.getId());
         setContentView(R.layout.activity_story_time);
+        new SessionTracker(this, MiniApp.STORY_TIME);
 
         // ---- Bind views ----
         root           = findViewById(R.id.root);
@@ -104,14 +74,14 @@ public class StoryTimeActivity extends AppCompatActivity {
         btnPause       = findViewById(R.id.btnPause);
         btnStop        = findViewById(R.id.btnStop);
         btnBackToHome  = findViewById(R.id.btnBackToHome);
-        btnStory1      = findViewById(R.id.btnStory1);
-        btnStory2      = findViewById(R.id.btnStory2);
-        btnStory3      = findViewById(R.id.btnStory3);
+        btnSaveAudio   = findViewById(R.id.btnSaveAudio);
+        storyButtonRow = findViewById(R.id.storyButtons);
         rateSeek       = findViewById(R.id.seekRate);
         pitchSeek      = findViewById(R.id.seekPitch);
         statusText     = findViewById(R.id.statusText);
         storyTitleText = findViewById(R.id.storyTitleText);
         toggleNightMode = findViewById(R.id.toggleNightMode);
+        readAlong      = findViewById(R.id.readAlong);
 
         // ---- Night mode prefs ----
         SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
@@ -128,138 +98,189 @@ public class StoryTimeActivity extends AppCompatActivity {
             applyTheme();
         });
 
-        // SeekBars
+        // SeekBars (restored with the view state after a rotation)
         rateSeek.setProgress(10);
         pitchSeek.setProgress(10);
 
         // Back to home
-        btnBackToHome.setOnClickListener(v -> {
-            Intent i = new Intent(StoryTimeActivity.this, HomeActivity.class);
-            startActivity(i);
-            finish();
-        });
+        btnBackToHome.setOnClickListener(v -> HomeActivity.returnHome(this));
+
+        // Story buttons, one per story in the library
+        stories = StoryLibrary.getInstance(this).getStories();
+        createStoryButtons();
+
+        // TTS: the shared engine is bound once per view model, not per activity
+        final int ttsSpan = StartupTrace.begin("game.ttsInit");
+        model = new ViewModelProvider(this).get(StoryTimeViewModel.class);
+        model.setListener(new StoryTimeViewModel.Listener() {
+            @Override
+            public void onReady() {
+                StartupTrace.end(ttsSpan);
+                statusText.setText("TTS ready. Choose a story and press Play.");
+            }
+
+            @Override
+            public void onUnavailable() {
+                StartupTrace.end(ttsSpan);
+                Toast.makeText(StoryTimeActivity.this,
+                        "TTS not available. Please install English TTS.", Toast.LENGTH_SHORT).show();
+                statusText.setText("TTS init failed.");
+            }
+
+            @Override
+            public void onSentenceStart(int index) {
+                readAlong.showSentence(index);
+            }
+
+            @Override
+            public void onWordStart(int index, int start, int end) {
+                readAlong.highlightWord(index, start, end);
+            }
+
+            @Override
+            public void onSentenceError(int index) {
+                Toast.makeText(StoryTimeActivity.this,
+                        "TTS error on chunk: " + index, Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onFinished() {
+                statusText.setText("Finished.");
+                readAlong.clearHighlight();
+            }
 
-        // Story buttons
-        btnStory1.setOnClickListener(v -> selectStory(1));
-        btnStory2.setOnClickListener(v -> selectStory(2));
-        btnStory3.setOnClickListener(v -> selectStory(3));
-
-        // Audio focus
-        audioManager = (AudioManager) getSystemService(AUDIO_SERVICE);
-        afChangeListener = focusChange -> {
-            if (focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT
-                    || focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT_CAN_DUCK) {
-                pauseTtsInternal(true);
-            } else if (focusChange == AudioManager.AUDIOFOCUS_LOSS) {
-                stopReading();
+            @Override
+            public void onSentencesAdded(StoryText text) {
+                readAlong.onSentencesAdded();
             }
-        };
-
-        // TTS init
-        tts = new TextToSpeech(this, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                int res = tts.setLanguage(Locale.US);
-                if (res == TextToSpeech.LANG_MISSING_DATA || res == TextToSpeech.LANG_NOT_SUPPORTED) {
-                    Toast.makeText(this, "TTS language not available. Please install English TTS.", Toast.LENGTH_SHORT).show();
-                    statusText.setText("Language data missing — please install TTS.");
+
+            @Override
+            public void onAudioFocusLost(boolean transientLoss) {
+                if (transientLoss) {
+                    statusText.setText("Paused (audio focus lost)");
                 } else {
-                    ttsReady = true;
-                    statusText.setText("TTS ready. Choose a story and press Play.");
-                    tts.setOnUtteranceProgressListener(new UtteranceProgressListener() {
-                        @Override
-                        public void onStart(String utteranceId) {
-                        }
-
-                        @Override
-                        public void onDone(String utteranceId) {
-                            runOnUiThread(() -> {
-                                if (isPaused) return;
-
-                                // Move to next sentence only AFTER the current one finishes
-                                currentChunkIndex++;
-                                if (currentChunkIndex < chunks.size()) {
-                                    speakCurrentChunk();
-                                } else {
-                                    abandonAudioFocus();
-                                    statusText.setText("Finished.");
-                                    currentChunkIndex = 0;
-                                    isPaused = false;
-                                }
-                            });
-                        }
-
-                        @Override
-                        public void onError(String utteranceId) {
-                            runOnUiThread(() -> Toast.makeText(
-                                    StoryTimeActivity.this,
-                                    "TTS error on chunk: " + utteranceId,
-                                    Toast.LENGTH_SHORT
-                            ).show());
-                        }
-                    });
+                    readAlong.clearHighlight();
+                    statusText.setText("Stopped.");
                 }
-            } else {
-                Toast.makeText(this, "Failed to initialize TTS.", Toast.LENGTH_SHORT).show();
-                statusText.setText("TTS init failed.");
             }
         });
+        if (model.getTtsState() != StoryTimeViewModel.TTS_STARTING) StartupTrace.end(ttsSpan);
+
+        // Saving story audio carries on in the background if the screen is left
+        recorder = StoryRecorder.getInstance(this);
+        recorder.setListener(new StoryRecorder.Listener() {
+            @Override
+            public void onRecordingProgress(String storyId, int done, int total) {
+                btnSaveAudio.setText("Saving " + done + "/" + total + "… (tap to cancel)");
+            }
+
+            @Override
+            public void onRecordingFinished(String storyId, boolean ok) {
+                updateSaveAudioButton();
+                Toast.makeText(StoryTimeActivity.this,
+                        ok ? "Story audio saved." : "Story audio not saved.", Toast.LENGTH_SHORT).show();
+            }
+        });
+        updateSaveAudioButton();
+        btnSaveAudio.setOnClickListener(v -> onSaveAudioClicked());
+        readAlong.setOnSentenceClickListener(index -> startPlayback(index, false));
 
         // Play/Pause/Stop
         btnPlay.setOnClickListener(v -> onPlayClicked());
         btnPause.setOnClickListener(v -> onPauseClicked());
         btnStop.setOnClickListener(v -> onStopClicked());
 
-        // Default story
-        selectStory(1);
+        if (model.getStory() != null) {
+            // Rotation: the story is still open (and may still be playing); just redraw it
+            showOpenStory();
+        } else {
+            StoryTimeState saved = savedInstanceState != null ? savedInstanceState.getParcelable(KEY_STATE) : null;
+            if (saved != null && model.restore(saved)) {
+                // The process was killed: back to the same story and sentence, paused
+                showOpenStory();
+                statusText.setText("Press Play to carry on with story " + currentStoryId + ".");
+            } else {
+                // Default story
+                selectStory(1);
+            }
+        }
+        StartupTrace.end(createSpan);
+        StartupTrace.markAfterDraw(storyTitleText, "game.firstQuestion");
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        StoryTimeState state = model.snapshot();
+        if (state != null) outState.putParcelable(KEY_STATE, state);
     }
 
     // ---------- Story selection ----------
 
+    private void createStoryButtons() {
+        float density = getResources().getDisplayMetrics().density;
+        for (int i = 0; i < stories.size(); i++) {
+            final int id = i + 1;
+            Button b = new Button(this);
+            b.setText("Story " + id);
+            b.setTextSize(14);
+            b.setTextColor(isNightMode ? Color.WHITE : Color.BLACK);
+            b.setBackgroundTintList(ColorStateList.valueOf(STORY_BUTTON_TINTS[i % STORY_BUTTON_TINTS.length]));
+            b.setOnClickListener(v -> selectStory(id));
+            LinearLayout.LayoutParams lp = new LinearLayout.LayoutParams(
+                    ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT);
+            if (i > 0) lp.setMarginStart(Math.round(8 * density));
+            storyButtonRow.addView(b, lp);
+            storyButtons.add(b);
+        }
+    }
+
     private void selectStory(int id) {
         currentStoryId = id;
+        readAlong.setStory(new ArrayList<>());
 
-        String storyText;
-        String titleText;
-
-        switch (id) {
-            case 2:
-                storyText = STORY_2;
-                titleText = TITLE_2;
-                break;
-            case 3:
-                storyText = STORY_3;
-                titleText = TITLE_3;
-                break;
-            case 1:
-            default:
-                storyText = STORY_1;
-                titleText = TITLE_1;
-                break;
+        if (id < 1 || id > stories.size()) {
+            model.stop();
+            statusText.setText("No stories found.");
+            updateStoryButtonsUI();
+            return;
         }
-
+        StoryLibrary.Story story = stories.get(id - 1);
+        String titleText = story.getTitle();
         if (storyTitleText != null) {
             storyTitleText.setText(titleText);
         }
 
-        // Stop any current playback
-        if (ttsReady && tts != null) {
-            tts.stop();
+        // Stops any current playback
+        try {
+            model.selectStory(story);
+        } catch (IOException e) {
+            Log.e(TAG, "Could not open story " + story.getId(), e);
+            statusText.setText("Could not open this story.");
+            return;
         }
-        abandonAudioFocus();
-
-        // Reset state and re-chunk story INTO SENTENCES
-        currentChunkIndex = 0;
-        isPaused = false;
-        chunks = chunkIntoSentences(storyText);
+        readAlong.setStory(model.getText());
 
         statusText.setText("Story " + id + " selected: " + titleText + ". Press Play to start.");
         updateStoryButtonsUI();
     }
 
+    // Shows the story the view model already has open, at its current sentence
+    private void showOpenStory() {
+        StoryLibrary.Story story = model.getStory();
+        currentStoryId = stories.indexOf(story) + 1;
+        if (storyTitleText != null) {
+            storyTitleText.setText(story.getTitle());
+        }
+        readAlong.setStory(model.getText());
+        if (model.getCurrentIndex() > 0 || model.isPaused()) readAlong.showSentence(model.getCurrentIndex());
+        updateStoryButtonsUI();
+    }
+
     private void updateStoryButtonsUI() {
-        btnStory1.setAlpha(currentStoryId == 1 ? 1.0f : 0.6f);
-        btnStory2.setAlpha(currentStoryId == 2 ? 1.0f : 0.6f);
-        btnStory3.setAlpha(currentStoryId == 3 ? 1.0f : 0.6f);
+        for (int i = 0; i < storyButtons.size(); i++) {
+            storyButtons.get(i).setAlpha(currentStoryId == i + 1 ? 1.0f : 0.6f);
+        }
     }
 
     // ---------- Theme ----------
@@ -271,18 +292,20 @@ public class StoryTimeActivity extends AppCompatActivity {
             root.setBackgroundColor(Color.parseColor("#121212"));
             if (statusText != null) statusText.setTextColor(Color.WHITE);
             if (storyTitleText != null) storyTitleText.setTextColor(Color.WHITE);
+            if (readAlong != null) readAlong.setTextColor(Color.parseColor("#EEEEEE"));
             toggleNightMode.setText("☀️");   // sun when in night mode
 
-            tintButtonTextWhite(btnBackToHome, btnPlay, btnPause, btnStop,
-                    btnStory1, btnStory2, btnStory3);
+            tintButtonTextWhite(btnBackToHome, btnPlay, btnPause, btnStop, btnSaveAudio);
+            tintButtonTextWhite(storyButtons.toArray(new Button[0]));
         } else {
             root.setBackgroundColor(Color.parseColor("#FFF8E1"));
             if (statusText != null) statusText.setTextColor(Color.parseColor("#4E342E"));
             if (storyTitleText != null) storyTitleText.setTextColor(Color.parseColor("#5D4037"));
+            if (readAlong != null) readAlong.setTextColor(Color.parseColor("#3E2723"));
             toggleNightMode.setText("🌙");   // moon when in day mode
 
-            tintButtonTextDay(btnBackToHome, btnPlay, btnPause, btnStop,
-                    btnStory1, btnStory2, btnStory3);
+            tintButtonTextDay(btnBackToHome, btnPlay, btnPause, btnStop, btnSaveAudio);
+            tintButtonTextDay(storyButtons.toArray(new Button[0]));
         }
     }
 
@@ -301,144 +324,73 @@ public class StoryTimeActivity extends AppCompatActivity {
     // ---------- Buttons ----------
 
     private void onPlayClicked() {
-        if (!ttsReady) {
-            Toast.makeText(this, "TTS not ready yet.", Toast.LENGTH_SHORT).show();
+        boolean resume = model.isPaused();
+        startPlayback(resume ? model.getCurrentIndex() : 0, resume);
+    }
+
+    // Plays from a sentence; resume continues saved audio mid-sentence where it was paused
+    private void startPlayback(int from, boolean resume) {
+        if (model.isUnavailable()) {
+            Toast.makeText(this, "TTS not available.", Toast.LENGTH_SHORT).show();
             return;
         }
-        if (chunks == null || chunks.isEmpty()) {
+        StoryText chunks = model.getText();
+        if (chunks == null || (chunks.isEmpty() && chunks.isComplete())) {
             Toast.makeText(this, "No story selected.", Toast.LENGTH_SHORT).show();
             return;
         }
 
         float rate = Math.max(0.1f, rateSeek.getProgress() / 10f);
         float pitch = Math.max(0.1f, pitchSeek.getProgress() / 10f);
-        tts.setSpeechRate(rate);
-        tts.setPitch(pitch);
-
-        int result = audioManager.requestAudioFocus(
-                afChangeListener,
-                AudioManager.STREAM_MUSIC,
-                AudioManager.AUDIOFOCUS_GAIN_TRANSIENT_MAY_DUCK
-        );
-        if (result != AudioManager.AUDIOFOCUS_REQUEST_GRANTED) {
+        if (!model.play(from, resume, rate, pitch)) {
             Toast.makeText(this, "Could not get audio focus.", Toast.LENGTH_SHORT).show();
             return;
         }
-
-        if (isPaused) {
-            // Resume from the CURRENT sentence
-            isPaused = false;
-            statusText.setText("Resuming story " + currentStoryId + "...");
-            speakCurrentChunk();
-        } else {
-            // Start from beginning
-            isPaused = false;
-            currentChunkIndex = 0;
-            statusText.setText("Playing story " + currentStoryId + "...");
-            speakCurrentChunk();
-        }
+        statusText.setText((resume ? "Resuming story " : "Playing story ") + currentStoryId + "...");
     }
 
     private void onPauseClicked() {
-        pauseTtsInternal(false);
+        if (model.pause()) statusText.setText("Paused.");
     }
 
     private void onStopClicked() {
-        stopReading();
-    }
-
-    // ---------- TTS helpers ----------
-
-    private void pauseTtsInternal(boolean transientLoss) {
-        if (!ttsReady) return;
-
-        if (!isPaused && currentChunkIndex < chunks.size()) {
-            isPaused = true;
-            // IMPORTANT: do NOT change currentChunkIndex.
-            // It still points to the current sentence,
-            // which we will replay from the start on resume.
-            tts.stop();
-            statusText.setText(transientLoss ? "Paused (audio focus lost)" : "Paused.");
-        }
-    }
-
-    private void stopReading() {
-        if (!ttsReady) return;
-
-        isPaused = false;
-        currentChunkIndex = 0;
-        tts.stop();
-        abandonAudioFocus();
+        model.stop();
+        readAlong.clearHighlight();
         statusText.setText("Stopped.");
     }
 
-    private void speakCurrentChunk() {
-        if (!ttsReady) return;
+    // ---------- Saved audio ----------
 
-        if (currentChunkIndex < 0 || currentChunkIndex >= chunks.size()) {
-            abandonAudioFocus();
-            statusText.setText("Finished.");
-            currentChunkIndex = 0;
-            isPaused = false;
+    private void onSaveAudioClicked() {
+        if (recorder.isRecording()) {
+            recorder.cancel();
             return;
         }
-
-        String text = chunks.get(currentChunkIndex);
-        String utteranceId = "utt-" + currentChunkIndex + "-" + UUID.randomUUID();
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, null, utteranceId);
-        } else {
-            HashMap<String, String> params = new HashMap<>();
-            params.put(TextToSpeech.Engine.KEY_PARAM_UTTERANCE_ID, utteranceId);
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, params);
+        StoryLibrary.Story story = model.getStory();
+        if (model.isUnavailable() || story == null) {
+            Toast.makeText(this, "Nothing to save.", Toast.LENGTH_SHORT).show();
+            return;
         }
-    }
-
-    private void abandonAudioFocus() {
-        if (audioManager != null && afChangeListener != null) {
-            audioManager.abandonAudioFocus(afChangeListener);
+        float rate = Math.max(0.1f, rateSeek.getProgress() / 10f);
+        float pitch = Math.max(0.1f, pitchSeek.getProgress() / 10f);
+        if (recorder.find(story, rate, pitch) != null) {
+            Toast.makeText(this, "This story is already saved with this voice.", Toast.LENGTH_SHORT).show();
+        } else if (!recorder.record(story, rate, pitch)) {
+            Toast.makeText(this, "Could not save audio yet. Try again in a moment.", Toast.LENGTH_SHORT).show();
+        } else {
+            updateSaveAudioButton();
         }
     }
 
-    // ---------- Sentence chunking ----------
-
-    /**
-     * Split text into sentence-like chunks based on '.', '!' and '?'.
-     * This lets us pause/resume at the sentence level.
-     */
-    private ArrayList<String> chunkIntoSentences(String text) {
-        ArrayList<String> out = new ArrayList<>();
-        if (text == null) return out;
-
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            sb.append(c);
-            if (c == '.' || c == '!' || c == '?') {
-                String chunk = sb.toString().trim();
-                if (!chunk.isEmpty()) {
-                    out.add(chunk);
-                }
-                sb.setLength(0);
-            }
-        }
-        // leftover (no terminal punctuation at end)
-        String tail = sb.toString().trim();
-        if (!tail.isEmpty()) {
-            out.add(tail);
-        }
-
-        return out;
+    private void updateSaveAudioButton() {
+        btnSaveAudio.setText(recorder.isRecording() ? "Saving… (tap to cancel)" : "💾 Save story audio");
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
-        if (tts != null) {
-            tts.stop();
-            tts.shutdown();
-        }
-        abandonAudioFocus();
+        // Playback itself belongs to the view model, which is cleared only when leaving for good
+        model.setListener(null);
+        recorder.setListener(null);
     }
 }
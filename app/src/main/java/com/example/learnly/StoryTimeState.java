@@ -0,0 +1,52 @@
+package com.example.learnly;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+/**
+ * Where Story Time was, saved with the activity's instance state so the place in the story
+ * survives the process being killed in the background: the story, the sentence and whether
+ * playback was paused there. Everything else (the story's sentences, rendered audio) is rebuilt.
+ */
+public class StoryTimeState implements Parcelable {
+
+    final String storyId;
+    final int chunkIndex;
+    final boolean paused;
+
+    public StoryTimeState(String storyId, int chunkIndex, boolean paused) {
+        this.storyId = storyId;
+        this.chunkIndex = chunkIndex;
+        this.paused = paused;
+    }
+
+    private StoryTimeState(Parcel in) {
+        storyId = in.readString();
+        chunkIndex = in.readInt();
+        paused = in.readInt() != 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeString(storyId);
+        dest.writeInt(chunkIndex);
+        dest.writeInt(paused ? 1 : 0);
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Creator<StoryTimeState> CREATOR = new Creator<StoryTimeState>() {
+        @Override
+        public StoryTimeState createFromParcel(Parcel in) {
+            return new StoryTimeState(in);
+        }
+
+        @Override
+        public StoryTimeState[] newArray(int size) {
+            return new StoryTimeState[size];
+        }
+    };
+}
@@ -0,0 +1,276 @@
+package com.example.learnly;
+
+import android.app.Application;
+import android.content.Context;
+import android.media.AudioManager;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Story Time's playback, kept across configuration changes: the open story, the narration
+ * pipeline, the saved-audio player, the reading position and audio focus.
+ *
+ * A rotation recreates the activity but not this, so narration keeps playing through it and the
+ * new activity only re-attaches its listener and redraws. Events that happen with no activity
+ * attached still update the position. snapshot() is what the activity saves for process death.
+ * Main thread only.
+ */
+public class StoryTimeViewModel extends AndroidViewModel implements NarrationPipeline.Listener {
+
+    private static final String TAG = "StoryTimeViewModel";
+
+    static final int TTS_STARTING = 0;
+    static final int TTS_READY = 1;
+    static final int TTS_UNAVAILABLE = 2;
+
+    /** Events for the activity on screen. */
+    public interface Listener extends NarrationPipeline.Listener {
+        // More sentences of the open story were found
+        void onSentencesAdded(StoryText text);
+
+        // Another app took audio focus: playback was paused (transientLoss) or stopped
+        void onAudioFocusLost(boolean transientLoss);
+    }
+
+    private final NarrationPipeline narration;
+    private final RecordingPlayer recordingPlayer;
+    private final StoryRecorder recorder;
+    private final AudioManager audioManager;
+    private final AudioManager.OnAudioFocusChangeListener afChangeListener;
+
+    private Listener listener;
+    private int ttsState = TTS_STARTING;
+
+    // Current story state
+    private StoryLibrary.Story story;
+    private StoryText chunks;            // one sentence per chunk, read from the story file
+    private int currentChunkIndex = 0;   // index of CURRENT sentence
+    private boolean isPaused = false;
+    private boolean playingRecording = false;
+
+    public StoryTimeViewModel(@NonNull Application application) {
+        super(application);
+        narration = new NarrationPipeline(application, this);
+        recordingPlayer = new RecordingPlayer(this);
+        recorder = StoryRecorder.getInstance(application);
+        audioManager = (AudioManager) application.getSystemService(Context.AUDIO_SERVICE);
+        afChangeListener = focusChange -> {
+            if (focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT
+                    || focusChange == AudioManager.AUDIOFOCUS_LOSS_TRANSIENT_CAN_DUCK) {
+                if (pause() && listener != null) listener.onAudioFocusLost(true);
+            } else if (focusChange == AudioManager.AUDIOFOCUS_LOSS) {
+                stop();
+                if (listener != null) listener.onAudioFocusLost(false);
+            }
+        };
+    }
+
+    // The activity on screen; null when it goes away
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public int getTtsState() {
+        return ttsState;
+    }
+
+    public boolean isUnavailable() {
+        return narration.isUnavailable();
+    }
+
+    public StoryLibrary.Story getStory() {
+        return story;
+    }
+
+    // Sentences of the open story, or null
+    public StoryText getText() {
+        return chunks;
+    }
+
+    public int getCurrentIndex() {
+        return currentChunkIndex;
+    }
+
+    public boolean isPaused() {
+        return isPaused;
+    }
+
+    // ---------- Story selection ----------
+
+    /** Stops playback and opens a story; its sentences arrive in batches (listener.onSentencesAdded). */
+    public void selectStory(StoryLibrary.Story selected) throws IOException {
+        abandonAudioFocus();
+        closeStory();
+        currentChunkIndex = 0;
+        isPaused = false;
+        playingRecording = false;
+
+        // Sentences are found in the background (or read from the cached index) and arrive in batches
+        chunks = StoryLibrary.getInstance(getApplication()).open(selected, text -> {
+            if (text != chunks) return;
+            narration.onSentencesAdded(text.isComplete());
+            if (listener != null) listener.onSentencesAdded(text);
+        });
+        story = selected;
+        narration.setStory(chunks, false);
+    }
+
+    private void closeStory() {
+        if (chunks == null) return;
+        recordingPlayer.close();
+        narration.setStory(new ArrayList<>());
+        try {
+            chunks.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close story.", e);
+        }
+        chunks = null;
+        story = null;
+    }
+
+    // ---------- Playback ----------
+
+    /**
+     * Plays from a sentence, from saved audio if there is a recording for these voice settings.
+     * resume continues paused saved audio mid-sentence (narration replays the sentence from its
+     * start). False if audio focus was refused.
+     */
+    public boolean play(int from, boolean resume, float rate, float pitch) {
+        int result = audioManager.requestAudioFocus(
+                afChangeListener,
+                AudioManager.STREAM_MUSIC,
+                AudioManager.AUDIOFOCUS_GAIN_TRANSIENT_MAY_DUCK
+        );
+        if (result != AudioManager.AUDIOFOCUS_REQUEST_GRANTED) return false;
+
+        isPaused = false;
+        currentChunkIndex = from;
+
+        // Saved audio for these settings: plain media playback, no TTS
+        StoryRecorder.Recording recording = recorder.find(story, rate, pitch);
+        if (recording != null && recordingPlayer.open(recording)) {
+            if (resume && playingRecording) {
+                recordingPlayer.resume();
+            } else {
+                narration.stop();
+                playingRecording = true;
+                recordingPlayer.play(from);
+            }
+            return true;
+        }
+
+        if (playingRecording) {
+            recordingPlayer.close();
+            playingRecording = false;
+        }
+        narration.setVoice(rate, pitch);
+        narration.play(from);
+        return true;
+    }
+
+    // Pauses at the current sentence; false if nothing was playing
+    public boolean pause() {
+        if (isPaused || chunks == null || currentChunkIndex >= chunks.size()) return false;
+        if (!(playingRecording ? recordingPlayer.isPlaying() : narration.isPlaying())) return false;
+        isPaused = true;
+        // IMPORTANT: do NOT change currentChunkIndex.
+        // It still points to the current sentence,
+        // which we will replay from the start on resume.
+        if (playingRecording) {
+            recordingPlayer.pause();
+        } else {
+            narration.pause();
+        }
+        return true;
+    }
+
+    public void stop() {
+        isPaused = false;
+        currentChunkIndex = 0;
+        narration.stop();
+        recordingPlayer.stop();
+        abandonAudioFocus();
+    }
+
+    private void abandonAudioFocus() {
+        audioManager.abandonAudioFocus(afChangeListener);
+    }
+
+    // ---------- Process death ----------
+
+    public StoryTimeState snapshot() {
+        return story == null ? null : new StoryTimeState(story.getId(), currentChunkIndex, isPaused);
+    }
+
+    /**
+     * After the process was killed: reopens the saved story, paused at the saved sentence so Play
+     * resumes there. False if the story is gone.
+     */
+    public boolean restore(StoryTimeState state) {
+        for (StoryLibrary.Story s : StoryLibrary.getInstance(getApplication()).getStories()) {
+            if (!s.getId().equals(state.storyId)) continue;
+            try {
+                selectStory(s);
+            } catch (IOException e) {
+                Log.e(TAG, "Could not reopen story " + s.getId(), e);
+                return false;
+            }
+            currentChunkIndex = Math.max(0, state.chunkIndex);
+            isPaused = state.paused || currentChunkIndex > 0;
+            return true;
+        }
+        return false;
+    }
+
+    // ---------- Narration events ----------
+
+    @Override
+    public void onReady() {
+        ttsState = TTS_READY;
+        if (listener != null) listener.onReady();
+    }
+
+    @Override
+    public void onUnavailable() {
+        ttsState = TTS_UNAVAILABLE;
+        if (listener != null) listener.onUnavailable();
+    }
+
+    @Override
+    public void onSentenceStart(int index) {
+        currentChunkIndex = index;
+        if (listener != null) listener.onSentenceStart(index);
+    }
+
+    @Override
+    public void onWordStart(int index, int start, int end) {
+        if (listener != null) listener.onWordStart(index, start, end);
+    }
+
+    @Override
+    public void onSentenceError(int index) {
+        if (listener != null) listener.onSentenceError(index);
+    }
+
+    @Override
+    public void onFinished() {
+        abandonAudioFocus();
+        currentChunkIndex = 0;
+        isPaused = false;
+        if (listener != null) listener.onFinished();
+    }
+
+    // Only when the activity is finishing for good: stops playback and deletes the rendered sentences
+    @Override
+    protected void onCleared() {
+        closeStory();
+        narration.release();
+        recordingPlayer.close();
+        abandonAudioFocus();
+    }
+}
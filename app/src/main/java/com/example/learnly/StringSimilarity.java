@@ -0,0 +1,101 @@
+package com.example.learnly;
+
+/**
+ * Edit distance and a 0-100 similarity score between short strings, used to grade what the speech
+ * recognizer heard against the word on screen.
+ *
+ * A first string of up to 64 chars uses Myers' bit-parallel algorithm (Hyyrö's form for
+ * Levenshtein distance): a column of the distance matrix is two longs, updated once per char of
+ * the second string, and nothing is allocated. Longer strings fall back to the two-row table.
+ * An instance reuses its match table, so use one per thread.
+ */
+public class StringSimilarity {
+
+    private static final int TABLE_SIZE = 128;  // ASCII; other chars are matched by scanning
+
+    // Bit i of peq[c] is set when char i of the pattern is c; cleared again after each call
+    private final long[] peq = new long[TABLE_SIZE];
+
+    /** Levenshtein distance: the fewest single-char inserts, deletes and substitutions from a to b. */
+    public int distance(CharSequence a, CharSequence b) {
+        int m = a.length();
+        int n = b.length();
+        if (m == 0) return n;
+        if (n == 0) return m;
+        if (m > Long.SIZE) {
+            return n <= Long.SIZE ? distance(b, a) : rowDistance(a, b);
+        }
+
+        for (int i = 0; i < m; i++) {
+            char c = a.charAt(i);
+            if (c < TABLE_SIZE) peq[c] |= 1L << i;
+        }
+
+        // pv/mv: where the distance goes up/down by one between rows of the current column
+        long pv = -1L;
+        long mv = 0L;
+        long last = 1L << (m - 1);
+        int score = m;
+        for (int j = 0; j < n; j++) {
+            long eq = matchMask(a, b.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            ph = (ph << 1) | 1L;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+
+        for (int i = 0; i < m; i++) {
+            char c = a.charAt(i);
+            if (c < TABLE_SIZE) peq[c] = 0L;
+        }
+        return score;
+    }
+
+    /** 100 for equal strings, 0 when every char differs: 1 - distance / longer length. */
+    public int similarity(CharSequence a, CharSequence b) {
+        int maxLen = Math.max(a.length(), b.length());
+        if (maxLen == 0) return 100;
+        if (a.length() == 0 || b.length() == 0) return 0;
+        int dist = distance(a, b);
+        return (int) Math.round(100.0 * (maxLen - dist) / maxLen);
+    }
+
+    private long matchMask(CharSequence pattern, char c) {
+        if (c < TABLE_SIZE) return peq[c];
+        long mask = 0L;
+        for (int i = 0; i < pattern.length(); i++) {
+            if (pattern.charAt(i) == c) mask |= 1L << i;
+        }
+        return mask;
+    }
+
+    // Classic dynamic programme keeping two rows; only for strings longer than 64 chars
+    private static int rowDistance(CharSequence a, CharSequence b) {
+        int n = b.length();
+        int[] prev = new int[n + 1];
+        int[] cur = new int[n + 1];
+        for (int j = 0; j <= n; j++) prev[j] = j;
+
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                int cost = (ca == b.charAt(j - 1)) ? 0 : 1;
+                cur[j] = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+            }
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[n];
+    }
+}
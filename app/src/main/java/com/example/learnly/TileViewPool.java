@@ -0,0 +1,100 @@
+package com.example.learnly;
+
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+
+/**
+ * Keeps a fixed set of letter tiles attached to a container and updates them in place.
+ *
+ * Tiles are created once (on the first word that needs that many) and then reused: rendering a
+ * board only changes the text of tiles whose letter differs from last time and hides tiles past
+ * the current count. Steady-state taps therefore allocate no views, layout params or listeners,
+ * and all changes are picked up by the next single layout pass.
+ */
+class TileViewPool {
+
+    // Shown in a tile that has no letter (an empty answer slot)
+    static final char EMPTY = 0;
+
+    // Creates the tile for a position; the same click listener is shared by every tile
+    interface TileFactory {
+        TextView createTile(int index, View.OnClickListener onClick);
+    }
+
+    // Receives taps with the position of the tile that was tapped
+    interface OnTileClickListener {
+        void onTileClick(int index);
+    }
+
+    private static final String[] LETTER_TEXT = new String[128];
+    private static final String EMPTY_TEXT = "_";
+
+    static {
+        for (char c = 0; c < LETTER_TEXT.length; c++) {
+            LETTER_TEXT[c] = String.valueOf(c);
+        }
+    }
+
+    private final ViewGroup container;
+    private final TileFactory factory;
+    private final ArrayList<TextView> tiles = new ArrayList<>();
+    private char[] shown = new char[8];
+    private int visibleCount = 0;
+
+    private final View.OnClickListener onClick;
+
+    TileViewPool(ViewGroup container, TileFactory factory, final OnTileClickListener listener) {
+        this.container = container;
+        this.factory = factory;
+        this.onClick = new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Object index = v.getTag();
+                if (index instanceof Integer) listener.onTileClick((Integer) index);
+            }
+        };
+        container.removeAllViews();
+    }
+
+    // Shows exactly `count` tiles; call bind() for each of them afterwards
+    void setCount(int count) {
+        while (tiles.size() < count) {
+            int index = tiles.size();
+            TextView tile = factory.createTile(index, onClick);
+            tile.setTag(index);
+            tile.setText(EMPTY_TEXT);
+            tiles.add(tile);
+            container.addView(tile);
+        }
+        if (shown.length < tiles.size()) {
+            char[] grown = new char[Math.max(tiles.size(), shown.length * 2)];
+            System.arraycopy(shown, 0, grown, 0, shown.length);
+            shown = grown;
+        }
+        for (int i = 0; i < tiles.size(); i++) {
+            int visibility = i < count ? View.VISIBLE : View.GONE;
+            TextView tile = tiles.get(i);
+            if (tile.getVisibility() != visibility) tile.setVisibility(visibility);
+        }
+        visibleCount = count;
+    }
+
+    // Sets the letter of one visible tile, touching the view only if it changed
+    void bind(int index, char letter) {
+        if (index >= visibleCount || shown[index] == letter) return;
+        shown[index] = letter;
+        tiles.get(index).setText(textFor(letter));
+    }
+
+    int getCount() {
+        return visibleCount;
+    }
+
+    private static String textFor(char letter) {
+        if (letter == EMPTY) return EMPTY_TEXT;
+        return letter < LETTER_TEXT.length ? LETTER_TEXT[letter] : String.valueOf(letter);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Process-wide, offline-first view of the signed-in user's settings (childName and miniApps).
+ * The last-known UserSnapshot is read synchronously from disk at cold start, so every screen can
+ * render with zero network. Firebase listeners on the settings children refresh it in the background,
+ * and those children are kept synced in Firebase's own disk cache.
+ */
+public class UserSettingsRepository {
+
+    private static final String TAG = "UserSettingsRepo";
+
+    // Children of users/<uid> that make up the settings subtree kept on disk by Firebase
+    private static final String[] SETTINGS_CHILDREN = {
+            "childName", "miniApps", "parentEmail", "weeklyReportEnabled"
+    };
+
+    // Notified on the main thread whenever a fresh childName or miniApps value has been applied
+    public interface OnSettingsChangedListener {
+        void onSettingsChanged(UserSettingsRepository repository);
+    }
+
+    private static UserSettingsRepository instance;
+
+    private final UserSnapshotStore store;
+    private final List<OnSettingsChangedListener> listeners = new ArrayList<>();
+    private UserSnapshot snapshot;
+
+    private DatabaseReference userRef;
+    private ValueEventListener childNameListener;
+    private ValueEventListener miniAppsListener;
+    private int refreshSpan = -1;
+
+    public static synchronized UserSettingsRepository getInstance(Context context) {
+        if (instance == null) {
+            instance = new UserSettingsRepository(new SharedPreferencesSnapshotStore(context));
+        }
+        return instance;
+    }
+
+    // Package-private so tests can run against an InMemorySnapshotStore
+    UserSettingsRepository(UserSnapshotStore store) {
+        this.store = store;
+        this.snapshot = store.load();
+    }
+
+    // Returns the last-known settings for an app right away (enabled / Easy if never seen)
+    @NonNull
+    public synchronized MiniAppSettings getSettings(MiniApp app) {
+        return snapshot != null ? snapshot.getSettings(app) : MiniAppSettings.DEFAULT;
+    }
+
+    // Returns the last-known child name, or null if none has been saved yet
+    public synchronized String getChildName() {
+        return snapshot != null ? snapshot.getChildName() : null;
+    }
+
+    public synchronized void addListener(OnSettingsChangedListener listener) {
+        if (!listeners.contains(listener)) listeners.add(listener);
+    }
+
+    public synchronized void removeListener(OnSettingsChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    // Points the cache at the signed-in user and keeps it refreshed in the background
+    public synchronized void bindUser(@NonNull String uid) {
+        if (userRef != null && snapshot != null && uid.equals(snapshot.getUserId())) return;
+
+        if (snapshot == null || !uid.equals(snapshot.getUserId())) {
+            // Different account on this device: never hand out another child's settings
+            snapshot = UserSnapshot.empty(uid);
+            store.save(snapshot);
+        }
+
+        detachListeners();
+        refreshSpan = StartupTrace.begin("settings.refresh");
+        userRef = FirebaseDatabase.getInstance().getReference("users").child(uid);
+        for (String child : SETTINGS_CHILDREN) {
+            userRef.child(child).keepSynced(true);
+        }
+
+        childNameListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot data) {
+                applyChildName(data.getValue(String.class));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Background refresh of child name failed, keeping cached value.",
+                        error.toException());
+            }
+        };
+        miniAppsListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot data) {
+                applyMiniApps(data.getValue());
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Background refresh of mini-app settings failed, keeping cached values.",
+                        error.toException());
+            }
+        };
+        userRef.child("childName").addValueEventListener(childNameListener);
+        userRef.child("miniApps").addValueEventListener(miniAppsListener);
+    }
+
+    // Stops the background refresh and forgets the cached settings (used on sign out)
+    public synchronized void unbindUser() {
+        if (userRef != null) {
+            for (String child : SETTINGS_CHILDREN) {
+                userRef.child(child).keepSynced(false);
+            }
+        }
+        detachListeners();
+        snapshot = null;
+        store.clear();
+    }
+
+    private void detachListeners() {
+        if (userRef != null) {
+            if (childNameListener != null) userRef.child("childName").removeEventListener(childNameListener);
+            if (miniAppsListener != null) userRef.child("miniApps").removeEventListener(miniAppsListener);
+        }
+        userRef = null;
+        childNameListener = null;
+        miniAppsListener = null;
+    }
+
+    // Applies a fresh users/<uid>/childName value
+    void applyChildName(String childName) {
+        synchronized (this) {
+            if (snapshot == null) return;
+            snapshot = snapshot.withChildName(childName);
+            store.save(snapshot);
+        }
+        notifyListeners();
+    }
+
+    // Applies a fresh users/<uid>/miniApps value (the raw DataSnapshot.getValue() map)
+    void applyMiniApps(Object rawMiniApps) {
+        synchronized (this) {
+            if (snapshot == null) return;
+            snapshot = snapshot.withMiniApps(UserSnapshot.parseMiniApps(rawMiniApps));
+            store.save(snapshot);
+            StartupTrace.end(refreshSpan); // first fresh value after bindUser
+            refreshSpan = -1;
+            Log.d(TAG, "Mini-app settings refreshed: " + snapshot.getMiniApps().size() + " apps.");
+        }
+        notifyListeners();
+    }
+
+    private void notifyListeners() {
+        List<OnSettingsChangedListener> toNotify;
+        synchronized (this) {
+            toNotify = new ArrayList<>(listeners);
+        }
+        for (OnSettingsChangedListener listener : toNotify) {
+            listener.onSettingsChanged(this);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.learnly;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Last-known state of one signed-in user: the child's name and the per-app parental settings.
+ * Plain Java so it can be rebuilt from Firebase values or from disk, and unit tested off-device.
+ */
+public class UserSnapshot {
+
+    private final String userId;
+    private final String childName;
+    private final Map<MiniApp, MiniAppSettings> miniApps;
+
+    public UserSnapshot(String userId, String childName, Map<MiniApp, MiniAppSettings> miniApps) {
+        this.userId = userId;
+        this.childName = childName;
+        EnumMap<MiniApp, MiniAppSettings> copy = new EnumMap<>(MiniApp.class);
+        copy.putAll(miniApps);
+        this.miniApps = Collections.unmodifiableMap(copy);
+    }
+
+    // A snapshot with nothing known yet: no name, every app enabled on Easy
+    public static UserSnapshot empty(String userId) {
+        return new UserSnapshot(userId, null, Collections.<MiniApp, MiniAppSettings>emptyMap());
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getChildName() {
+        return childName;
+    }
+
+    public Map<MiniApp, MiniAppSettings> getMiniApps() {
+        return miniApps;
+    }
+
+    // Settings for one app, or the defaults if the parent never saved any
+    public MiniAppSettings getSettings(MiniApp app) {
+        MiniAppSettings settings = miniApps.get(app);
+        return settings != null ? settings : MiniAppSettings.DEFAULT;
+    }
+
+    public UserSnapshot withChildName(String newChildName) {
+        return new UserSnapshot(userId, newChildName, miniApps);
+    }
+
+    public UserSnapshot withMiniApps(Map<MiniApp, MiniAppSettings> newMiniApps) {
+        return new UserSnapshot(userId, childName, newMiniApps);
+    }
+
+    /**
+     * Parses users/<uid>/miniApps as returned by DataSnapshot.getValue().
+     * Anything that is not a known app node (e.g. a stray scalar or a retired key) is skipped.
+     */
+    public static Map<MiniApp, MiniAppSettings> parseMiniApps(Object rawValue) {
+        Map<MiniApp, MiniAppSettings> out = new EnumMap<>(MiniApp.class);
+        if (!(rawValue instanceof Map)) return out;
+
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) rawValue).entrySet()) {
+            if (!(entry.getKey() instanceof String) || !(entry.getValue() instanceof Map)) continue;
+            MiniApp miniApp = MiniApp.fromId((String) entry.getKey());
+            if (miniApp == null) continue;
+
+            Map<?, ?> app = (Map<?, ?>) entry.getValue();
+            Object enabled = app.get("enabled");
+            Object difficulty = app.get("difficulty");
+            out.put(miniApp, new MiniAppSettings(
+                    !(enabled instanceof Boolean) || (Boolean) enabled,
+                    difficulty instanceof String ? (String) difficulty : null));
+        }
+        return out;
+    }
+}
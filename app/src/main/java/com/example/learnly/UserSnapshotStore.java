@@ -0,0 +1,12 @@
+package com.example.learnly;
+
+// Where the last-known UserSnapshot lives between process starts
+public interface UserSnapshotStore {
+
+    // Reads the saved snapshot synchronously, or null if nothing has been saved
+    UserSnapshot load();
+
+    void save(UserSnapshot snapshot);
+
+    void clear();
+}
@@ -0,0 +1,101 @@
+package com.example.learnly;
+
+/**
+ * Seven-day summary built from the WeeklyReportEngine's per-day aggregates.
+ * Plain Java, immutable once built.
+ */
+public class WeeklyReport {
+
+    // Totals for one mini-app over the week
+    public static class AppTotals {
+        private final MiniApp app;
+        private final int attempts;
+        private final int correct;
+        private final int secondsOnTask;
+        private final int hints;
+
+        public AppTotals(MiniApp app, int attempts, int correct, int secondsOnTask, int hints) {
+            this.app = app;
+            this.attempts = attempts;
+            this.correct = correct;
+            this.secondsOnTask = secondsOnTask;
+            this.hints = hints;
+        }
+
+        public MiniApp getApp() {
+            return app;
+        }
+
+        public int getAttempts() {
+            return attempts;
+        }
+
+        public int getCorrect() {
+            return correct;
+        }
+
+        public int getSecondsOnTask() {
+            return secondsOnTask;
+        }
+
+        public int getHints() {
+            return hints;
+        }
+
+        // Percentage of attempts that were correct, or -1 if there were none
+        public int getAccuracyPercent() {
+            return attempts == 0 ? -1 : Math.round(correct * 100f / attempts);
+        }
+
+        public boolean hasActivity() {
+            return attempts > 0 || secondsOnTask > 0 || hints > 0;
+        }
+    }
+
+    private final long firstDay;
+    private final AppTotals[] apps;
+    private final int[] secondsPerDay;
+
+    // firstDay: local epoch day of secondsPerDay[0]; apps indexed by MiniApp ordinal
+    public WeeklyReport(long firstDay, AppTotals[] apps, int[] secondsPerDay) {
+        this.firstDay = firstDay;
+        this.apps = apps;
+        this.secondsPerDay = secondsPerDay;
+    }
+
+    public long getFirstDay() {
+        return firstDay;
+    }
+
+    public AppTotals getTotals(MiniApp app) {
+        return apps[app.ordinal()];
+    }
+
+    // Seconds spent in any game on the i-th day of the week (0 = oldest)
+    public int getSecondsOnDay(int i) {
+        return secondsPerDay[i];
+    }
+
+    public int getDayCount() {
+        return secondsPerDay.length;
+    }
+
+    public int getActiveDays() {
+        int active = 0;
+        for (int seconds : secondsPerDay) {
+            if (seconds > 0) active++;
+        }
+        return active;
+    }
+
+    public AppTotals getOverall() {
+        int attempts = 0, correct = 0, seconds = 0, hints = 0;
+        for (AppTotals totals : apps) {
+            attempts += totals.attempts;
+            correct += totals.correct;
+            seconds += totals.secondsOnTask;
+            hints += totals.hints;
+        }
+        return new AppTotals(null, attempts, correct, seconds, hints);
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.TimeZone;
+
+/**
+ * Rolling per-day, per-app aggregates (attempts, correct answers, time on task, hints) kept up to date
+ * one event at a time as the SessionEventLog writes them to disk. Building a WeeklyReport only reads
+ * 7 days x apps counters, however long the child's history is.
+ *
+ * Counters live in a fixed ring of {@link #RETAINED_DAYS} day slots, mirrored to a small file where
+ * each event rewrites just the slot it touched. Every child who signs in on the device has their own
+ * file (weekly_report_<uid>.bin); only events tagged with the bound user are counted, so records
+ * still in the log's buffer at sign-out never reach the next child's report.
+ */
+public class WeeklyReportEngine implements SessionEventLog.RecordVisitor {
+
+    private static final String TAG = "WeeklyReportEngine";
+
+    static final int RETAINED_DAYS = 400;
+    static final int DAYS_PER_REPORT = 7;
+
+    // Counters stored per (day, app)
+    private static final int ATTEMPTS = 0;
+    private static final int CORRECT = 1;
+    private static final int SECONDS = 2;
+    private static final int HINTS = 3;
+    private static final int FIELDS = 4;
+
+    private static final int MAGIC = 0x4C575231; // "LWR1"
+    private static final int HEADER_SIZE = 12;   // magic | retained days | app count
+    private static final int EMPTY_DAY = Integer.MIN_VALUE;
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static WeeklyReportEngine instance;
+
+    private final int appCount = MiniApp.values().length;
+    private final int slotSize = 4 + appCount * FIELDS * 4; // day | counters
+    private final int[] slotDay = new int[RETAINED_DAYS];
+    private final int[] counters = new int[RETAINED_DAYS * appCount * FIELDS];
+    private final ByteBuffer slotBuffer = ByteBuffer.allocate(slotSize);
+
+    private final File dir;
+    private final TimeZone timeZone;
+    private RandomAccessFile file;                    // null while nobody is signed in
+    private int userTag = SessionEventLog.NO_USER;
+
+    // The process-wide engine, keeping its files in the app's files directory
+    public static synchronized WeeklyReportEngine getInstance(Context context) {
+        if (instance == null) {
+            File dir = context.getApplicationContext().getFilesDir();
+            new File(dir, "weekly_report.bin").delete(); // shared by every user before per-user files
+            instance = new WeeklyReportEngine(dir, TimeZone.getDefault());
+        }
+        return instance;
+    }
+
+    WeeklyReportEngine(File dir, TimeZone timeZone) {
+        this.dir = dir;
+        this.timeZone = timeZone;
+        clearCounters();
+    }
+
+    // Opens (or creates) the aggregates of the signed-in user; false if their file can't be opened
+    public synchronized boolean bindUser(String uid) {
+        int tag = SessionEventLog.userTag(uid);
+        if (tag == userTag && file != null) return true;
+        unbindUser();
+        try {
+            file = new RandomAccessFile(new File(dir, "weekly_report_" + uid + ".bin"), "rw");
+            if (!load()) reset();
+            userTag = tag;
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to open weekly report aggregates.", e);
+            unbindUser();
+            return false;
+        }
+    }
+
+    // Closes the signed-in user's aggregates (sign out); their file stays for their next sign in
+    public synchronized void unbindUser() {
+        userTag = SessionEventLog.NO_USER;
+        clearCounters();
+        if (file == null) return;
+        try {
+            file.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to close weekly report aggregates.", e);
+        }
+        file = null;
+    }
+
+    // ---------- Incremental updates (SessionEventLog writer thread) ----------
+
+    @Override
+    public synchronized void visit(long offset, long timeMs, int type, int app, int flags, int value1, int value2,
+                                   int user) {
+        if (file == null || user != userTag) return;
+        if (app < 0 || app >= appCount) return;
+
+        int field;
+        int amount = 1;
+        switch (type) {
+            case SessionEventLog.TYPE_ANSWER:
+                field = ATTEMPTS;
+                break;
+            case SessionEventLog.TYPE_HINT:
+                field = HINTS;
+                break;
+            case SessionEventLog.TYPE_SESSION_END:
+                field = SECONDS;
+                amount = value1 / 1000;
+                break;
+            default:
+                return; // starts, solves and timeouts don't feed the report
+        }
+
+        int day = dayOf(timeMs);
+        int slot = Math.floorMod(day, RETAINED_DAYS);
+        if (slotDay[slot] != day) {
+            if (slotDay[slot] != EMPTY_DAY && slotDay[slot] > day) return; // older than the retained window
+            slotDay[slot] = day;
+            Arrays.fill(counters, index(slot, 0, 0), index(slot + 1, 0, 0), 0);
+        }
+
+        counters[index(slot, app, field)] += amount;
+        if (type == SessionEventLog.TYPE_ANSWER && (flags & SessionEventLog.FLAG_CORRECT) != 0) {
+            counters[index(slot, app, CORRECT)]++;
+        }
+        writeSlot(slot);
+    }
+
+    // ---------- Reads (any thread) ----------
+
+    // Summary of the 7 days ending today, O(days x apps)
+    public synchronized WeeklyReport buildReport(long nowMs) {
+        int today = dayOf(nowMs);
+        int firstDay = today - (DAYS_PER_REPORT - 1);
+        int[][] totals = new int[appCount][FIELDS];
+        int[] secondsPerDay = new int[DAYS_PER_REPORT];
+
+        for (int d = 0; d < DAYS_PER_REPORT; d++) {
+            int slot = Math.floorMod(firstDay + d, RETAINED_DAYS);
+            if (slotDay[slot] != firstDay + d) continue;
+            for (int app = 0; app < appCount; app++) {
+                for (int field = 0; field < FIELDS; field++) {
+                    totals[app][field] += counters[index(slot, app, field)];
+                }
+                secondsPerDay[d] += counters[index(slot, app, SECONDS)];
+            }
+        }
+
+        MiniApp[] apps = MiniApp.values();
+        WeeklyReport.AppTotals[] appTotals = new WeeklyReport.AppTotals[appCount];
+        for (int app = 0; app < appCount; app++) {
+            int[] t = totals[app];
+            appTotals[app] = new WeeklyReport.AppTotals(apps[app], t[ATTEMPTS], t[CORRECT], t[SECONDS], t[HINTS]);
+        }
+        return new WeeklyReport(firstDay, appTotals, secondsPerDay);
+    }
+
+    // ---------- Storage ----------
+
+    private int index(int slot, int app, int field) {
+        return (slot * appCount + app) * FIELDS + field;
+    }
+
+    // Local calendar day, so "Monday" means the parent's Monday
+    private int dayOf(long timeMs) {
+        return (int) Math.floorDiv(timeMs + timeZone.getOffset(timeMs), DAY_MS);
+    }
+
+    // Reads every slot in one go; false if the file is missing or from another layout
+    private boolean load() throws IOException {
+        if (file.length() != HEADER_SIZE + (long) RETAINED_DAYS * slotSize) return false;
+
+        byte[] bytes = new byte[(int) file.length()];
+        file.seek(0);
+        file.readFully(bytes);
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        if (buf.getInt() != MAGIC || buf.getInt() != RETAINED_DAYS || buf.getInt() != appCount) return false;
+
+        for (int slot = 0; slot < RETAINED_DAYS; slot++) {
+            slotDay[slot] = buf.getInt();
+            for (int i = index(slot, 0, 0); i < index(slot + 1, 0, 0); i++) {
+                counters[i] = buf.getInt();
+            }
+        }
+        return true;
+    }
+
+    private void clearCounters() {
+        Arrays.fill(slotDay, EMPTY_DAY);
+        Arrays.fill(counters, 0);
+    }
+
+    private void reset() throws IOException {
+        clearCounters();
+
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + RETAINED_DAYS * slotSize);
+        buf.putInt(MAGIC).putInt(RETAINED_DAYS).putInt(appCount);
+        for (int slot = 0; slot < RETAINED_DAYS; slot++) {
+            buf.putInt(EMPTY_DAY);
+            buf.position(buf.position() + appCount * FIELDS * 4);
+        }
+        file.setLength(0);
+        file.seek(0);
+        file.write(buf.array());
+    }
+
+    private void writeSlot(int slot) {
+        slotBuffer.clear();
+        slotBuffer.putInt(slotDay[slot]);
+        for (int i = index(slot, 0, 0); i < index(slot + 1, 0, 0); i++) {
+            slotBuffer.putInt(counters[i]);
+        }
+        try {
+            file.seek(HEADER_SIZE + (long) slot * slotSize);
+            file.write(slotBuffer.array(), 0, slotSize);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to persist weekly report aggregates.", e);
+        }
+    }
+}
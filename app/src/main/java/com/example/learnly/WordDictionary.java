@@ -0,0 +1,198 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Child-appropriate word list as a DAWG (a trie with shared suffixes), memory-mapped from
+ * assets/dictionary.dawg.
+ *
+ * Each node is a run of 4-byte edges, so membership and prefix checks are a few int reads per
+ * letter with no decoding and no allocation. Spelling Time uses it to pick distractor letters for
+ * the bank that can't be combined with the word's letters into some other real word.
+ *
+ * Layout (big-endian), format version 1:
+ * <pre>
+ * header   magic "LDWG" | format version | word count | edge count
+ * edges    letter (bits 0-4, 'a' = 0) | ends a word (bit 5) | last edge of its node (bit 6)
+ *          | index of the child node's first edge (bits 7-31, 0 = no children)
+ * </pre>
+ * Edge 0 is unused so that 0 can mean "no children"; the root node starts at edge 1.
+ * Only a-z is stored; lookups ignore case.
+ */
+public class WordDictionary {
+
+    private static final String TAG = "WordDictionary";
+    static final String ASSET_NAME = "dictionary.dawg";
+
+    static final int MAGIC = 0x4C445747; // "LDWG"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 16;
+
+    static final int LETTER_MASK = 0x1F;
+    static final int END_OF_WORD = 1 << 5;
+    static final int LAST_EDGE = 1 << 6;
+    static final int CHILD_SHIFT = 7;
+    static final int ROOT = 1;
+
+    private static final int ALPHABET = 26;
+
+    private static WordDictionary instance;
+
+    private final IntBuffer edges;
+    private final int wordCount;
+
+    // Scratch for the anagram search; guarded by this
+    private final int[] available = new int[ALPHABET];
+    private final int[] inWord = new int[ALPHABET];
+    private final int[] candidates = new int[ALPHABET];
+
+    // Maps the dictionary from assets once per process
+    public static synchronized WordDictionary get(Context context) throws IOException {
+        if (instance == null) {
+            instance = new WordDictionary(ContentPack.map(context, ASSET_NAME));
+            Log.d(TAG, "Dictionary mapped: " + instance.wordCount + " words.");
+        }
+        return instance;
+    }
+
+    // Package-private so tests can read a dictionary from a plain ByteBuffer
+    WordDictionary(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a dictionary");
+        }
+        int formatVersion = buffer.getInt(4);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported dictionary format " + formatVersion);
+        }
+        wordCount = buffer.getInt(8);
+        int edgeCount = buffer.getInt(12);
+        if ((long) HEADER_SIZE + (long) edgeCount * 4 > buffer.capacity() || edgeCount <= ROOT) {
+            throw new IOException("Truncated dictionary");
+        }
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE);
+        body.limit(HEADER_SIZE + edgeCount * 4);
+        edges = body.slice().asIntBuffer();
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    // ---------- Lookups ----------
+
+    public boolean contains(CharSequence word) {
+        int edge = walk(word);
+        return edge > 0 && (edges.get(edge) & END_OF_WORD) != 0;
+    }
+
+    // True if some word starts with (or is) the given prefix
+    public boolean hasPrefix(CharSequence prefix) {
+        return prefix.length() == 0 || walk(prefix) > 0;
+    }
+
+    // The edge reached by the last letter of s, or -1 if s is not a path from the root
+    private int walk(CharSequence s) {
+        int node = ROOT;
+        int edge = -1;
+        for (int i = 0; i < s.length(); i++) {
+            if (node == 0) return -1;
+            int letter = letterIndex(s.charAt(i));
+            if (letter < 0) return -1;
+            edge = findEdge(node, letter);
+            if (edge < 0) return -1;
+            node = edges.get(edge) >>> CHILD_SHIFT;
+        }
+        return edge;
+    }
+
+    private int findEdge(int node, int letter) {
+        for (int e = node; ; e++) {
+            int value = edges.get(e);
+            if ((value & LETTER_MASK) == letter) return e;
+            if ((value & LAST_EDGE) != 0) return -1;
+        }
+    }
+
+    private static int letterIndex(char c) {
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        return -1;
+    }
+
+    // ---------- Distractors ----------
+
+    /**
+     * Picks up to maxCount extra letters for the bank of `word` such that no other dictionary word
+     * of the same length can be spelled from the word's letters plus the extras. (Anagrams of the
+     * word itself can't be ruled out by the bank and are allowed.) Letters already in the word are
+     * never picked. Extras are written upper-case to out; returns how many were picked.
+     */
+    public synchronized int pickDistractors(CharSequence word, int maxCount, Random rng, char[] out) {
+        int length = word.length();
+        Arrays.fill(inWord, 0);
+        for (int i = 0; i < length; i++) {
+            int letter = letterIndex(word.charAt(i));
+            if (letter < 0) return 0;
+            inWord[letter]++;
+        }
+        System.arraycopy(inWord, 0, available, 0, ALPHABET);
+
+        // Try letters in random order
+        int candidateCount = 0;
+        for (int letter = 0; letter < ALPHABET; letter++) {
+            if (inWord[letter] == 0) candidates[candidateCount++] = letter;
+        }
+        for (int i = candidateCount - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            int t = candidates[i];
+            candidates[i] = candidates[j];
+            candidates[j] = t;
+        }
+
+        int picked = 0;
+        for (int i = 0; i < candidateCount && picked < maxCount; i++) {
+            int letter = candidates[i];
+            available[letter]++;
+            if (canSpellOtherWord(ROOT, length, 0)) {
+                available[letter]--;
+            } else {
+                out[picked++] = (char) ('A' + letter);
+            }
+        }
+        return picked;
+    }
+
+    /**
+     * True if a word of exactly `remaining` more letters can be spelled from `available` starting
+     * at node and uses at least one of the extra letters (`extra` counts those used so far).
+     */
+    private boolean canSpellOtherWord(int node, int remaining, int extra) {
+        if (node == 0) return false;
+        for (int e = node; ; e++) {
+            int value = edges.get(e);
+            int letter = value & LETTER_MASK;
+            if (available[letter] > 0) {
+                available[letter]--;
+                // Extras are never letters of the word, so any letter outside it is an extra
+                int usedExtra = extra + (inWord[letter] == 0 ? 1 : 0);
+                boolean found;
+                if (remaining == 1) {
+                    found = (value & END_OF_WORD) != 0 && usedExtra > 0;
+                } else {
+                    found = canSpellOtherWord(value >>> CHILD_SHIFT, remaining - 1, usedExtra);
+                }
+                available[letter]++;
+                if (found) return true;
+            }
+            if ((value & LAST_EDGE) != 0) return false;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.learnly;
+
+import android.content.Context;
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
+import com.google.firebase.database.ValueEventListener;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the signed-in child's WordScheduler on disk and in Firebase.
+ *
+ * The schedule is read from a small per-child file the first time a game asks for it, then merged
+ * with the copy in wordSchedules/<uid> when that arrives (the more recently reviewed state of
+ * each word wins, so two tablets can be used in turn). save() encodes on the calling thread, which
+ * is cheap, and writes the file in the background. The upload is a transaction that applies the
+ * same per-word merge to the cloud copy, so a tablet that saves before its fetch arrived (offline,
+ * or from a stale cache) never erases reviews another tablet already synced.
+ *
+ * The schedule grows with every word practised, so like session events it lives outside
+ * users/<uid>: reading a user's settings never downloads it.
+ */
+public class WordScheduleStore {
+
+    private static final String TAG = "WordScheduleStore";
+
+    private static WordScheduleStore instance;
+
+    private final File dir;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    private String userId;
+    private WordScheduler scheduler;
+    private boolean uploadPending;   // the last upload failed; retry on the next save
+
+    public static synchronized WordScheduleStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new WordScheduleStore(context.getApplicationContext().getFilesDir());
+        }
+        return instance;
+    }
+
+    private WordScheduleStore(File dir) {
+        this.dir = dir;
+    }
+
+    private File fileFor(String uid) {
+        return new File(dir, "word_schedule_" + uid + ".bin");
+    }
+
+    private DatabaseReference remoteFor(String uid) {
+        return FirebaseDatabase.getInstance().getReference("wordSchedules").child(uid);
+    }
+
+    // The schedule of the given child, loaded on first use (main thread)
+    @NonNull
+    public WordScheduler get(@NonNull String uid) {
+        if (scheduler != null && uid.equals(userId)) return scheduler;
+
+        userId = uid;
+        uploadPending = false;
+        scheduler = new WordScheduler(new Random());
+        File file = fileFor(uid);
+        if (file.exists()) {
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                byte[] data = new byte[(int) in.length()];
+                in.readFully(data);
+                scheduler.merge(data);
+            } catch (IOException e) {
+                Log.w(TAG, "Ignoring unreadable word schedule.", e);
+            }
+        }
+        fetchRemote(uid);
+        return scheduler;
+    }
+
+    private void fetchRemote(final String uid) {
+        remoteFor(uid).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot data) {
+                String encoded = data.child("data").getValue(String.class);
+                if (encoded == null || scheduler == null || !uid.equals(userId)) return;
+                try {
+                    scheduler.merge(Base64.decode(encoded, Base64.NO_WRAP));
+                    Log.d(TAG, "Merged word schedule from the cloud.");
+                } catch (IOException | IllegalArgumentException e) {
+                    Log.w(TAG, "Ignoring malformed word schedule from the cloud.", e);
+                }
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                Log.w(TAG, "Could not fetch the word schedule, using the local copy.", error.toException());
+            }
+        });
+    }
+
+    // Persists and uploads the schedule if any word was graded since the last save (main thread)
+    public void save() {
+        if (scheduler == null || !(scheduler.isDirty() || uploadPending)) return;
+        final String uid = userId;
+        final byte[] data = scheduler.encode(System.currentTimeMillis());
+
+        writer.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Write to a temp file and rename so a crash never leaves a half-written schedule
+                File file = fileFor(uid);
+                File temp = new File(dir, file.getName() + ".tmp");
+                try (FileOutputStream out = new FileOutputStream(temp)) {
+                    out.write(data);
+                    out.getFD().sync();
+                } catch (IOException e) {
+                    Log.e(TAG, "Failed to save the word schedule.", e);
+                    return;
+                }
+                if (!temp.renameTo(file)) Log.e(TAG, "Failed to replace the word schedule file.");
+            }
+        });
+
+        upload(uid, data);
+    }
+
+    // Merges this device's schedule into the cloud copy word by word, inside a transaction
+    private void upload(final String uid, final byte[] data) {
+        uploadPending = false;
+        remoteFor(uid).runTransaction(new Transaction.Handler() {
+            @NonNull
+            @Override
+            public Transaction.Result doTransaction(@NonNull MutableData current) {
+                // Runs on Firebase's thread, maybe several times: only the encoded bytes are touched
+                byte[] merged = data;
+                long savedAt = System.currentTimeMillis();
+                String encoded = current.child("data").getValue(String.class);
+                if (encoded != null) {
+                    try {
+                        merged = WordScheduler.combine(Base64.decode(encoded, Base64.NO_WRAP), data, savedAt);
+                    } catch (IOException | IllegalArgumentException e) {
+                        Log.w(TAG, "Replacing malformed word schedule in the cloud.", e);
+                    }
+                }
+                current.child("savedAt").setValue(savedAt);
+                current.child("data").setValue(Base64.encodeToString(merged, Base64.NO_WRAP));
+                return Transaction.success(current);
+            }
+
+            @Override
+            public void onComplete(@Nullable DatabaseError error, boolean committed,
+                                   @Nullable DataSnapshot result) {
+                if (!committed) {
+                    Log.w(TAG, "Word schedule upload failed, will retry on the next save.",
+                            error != null ? error.toException() : null);
+                    if (uid.equals(userId)) uploadPending = true;
+                    return;
+                }
+                // Pick up the other tablets' reviews that came with the merge
+                String encoded = result != null ? result.child("data").getValue(String.class) : null;
+                if (encoded == null || scheduler == null || !uid.equals(userId)) return;
+                try {
+                    scheduler.merge(Base64.decode(encoded, Base64.NO_WRAP));
+                } catch (IOException | IllegalArgumentException e) {
+                    Log.w(TAG, "Ignoring malformed word schedule from the cloud.", e);
+                }
+            }
+        });
+    }
+
+    // Saves and forgets the current child's schedule (sign out)
+    public void unbindUser() {
+        save();
+        userId = null;
+        scheduler = null;
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.learnly;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Spaced-repetition order for the words of the spelling and reading games (one child).
+ *
+ * Each word carries SM-2 state (repetitions, ease, interval) and a due time. Every (game, tier) pool
+ * is a priority queue on due time, so picking the next word and putting it back after grading are
+ * O(log n) however large the pool grows. The word on screen is out of its queue, so it never comes
+ * straight back; a missed word returns after {@link #RELEARN_MS}, and new words are staggered so
+ * that missed ones get mixed in between them. If nothing is due yet the soonest word is used.
+ *
+ * Plain Java so it can be tested without Android; WordScheduleStore persists and syncs it.
+ * Not thread-safe: used from the main thread.
+ */
+public class WordScheduler {
+
+    // Grades (SM-2 quality, 0-5)
+    public static final int GRADE_AGAIN = 1;
+    public static final int GRADE_HARD = 3;
+    public static final int GRADE_GOOD = 4;
+    public static final int GRADE_EASY = 5;
+
+    static final long MINUTE_MS = 60_000L;
+    static final long DAY_MS = 24 * 60 * MINUTE_MS;
+    static final long RELEARN_MS = 2 * MINUTE_MS;
+    static final long NEW_WORD_SPACING_MS = 30_000L;
+
+    private static final int DEFAULT_EASE = 250; // x100
+    private static final int MIN_EASE = 130;
+    private static final long MAX_INTERVAL_MS = 365 * DAY_MS;
+
+    private static final int MAGIC = 0x4C575331; // "LWS1"
+    private static final int FORMAT_VERSION = 1;
+
+    /** One word's review state. */
+    public static final class Item {
+        final int game;
+        final int tier;
+        final String word;
+        int entry = -1;       // content pack entry, -1 until its pool is loaded
+        int repetitions;
+        int lapses;
+        int ease = DEFAULT_EASE;
+        long intervalMs;
+        long dueMs;
+        long reviewedMs;      // 0 = never reviewed
+        int order;            // tie-breaker among equal due times
+
+        Item(int game, int tier, String word) {
+            this.game = game;
+            this.tier = tier;
+            this.word = word;
+        }
+
+        public int getEntry() {
+            return entry;
+        }
+
+        public String getWord() {
+            return word;
+        }
+
+        public int getRepetitions() {
+            return repetitions;
+        }
+
+        public long getDueMs() {
+            return dueMs;
+        }
+    }
+
+    // Word list of a pool, e.g. read from the content pack
+    public interface PoolSource {
+        int size();
+
+        int entry(int n);
+
+        String word(int entry);
+    }
+
+    private static final Comparator<Item> BY_DUE = new Comparator<Item>() {
+        @Override
+        public int compare(Item a, Item b) {
+            if (a.dueMs != b.dueMs) return a.dueMs < b.dueMs ? -1 : 1;
+            return Integer.compare(a.order, b.order);
+        }
+    };
+
+    private final Random rng;
+    private final Map<String, Item> items = new HashMap<>();
+    private final Map<Integer, PriorityQueue<Item>> queues = new HashMap<>();
+    private long savedAt;
+    private boolean dirty;
+
+    public WordScheduler(Random rng) {
+        this.rng = rng;
+    }
+
+    private static String key(int game, int tier, String word) {
+        return game + ":" + tier + ":" + word;
+    }
+
+    private static int poolKey(int game, int tier) {
+        return game * 256 + tier;
+    }
+
+    // ---------- Pools ----------
+
+    /**
+     * Loads the words of a pool (once per pool; later calls are a map lookup). Words never seen
+     * before are added as new, in random order, due from nowMs onwards.
+     */
+    public void ensurePool(int game, int tier, PoolSource source, long nowMs) {
+        if (queues.containsKey(poolKey(game, tier))) return;
+
+        int size = source.size();
+        List<Item> pool = new ArrayList<>(size);
+        List<Item> fresh = new ArrayList<>();
+        for (int n = 0; n < size; n++) {
+            int entry = source.entry(n);
+            String word = source.word(entry);
+            String key = key(game, tier, word);
+            Item item = items.get(key);
+            if (item == null) {
+                item = new Item(game, tier, word);
+                items.put(key, item);
+                fresh.add(item);
+            }
+            item.entry = entry;
+            pool.add(item);
+        }
+
+        // New words: random order, spaced out so relearned words interleave with them
+        for (int i = fresh.size() - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            Item t = fresh.get(i);
+            fresh.set(i, fresh.get(j));
+            fresh.set(j, t);
+        }
+        for (int i = 0; i < fresh.size(); i++) {
+            Item item = fresh.get(i);
+            item.dueMs = nowMs + i * NEW_WORD_SPACING_MS;
+            item.order = i;
+        }
+
+        PriorityQueue<Item> queue = new PriorityQueue<>(Math.max(1, pool.size()), BY_DUE);
+        queue.addAll(pool);
+        queues.put(poolKey(game, tier), queue);
+    }
+
+    /**
+     * Takes the next word of a pool off its queue: the most overdue one, or the soonest due.
+     * Return it with {@link #grade} (or {@link #skip}). Null if the pool is empty.
+     */
+    public Item next(int game, int tier) {
+        PriorityQueue<Item> queue = queues.get(poolKey(game, tier));
+        return queue == null ? null : queue.poll();
+    }
+
+    /**
+     * Takes one particular word off its pool's queue, as next() would (e.g. to put back the word
+     * that was on screen before the process was killed). Null if it isn't queued.
+     */
+    public Item take(int game, int tier, int entry) {
+        PriorityQueue<Item> queue = queues.get(poolKey(game, tier));
+        if (queue == null) return null;
+        for (Item item : queue) {
+            if (item.entry == entry) {
+                queue.remove(item);
+                return item;
+            }
+        }
+        return null;
+    }
+
+    // Number of words in a pool that are due at nowMs (O(n); for reports and tests)
+    public int dueCount(int game, int tier, long nowMs) {
+        PriorityQueue<Item> queue = queues.get(poolKey(game, tier));
+        if (queue == null) return 0;
+        int count = 0;
+        for (Item item : queue) {
+            if (item.dueMs <= nowMs) count++;
+        }
+        return count;
+    }
+
+    // ---------- Grading ----------
+
+    /** Records how the child did on an item from next() and puts it back in its queue. */
+    public void grade(Item item, int quality, long nowMs) {
+        quality = Math.max(0, Math.min(5, quality));
+        if (quality < 3) {
+            item.repetitions = 0;
+            item.lapses = Math.min(255, item.lapses + 1);
+            item.intervalMs = RELEARN_MS;
+        } else {
+            item.repetitions = Math.min(255, item.repetitions + 1);
+            if (item.repetitions == 1) {
+                item.intervalMs = DAY_MS;
+            } else if (item.repetitions == 2) {
+                item.intervalMs = 6 * DAY_MS;
+            } else {
+                item.intervalMs = Math.min(MAX_INTERVAL_MS, item.intervalMs * item.ease / 100);
+            }
+        }
+        // SM-2 ease update: EF += 0.1 - (5 - q) * (0.08 + (5 - q) * 0.02)
+        int miss = 5 - quality;
+        item.ease = Math.max(MIN_EASE, item.ease + 10 - miss * (8 + miss * 2));
+
+        item.dueMs = nowMs + item.intervalMs;
+        item.reviewedMs = nowMs;
+        dirty = true;
+        requeue(item);
+    }
+
+    /** Puts an item from next() back without grading it (e.g. the game closed first). */
+    public void skip(Item item) {
+        requeue(item);
+    }
+
+    private void requeue(Item item) {
+        PriorityQueue<Item> queue = queues.get(poolKey(item.game, item.tier));
+        if (queue != null) queue.add(item);
+    }
+
+    // ---------- Persistence ----------
+
+    // True if there are grades that have not been encoded since the last call to encode()
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public long getSavedAt() {
+        return savedAt;
+    }
+
+    /**
+     * Compact binary form of every reviewed word (new words are not stored):
+     * magic | version | savedAt (long) | count, then per word
+     * game (u8) | tier (u8) | repetitions (u8) | lapses (u8) | ease (u16) | interval min (u32)
+     * | due min (u32) | reviewed min (u32) | word length (u8) | UTF-8 word
+     */
+    public byte[] encode(long nowMs) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            int count = 0;
+            for (Item item : items.values()) {
+                if (item.reviewedMs != 0) count++;
+            }
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(nowMs);
+            out.writeInt(count);
+            for (Item item : items.values()) {
+                if (item.reviewedMs == 0) continue;
+                byte[] word = item.word.getBytes(StandardCharsets.UTF_8);
+                out.writeByte(item.game);
+                out.writeByte(item.tier);
+                out.writeByte(item.repetitions);
+                out.writeByte(item.lapses);
+                out.writeShort(item.ease);
+                out.writeInt((int) (item.intervalMs / MINUTE_MS));
+                out.writeInt((int) (item.dueMs / MINUTE_MS));
+                out.writeInt((int) (item.reviewedMs / MINUTE_MS));
+                out.writeByte(Math.min(255, word.length));
+                out.write(word, 0, Math.min(255, word.length));
+            }
+            out.flush();
+            savedAt = nowMs;
+            dirty = false;
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // in-memory stream
+        }
+    }
+
+    /**
+     * Merges state encoded by encode() (from disk or another device): for each word the more
+     * recently reviewed copy wins. Pools already loaded are re-ordered. Throws on malformed data.
+     */
+    public void merge(byte[] data) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.getInt() != MAGIC) throw new IOException("Not a word schedule");
+            int version = in.getInt();
+            if (version != FORMAT_VERSION) throw new IOException("Unsupported word schedule format " + version);
+            long encodedAt = in.getLong();
+            int count = in.getInt();
+            boolean changed = false;
+            for (int i = 0; i < count; i++) {
+                int game = in.get() & 0xff;
+                int tier = in.get() & 0xff;
+                int repetitions = in.get() & 0xff;
+                int lapses = in.get() & 0xff;
+                int ease = in.getShort() & 0xffff;
+                long intervalMs = (in.getInt() & 0xffffffffL) * MINUTE_MS;
+                long dueMs = (in.getInt() & 0xffffffffL) * MINUTE_MS;
+                long reviewedMs = (in.getInt() & 0xffffffffL) * MINUTE_MS;
+                byte[] wordBytes = new byte[in.get() & 0xff];
+                in.get(wordBytes);
+                String word = new String(wordBytes, StandardCharsets.UTF_8);
+
+                String key = key(game, tier, word);
+                Item item = items.get(key);
+                if (item == null) {
+                    item = new Item(game, tier, word);
+                    items.put(key, item);
+                } else if (item.reviewedMs >= reviewedMs) {
+                    continue;
+                }
+                item.repetitions = repetitions;
+                item.lapses = lapses;
+                item.ease = Math.max(MIN_EASE, ease);
+                item.intervalMs = intervalMs;
+                item.dueMs = dueMs;
+                item.reviewedMs = reviewedMs;
+                changed = true;
+            }
+            savedAt = Math.max(savedAt, encodedAt);
+            if (changed) reorderQueues();
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Truncated word schedule", e);
+        }
+    }
+
+    /**
+     * Combines two encoded schedules without touching a live scheduler, keeping the more recently
+     * reviewed copy of each word (for merging with the cloud copy inside a transaction).
+     * Throws on malformed data.
+     */
+    public static byte[] combine(byte[] a, byte[] b, long nowMs) throws IOException {
+        WordScheduler combined = new WordScheduler(new Random());
+        combined.merge(a);
+        combined.merge(b);
+        return combined.encode(nowMs);
+    }
+
+    // Due times changed under the queues: rebuild each heap
+    private void reorderQueues() {
+        for (Map.Entry<Integer, PriorityQueue<Item>> e : queues.entrySet()) {
+            PriorityQueue<Item> rebuilt = new PriorityQueue<>(Math.max(1, e.getValue().size()), BY_DUE);
+            rebuilt.addAll(e.getValue());
+            e.setValue(rebuilt);
+        }
+    }
+}
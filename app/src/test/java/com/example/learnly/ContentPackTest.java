@@ -0,0 +1,84 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Content pack round trip through ContentPackWriter, and a check that the committed asset is current.
+ * Paths are relative to the app module directory, which is where Gradle runs unit tests.
+ */
+public class ContentPackTest {
+
+    private static ContentPack read(ContentPackWriter writer) throws IOException {
+        return new ContentPack(ByteBuffer.wrap(writer.toByteArray()));
+    }
+
+    @Test
+    public void lookups_byGameTierAndLength() throws Exception {
+        ContentPack pack = read(new ContentPackWriter()
+                .add(ContentPack.GAME_SPELLING, 0, "cat", "🐱", "A small pet that says meow.")
+                .add(ContentPack.GAME_SPELLING, 0, "frog", "🐸", "It hops and says ribbit.")
+                .add(ContentPack.GAME_SPELLING, 0, "dog", null, "A friendly pet that barks.")
+                .add(ContentPack.GAME_READING, 0, "cat", "🐱", "A small pet."));
+
+        assertEquals(4, pack.getEntryCount());
+        assertEquals(3, pack.count(ContentPack.GAME_SPELLING, 0, ContentPack.ANY_LENGTH));
+        assertEquals(2, pack.count(ContentPack.GAME_SPELLING, 0, 3));
+        assertEquals(0, pack.count(ContentPack.GAME_SPELLING, 1, ContentPack.ANY_LENGTH));
+
+        int dog = pack.entry(ContentPack.GAME_SPELLING, 0, 3, 1);
+        assertEquals("DOG", pack.word(dog));
+        assertEquals("A friendly pet that barks.", pack.clue(dog));
+        assertNull(pack.emoji(dog));
+
+        int frog = pack.entry(ContentPack.GAME_SPELLING, 0, ContentPack.ANY_LENGTH, 2);
+        assertEquals("FROG", pack.word(frog));
+        assertEquals("🐸", pack.emoji(frog));
+
+        assertEquals(-1, pack.entry(ContentPack.GAME_SPELLING, 0, 3, 2));
+        assertEquals("A small pet.", pack.clue(pack.entry(ContentPack.GAME_READING, 0, 3, 0)));
+    }
+
+    @Test
+    public void repeatedStrings_areStoredOnce() throws Exception {
+        byte[] once = new ContentPackWriter()
+                .add(ContentPack.GAME_SPELLING, 0, "cat", "🐱", "A small pet.").toByteArray();
+        byte[] twice = new ContentPackWriter()
+                .add(ContentPack.GAME_SPELLING, 0, "cat", "🐱", "A small pet.")
+                .add(ContentPack.GAME_READING, 0, "cat", "🐱", "A small pet.").toByteArray();
+
+        // Only one more index record and one more entry, no new strings
+        assertEquals(once.length + ContentPack.INDEX_RECORD_SIZE + ContentPack.ENTRY_SIZE, twice.length);
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownFormatVersion_isRejected() throws Exception {
+        byte[] bytes = new ContentPackWriter().add(ContentPack.GAME_SPELLING, 0, "cat", null, null).toByteArray();
+        bytes[7] = 99;
+        new ContentPack(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void committedPack_matchesWordsTsv() throws Exception {
+        byte[] expected = new ContentPackWriter()
+                .addTsv(Files.readAllLines(new File("content/words.tsv").toPath(), StandardCharsets.UTF_8))
+                .toByteArray();
+        byte[] committed = Files.readAllBytes(new File("src/main/assets/" + ContentPack.ASSET_NAME).toPath());
+
+        assertTrue("content.pack is stale, regenerate it with ContentPackWriter", Arrays.equals(expected, committed));
+
+        ContentPack pack = new ContentPack(ByteBuffer.wrap(committed));
+        for (int tier = 0; tier < 3; tier++) {
+            assertTrue(pack.count(ContentPack.GAME_SPELLING, tier, ContentPack.ANY_LENGTH) > 0);
+            assertTrue(pack.count(ContentPack.GAME_READING, tier, ContentPack.ANY_LENGTH) > 0);
+        }
+    }
+}
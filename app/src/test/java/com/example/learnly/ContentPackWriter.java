@@ -0,0 +1,188 @@
+package com.example.learnly;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds assets/content.pack (see ContentPack for the layout) from app/content/words.tsv.
+ *
+ * Regenerate after editing the TSV, from the app module directory:
+ * <pre>
+ * java -cp build/intermediates/javac/debugUnitTest/classes com.example.learnly.ContentPackWriter \
+ *     content/words.tsv src/main/assets/content.pack
+ * </pre>
+ * ContentPackTest fails if the committed pack is out of date with the TSV.
+ */
+public class ContentPackWriter {
+
+    // Bump when the words change so the app can tell packs apart
+    static final int CONTENT_VERSION = 1;
+
+    private static class Entry {
+        final int game;
+        final int tier;
+        final String word;
+        final String emoji;
+        final String clue;
+
+        Entry(int game, int tier, String word, String emoji, String clue) {
+            this.game = game;
+            this.tier = tier;
+            this.word = word;
+            this.emoji = emoji;
+            this.clue = clue;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    public ContentPackWriter add(int game, int tier, String word, String emoji, String clue) {
+        entries.add(new Entry(game, tier, word.toUpperCase(Locale.US), emoji, clue));
+        return this;
+    }
+
+    // Reads "game <TAB> tier <TAB> word <TAB> emoji <TAB> clue" lines; '#' starts a comment line
+    public ContentPackWriter addTsv(List<String> lines) {
+        for (String line : lines) {
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] cols = line.split("\t", -1);
+            if (cols.length != 5) throw new IllegalArgumentException("Expected 5 columns: " + line);
+            add(gameId(cols[0]), Integer.parseInt(cols[1]), cols[2],
+                    cols[3].isEmpty() ? null : cols[3], cols[4].isEmpty() ? null : cols[4]);
+        }
+        return this;
+    }
+
+    private static int gameId(String name) {
+        switch (name) {
+            case "spelling":
+                return ContentPack.GAME_SPELLING;
+            case "reading":
+                return ContentPack.GAME_READING;
+            default:
+                throw new IllegalArgumentException("Unknown game: " + name);
+        }
+    }
+
+    public byte[] toByteArray() throws IOException {
+        // Group by (game, tier, length); the sort is stable so source order is kept inside a group
+        List<Entry> sorted = new ArrayList<>(entries);
+        Collections.sort(sorted, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                if (a.game != b.game) return Integer.compare(a.game, b.game);
+                if (a.tier != b.tier) return Integer.compare(a.tier, b.tier);
+                return Integer.compare(a.word.length(), b.word.length());
+            }
+        });
+
+        // Interned strings: each distinct string is written once
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        DataOutputStream stringsOut = new DataOutputStream(strings);
+        Map<String, Integer> interned = new HashMap<>();
+        int[][] refs = new int[sorted.size()][3];
+        for (int i = 0; i < sorted.size(); i++) {
+            Entry e = sorted.get(i);
+            refs[i][0] = intern(e.word, interned, stringsOut);
+            refs[i][1] = intern(e.clue, interned, stringsOut);
+            refs[i][2] = intern(e.emoji, interned, stringsOut);
+        }
+
+        // One index record per run of equal (game, tier, length)
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(index);
+        int indexCount = 0;
+        for (int start = 0; start < sorted.size(); ) {
+            Entry first = sorted.get(start);
+            int end = start;
+            while (end < sorted.size() && sorted.get(end).game == first.game
+                    && sorted.get(end).tier == first.tier
+                    && sorted.get(end).word.length() == first.word.length()) {
+                end++;
+            }
+            if (first.word.length() > 255) throw new IllegalArgumentException("Word too long: " + first.word);
+            indexOut.writeByte(first.game);
+            indexOut.writeByte(first.tier);
+            indexOut.writeByte(first.word.length());
+            indexOut.writeByte(0);
+            indexOut.writeInt(start);
+            indexOut.writeInt(end - start);
+            indexCount++;
+            start = end;
+        }
+
+        int indexOffset = ContentPack.HEADER_SIZE;
+        int entriesOffset = indexOffset + index.size();
+        int stringsOffset = entriesOffset + sorted.size() * ContentPack.ENTRY_SIZE;
+
+        ByteArrayOutputStream pack = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(pack);
+        out.writeInt(ContentPack.MAGIC);
+        out.writeInt(ContentPack.FORMAT_VERSION);
+        out.writeInt(CONTENT_VERSION);
+        out.writeInt(indexCount);
+        out.writeInt(indexOffset);
+        out.writeInt(sorted.size());
+        out.writeInt(entriesOffset);
+        out.writeInt(stringsOffset);
+        out.writeInt(strings.size());
+        index.writeTo(out);
+        for (int[] ref : refs) {
+            out.writeInt(ref[0]);
+            out.writeInt(ref[1]);
+            out.writeInt(ref[2]);
+        }
+        strings.writeTo(out);
+        out.flush();
+        return pack.toByteArray();
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(toByteArray());
+    }
+
+    private static int intern(String s, Map<String, Integer> interned, DataOutputStream out) throws IOException {
+        if (s == null) return -1;
+        Integer existing = interned.get(s);
+        if (existing != null) return existing;
+
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xffff) throw new IllegalArgumentException("String too long: " + s);
+        int offset = out.size();
+        out.writeShort(bytes.length);
+        out.write(bytes);
+        interned.put(s, offset);
+        return offset;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: ContentPackWriter <words.tsv> <content.pack>");
+            System.exit(1);
+        }
+        ContentPackWriter writer = new ContentPackWriter()
+                .addTsv(Files.readAllLines(new File(args[0]).toPath(), StandardCharsets.UTF_8));
+        File output = new File(args[1]);
+        File parent = output.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            writer.writeTo(out);
+        }
+        System.out.println("Wrote " + writer.entries.size() + " entries to " + output);
+    }
+}
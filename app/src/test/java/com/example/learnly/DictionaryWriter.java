@@ -0,0 +1,171 @@
+package com.example.learnly;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Builds assets/dictionary.dawg (see WordDictionary for the layout) from app/content/dictionary.txt.
+ *
+ * The words go into a trie, identical subtrees are merged bottom-up (which turns the trie into a
+ * minimal DAWG), and each remaining node is written once as a run of edges.
+ *
+ * Regenerate after editing the word list, from the app module directory:
+ * <pre>
+ * java -cp build/intermediates/javac/debugUnitTest/classes com.example.learnly.DictionaryWriter \
+ *     content/dictionary.txt src/main/assets/dictionary.dawg
+ * </pre>
+ * WordDictionaryTest fails if the committed asset is out of date with the word list.
+ */
+public class DictionaryWriter {
+
+    private static class Node {
+        final Node[] next = new Node[26];
+        boolean terminal;
+    }
+
+    private final TreeSet<String> words = new TreeSet<>();
+
+    public DictionaryWriter add(String word) {
+        String lower = word.trim().toLowerCase(Locale.US);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (c < 'a' || c > 'z') throw new IllegalArgumentException("Only a-z allowed: " + word);
+        }
+        if (!lower.isEmpty()) words.add(lower);
+        return this;
+    }
+
+    // One word per line; '#' starts a comment line
+    public DictionaryWriter addLines(List<String> lines) {
+        for (String line : lines) {
+            if (line.trim().isEmpty() || line.startsWith("#")) continue;
+            add(line);
+        }
+        return this;
+    }
+
+    public int getWordCount() {
+        return words.size();
+    }
+
+    public byte[] toByteArray() throws IOException {
+        Node root = new Node();
+        for (String word : words) {
+            Node node = root;
+            for (int i = 0; i < word.length(); i++) {
+                int letter = word.charAt(i) - 'a';
+                if (node.next[letter] == null) node.next[letter] = new Node();
+                node = node.next[letter];
+            }
+            node.terminal = true;
+        }
+
+        // Merge equal subtrees; children are canonical before their parent's signature is taken
+        Map<String, Node> registry = new HashMap<>();
+        Map<Node, Integer> ids = new IdentityHashMap<>();
+        root = canonical(root, registry, ids);
+
+        // Lay out every node with children as a run of edges; edge 0 is unused, root starts at 1
+        Map<Node, Integer> offsets = new IdentityHashMap<>();
+        List<Node> order = new ArrayList<>();
+        int next = WordDictionary.ROOT;
+        List<Node> queue = new ArrayList<>();
+        queue.add(root);
+        for (int q = 0; q < queue.size(); q++) {
+            Node node = queue.get(q);
+            if (offsets.containsKey(node)) continue;
+            int edgeCount = edgeCount(node);
+            if (edgeCount == 0) continue;
+            offsets.put(node, next);
+            order.add(node);
+            next += edgeCount;
+            for (Node child : node.next) {
+                if (child != null && !offsets.containsKey(child)) queue.add(child);
+            }
+        }
+        if (next > (1 << (32 - WordDictionary.CHILD_SHIFT))) {
+            throw new IllegalStateException("Too many edges: " + next);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(WordDictionary.MAGIC);
+        out.writeInt(WordDictionary.FORMAT_VERSION);
+        out.writeInt(words.size());
+        out.writeInt(next);
+        out.writeInt(0); // edge 0
+        for (Node node : order) {
+            int remaining = edgeCount(node);
+            for (int letter = 0; letter < 26; letter++) {
+                Node child = node.next[letter];
+                if (child == null) continue;
+                int value = letter;
+                if (child.terminal) value |= WordDictionary.END_OF_WORD;
+                if (--remaining == 0) value |= WordDictionary.LAST_EDGE;
+                Integer childOffset = offsets.get(child);
+                if (childOffset != null) value |= childOffset << WordDictionary.CHILD_SHIFT;
+                out.writeInt(value);
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Node canonical(Node node, Map<String, Node> registry, Map<Node, Integer> ids) {
+        StringBuilder signature = new StringBuilder(node.terminal ? "1" : "0");
+        for (int letter = 0; letter < 26; letter++) {
+            if (node.next[letter] == null) continue;
+            node.next[letter] = canonical(node.next[letter], registry, ids);
+            signature.append((char) ('a' + letter)).append(ids.get(node.next[letter])).append(',');
+        }
+        String key = signature.toString();
+        Node existing = registry.get(key);
+        if (existing != null) return existing;
+        registry.put(key, node);
+        ids.put(node, ids.size());
+        return node;
+    }
+
+    private static int edgeCount(Node node) {
+        int count = 0;
+        for (Node child : node.next) {
+            if (child != null) count++;
+        }
+        return count;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(toByteArray());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("usage: DictionaryWriter <dictionary.txt> <dictionary.dawg>");
+            System.exit(1);
+        }
+        DictionaryWriter writer = new DictionaryWriter()
+                .addLines(Files.readAllLines(new File(args[0]).toPath(), StandardCharsets.UTF_8));
+        File output = new File(args[1]);
+        File parent = output.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs()) {
+            throw new IOException("Could not create " + parent);
+        }
+        try (OutputStream out = new FileOutputStream(output)) {
+            writer.writeTo(out);
+        }
+        System.out.println("Wrote " + writer.getWordCount() + " words to " + output);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Micro-benchmark for MathQuestionGenerator: time to produce a batch of 1,000 questions, each read
+ * and recycled before the next as the game does, so the batch reuses one pooled question.
+ *
+ * Runs as a unit test with a generous bound so it only catches gross regressions on CI; run main()
+ * for the numbers, e.g. from the app module directory after a test build:
+ * java -cp build/intermediates/javac/debugUnitTest/classes com.example.learnly.MathQuestionGeneratorBenchmark
+ */
+public class MathQuestionGeneratorBenchmark {
+
+    private static final int BATCH = 1000;
+    private static final int WARMUP_BATCHES = 200;
+    private static final int MEASURED_BATCHES = 200;
+
+    // Median time in nanoseconds to generate one batch of BATCH questions
+    long medianBatchNanos(String difficulty) {
+        MathQuestionGenerator generator = new MathQuestionGenerator(difficulty, 7);
+        long[] samples = new long[MEASURED_BATCHES];
+        int checksum = 0;
+        for (int round = 0; round < WARMUP_BATCHES + MEASURED_BATCHES; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < BATCH; i++) {
+                MathQuestion q = generator.next();
+                checksum += q.getAnswer();
+                q.recycle();
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_BATCHES) samples[round - WARMUP_BATCHES] = elapsed;
+        }
+        assertTrue(checksum != 0); // keep the work observable
+        java.util.Arrays.sort(samples);
+        return samples[samples.length / 2];
+    }
+
+    @Test
+    public void batchOfThousand_isFast() {
+        for (String difficulty : new String[]{"Easy", "Medium", "Hard"}) {
+            long nanos = medianBatchNanos(difficulty);
+            // Typically tens of microseconds on a desktop JVM; 20 ms only trips on a real regression
+            assertTrue(difficulty + " batch took " + nanos + " ns", nanos < 20_000_000L);
+        }
+    }
+
+    public static void main(String[] args) {
+        MathQuestionGeneratorBenchmark benchmark = new MathQuestionGeneratorBenchmark();
+        for (String difficulty : new String[]{"Easy", "Medium", "Hard"}) {
+            long nanos = benchmark.medianBatchNanos(difficulty);
+            System.out.println(String.format(Locale.US, "%-6s %d questions: %.1f us (median of %d)",
+                    difficulty, BATCH, nanos / 1000.0, MEASURED_BATCHES));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ranges, determinism and pooling of the Number Fun question generator.
+ */
+public class MathQuestionGeneratorTest {
+
+    private static final int SAMPLES = 2000;
+
+    private static int compute(MathQuestion q) {
+        switch (q.getOperator()) {
+            case MathQuestion.ADD:
+                return q.getLeft() + q.getRight();
+            case MathQuestion.SUBTRACT:
+                return q.getLeft() - q.getRight();
+            case MathQuestion.MULTIPLY:
+                return q.getLeft() * q.getRight();
+            default:
+                assertEquals("division must be exact", 0, q.getLeft() % q.getRight());
+                return q.getLeft() / q.getRight();
+        }
+    }
+
+    @Test
+    public void easy_staysWithinTenWithNoNegatives() {
+        MathQuestionGenerator generator = new MathQuestionGenerator("Easy", 1);
+        for (int i = 0; i < SAMPLES; i++) {
+            MathQuestion q = generator.next();
+            assertTrue(q.getOperator() == MathQuestion.ADD || q.getOperator() == MathQuestion.SUBTRACT);
+            assertTrue(q.getLeft() <= 10 && q.getRight() <= 10);
+            assertTrue(q.getAnswer() >= 0 && q.getAnswer() <= 10);
+            assertEquals(compute(q), q.getAnswer());
+            q.recycle();
+        }
+    }
+
+    @Test
+    public void medium_usesSmallTimesTablesAndSumsUpToThirty() {
+        MathQuestionGenerator generator = new MathQuestionGenerator("Medium", 2);
+        boolean sawMultiply = false;
+        for (int i = 0; i < SAMPLES; i++) {
+            MathQuestion q = generator.next();
+            assertNotEquals(MathQuestion.DIVIDE, q.getOperator());
+            if (q.getOperator() == MathQuestion.MULTIPLY) {
+                sawMultiply = true;
+                assertTrue(q.getAnswer() <= 100);
+            } else {
+                assertTrue(q.getLeft() <= 30 && q.getAnswer() <= 30 && q.getAnswer() >= 0);
+            }
+            assertEquals(compute(q), q.getAnswer());
+            q.recycle();
+        }
+        assertTrue(sawMultiply);
+    }
+
+    @Test
+    public void hard_isTimesTablesAndExactDivisionUpToTwelve() {
+        MathQuestionGenerator generator = new MathQuestionGenerator("Hard", 3);
+        boolean sawDivide = false;
+        for (int i = 0; i < SAMPLES; i++) {
+            MathQuestion q = generator.next();
+            assertTrue(q.getOperator() == MathQuestion.MULTIPLY || q.getOperator() == MathQuestion.DIVIDE);
+            if (q.getOperator() == MathQuestion.DIVIDE) {
+                sawDivide = true;
+                assertTrue(q.getRight() >= 2 && q.getRight() <= 12);
+                assertTrue(q.getAnswer() >= 2 && q.getAnswer() <= 12);
+            } else {
+                assertTrue(q.getLeft() <= 12 && q.getRight() <= 12);
+            }
+            assertEquals(compute(q), q.getAnswer());
+            q.recycle();
+        }
+        assertTrue(sawDivide);
+    }
+
+    @Test
+    public void sameSeed_givesSameSequence_andNeverRepeatsBackToBack() {
+        MathQuestionGenerator a = new MathQuestionGenerator("Medium", 42);
+        MathQuestionGenerator b = new MathQuestionGenerator("Medium", 42);
+        String previous = null;
+        for (int i = 0; i < 200; i++) {
+            MathQuestion qa = a.next();
+            MathQuestion qb = b.next();
+            assertEquals(qa.getQuestionText(), qb.getQuestionText());
+            assertEquals(qa.getFingerTrick(), qb.getFingerTrick());
+            assertNotEquals(previous, qa.getQuestionText());
+            previous = qa.getQuestionText();
+            qa.recycle();
+            qb.recycle();
+        }
+    }
+
+    @Test
+    public void text_andHintAreFilledFromTheNumbers() {
+        MathQuestion q = MathQuestion.obtain();
+        q.set(7, MathQuestion.MULTIPLY, 6, 42, "Try {a} x {prev} first, then add {a} more.");
+        assertEquals("7 x 6 =", q.getQuestionText());
+        assertEquals("Try 7 x 5 first, then add 7 more.", q.getFingerTrick());
+
+        q.set(8, MathQuestion.SUBTRACT, 3, 5, "Start at {a} and count back {b}. {unknown}");
+        assertEquals("8 - 3 =", q.getQuestionText());
+        assertEquals("Start at 8 and count back 3. {unknown}", q.getFingerTrick());
+        q.recycle();
+    }
+
+    @Test
+    public void recycledQuestions_areReused() {
+        MathQuestion first = MathQuestion.obtain();
+        first.recycle();
+        assertSame(first, MathQuestion.obtain());
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * PhoneticCode keys: words that sound alike share one, others don't.
+ */
+public class PhoneticCodeTest {
+
+    private static String code(String word) {
+        StringBuilder out = new StringBuilder();
+        PhoneticCode.encode(word, out);
+        return out.toString();
+    }
+
+    @Test
+    public void soundAlikesShareAKey() {
+        assertEquals("FN", code("phone"));
+        assertEquals("FN", code("fone"));
+        assertEquals("NT", code("knight"));
+        assertEquals("NT", code("nite"));
+        assertEquals(code("cat"), code("kat"));
+        assertEquals(code("duck"), code("duk"));
+        assertEquals(code("write"), code("rite"));
+    }
+
+    @Test
+    public void digraphsAndSilentLetters() {
+        assertEquals("XP", code("ship"));
+        assertEquals("0", code("the"));
+        assertEquals("KM", code("comb"));
+        assertEquals("SN", code("sign"));
+        assertEquals("JM", code("gem"));
+        assertEquals("WL", code("whale"));
+        assertEquals("APL", code("apple"));
+        assertEquals("FKS", code("fox"));
+    }
+
+    @Test
+    public void caseAndPunctuationAreIgnored() {
+        assertEquals(code("sun"), code("SUN"));
+        assertEquals(code("dont"), code("don't"));
+    }
+
+    @Test
+    public void differentSoundsDiffer() {
+        assertNotEquals(code("cat"), code("bat"));
+        assertNotEquals(code("ship"), code("sip"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Salted PIN hashing used by PinVault.
+ */
+public class PinHashTest {
+
+    @Test
+    public void matches_acceptsTheSamePinOnly() throws Exception {
+        String encoded = PinHash.create("1234");
+
+        assertTrue(PinHash.matches("1234", encoded));
+        assertFalse(PinHash.matches("1235", encoded));
+        assertFalse(PinHash.matches("", encoded));
+    }
+
+    @Test
+    public void create_neverStoresThePinAndSaltsEachHash() throws Exception {
+        String first = PinHash.create("1234");
+        String second = PinHash.create("1234");
+
+        // Salt and hash are fixed-length hex, so no PIN characters are stored; the hash is not the PIN's own bytes
+        String[] parts = first.split("\\$");
+        assertEquals(4, parts.length);
+        assertEquals("pbkdf2-sha1", parts[0]);
+        assertEquals(String.valueOf(PinHash.ITERATIONS), parts[1]);
+        assertTrue(parts[2].matches("[0-9a-f]{32}"));
+        assertTrue(parts[3].matches("[0-9a-f]{64}"));
+        assertFalse(parts[3].startsWith("31323334")); // "1234" in hex
+        assertNotEquals(first, second);
+    }
+
+    @Test
+    public void matches_rejectsMissingOrMalformedHashes() throws Exception {
+        assertFalse(PinHash.matches("1234", null));
+        assertFalse(PinHash.matches(null, PinHash.create("1234")));
+        assertFalse(PinHash.matches("1234", "1234"));
+        assertFalse(PinHash.matches("1234", "pbkdf2-sha1$abc$00$00"));
+        assertFalse(PinHash.matches("1234", "pbkdf2-sha1$1000$zz$00"));
+        assertFalse(PinHash.matches("1234", "md5$1000$00$00"));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Picking and scoring the best reading among the recognizer's hypotheses.
+ */
+public class ReadingScorerTest {
+
+    private final ReadingScorer scorer = new ReadingScorer();
+
+    @Test
+    public void exactWordAnywhereInTheHypothesis() {
+        ReadingScorer.Result r = scorer.score("CAT", Collections.singletonList("um the Cat"), null);
+        assertTrue(r.exact);
+        assertEquals(100, r.score);
+        assertEquals("cat", r.word);
+        assertEquals("um the Cat", r.heard);
+    }
+
+    @Test
+    public void soundingRightScoresAboveSpellingAlone() {
+        ReadingScorer.Result kat = scorer.score("CAT", Collections.singletonList("kat"), null);
+        ReadingScorer.Result bat = scorer.score("CAT", Collections.singletonList("bat"), null);
+        assertFalse(kat.exact);
+        assertTrue(kat.score >= 70);
+        assertTrue(kat.score > bat.score);
+    }
+
+    @Test
+    public void laterHypothesisCountsWhenConfident() {
+        ReadingScorer.Result r = scorer.score("SHIP",
+                Arrays.asList("sip", "ship"), new float[]{0.5f, 0.45f});
+        assertTrue(r.exact);
+        assertEquals("ship", r.heard);
+
+        // Far less confident than the first: the first stays
+        r = scorer.score("SHIP", Arrays.asList("sip", "ship"), new float[]{0.9f, 0.1f});
+        assertFalse(r.exact);
+        assertEquals("sip", r.heard);
+    }
+
+    @Test
+    public void withoutConfidenceScoresRankDecides() {
+        ReadingScorer.Result r = scorer.score("DOG",
+                Arrays.asList("dug", "dog"), new float[]{-1f, -1f});
+        assertTrue(r.exact);
+        assertEquals("dog", r.heard);
+    }
+
+    @Test
+    public void zeroConfidenceForAlternativesMeansUnknown() {
+        ReadingScorer.Result r = scorer.score("DOG",
+                Arrays.asList("dug", "dog"), new float[]{0.9f, 0f});
+        assertTrue(r.exact);
+        assertEquals("dog", r.heard);
+    }
+
+    @Test
+    public void nothingToScore() {
+        assertNull(scorer.score("DOG", Arrays.asList("", "123 ?"), null));
+    }
+}
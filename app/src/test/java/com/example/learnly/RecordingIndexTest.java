@@ -0,0 +1,98 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Looking up the sentence and word at a playback position in a RecordingIndex, and its file format.
+ */
+public class RecordingIndexTest {
+
+    // Three sentences: two words at 0 ms, none (not rendered) at 1500 ms, three words at 1500 ms
+    private static RecordingIndex sample() {
+        RecordingIndex index = new RecordingIndex();
+        index.addSentence(0);
+        index.addWord(0, 4, 100);
+        index.addWord(5, 10, 600);
+        index.addSentence(1500);
+        index.addSentence(1500);
+        index.addWord(0, 3, 1550);
+        index.addWord(4, 8, 1900);
+        index.addWord(9, 12, 2300);
+        index.finish(3000);
+        return index;
+    }
+
+    @Test
+    public void findsTheSentencePlaying() {
+        RecordingIndex index = sample();
+        assertEquals(3, index.size());
+        assertEquals(0, index.sentenceAt(0));
+        assertEquals(0, index.sentenceAt(1499));
+        // A sentence without audio is passed over
+        assertEquals(2, index.sentenceAt(1500));
+        assertEquals(2, index.sentenceAt(5000));
+        assertEquals(1500, index.startMs(1));
+    }
+
+    @Test
+    public void findsTheWordPlaying() {
+        RecordingIndex index = sample();
+        assertEquals(-1, index.wordAt(0, 50));
+        int first = index.wordAt(0, 100);
+        assertEquals(0, index.wordStart(first));
+        assertEquals(4, index.wordEnd(first));
+        int second = index.wordAt(0, 1499);
+        assertEquals(5, index.wordStart(second));
+        assertEquals(-1, index.wordAt(1, 1500));
+        assertEquals(-1, index.wordAt(2, 1520));
+        assertEquals(4, index.wordStart(index.wordAt(2, 2299)));
+        assertEquals(9, index.wordStart(index.wordAt(2, 2999)));
+    }
+
+    @Test
+    public void growsPastItsInitialCapacity() {
+        RecordingIndex index = new RecordingIndex();
+        for (int i = 0; i < 1000; i++) {
+            index.addSentence(i * 1000);
+            for (int w = 0; w < 5; w++) {
+                index.addWord(w * 6, w * 6 + 5, i * 1000 + w * 200);
+            }
+        }
+        index.finish(1_000_000);
+        assertEquals(999, index.sentenceAt(999_999));
+        assertEquals(12, index.wordStart(index.wordAt(500, 500_450)));
+    }
+
+    @Test
+    public void fileRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sample().write(new DataOutputStream(bytes));
+        RecordingIndex read = RecordingIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertTrue(read.isFinished());
+        assertEquals(3000, read.getDurationMs());
+        assertEquals(3, read.size());
+        assertEquals(2, read.sentenceAt(1600));
+        assertEquals(-1, read.wordAt(1, 1500));
+        assertEquals(10, read.wordEnd(read.wordAt(0, 700)));
+        assertEquals(8, read.wordEnd(read.wordAt(2, 2000)));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void onlyAFinishedIndexIsWritten() throws IOException {
+        new RecordingIndex().write(new DataOutputStream(new ByteArrayOutputStream()));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedIndex() throws IOException {
+        RecordingIndex.read(new DataInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+    }
+}
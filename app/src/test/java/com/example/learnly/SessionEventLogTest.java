@@ -0,0 +1,157 @@
+package com.example.learnly;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trip of the on-device event log through a temp directory: append, read back, mark sent, reopen.
+ */
+public class SessionEventLogTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("session-events").toFile();
+    }
+
+    private static SessionEventLog open(File dir) throws Exception {
+        return new SessionEventLog(dir, Executors.newSingleThreadScheduledExecutor());
+    }
+
+    // Collects visited records as "type:app:flags:value1:value2" strings
+    private static List<String> readAll(SessionEventLog log, long[] endOut) throws Exception {
+        final List<String> out = new ArrayList<>();
+        long end = log.readUnsent(100, new SessionEventLog.RecordVisitor() {
+            @Override
+            public void visit(long offset, long timeMs, int type, int app, int flags, int value1, int value2, int user) {
+                out.add(type + ":" + MiniApp.values()[app].name() + ":" + flags + ":" + value1 + ":" + value2);
+            }
+        }).get();
+        if (endOut != null) endOut[0] = end;
+        return out;
+    }
+
+    @Test
+    public void loggedEvents_areReadBackInOrder() throws Exception {
+        SessionEventLog log = open(dir);
+        log.sessionStart(MiniApp.NUMBER_FUN);
+        log.answer(MiniApp.NUMBER_FUN, true, 1500, 2);
+        log.hint(MiniApp.SPELLING_TIME);
+        log.timeout(MiniApp.MEMORY_MATCH, 4);
+        log.flush();
+
+        List<String> records = readAll(log, null);
+        assertEquals(4, records.size());
+        assertEquals("1:NUMBER_FUN:0:0:0", records.get(0));
+        assertEquals("3:NUMBER_FUN:1:1500:2", records.get(1));
+        assertEquals("4:SPELLING_TIME:0:0:0", records.get(2));
+        assertEquals("6:MEMORY_MATCH:0:0:4", records.get(3));
+        log.close();
+    }
+
+    @Test
+    public void markSent_skipsUploadedRecordsAcrossRestarts() throws Exception {
+        SessionEventLog log = open(dir);
+        log.answer(MiniApp.READING_PRACTICE, false, 800, 40);
+        log.flush();
+        long[] end = new long[1];
+        readAll(log, end);
+        log.log(SessionEventLog.TYPE_SOLVE, MiniApp.READING_PRACTICE, SessionEventLog.FLAG_CORRECT, 900, 100);
+        log.flush();
+        log.markSent(end[0]).get();
+        log.close();
+
+        SessionEventLog reopened = open(dir);
+        List<String> records = readAll(reopened, null);
+        assertEquals(1, records.size());
+        assertEquals("5:READING_PRACTICE:1:900:100", records.get(0));
+        reopened.close();
+    }
+
+    @Test
+    public void markSent_everything_truncatesAndStartsNewEpoch() throws Exception {
+        SessionEventLog log = open(dir);
+        long epoch = log.getEpoch();
+        log.solve(MiniApp.MEMORY_MATCH, 5000, 3);
+        log.flush();
+        long[] end = new long[1];
+        readAll(log, end);
+        log.markSent(end[0]).get();
+
+        assertFalse(log.hasUnsent().get());
+        assertEquals(epoch + 1, log.getEpoch());
+        assertEquals(0, new File(dir, "session_events.log").length());
+        log.close();
+
+        SessionEventLog reopened = open(dir);
+        assertEquals(epoch + 1, reopened.getEpoch());
+        reopened.close();
+    }
+
+    @Test
+    public void observer_seesRecordsOnceTheyAreOnDisk() throws Exception {
+        SessionEventLog log = open(dir);
+        final List<Long> offsets = new ArrayList<>();
+        final List<Integer> users = new ArrayList<>();
+        log.setObserver(new SessionEventLog.RecordVisitor() {
+            @Override
+            public void visit(long offset, long timeMs, int type, int app, int flags, int value1, int value2, int user) {
+                offsets.add(offset);
+                users.add(user);
+            }
+        });
+        log.setUser(SessionEventLog.userTag("alice"));
+        log.sessionStart(MiniApp.STORY_TIME);
+        log.sessionEnd(MiniApp.STORY_TIME, 60_000);
+        log.hasUnsent().get(); // queued behind the flush from sessionEnd
+
+        assertEquals(2, offsets.size());
+        assertEquals(Long.valueOf(0), offsets.get(0));
+        assertEquals(Long.valueOf(SessionEventLog.RECORD_SIZE), offsets.get(1));
+        assertEquals(SessionEventLog.userTag("alice"), (int) users.get(1));
+        log.close();
+    }
+
+    @Test
+    public void readUnsentForAUser_skipsOtherUsersRecords() throws Exception {
+        SessionEventLog log = open(dir);
+        int alice = SessionEventLog.userTag("alice");
+        int bob = SessionEventLog.userTag("bob");
+        log.setUser(alice);
+        log.answer(MiniApp.NUMBER_FUN, true, 100, 1);
+        log.setUser(bob);
+        log.answer(MiniApp.SPELLING_TIME, false, 200, 2);
+        log.setUser(alice);
+        log.answer(MiniApp.NUMBER_FUN, true, 300, 3);
+        log.flush();
+
+        final List<Integer> seen = new ArrayList<>();
+        SessionEventLog.RecordVisitor visitor = new SessionEventLog.RecordVisitor() {
+            @Override
+            public void visit(long offset, long timeMs, int type, int app, int flags, int value1, int value2, int user) {
+                seen.add(value1);
+            }
+        };
+        long end = log.readUnsent(100, bob, visitor).get();
+        assertEquals(1, seen.size());
+        assertEquals(200, (int) seen.get(0));
+        // The end covers everything read past, so marking it sent drops alice's records too
+        assertEquals(3 * SessionEventLog.RECORD_SIZE, end);
+
+        // A batch limit counts only the user's own records
+        seen.clear();
+        end = log.readUnsent(1, alice, visitor).get();
+        assertEquals(1, seen.size());
+        assertEquals(SessionEventLog.RECORD_SIZE, end);
+        log.close();
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Micro-benchmark for SpellingBoard: a full word played with taps, a wrong guess, backspaces and a hint.
+ *
+ * Runs as a unit test with a generous bound; run main() for the numbers.
+ */
+public class SpellingBoardBenchmark {
+
+    private static final String[] WORDS = {"CAT", "FROG", "APPLE", "HOUSE", "SUN", "TREE"};
+    private static final int WARMUP_ROUNDS = 20_000;
+    private static final int MEASURED_ROUNDS = 100_000;
+
+    private final SpellingBoard board = new SpellingBoard(new Random(3));
+
+    // Plays one word: fill from the bank, back off two letters, reveal until solved
+    private int playWord(String word) {
+        board.reset(word);
+        while (!board.isFull()) board.placeFromBank(0);
+        board.backspace();
+        board.backspace();
+        while (!board.isSolved()) board.reveal();
+        return board.getMismatchCount() + board.length();
+    }
+
+    // Average nanoseconds per word
+    double nanosPerWord() {
+        int checksum = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) checksum += playWord(WORDS[i % WORDS.length]);
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) checksum += playWord(WORDS[i % WORDS.length]);
+        long elapsed = System.nanoTime() - start;
+        assertTrue(checksum > 0); // keep the work observable
+        return (double) elapsed / MEASURED_ROUNDS;
+    }
+
+    @Test
+    public void playingAWord_isFast() {
+        double nanos = nanosPerWord();
+        // Well under a microsecond on a desktop JVM; 50 us only trips on a real regression
+        assertTrue("word took " + nanos + " ns", nanos < 50_000);
+    }
+
+    public static void main(String[] args) {
+        System.out.println(String.format(Locale.US, "%.0f ns per word (%d words)",
+                new SpellingBoardBenchmark().nanosPerWord(), MEASURED_ROUNDS));
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.learnly;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Moves and checks of the Spelling Time board.
+ */
+public class SpellingBoardTest {
+
+    private SpellingBoard board;
+
+    @Before
+    public void setUp() {
+        board = new SpellingBoard(new Random(5));
+        board.reset("APPLE");
+    }
+
+    private int bankIndexOf(char c) {
+        for (int i = 0; i < board.bankSize(); i++) {
+            if (board.bankAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private void place(String letters) {
+        for (int i = 0; i < letters.length(); i++) {
+            assertTrue(board.placeFromBank(bankIndexOf(letters.charAt(i))) >= 0);
+        }
+    }
+
+    // Letters are never created or lost: bank + slots is always the word's multiset
+    private void assertLettersConserved() {
+        int[] counts = new int[128];
+        for (int i = 0; i < board.length(); i++) {
+            counts[board.targetAt(i)]++;
+            if (board.slotAt(i) != SpellingBoard.EMPTY) counts[board.slotAt(i)]--;
+        }
+        for (int i = 0; i < board.bankSize(); i++) counts[board.bankAt(i)]--;
+        for (int count : counts) assertEquals(0, count);
+    }
+
+    @Test
+    public void reset_putsEveryLetterInTheBank() {
+        assertEquals(5, board.length());
+        assertEquals(5, board.bankSize());
+        assertTrue(board.isEmpty());
+        assertEquals(0, board.firstEmptySlot());
+        assertEquals(-1, board.lastFilledSlot());
+        assertLettersConserved();
+    }
+
+    @Test
+    public void placingTheWord_solvesIt() {
+        place("APPL");
+        assertFalse(board.isFull());
+        place("E");
+        assertTrue(board.isSolved());
+        assertEquals(0, board.bankSize());
+        assertEquals(-1, board.placeFromBank(0));
+    }
+
+    @Test
+    public void wrongOrder_isFullButCountsMismatches() {
+        place("PAPLE");
+        assertTrue(board.isFull());
+        assertFalse(board.isSolved());
+        assertEquals(2, board.getMismatchCount());
+
+        assertEquals(4, board.backspace());
+        assertEquals(2, board.getMismatchCount());
+        assertTrue(board.clearSlot(0));
+        assertEquals(1, board.getMismatchCount());
+        assertFalse(board.clearSlot(0));
+        assertEquals(0, board.firstEmptySlot());
+        assertEquals(3, board.lastFilledSlot());
+        assertLettersConserved();
+    }
+
+    @Test
+    public void reveal_fixesWrongLettersFirstAndConservesLetters() {
+        place("LEPPA"); // every slot except the P at index 2 is wrong
+        assertEquals(4, board.getMismatchCount());
+
+        int guard = 0;
+        while (!board.isSolved()) {
+            int slot = board.reveal();
+            assertTrue(slot >= 0);
+            assertEquals(board.targetAt(slot), board.slotAt(slot));
+            assertLettersConserved();
+            assertTrue(guard++ < 10);
+        }
+        assertEquals(-1, board.reveal());
+    }
+
+    @Test
+    public void reveal_takesTheLetterFromAnotherSlotWhenTheBankHasNone() {
+        place("PPA"); // bank: L, E
+        assertEquals(0, board.reveal()); // needs the A from slot 2
+        assertEquals('A', board.slotAt(0));
+        assertEquals(SpellingBoard.EMPTY, board.slotAt(2));
+        assertLettersConserved();
+    }
+
+    @Test
+    public void distractors_stayInTheBankWhenSolved() {
+        board.reset("CAT", new char[]{'Q', 'Z'}, 2);
+        assertEquals(3, board.length());
+        assertEquals(5, board.bankSize());
+
+        assertTrue(board.placeFromBank(bankIndexOf('Z')) >= 0);
+        assertEquals(1, board.getMismatchCount());
+        while (!board.isSolved()) assertTrue(board.reveal() >= 0);
+
+        assertEquals(2, board.bankSize());
+        assertTrue(bankIndexOf('Q') >= 0 && bankIndexOf('Z') >= 0);
+        board.restart();
+        assertEquals(5, board.bankSize());
+    }
+
+    @Test
+    public void restart_andReuse_forShorterAndLongerWords() {
+        place("APP");
+        board.restart();
+        assertTrue(board.isEmpty());
+        assertEquals(5, board.bankSize());
+        assertLettersConserved();
+
+        board.reset("CAT");
+        assertEquals(3, board.length());
+        assertLettersConserved();
+        board.reset("BANANAS");
+        assertEquals(7, board.length());
+        assertLettersConserved();
+    }
+
+    @Test
+    public void copyAndRestore_giveBackTheSameBoard() {
+        place("PAP");
+        char[] slots = board.copySlots();
+        char[] bank = board.copyBank();
+
+        SpellingBoard restored = new SpellingBoard(new Random(9));
+        restored.restore("APPLE", slots, bank);
+        assertEquals(5, restored.length());
+        assertEquals(2, restored.lastFilledSlot());
+        assertEquals(board.getMismatchCount(), restored.getMismatchCount());
+        assertArrayEquals(bank, restored.copyBank());
+        for (int i = 0; i < 5; i++) assertEquals(board.slotAt(i), restored.slotAt(i));
+
+        assertEquals(2, restored.backspace()); // moves still work on the restored board
+        assertEquals(3, restored.bankSize());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.learnly;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ring buffer and export format of the startup span recorder.
+ */
+public class StartupTraceTest {
+
+    @Before
+    public void setUp() {
+        StartupTrace.reset();
+    }
+
+    private static List<String> names() {
+        final List<String> out = new ArrayList<>();
+        StartupTrace.forEach(new StartupTrace.SpanVisitor() {
+            @Override
+            public void visit(String name, String thread, double startMs, double endMs) {
+                out.add(name + (endMs < 0 ? " open" : ""));
+            }
+        });
+        return out;
+    }
+
+    @Test
+    public void spans_areReportedOldestFirst() {
+        int outer = StartupTrace.begin("app.onCreate");
+        StartupTrace.mark("home.buttonsEnabled");
+        StartupTrace.begin("game.ttsInit");
+        StartupTrace.end(outer);
+
+        List<String> names = names();
+        assertEquals(3, names.size());
+        assertEquals("app.onCreate", names.get(0));
+        assertEquals("home.buttonsEnabled", names.get(1));
+        assertEquals("game.ttsInit open", names.get(2));
+    }
+
+    @Test
+    public void ring_keepsOnlyTheNewestSpans() {
+        int first = StartupTrace.begin("first");
+        for (int i = 0; i < StartupTrace.CAPACITY; i++) {
+            StartupTrace.mark("span" + i);
+        }
+        StartupTrace.end(first); // slot already reused, must not touch the newer span
+
+        List<String> names = names();
+        assertEquals(StartupTrace.CAPACITY, names.size());
+        assertEquals("span0", names.get(0));
+        assertEquals("span" + (StartupTrace.CAPACITY - 1), names.get(StartupTrace.CAPACITY - 1));
+    }
+
+    @Test
+    public void toJson_escapesNamesAndMarksOpenSpans() {
+        StartupTrace.mark("game.onCreate \"Story Time\"");
+        StartupTrace.begin("settings.refresh");
+
+        String json = StartupTrace.toJson("1.0 (1)");
+        assertTrue(json.startsWith("{\"build\":\"1.0 (1)\",\"spans\":[{\"name\":\"game.onCreate \\\"Story Time\\\"\""));
+        assertTrue(json.contains("\"name\":\"settings.refresh\""));
+        assertTrue(json.endsWith("\"durationMs\":null}]}"));
+    }
+}
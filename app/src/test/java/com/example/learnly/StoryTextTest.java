@@ -0,0 +1,119 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sentence segmentation by SentenceScanner and reading sentences back from a file through
+ * StoryText, including text that straddles scanner blocks and multi-byte characters.
+ */
+public class StoryTextTest {
+
+    // Scans body as if it followed header in a file, then reads every sentence back from that file
+    private static List<String> roundTrip(String header, String body) throws IOException {
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        byte[] bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        File file = File.createTempFile("story", ".txt");
+        file.deleteOnExit();
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.write(headerBytes);
+            out.write(bodyBytes);
+        }
+
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        final StoryText text = new StoryText(in.getChannel(), 0);
+        int end = new SentenceScanner(Locale.US).scan(new ByteArrayInputStream(bodyBytes), headerBytes.length,
+                new SentenceScanner.Sink() {
+                    @Override
+                    public void sentence(int startByte, int endByte) {
+                        text.add(startByte, endByte);
+                    }
+                });
+        text.setComplete();
+        assertEquals(headerBytes.length + bodyBytes.length, end);
+
+        List<String> out = new ArrayList<>(text);
+        text.close();
+        assertFalse(text.isOpen());
+        return out;
+    }
+
+    @Test
+    public void splitsSentencesAndTrimsWhitespace() throws IOException {
+        List<String> s = roundTrip("Title\n", "  Mira looked up. Where do dreams come from?  The firefly said: follow me!\n");
+        assertEquals(3, s.size());
+        assertEquals("Mira looked up.", s.get(0));
+        assertEquals("Where do dreams come from?", s.get(1));
+        assertEquals("The firefly said: follow me!", s.get(2));
+    }
+
+    @Test
+    public void sentencesAcrossBlockBoundariesAndMultiByteCharacters() throws IOException {
+        StringBuilder body = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String sentence = "Sentence " + i + " has a café, a naïve fox and a 🦊 in it.";
+            expected.add(sentence);
+            body.append(sentence).append(i % 7 == 0 ? "\n\n" : " ");
+        }
+        assertTrue(body.length() > 10 * SentenceScanner.BLOCK_CHARS);
+        assertEquals(expected, roundTrip("Fox Book\n", body.toString()));
+    }
+
+    @Test
+    public void cutsTextWithoutSentenceBreaks() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 3000; i++) body.append("word ");
+        List<String> s = roundTrip("", body.toString());
+        assertTrue(s.size() > 1);
+        StringBuilder joined = new StringBuilder();
+        for (String part : s) {
+            assertTrue(part.length() <= SentenceScanner.MAX_SENTENCE_CHARS);
+            joined.append(part).append(' ');
+        }
+        assertEquals(body.toString(), joined.toString());
+    }
+
+    @Test
+    public void indexRoundTrip() throws IOException {
+        File file = File.createTempFile("story", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "One. Two. Three.".getBytes(StandardCharsets.UTF_8));
+
+        StoryText scanned = new StoryText(null, 0);
+        scanned.add(0, 4);
+        scanned.add(5, 9);
+        scanned.add(10, 16);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        scanned.writeIndex(new DataOutputStream(bytes));
+
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            StoryText text = new StoryText(in.getChannel(), 0);
+            assertFalse(text.isComplete());
+            text.readIndex(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            assertTrue(text.isComplete());
+            assertEquals(3, text.size());
+            assertEquals("Two.", text.get(1));
+            assertEquals("Three.", text.get(2));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsMalformedIndex() throws IOException {
+        new StoryText(null, 0).readIndex(new DataInputStream(new ByteArrayInputStream(new byte[]{1, 2, 3, 4})));
+    }
+}
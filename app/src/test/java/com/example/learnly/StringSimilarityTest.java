@@ -0,0 +1,73 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * StringSimilarity's bit-parallel edit distance against the textbook table, and its 0-100 score.
+ */
+public class StringSimilarityTest {
+
+    private final StringSimilarity similarity = new StringSimilarity();
+
+    // Full-matrix Levenshtein distance, for reference
+    private static int tableDistance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) d[i][0] = i;
+        for (int j = 0; j <= b.length(); j++) d[0][j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+
+    private static String randomWord(Random rng, int maxLen, String alphabet) {
+        int len = rng.nextInt(maxLen + 1);
+        StringBuilder sb = new StringBuilder(len);
+        for (int i = 0; i < len; i++) sb.append(alphabet.charAt(rng.nextInt(alphabet.length())));
+        return sb.toString();
+    }
+
+    @Test
+    public void knownDistances() {
+        assertEquals(3, similarity.distance("kitten", "sitting"));
+        assertEquals(1, similarity.distance("cat", "cut"));
+        assertEquals(1, similarity.distance("cat", "cats"));
+        assertEquals(3, similarity.distance("", "dog"));
+        assertEquals(0, similarity.distance("sun", "sun"));
+    }
+
+    @Test
+    public void matchesTheTableUpToAndPast64Chars() {
+        Random rng = new Random(7);
+        for (int n = 0; n < 2000; n++) {
+            // Long words cover the 64-char edge and the fallback; é and ñ are off the ASCII table
+            int maxLen = (n % 10 == 0) ? 90 : 12;
+            String a = randomWord(rng, maxLen, "abcdeé");
+            String b = randomWord(rng, maxLen, "abcdeñ");
+            assertEquals(a + " / " + b, tableDistance(a, b), similarity.distance(a, b));
+        }
+    }
+
+    @Test
+    public void tableIsClearedBetweenCalls() {
+        assertEquals(3, similarity.distance("abc", "xyz"));
+        assertEquals(3, similarity.distance("xyz", "abc"));
+        assertEquals(3, similarity.distance("abc", "xyz"));
+    }
+
+    @Test
+    public void similarityIsAPercentOfTheLongerWord() {
+        assertEquals(100, similarity.similarity("frog", "frog"));
+        assertEquals(75, similarity.similarity("frog", "from"));
+        assertEquals(67, similarity.similarity("cat", "kat"));
+        assertEquals(0, similarity.similarity("cat", ""));
+        assertEquals(100, similarity.similarity("", ""));
+    }
+}
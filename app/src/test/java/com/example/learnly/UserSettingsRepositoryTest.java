@@ -0,0 +1,101 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Offline behaviour of the settings repository, run against an in-memory snapshot store
+ * instead of SharedPreferences and Firebase.
+ */
+public class UserSettingsRepositoryTest {
+
+    private static Map<String, Object> app(Object enabled, Object difficulty) {
+        Map<String, Object> node = new HashMap<>();
+        node.put("enabled", enabled);
+        node.put("difficulty", difficulty);
+        return node;
+    }
+
+    @Test
+    public void coldStart_withNothingSaved_usesDefaults() {
+        UserSettingsRepository repo = new UserSettingsRepository(new InMemorySnapshotStore());
+
+        MiniAppSettings settings = repo.getSettings(MiniApp.NUMBER_FUN);
+        assertTrue(settings.isEnabled());
+        assertEquals("Easy", settings.getDifficulty());
+        assertNull(repo.getChildName());
+    }
+
+    @Test
+    public void coldStart_readsLastKnownSnapshotWithoutNetwork() {
+        InMemorySnapshotStore store = new InMemorySnapshotStore();
+        store.save(new UserSnapshot("uid-1", "Mira",
+                Collections.singletonMap(MiniApp.NUMBER_FUN, new MiniAppSettings(false, "Hard"))));
+
+        UserSettingsRepository repo = new UserSettingsRepository(store);
+
+        assertEquals("Mira", repo.getChildName());
+        assertFalse(repo.getSettings(MiniApp.NUMBER_FUN).isEnabled());
+        assertEquals("Hard", repo.getSettings(MiniApp.NUMBER_FUN).getDifficulty());
+    }
+
+    @Test
+    public void applyMiniApps_persistsAndNotifies() {
+        InMemorySnapshotStore store = new InMemorySnapshotStore();
+        store.save(UserSnapshot.empty("uid-1"));
+        UserSettingsRepository repo = new UserSettingsRepository(store);
+
+        final int[] notified = {0};
+        repo.addListener(new UserSettingsRepository.OnSettingsChangedListener() {
+            @Override
+            public void onSettingsChanged(UserSettingsRepository repository) {
+                notified[0]++;
+            }
+        });
+
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("Spelling Time", app(true, "Medium"));
+        raw.put("Story Time", app(false, "Easy"));
+        repo.applyMiniApps(raw);
+
+        assertEquals(1, notified[0]);
+        assertEquals("Medium", repo.getSettings(MiniApp.SPELLING_TIME).getDifficulty());
+        assertFalse(repo.getSettings(MiniApp.STORY_TIME).isEnabled());
+
+        // A fresh process sees the same values from the store
+        UserSettingsRepository restarted = new UserSettingsRepository(store);
+        assertEquals("Medium", restarted.getSettings(MiniApp.SPELLING_TIME).getDifficulty());
+        assertFalse(restarted.getSettings(MiniApp.STORY_TIME).isEnabled());
+    }
+
+    @Test
+    public void miniAppRegistry_resolvesFirebaseKeysAndPaths() {
+        for (MiniApp app : MiniApp.values()) {
+            assertSame(app, MiniApp.fromId(app.getId()));
+        }
+        assertSame(MiniApp.READING_PRACTICE, MiniApp.fromId("Reading Practice"));
+        assertNull(MiniApp.fromId("ReadingPractice"));
+        assertEquals("miniApps/Memory Match/enabled", MiniApp.MEMORY_MATCH.getEnabledPath());
+        assertEquals("miniApps/Number Fun/difficulty", MiniApp.NUMBER_FUN.getDifficultyPath());
+    }
+
+    @Test
+    public void parseMiniApps_skipsScalarsAndUnknownKeysAndFillsMissingFields() {
+        Map<String, Object> raw = new HashMap<>();
+        raw.put("parentEmail", "parent@example.com");
+        raw.put("MemoryMatch", app(false, "Hard"));
+        raw.put("Memory Match", app(null, null));
+
+        Map<MiniApp, MiniAppSettings> parsed = UserSnapshot.parseMiniApps(raw);
+
+        assertEquals(1, parsed.size());
+        assertTrue(parsed.get(MiniApp.MEMORY_MATCH).isEnabled());
+        assertEquals("Easy", parsed.get(MiniApp.MEMORY_MATCH).getDifficulty());
+        assertTrue(UserSnapshot.parseMiniApps(null).isEmpty());
+    }
+}
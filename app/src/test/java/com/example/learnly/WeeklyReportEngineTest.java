@@ -0,0 +1,125 @@
+package com.example.learnly;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Incremental aggregation and weekly reads of the report engine, fed events directly in UTC.
+ */
+public class WeeklyReportEngineTest {
+
+    private static final long DAY = 24L * 60 * 60 * 1000;
+    private static final long NOW = 20_000 * DAY + 12 * 60 * 60 * 1000; // midday UTC
+
+    private static final String UID = "child";
+    private static final int USER = SessionEventLog.userTag(UID);
+
+    private File dir;
+
+    @Before
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("weekly-report").toFile();
+    }
+
+    private WeeklyReportEngine open() throws Exception {
+        WeeklyReportEngine engine = new WeeklyReportEngine(dir, TimeZone.getTimeZone("UTC"));
+        assertTrue(engine.bindUser(UID));
+        return engine;
+    }
+
+    private static void answer(WeeklyReportEngine engine, long time, MiniApp app, boolean correct) {
+        engine.visit(0, time, SessionEventLog.TYPE_ANSWER, app.ordinal(),
+                correct ? SessionEventLog.FLAG_CORRECT : 0, 1000, 0, USER);
+    }
+
+    @Test
+    public void events_areAggregatedPerApp() throws Exception {
+        WeeklyReportEngine engine = open();
+        answer(engine, NOW, MiniApp.NUMBER_FUN, true);
+        answer(engine, NOW, MiniApp.NUMBER_FUN, true);
+        answer(engine, NOW - DAY, MiniApp.NUMBER_FUN, false);
+        engine.visit(0, NOW, SessionEventLog.TYPE_HINT, MiniApp.SPELLING_TIME.ordinal(), 0, 0, 0, USER);
+        engine.visit(0, NOW, SessionEventLog.TYPE_SESSION_END, MiniApp.SPELLING_TIME.ordinal(), 0, 90_000, 0, USER);
+        engine.visit(0, NOW, SessionEventLog.TYPE_SOLVE, MiniApp.SPELLING_TIME.ordinal(), 1, 5000, 3, USER);
+
+        WeeklyReport report = engine.buildReport(NOW);
+        WeeklyReport.AppTotals math = report.getTotals(MiniApp.NUMBER_FUN);
+        assertEquals(3, math.getAttempts());
+        assertEquals(2, math.getCorrect());
+        assertEquals(67, math.getAccuracyPercent());
+
+        WeeklyReport.AppTotals spelling = report.getTotals(MiniApp.SPELLING_TIME);
+        assertEquals(0, spelling.getAttempts());
+        assertEquals(-1, spelling.getAccuracyPercent());
+        assertEquals(1, spelling.getHints());
+        assertEquals(90, spelling.getSecondsOnTask());
+
+        assertEquals(90, report.getSecondsOnDay(6));
+        assertEquals(1, report.getActiveDays());
+        assertFalse(report.getTotals(MiniApp.STORY_TIME).hasActivity());
+        engine.unbindUser();
+    }
+
+    @Test
+    public void report_onlyCoversTheLastSevenDays() throws Exception {
+        WeeklyReportEngine engine = open();
+        answer(engine, NOW - 6 * DAY, MiniApp.MEMORY_MATCH, true);
+        answer(engine, NOW - 7 * DAY, MiniApp.MEMORY_MATCH, true);
+        answer(engine, NOW - 60 * DAY, MiniApp.MEMORY_MATCH, true);
+
+        assertEquals(1, engine.buildReport(NOW).getTotals(MiniApp.MEMORY_MATCH).getAttempts());
+        assertEquals(2, engine.buildReport(NOW - DAY).getTotals(MiniApp.MEMORY_MATCH).getAttempts());
+        engine.unbindUser();
+    }
+
+    @Test
+    public void slot_isReusedWhenTheRingWrapsAround() throws Exception {
+        WeeklyReportEngine engine = open();
+        long later = NOW + WeeklyReportEngine.RETAINED_DAYS * DAY;
+        answer(engine, NOW, MiniApp.READING_PRACTICE, true);
+        answer(engine, later, MiniApp.READING_PRACTICE, false);
+        // A late event for a day that has already been overwritten is dropped
+        answer(engine, NOW, MiniApp.READING_PRACTICE, true);
+
+        WeeklyReport.AppTotals totals = engine.buildReport(later).getTotals(MiniApp.READING_PRACTICE);
+        assertEquals(1, totals.getAttempts());
+        assertEquals(0, totals.getCorrect());
+        engine.unbindUser();
+    }
+
+    @Test
+    public void aggregates_surviveRestart() throws Exception {
+        WeeklyReportEngine engine = open();
+        answer(engine, NOW, MiniApp.NUMBER_FUN, true);
+        engine.unbindUser();
+
+        WeeklyReportEngine reopened = open();
+        assertEquals(1, reopened.buildReport(NOW).getTotals(MiniApp.NUMBER_FUN).getCorrect());
+        reopened.unbindUser();
+    }
+
+    @Test
+    public void eachUserHasTheirOwnAggregates() throws Exception {
+        WeeklyReportEngine engine = open();
+        answer(engine, NOW, MiniApp.NUMBER_FUN, true);
+
+        // The next child signs in while the first child's last events are still being written
+        assertTrue(engine.bindUser("sibling"));
+        answer(engine, NOW, MiniApp.NUMBER_FUN, true);
+        assertFalse(engine.buildReport(NOW).getOverall().hasActivity());
+
+        assertTrue(engine.bindUser(UID));
+        assertEquals(1, engine.buildReport(NOW).getTotals(MiniApp.NUMBER_FUN).getAttempts());
+
+        // Signed out: nothing is shown or counted
+        engine.unbindUser();
+        answer(engine, NOW, MiniApp.NUMBER_FUN, true);
+        assertFalse(engine.buildReport(NOW).getOverall().hasActivity());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * DAWG round trip through DictionaryWriter, distractor safety, and a check that the committed asset
+ * is current. Paths are relative to the app module directory, which is where Gradle runs unit tests.
+ */
+public class WordDictionaryTest {
+
+    private static WordDictionary read(DictionaryWriter writer) throws IOException {
+        return new WordDictionary(ByteBuffer.wrap(writer.toByteArray()));
+    }
+
+    private static List<String> wordList() throws IOException {
+        List<String> words = new ArrayList<>();
+        for (String line : Files.readAllLines(new File("content/dictionary.txt").toPath(), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty() && !line.startsWith("#")) words.add(line.trim());
+        }
+        return words;
+    }
+
+    // True if word can be spelled from the letters in bank (each used at most once)
+    private static boolean spellable(String word, String bank) {
+        int[] counts = new int[26];
+        for (char c : bank.toLowerCase().toCharArray()) counts[c - 'a']++;
+        for (char c : word.toCharArray()) {
+            if (--counts[c - 'a'] < 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean isAnagram(String a, String b) {
+        char[] x = a.toLowerCase().toCharArray();
+        char[] y = b.toLowerCase().toCharArray();
+        Arrays.sort(x);
+        Arrays.sort(y);
+        return Arrays.equals(x, y);
+    }
+
+    @Test
+    public void membershipAndPrefixes() throws Exception {
+        WordDictionary dictionary = read(new DictionaryWriter()
+                .add("cat").add("cats").add("car").add("dog").add("do"));
+
+        assertEquals(5, dictionary.getWordCount());
+        assertTrue(dictionary.contains("cat"));
+        assertTrue(dictionary.contains("CATS"));
+        assertTrue(dictionary.contains("do"));
+        assertFalse(dictionary.contains("ca"));
+        assertFalse(dictionary.contains("cow"));
+        assertFalse(dictionary.contains("d0g"));
+        assertFalse(dictionary.contains(""));
+
+        assertTrue(dictionary.hasPrefix("ca"));
+        assertTrue(dictionary.hasPrefix("Dog"));
+        assertFalse(dictionary.hasPrefix("dogs"));
+        assertFalse(dictionary.hasPrefix("x"));
+    }
+
+    @Test
+    public void sharedSuffixes_areStoredOnce() throws Exception {
+        byte[] one = new DictionaryWriter().add("jumping").toByteArray();
+        byte[] two = new DictionaryWriter().add("jumping").add("bumping").toByteArray();
+
+        // "bumping" only adds its first letter to the root; the rest is shared with "jumping"
+        assertEquals(one.length + 4, two.length);
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownFormatVersion_isRejected() throws Exception {
+        byte[] bytes = new DictionaryWriter().add("cat").toByteArray();
+        bytes[7] = 99;
+        new WordDictionary(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void distractors_neverCompleteAnotherWord() throws Exception {
+        List<String> words = wordList();
+        WordDictionary dictionary = read(new DictionaryWriter().addLines(words));
+        Random rng = new Random(11);
+        char[] extras = new char[4];
+
+        for (String target : new String[]{"CAT", "SUN", "FROG", "TREE", "APPLE", "HOUSE", "TEA"}) {
+            for (int round = 0; round < 20; round++) {
+                int count = dictionary.pickDistractors(target, extras.length, rng, extras);
+                assertTrue(count > 0);
+                String bank = target + new String(extras, 0, count);
+                for (int i = 0; i < count; i++) {
+                    assertEquals(-1, target.indexOf(extras[i]));
+                }
+                for (String word : words) {
+                    if (word.length() == target.length() && !isAnagram(word, target)) {
+                        assertFalse(target + " + " + bank + " spells " + word, spellable(word, bank));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void committedDictionary_matchesWordList() throws Exception {
+        DictionaryWriter writer = new DictionaryWriter().addLines(wordList());
+        byte[] expected = writer.toByteArray();
+        byte[] committed = Files.readAllBytes(new File("src/main/assets/" + WordDictionary.ASSET_NAME).toPath());
+
+        assertTrue("dictionary.dawg is stale, regenerate it with DictionaryWriter", Arrays.equals(expected, committed));
+        assertTrue(writer.getWordCount() >= 2000);
+        assertTrue("dictionary.dawg should stay small", committed.length < 300 * 1024);
+
+        WordDictionary dictionary = new WordDictionary(ByteBuffer.wrap(committed));
+        for (String word : wordList()) {
+            assertTrue(word, dictionary.contains(word));
+        }
+        // Every spelling word is in the dictionary
+        ContentPack pack = new ContentPack(ByteBuffer.wrap(
+                Files.readAllBytes(new File("src/main/assets/" + ContentPack.ASSET_NAME).toPath())));
+        for (int tier = 0; tier < 3; tier++) {
+            int count = pack.count(ContentPack.GAME_SPELLING, tier, ContentPack.ANY_LENGTH);
+            for (int n = 0; n < count; n++) {
+                String word = pack.word(pack.entry(ContentPack.GAME_SPELLING, tier, ContentPack.ANY_LENGTH, n));
+                assertTrue(word, dictionary.contains(word));
+            }
+        }
+    }
+
+    @Test
+    public void lookups_areSubMicrosecond() throws Exception {
+        WordDictionary dictionary = read(new DictionaryWriter().addLines(wordList()));
+        String[] probes = {"cat", "elephant", "zebra", "qqq", "sunflower", "mouse", "xylophone", "happy"};
+        int hits = 0;
+        for (int i = 0; i < 200_000; i++) {
+            if (dictionary.contains(probes[i % probes.length])) hits++;
+        }
+        int rounds = 1_000_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            if (dictionary.contains(probes[i % probes.length])) hits++;
+        }
+        double nanos = (double) (System.nanoTime() - start) / rounds;
+        assertTrue(hits > 0);
+        // Typically well under 100 ns; the bound only trips on a real regression
+        assertTrue("lookup took " + nanos + " ns", nanos < 5_000);
+    }
+}
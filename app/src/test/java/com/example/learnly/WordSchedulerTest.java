@@ -0,0 +1,211 @@
+package com.example.learnly;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Ordering, grading and persistence of the spaced-repetition word scheduler.
+ */
+public class WordSchedulerTest {
+
+    private static final long NOW = 1_700_000_040_000L; // whole minute, as stored
+
+    // A pool of n words "W0".."Wn-1" whose entry ids are 100 + index
+    private static WordScheduler.PoolSource pool(final int n) {
+        return new WordScheduler.PoolSource() {
+            @Override
+            public int size() {
+                return n;
+            }
+
+            @Override
+            public int entry(int i) {
+                return 100 + i;
+            }
+
+            @Override
+            public String word(int entry) {
+                return "W" + (entry - 100);
+            }
+        };
+    }
+
+    private static WordScheduler scheduler(int poolSize) {
+        WordScheduler scheduler = new WordScheduler(new Random(1));
+        scheduler.ensurePool(ContentPack.GAME_SPELLING, 0, pool(poolSize), NOW);
+        return scheduler;
+    }
+
+    @Test
+    public void newWords_allComeUpOnceBeforeAnyRepeat() {
+        WordScheduler scheduler = scheduler(20);
+        Set<String> seen = new HashSet<>();
+        long now = NOW;
+        for (int i = 0; i < 20; i++) {
+            WordScheduler.Item item = scheduler.next(ContentPack.GAME_SPELLING, 0);
+            assertTrue("repeated " + item.getWord(), seen.add(item.getWord()));
+            assertEquals(100 + Integer.parseInt(item.getWord().substring(1)), item.getEntry());
+            scheduler.grade(item, WordScheduler.GRADE_EASY, now);
+            now += 10_000;
+        }
+    }
+
+    @Test
+    public void previousWord_neverComesStraightBack() {
+        WordScheduler scheduler = scheduler(2);
+        WordScheduler.Item previous = scheduler.next(ContentPack.GAME_SPELLING, 0);
+        for (int i = 0; i < 50; i++) {
+            // Same order as the games: take the next word, then hand the previous one back
+            WordScheduler.Item current = scheduler.next(ContentPack.GAME_SPELLING, 0);
+            assertNotSame(previous, current);
+            scheduler.grade(previous, i % 2 == 0 ? WordScheduler.GRADE_AGAIN : WordScheduler.GRADE_EASY, NOW + i);
+            previous = current;
+        }
+    }
+
+    @Test
+    public void take_removesThatWordFromTheQueue() {
+        WordScheduler scheduler = scheduler(3);
+        WordScheduler.Item taken = scheduler.take(ContentPack.GAME_SPELLING, 0, 101);
+        assertEquals("W1", taken.getWord());
+        assertNull(scheduler.take(ContentPack.GAME_SPELLING, 0, 101));
+        assertNotSame(taken, scheduler.next(ContentPack.GAME_SPELLING, 0));
+        assertNotSame(taken, scheduler.next(ContentPack.GAME_SPELLING, 0));
+        assertNull(scheduler.next(ContentPack.GAME_SPELLING, 0));
+
+        scheduler.skip(taken);
+        assertSame(taken, scheduler.next(ContentPack.GAME_SPELLING, 0));
+    }
+
+    @Test
+    public void missedWord_returnsSoonAndKnownWordWaits() {
+        WordScheduler scheduler = scheduler(30);
+        WordScheduler.Item missed = scheduler.next(ContentPack.GAME_SPELLING, 0);
+        scheduler.grade(missed, WordScheduler.GRADE_AGAIN, NOW);
+        WordScheduler.Item known = scheduler.next(ContentPack.GAME_SPELLING, 0);
+        scheduler.grade(known, WordScheduler.GRADE_EASY, NOW);
+
+        assertEquals(NOW + WordScheduler.RELEARN_MS, missed.getDueMs());
+        assertEquals(NOW + WordScheduler.DAY_MS, known.getDueMs());
+
+        // Ten minutes on, the missed word is back within the next few words; the known one is not
+        boolean sawMissed = false;
+        for (int i = 0; i < 8; i++) {
+            WordScheduler.Item item = scheduler.next(ContentPack.GAME_SPELLING, 0);
+            assertNotSame(known, item);
+            if (item == missed) sawMissed = true;
+            scheduler.grade(item, WordScheduler.GRADE_EASY, NOW + 10 * WordScheduler.MINUTE_MS);
+        }
+        assertTrue(sawMissed);
+    }
+
+    @Test
+    public void intervals_growWithEachSuccess() {
+        WordScheduler scheduler = scheduler(1);
+        long now = NOW;
+        long lastInterval = 0;
+        for (int i = 0; i < 5; i++) {
+            WordScheduler.Item item = scheduler.next(ContentPack.GAME_SPELLING, 0);
+            scheduler.grade(item, WordScheduler.GRADE_GOOD, now);
+            long interval = item.getDueMs() - now;
+            assertTrue(interval > lastInterval);
+            lastInterval = interval;
+            now = item.getDueMs();
+        }
+        assertEquals(5, scheduler.next(ContentPack.GAME_SPELLING, 0).getRepetitions());
+    }
+
+    @Test
+    public void encodeAndMerge_keepTheMostRecentReview() throws Exception {
+        WordScheduler a = scheduler(5);
+        WordScheduler.Item item = a.next(ContentPack.GAME_SPELLING, 0);
+        a.grade(item, WordScheduler.GRADE_EASY, NOW);
+        assertTrue(a.isDirty());
+        byte[] data = a.encode(NOW);
+        assertFalse(a.isDirty());
+        assertTrue("only reviewed words are stored", data.length < 64);
+
+        // Another device reviewed the same word later and missed it
+        WordScheduler b = scheduler(5);
+        b.merge(data);
+        WordScheduler.Item first = b.next(ContentPack.GAME_SPELLING, 0);
+        assertNotEquals(item.getWord(), first.getWord()); // merged word is due tomorrow, not first
+        b.skip(first);
+        WordScheduler.Item sameWord = null;
+        for (int i = 0; i < 5; i++) {
+            WordScheduler.Item next = b.next(ContentPack.GAME_SPELLING, 0);
+            if (next.getWord().equals(item.getWord())) sameWord = next;
+            else b.grade(next, WordScheduler.GRADE_EASY, NOW);
+        }
+        assertNotNull(sameWord);
+        b.grade(sameWord, WordScheduler.GRADE_AGAIN, NOW + WordScheduler.DAY_MS);
+
+        a.merge(b.encode(NOW + WordScheduler.DAY_MS));
+        assertEquals(NOW + WordScheduler.DAY_MS + WordScheduler.RELEARN_MS, item.getDueMs());
+        assertEquals(0, item.getRepetitions());
+
+        // The older copy does not overwrite the newer one
+        b.merge(data);
+        assertEquals(NOW + WordScheduler.DAY_MS + WordScheduler.RELEARN_MS, sameWord.getDueMs());
+    }
+
+    @Test
+    public void combine_keepsTheLaterReviewOfEachWord() throws Exception {
+        // Tablet A reviewed W0 today; tablet B reviewed W0 tomorrow and W1 today
+        WordScheduler a = scheduler(2);
+        WordScheduler b = scheduler(2);
+        WordScheduler.Item aFirst = a.next(ContentPack.GAME_SPELLING, 0);
+        a.grade(aFirst, WordScheduler.GRADE_EASY, NOW);
+        WordScheduler.Item bFirst = b.next(ContentPack.GAME_SPELLING, 0);
+        WordScheduler.Item bSecond = b.next(ContentPack.GAME_SPELLING, 0);
+        WordScheduler.Item bSame = bFirst.getWord().equals(aFirst.getWord()) ? bFirst : bSecond;
+        WordScheduler.Item bOther = (bSame == bFirst) ? bSecond : bFirst;
+        b.grade(bSame, WordScheduler.GRADE_AGAIN, NOW + WordScheduler.DAY_MS);
+        b.grade(bOther, WordScheduler.GRADE_EASY, NOW);
+
+        byte[] combined = WordScheduler.combine(b.encode(NOW + WordScheduler.DAY_MS), a.encode(NOW),
+                NOW + WordScheduler.DAY_MS);
+
+        // A sees B's later miss and B's other word; its own older review is overwritten
+        WordScheduler c = scheduler(2);
+        c.merge(combined);
+        WordScheduler.Item first = c.next(ContentPack.GAME_SPELLING, 0);
+        WordScheduler.Item second = c.next(ContentPack.GAME_SPELLING, 0);
+        WordScheduler.Item same = first.getWord().equals(aFirst.getWord()) ? first : second;
+        assertEquals(NOW + WordScheduler.DAY_MS + WordScheduler.RELEARN_MS, same.getDueMs());
+        assertEquals(0, same.getRepetitions());
+        WordScheduler.Item other = (same == first) ? second : first;
+        assertEquals(bOther.getDueMs(), other.getDueMs());
+    }
+
+    @Test
+    public void largePool_nextAndGradeStayFast() {
+        WordScheduler scheduler = scheduler(5000);
+        long now = NOW;
+        for (int i = 0; i < 20_000; i++) {
+            WordScheduler.Item item = scheduler.next(ContentPack.GAME_SPELLING, 0);
+            scheduler.grade(item, i % 3 == 0 ? WordScheduler.GRADE_AGAIN : WordScheduler.GRADE_GOOD, now);
+            now += 1000;
+        }
+        long start = System.nanoTime();
+        int rounds = 100_000;
+        for (int i = 0; i < rounds; i++) {
+            WordScheduler.Item item = scheduler.next(ContentPack.GAME_SPELLING, 0);
+            scheduler.grade(item, WordScheduler.GRADE_GOOD, now);
+            now += 1000;
+        }
+        double nanos = (double) (System.nanoTime() - start) / rounds;
+        // Around a microsecond on a desktop JVM; the bound only trips on a real regression
+        assertTrue("next + grade took " + nanos + " ns", nanos < 50_000);
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void malformedData_isRejected() throws Exception {
+        new WordScheduler(new Random(1)).merge(new byte[]{1, 2, 3});
+    }
+}